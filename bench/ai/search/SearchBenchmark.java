@@ -0,0 +1,82 @@
+package ai.search;
+
+import benchmark.Positions;
+import model.rules.FagBitboard;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures an iterative deepening search of a fixed depth, with and without
+ * the quiescence search at the leaves (see AlphaBetaSearch.quiesce).
+ *
+ * <p>
+ * Besides the time, the counters of the last search of an iteration are
+ * reported per position: its nodes, the part of them searched by the
+ * quiescence search, and its stability (the best move changes and the mean
+ * score change between two iterations, see IterativeDeepening).
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    public final static int DEPTH = 9;
+
+    @Param({Positions.INITIAL, Positions.OPENING, Positions.CHAINS, Positions.ENDGAME})
+    public String position;
+
+    @Param({"0", "4"})
+    public int quiescence;
+
+    private FagBitboard        board;
+    private SearchLimits       limits;
+    private IterativeDeepening search;
+
+    /**
+     * The counters of the last search, reported along with the time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long   nodes;
+        public long   quiescenceNodes;
+        public int    bestMoveChanges;
+        public double meanScoreChange;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        board  = Positions.get(position);
+        limits = SearchLimits.depth(DEPTH).withQuiescenceDepth(quiescence);
+        search = new IterativeDeepening(new TranspositionTable(16));
+    }
+
+    @Benchmark
+    public SearchResult iterativeDeepening(Counters counters) {
+        // Each search starts from an empty table, as the first search of a game
+        search.getSearch().transpositionTable.clear();
+        SearchResult result = search.search(board, limits);
+        counters.nodes           = result.getNodes();
+        counters.quiescenceNodes = search.getSearch().getQuiescenceNodes();
+        counters.bestMoveChanges = search.getBestMoveChanges();
+        counters.meanScoreChange = search.getMeanScoreChange();
+        return result;
+    }
+}
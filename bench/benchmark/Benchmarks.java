@@ -0,0 +1,39 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the game, with the allocation profiler, so that
+ * every optimization comes with the time and the bytes of an operation
+ * (gc.alloc.rate.norm) before and after.
+ *
+ * <p>
+ * Usage: java benchmark.Benchmarks [REGEXP]
+ * </p>
+ * <ul>
+ *   <li>REGEXP selects the benchmarks (e.g. "FagBoard", "FagDecider.foxAi0"),
+ *       all of them by default.</li>
+ *   <li>The results are also written in CSV to bench_output.txt.</li>
+ * </ul>
+ * The classes of the benchmarks are generated by the annotation processor of
+ * JMH (jmh-generator-annprocess), which must be on the classpath of javac.
+ */
+public class Benchmarks {
+
+    public final static String RESULT_FILE = "bench_output.txt";
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include((args.length > 0) ? args[0] : ".*Benchmark.*")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.CSV)
+                .result(RESULT_FILE)
+                .build();
+        new Runner(options).run();
+    }
+}
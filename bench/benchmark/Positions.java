@@ -0,0 +1,55 @@
+package benchmark;
+
+import ai.search.Perft;
+import gamifier.model.Model;
+import model.FagStageFactory;
+import model.FagStageModel;
+import model.rules.FagBitboard;
+
+/**
+ * The positions measured by the benchmarks, taken from the reference
+ * positions of Perft (see perft.txt).
+ */
+public final class Positions {
+
+    // The names to be used in the @Param of the benchmarks
+    public final static String INITIAL = "initial";
+    public final static String OPENING = "opening";
+    public final static String CHAINS  = "chains";
+    public final static String ENDGAME = "endgame";
+
+    private Positions() {
+    }
+
+    /**
+     * Returns a position from its name.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    public static FagBitboard get(String name) {
+        switch (name) {
+            case INITIAL: return Perft.parse("GGGGGGGGGGGGG...............F.... f");
+            case OPENING: return Perft.parse("GGGGGG.GGGGG..G...G.........F.... f");
+            case CHAINS:  return Perft.parse("....G..G.G.G...GFG....G.G...G.... f");
+            case ENDGAME: return Perft.parse("GGGGFG..G.G.....G................ f");
+            default:
+                throw new IllegalArgumentException("Unknown position " + name);
+        }
+    }
+
+    /**
+     * Creates the stage of a game, set up as in the application, then with
+     * the pawns moved to a position.
+     * @param name The name of the position.
+     * @return The stage, whose board holds the position.
+     */
+    public static FagStageModel createStage(String name) {
+        Model model = new Model();
+        model.addComputerPlayer("Ai-0");
+        model.addComputerPlayer("Ai-1");
+        FagStageModel stage = new FagStageModel("fag", model);
+        model.setGameStage(stage);
+        new FagStageFactory(stage).setup();
+        stage.getBoard().applyBitboard(get(name));
+        return stage;
+    }
+}
@@ -0,0 +1,95 @@
+package control;
+
+import benchmark.Positions;
+import gamifier.control.Controller;
+import gamifier.model.GameElement;
+import gamifier.model.Model;
+import gamifier.model.action.ActionList;
+import gamifier.view.ElementLook;
+import model.FagBoard;
+import model.FagStageModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import view.FagBoardLook;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a decision of the AIs GeeseAi1 and FoxAi0 of FagDecider, from
+ * the board to the list of actions (with the DEBUG traces, which are part
+ * of the cost of a decision, but printed to nowhere).
+ *
+ * <p>
+ * The board is not changed by a decision, the actions are not played.
+ * The look of the board is created to compute the destination of the
+ * animations: it needs the JavaFX toolkit, not a screen (-Dprism.order=sw).
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dprism.order=sw")
+public class FagDeciderBenchmark {
+
+    @Param({Positions.INITIAL, Positions.OPENING, Positions.CHAINS, Positions.ENDGAME})
+    public String position;
+
+    private FagBoard    board;
+    private FagDecider  decider;
+    private PrintStream out;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FagStageModel stage = Positions.createStage(position);
+        Model         model = stage.getModel();
+        board = stage.getBoard();
+        FagBoardLook  look  = new FagBoardLook(700, board);
+        // The controller only gives the look of the board to the decider
+        Controller control = new Controller(model, null) {
+            @Override
+            public ElementLook getElementLook(GameElement element) {
+                return (element == board) ? look : null;
+            }
+        };
+        decider = new FagDecider(model, control);
+        ControllerFag.generator = new Random(1);
+
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public ActionList geeseAi1() {
+        ActionList actions = new ActionList(true);
+        decider.GeeseAi1(board, actions);
+        return actions;
+    }
+
+    @Benchmark
+    public ActionList foxAi0() {
+        ActionList actions = new ActionList(true);
+        decider.FoxAi0(board, actions);
+        return actions;
+    }
+}
@@ -0,0 +1,61 @@
+package gamifier.model.animation;
+
+import gamifier.model.Model;
+import javafx.geometry.Point2D;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of the steps of the animation of a move, as done by
+ * MoveAction for the moves of the AIs (see FagDecider.createMoveAction).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinearMoveAnimationBenchmark {
+
+    // The number of cells crossed by the move (1 for a step, 2 per jump),
+    //  along a diagonal of the board
+    @Param({"1", "2", "6"})
+    public int cells;
+
+    // The speed of the pawns, in pixels per frame (see FagDecider)
+    private final static double SPEED = 10;
+    private final static double CELL_SIZE = 97;
+
+    private Model   model;
+    private Point2D start;
+    private Point2D end;
+    private int     type;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        model = new Model();
+        start = new Point2D(60, 60);
+        end   = new Point2D(60 + cells * CELL_SIZE, 60 + cells * CELL_SIZE);
+        type  = AnimationTypes.MOVELINEARPROP_VALUE;
+    }
+
+    @Benchmark
+    public Animation computeSteps() {
+        // The steps are appended to the animation: one animation per move
+        LinearMoveAnimation animation = new LinearMoveAnimation(model, start, end, type, SPEED);
+        animation.computeSteps();
+        return animation;
+    }
+}
@@ -0,0 +1,91 @@
+package model;
+
+import benchmark.Positions;
+import gamifier.model.GameElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the queries of the rules on the JavaFX board (FagBoard), which
+ * are called by the AIs #0 and #1 and by the selection of a pawn.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FagBoardBenchmark {
+
+    @Param({Positions.INITIAL, Positions.OPENING, Positions.CHAINS, Positions.ENDGAME})
+    public String position;
+
+    private FagBoard      board;
+    private FagBoard.Cell fox;
+    private FagBoard.Cell jump;
+    private GameElement   foxPawn;
+    private GameElement   lastGoose;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FagStageModel stage = Positions.createStage(position);
+        board = stage.getBoard();
+        fox   = board.getFoxLocation();
+        // The farthest landing point of the fox, if any, for getEatableGeese
+        List<FagBoard.Cell> jumps = board.reachableForJump(fox);
+        jump = jumps.isEmpty() ? fox : jumps.get(jumps.size() - 1);
+        foxPawn = stage.getFox();
+        // The last goose of the grid is the worst case of the scan of getElementCell
+        List<FagBoard.Cell> geese = board.getGeeseLocations();
+        FagBoard.Cell last = geese.get(geese.size() - 1);
+        lastGoose = board.getElement(last.row, last.col);
+    }
+
+    @Benchmark
+    public List<FagBoard.Cell> reachableForFox() {
+        return board.reachableForFox(fox.row, fox.col);
+    }
+
+    @Benchmark
+    public List<FagBoard.Cell> reachableForJump() {
+        return board.reachableForJump(fox);
+    }
+
+    @Benchmark
+    public List<FagBoard.Cell> getEatableGeese() {
+        return board.getEatableGeese(fox, jump);
+    }
+
+    @Benchmark
+    public List<FagBoard.Cell> getMovableGeese() {
+        return board.getMovableGeese();
+    }
+
+    @Benchmark
+    public List<FagBoard.Cell> getGeeseAtRisk() {
+        return board.getGeeseAtRisk(fox);
+    }
+
+    @Benchmark
+    public int[] getElementCellOfFox() {
+        return board.getElementCell(foxPawn);
+    }
+
+    @Benchmark
+    public int[] getElementCellOfGoose() {
+        return board.getElementCell(lastGoose);
+    }
+}
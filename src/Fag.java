@@ -1,13 +1,32 @@
+import ai.player.BatchRunner;
+import ai.player.BatchStatistics;
+import ai.player.FagPlayer;
+import ai.player.GameRunner;
+import ai.record.GameRecordReader;
+import ai.record.GameRecordWriter;
+import ai.record.GameReplay;
+import ai.search.SearchLimits;
+import ai.tournament.Participant;
+import ai.tournament.Sprt;
+import ai.tournament.Tournament;
+import ai.tuning.TrainingData;
 import control.ControllerFag;
+import control.FagDecider;
 import gamifier.control.StageFactory;
 import gamifier.view.PaneView;
 import gamifier.view.SimpleTextView;
 import gamifier.model.Model;
 import javafx.application.Application;
 import javafx.stage.Stage;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
 import view.BasicView;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Random;
 
 
@@ -24,7 +43,8 @@ public class Fag extends Application {
         Single,         // Single: HUMAN against COMPUTER
         DoubleHuman,    // Double: HUMAN against HUMAN
         DoubleComputer, // Double: COMPUTER against COMPUTER (once)
-        DoubleProfiler  // Double: COMPUTER against COMPUTER (loop times)
+        DoubleProfiler, // Double: COMPUTER against COMPUTER (loop times)
+        Tournament      // Several COMPUTERS against each other (loop times per pairing)
     }
 
     static Game   gamingMode = Game.Single;
@@ -38,6 +58,26 @@ public class Fag extends Application {
     static int     algo1 = -1;  // The algorithm strength of computer #1
     static int     algo2 = -1;  // The algorithm strength of computer #2
     static int     loop  =  1;
+    static int     depth    = -1; // The maximal search depth of the computers (in plies)
+    static long    moveTime = -1; // The thinking time of the computers (in ms)
+    static int     threads  =  1; // The number of search threads of the computers
+    static int     quiescence = SearchLimits.QUIESCENCE_DEPTH; // The quiescence depth of the computers (in plies)
+    static String  tablebase = "tablebases"; // The directory of the endgame tablebases
+    static String  weights = "evaluation.properties"; // The file of the weights of the evaluation
+    static String  book    = "opening.book"; // The file of the opening book
+    static boolean ponder  = true;    // Whether the computer thinks on the time of the human
+    static Tournament.Format format = Tournament.Format.ROUND_ROBIN; // The pairings of a tournament
+    static String  levels = "0,1,2";  // The AI levels of the participants of a tournament
+    static int     concurrency = Runtime.getRuntime().availableProcessors(); // The threads of a tournament
+    static String  results = "";      // The file of the results of a tournament
+    static String  sprt    = "";      // The SPRT of a tournament: "elo0,elo1"
+    static String  record  = "";      // The file where the positions of the games are appended
+    static String  games   = "";      // The file where the moves of the games are appended
+    static String  replay  = "";      // The file of the replayed game
+    static int     index   = 1;       // The number of the replayed game in its file (the first being 1)
+    static int     ply     = 0;       // The first animated ply of the replayed game
+    static long    plyTime = 1000;    // The time of an animated ply of the replayed game (in ms)
+    static GameReplay replayed = null;
 
 
     /**
@@ -48,11 +88,44 @@ public class Fag extends Application {
      *             -n2 or --name2 <NameOfPlayer2> The name of player #2.
      *             -t1 or --team1 <Fox|Geese>     The team of player #1.
      *             -t2 or --team2 <Fox|Geese>     The team of player #2.
-     *             -a1 or --algo1 <0|1|2>         The algorithm strength of computer #1
-     *             -a2 or --algo2 <0|1|2>         The algorithm strength of computer #2
+     *             -a1 or --algo1 <0|1|2|...>     The algorithm strength of computer #1
+     *             -a2 or --algo2 <0|1|2|...>     The algorithm strength of computer #2
+     *                 (2 and above: alpha-beta search of 2 plies per level)
+     *                 (10 and 11: Monte Carlo tree search with random or heuristic playouts)
      *                 (if specified, sets the DOUBLE_C mode and forces loop=1)
+     *             -d or --depth <INT> The maximal search depth of the computers (in plies)
+     *                 (2 and above only, overrides the depth of the level)
+     *             --movetime <LONG> The thinking time of the computers per move (in ms)
+     *                 (2 and above only, the search deepens until the time is spent)
+     *             --threads <INT> The number of search threads of the computers
+     *                 (2 and above only, 1 keeps the games reproducible with a seed)
+     *             --quiescence <INT> The depth of the search of the captures beyond the depth
+     *                 (alpha-beta search only, 0 evaluates the leaves as they are)
+     *             --tablebase <DIR> The directory of the endgame tablebases
+     *                 (2 and above only, see ai.tablebase.TablebaseGenerator)
+     *             --book <FILE> The file of the opening book
+     *                 (alpha-beta search only, see ai.book.OpeningBookBuilder)
+     *             --weights <FILE> The file of the weights of the evaluation
+     *                 (alpha-beta search only, see ai.search.EvaluationWeights)
+     *             --ponder <on|off> Whether the computer thinks while the human is to play
+     *                 (Single mode and alpha-beta search only, on by default)
      *             -l or --loop <LONG> The number of games to play
-     *                 (if specified, sets the PROFILER  mode)
+     *                 (if specified, sets the PROFILER  mode: the games are
+     *                 played without any graphical view, see runLoop)
+     *                 (in a tournament: the number of games per pairing)
+     *             --tournament <RoundRobin|Gauntlet> Plays a tournament (see runTournament)
+     *             --levels <INT,INT,...> The AI levels of the participants of a tournament
+     *             --concurrency <INT> The number of games played at once in a tournament
+     *             --results <FILE> The file where the results of a tournament are appended
+     *             --sprt <ELO0,ELO1> Stops a pairing once a SPRT decides between ELO0 and ELO1
+     *             --record <FILE> The file where the positions of the games of a loop are appended
+     *                 (see ai.tuning.TrainingData, to tune the evaluation with ai.tuning.TexelTuner)
+     *             --games <FILE> The file where the moves of the games are appended
+     *                 (in all the modes, see ai.record.GameRecordWriter)
+     *             --replay <FILE> Replays a game of a file of games on the board
+     *             --index <INT> The game to replay (the first game of the file being 1)
+     *             --ply <INT> The first ply to animate, the earlier ones being played at once
+     *             --plytime <LONG> The time of an animated ply (in ms)
      *             -s or --seed <LONG> The seed of the random generator
      *                 (0 is currently reserved to force a specific scenario)
      */
@@ -61,10 +134,145 @@ public class Fag extends Application {
         // PARSE ARGUMENTS
         parseCommandLineArguments(args);
 
+        // PROFILER -> PLAY THE GAMES WITHOUT ANY GRAPHICAL VIEW
+        //  (a replayed game is always shown)
+        if ((gamingMode == Game.DoubleProfiler) && (replayed == null)) {
+            runLoop();
+            return;
+        }
+        if ((gamingMode == Game.Tournament) && (replayed == null)) {
+            runTournament();
+            return;
+        }
+
         // HERE WE GO -> LAUNCH THE APPLICATION
         launch(args);
     }
 
+    /**
+     * Plays 'loop' games between computer #1 (Fox) and computer #2 (Geese)
+     *  through the rules of the game, without the JavaFX application nor any
+     *  animation, then prints the results of the batch.
+     *  Note: Each computer owns a random generator seeded by the central one,
+     *  so that a batch can be replayed with the same seed.
+     */
+    static void runLoop() {
+        FagDecider.setSearchLimits(depth, moveTime);
+        FagDecider.setQuiescenceDepth(quiescence);
+        FagDecider.setSearchThreads(threads);
+        FagDecider.setTablebaseDirectory(tablebase);
+        FagDecider.setEvaluationWeightsFile(weights);
+        FagDecider.setOpeningBookFile(book);
+        FagPlayer foxPlayer   = FagDecider.createPlayer(FagRules.FOX_TEAM, algo1, new Random(generator.nextLong()));
+        FagPlayer geesePlayer = FagDecider.createPlayer(FagRules.GEESE_TEAM, algo2, new Random(generator.nextLong()));
+        if ((foxPlayer == null) || (geesePlayer == null)) {
+            System.exit(1);
+        }
+
+        System.out.println("PROFILER: " + loop + " game(s) of " + name1 + " (Fox) against " + name2 + " (Geese)");
+        BatchRunner runner = new BatchRunner(new GameRunner(foxPlayer, geesePlayer));
+        TrainingData.Recorder recorder = null;
+        if (!record.isEmpty()) {
+            try {
+                recorder = new TrainingData.Recorder(new File(record));
+                runner.setGameListener(recorder);
+            }
+            catch (IOException e) {
+                System.out.println("WARNING: Cannot record the games: " + e.getMessage());
+            }
+        }
+        GameRecordWriter gameRecorder = openGameRecorder();
+        if (gameRecorder != null) {
+            gameRecorder.setPlayers(seed, name1, algo1, name2, algo2);
+            runner.setGameListener((recorder != null) ? recorder.andThen(gameRecorder) : gameRecorder);
+        }
+        BatchStatistics statistics = runner.run(loop);
+        System.out.println(statistics);
+        closeGameRecorder(gameRecorder);
+        if (recorder != null) {
+            try {
+                recorder.close();
+                System.out.println("Recorded " + recorder.getPositions() + " positions in " + record);
+            }
+            catch (IOException e) {
+                System.out.println("WARNING: Cannot record the games: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Plays a tournament between the AI levels given by --levels, without any
+     *  graphical view, then prints the standings.
+     *  Note: The seed of the tournament is drawn from the central random
+     *  generator, and each game derives its own seed from it (see
+     *  Tournament.getGameSeed).
+     */
+    static void runTournament() {
+        FagDecider.setSearchLimits(depth, moveTime);
+        FagDecider.setQuiescenceDepth(quiescence);
+        FagDecider.setSearchThreads(threads);
+        FagDecider.setTablebaseDirectory(tablebase);
+        FagDecider.setEvaluationWeightsFile(weights);
+        FagDecider.setOpeningBookFile(book);
+        List<Participant> participants = new ArrayList<>();
+        for (String level : levels.split(",")) {
+            int algo = Integer.parseInt(level.trim());
+            participants.add(new Participant("Ai-" + algo, algo, (team, random) -> FagDecider.createPlayer(team, algo, random)));
+        }
+        Sprt test = null;
+        if (!sprt.isEmpty()) {
+            String[] bounds = sprt.split(",");
+            test = new Sprt(Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1]), 0.05, 0.05);
+            System.out.println("Setting the " + test);
+        }
+        Tournament tournament = new Tournament(participants, format, loop, test, generator.nextLong());
+        tournament.setThreads(concurrency);
+        if (!results.isEmpty()) {
+            tournament.setResultsFile(new File(results));
+        }
+        GameRecordWriter gameRecorder = openGameRecorder();
+        tournament.setGameRecorder(gameRecorder);
+        try {
+            tournament.run();
+        }
+        catch (Exception e) {
+            System.out.println("ERROR: The tournament failed: " + e.getMessage());
+            System.exit(1);
+        }
+        closeGameRecorder(gameRecorder);
+        System.out.println(tournament);
+    }
+
+    /**
+     * Opens the file given by --games, where the moves of the games are appended.
+     * @return The writer of the file, or null if none.
+     */
+    static GameRecordWriter openGameRecorder() {
+        if (games.isEmpty()) {
+            return null;
+        }
+        try {
+            return new GameRecordWriter(new File(games));
+        }
+        catch (IOException e) {
+            System.out.println("WARNING: Cannot record the games: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static void closeGameRecorder(GameRecordWriter gameRecorder) {
+        if (gameRecorder == null) {
+            return;
+        }
+        try {
+            gameRecorder.close();
+            System.out.println("Recorded " + gameRecorder.getNrGames() + " games in " + games);
+        }
+        catch (IOException e) {
+            System.out.println("WARNING: Cannot record the games: " + e.getMessage());
+        }
+    }
+
     /**
      * Parse the parameters passed to main
      *  (see the '@param args' of main for a description ot the arguments)
@@ -155,12 +363,149 @@ public class Fag extends Application {
                 l++;
                 algo2 = Integer.parseInt(args[l]);
             }
+            else if ((args[l].equals("-d")) || (args[l].equals("--depth"))) {
+                l++;
+                depth = Integer.parseInt(args[l]);
+                if (depth <= 0) {
+                    System.out.println("ERROR: The search depth must be positive.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--movetime")) {
+                l++;
+                moveTime = Long.parseLong(args[l]);
+                if (moveTime <= 0) {
+                    System.out.println("ERROR: The thinking time must be positive.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--threads")) {
+                l++;
+                threads = Integer.parseInt(args[l]);
+                if (threads <= 0) {
+                    System.out.println("ERROR: The number of threads must be positive.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--quiescence")) {
+                l++;
+                quiescence = Integer.parseInt(args[l]);
+                if (quiescence < 0) {
+                    System.out.println("ERROR: The quiescence depth must be positive or zero.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--tablebase")) {
+                l++;
+                tablebase = args[l];
+            }
+            else if (args[l].equals("--book")) {
+                l++;
+                book = args[l];
+            }
+            else if (args[l].equals("--weights")) {
+                l++;
+                weights = args[l];
+            }
+            else if (args[l].equals("--ponder")) {
+                l++;
+                if (args[l].equals("on")) {
+                    ponder = true;
+                } else if (args[l].equals("off")) {
+                    ponder = false;
+                } else {
+                    System.out.println("ERROR: The pondering must be \"on\" or \"off\".");
+                    help = true;
+                }
+            }
             else if ((args[l].equals("-l"))  || (args[l].equals("--loop")) ) {
                 l++;
                 loop = Integer.parseInt(args[l]);
-                gamingMode = Game.DoubleProfiler;
-                // TODO - Disable the graphic animation (if possible)
-                // requestedGames = loop;
+                if (gamingMode != Game.Tournament) {
+                    gamingMode = Game.DoubleProfiler;
+                }
+                if (loop <= 0) {
+                    System.out.println("ERROR: The number of games must be positive.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--tournament")) {
+                l++;
+                gamingMode = Game.Tournament;
+                if (args[l].equals("RoundRobin")) {
+                    format = Tournament.Format.ROUND_ROBIN;
+                }
+                else if (args[l].equals("Gauntlet")) {
+                    format = Tournament.Format.GAUNTLET;
+                }
+                else {
+                    System.out.println("ERROR: Unrecognized tournament format.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--levels")) {
+                l++;
+                levels = args[l];
+                if (!levels.matches("\\d+(,\\d+)+")) {
+                    System.out.println("ERROR: Please provide at least two AI levels (i.e. 0,1,2).");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--concurrency")) {
+                l++;
+                concurrency = Integer.parseInt(args[l]);
+                if (concurrency <= 0) {
+                    System.out.println("ERROR: The number of games played at once must be positive.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--results")) {
+                l++;
+                results = args[l];
+            }
+            else if (args[l].equals("--sprt")) {
+                l++;
+                sprt = args[l];
+                if (!sprt.matches("-?\\d+(\\.\\d+)?,-?\\d+(\\.\\d+)?")) {
+                    System.out.println("ERROR: Please provide the SPRT bounds as ELO0,ELO1 (i.e. 0,20).");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--record")) {
+                l++;
+                record = args[l];
+            }
+            else if (args[l].equals("--games")) {
+                l++;
+                games = args[l];
+            }
+            else if (args[l].equals("--replay")) {
+                l++;
+                replay = args[l];
+            }
+            else if (args[l].equals("--index")) {
+                l++;
+                index = Integer.parseInt(args[l]);
+                if (index < 1) {
+                    System.out.println("ERROR: The first game of a file is the game 1.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--ply")) {
+                l++;
+                ply = Integer.parseInt(args[l]);
+                if (ply < 0) {
+                    System.out.println("ERROR: The first ply of a game is the ply 0.");
+                    help = true;
+                }
+            }
+            else if (args[l].equals("--plytime")) {
+                l++;
+                plyTime = Long.parseLong(args[l]);
+                if (plyTime < 0) {
+                    System.out.println("ERROR: The time of a ply must be positive.");
+                    help = true;
+                }
             }
             else if ((args[l].equals("-h")) || (args[l].equals("--help")) ) {
                 help = true;
@@ -170,7 +515,9 @@ public class Fag extends Application {
 
         // SEED
         if(seed < 0) {
-            generator = new Random(Calendar.getInstance().getTimeInMillis());
+            // The seed is kept, so that the recorded games can be replayed (see --games)
+            seed = Calendar.getInstance().getTimeInMillis();
+            generator = new Random(seed);
         } else if(seed != 0) {
             generator = new Random(seed);
         } else {
@@ -243,6 +590,13 @@ public class Fag extends Application {
                     help = true;
                 }
                 break;
+            case Tournament:
+                if (loop % 2 != 0) {
+                    System.out.println("WARNING: Each pairing plays both teams, setting the games per pairing to " + (loop + 1));
+                    loop++;
+                }
+                System.out.println("Setting a tournament of the levels " + levels + ", " + loop + " games per pairing.");
+                break;
             case DoubleComputer:
             case DoubleProfiler:
                 // Always assign team #1 to the fox
@@ -288,6 +642,14 @@ public class Fag extends Application {
                 System.out.println("Setting computer-2's name to " + name2);
                 break;
         }
+        // REPLAY
+        if (!replay.isEmpty() && !help) {
+            replayed = loadReplay();
+            if (replayed == null) {
+                System.exit(1);
+            }
+            System.out.println("Replaying " + replayed.getRecord() + " from the ply " + ply);
+        }
         // HELP
         if (help) {
             printUsage();
@@ -295,6 +657,37 @@ public class Fag extends Application {
         }
     }
 
+    /**
+     * Loads the game to replay given by --replay and --index, and checks its
+     * moves (see ai.record.GameReplay).
+     * @return The game, or null if it cannot be replayed.
+     */
+    static GameReplay loadReplay() {
+        try (GameRecordReader reader = GameRecordReader.open(new File(replay))) {
+            if (reader == null) {
+                System.out.println("ERROR: No such file of games " + replay);
+                return null;
+            }
+            for (int i = 0; i < index; i++) {
+                if (!reader.next()) {
+                    System.out.println("ERROR: There are only " + i + " games in " + replay);
+                    return null;
+                }
+            }
+            GameReplay game = new GameReplay(reader.getRecord());
+            // The board cannot be set to another position
+            if (!game.getRecord().getFirstPosition().equals(FagBitboard.initial())) {
+                System.out.println("ERROR: The game " + index + " does not start from the initial position");
+                return null;
+            }
+            return game;
+        }
+        catch (IOException | RuntimeException e) {
+            System.out.println("ERROR: Cannot replay the game " + index + " of " + replay + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     static void printUsage() {
         System.out.println("\nUsage: FoxAndGeese [OPTIONS]");
         System.out.println("List of options:");
@@ -303,11 +696,31 @@ public class Fag extends Application {
         System.out.println(" -n2|--name2 <NameOfPlayer2> The name of player #2.");
         System.out.println(" -t1|--team1 <Fox|Geese>     The team of player #1.");
         System.out.println(" -t2|--team2 <Fox|Geese>     The team of player #2.");
-        System.out.println(" -a1|--algo1 <0|1|2>         The algorithm strength of computer #1.");
-        System.out.println(" -a2|--algo2 <0|1|2>         The algorithm strength of computer #2.");
-        // System.out.println(" -l|--loop <LONG> The number of games to " +
-        //         "play. If specified, sets the PROFILER mode and " +
-        //         "disables the graphical mode.");
+        System.out.println(" -a1|--algo1 <0|1|2|...>     The algorithm strength of computer #1.");
+        System.out.println(" -a2|--algo2 <0|1|2|...>     The algorithm strength of computer #2.");
+        System.out.println("                             (2 and above: alpha-beta search of 2 plies per level)");
+        System.out.println("                             (10 and 11: Monte Carlo tree search with random or heuristic playouts)");
+        System.out.println(" -d|--depth  <INT>           The maximal search depth of the computers (in plies).");
+        System.out.println(" --movetime  <LONG>          The thinking time of the computers per move (in ms).");
+        System.out.println(" --threads   <INT>           The number of search threads of the computers.");
+        System.out.println(" --quiescence <INT>          The depth of the search of the captures beyond the depth (default: 4).");
+        System.out.println(" --tablebase <DIR>           The directory of the endgame tablebases (default: tablebases).");
+        System.out.println(" --book      <FILE>          The file of the opening book (default: opening.book).");
+        System.out.println(" --weights   <FILE>          The file of the weights of the evaluation (default: evaluation.properties).");
+        System.out.println(" --ponder    <on|off>        Whether the computer thinks while the human is to play (default: on).");
+        System.out.println(" -l|--loop  <INT>            The number of games to play. If specified, sets the PROFILER mode and");
+        System.out.println("                             plays the games without any graphical view, then prints their statistics.");
+        System.out.println(" --tournament <RoundRobin|Gauntlet> Plays a tournament between computers (-l: games per pairing).");
+        System.out.println(" --levels    <INT,INT,...>   The AI levels of the participants of a tournament (default: 0,1,2).");
+        System.out.println(" --concurrency <INT>         The number of games played at once in a tournament (default: all cores).");
+        System.out.println(" --results   <FILE>          The CSV file where the results of a tournament are appended.");
+        System.out.println(" --sprt      <ELO0,ELO1>     Stops a pairing of a tournament once a SPRT accepts ELO0 or ELO1.");
+        System.out.println(" --record    <FILE>          The file where the positions of the games of a loop are appended (see TexelTuner).");
+        System.out.println(" --games     <FILE>          The file where the moves of the games are appended, in all the modes.");
+        System.out.println(" --replay    <FILE>          Replays a game of a file of games (see --games) on the board.");
+        System.out.println(" --index     <INT>           The game to replay, the first game of the file being 1 (default: 1).");
+        System.out.println(" --ply       <INT>           The first ply to animate, the earlier ones being played at once (default: 0).");
+        System.out.println(" --plytime   <LONG>          The time of an animated ply in ms (default: 1000).");
         System.out.println(" -s|--seed  <LONG> The seed of the random " +
                 "generator. If 0, (TODO-TBD).");
         System.out.println("Enjoy the game...\n");
@@ -322,7 +735,12 @@ public class Fag extends Application {
 
         // Add players.
         //  Note: The Fox always plays first.
-        switch (gamingMode) {
+        if (replayed != null) {
+            // Both players are played by the replay
+            model.addComputerPlayer(replayed.getRecord().getFoxName());
+            model.addComputerPlayer(replayed.getRecord().getGeeseName());
+        }
+        else switch (gamingMode) {
             case Single:
                 if (team1.equals("Fox")) {
                     model.addHumanPlayer(name1);
@@ -365,8 +783,21 @@ public class Fag extends Application {
         view.addPaneView(introView);
         view.addPaneView(optionView);
         view.addPaneView(paneView);
+        // Set the limits of the search based computers
+        FagDecider.setSearchLimits(depth, moveTime);
+        FagDecider.setQuiescenceDepth(quiescence);
+        FagDecider.setSearchThreads(threads);
+        FagDecider.setTablebaseDirectory(tablebase);
+        FagDecider.setEvaluationWeightsFile(weights);
+        FagDecider.setOpeningBookFile(book);
+        FagDecider.setPonder(ponder);
         // Create the controllers.
         ControllerFag control = new ControllerFag(model, view, generator);
+        if (replayed != null) {
+            ControllerFag.setReplay(replayed, ply, plyTime);
+        } else {
+            ControllerFag.setGameRecorder(openGameRecorder(), seed);
+        }
         // Set the name of the first pane view to use when the game is started
         control.setGamePaneViewName("FoxAndGeese");
         // Set the name of the 1st and unique stage to create when the game is started
@@ -0,0 +1,244 @@
+package ai.book;
+
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+import model.rules.FagSymmetry;
+
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Probes the opening book built by OpeningBookBuilder.
+ *
+ * <p>
+ * The file starts with a small header, followed by the entries sorted by
+ * the Zobrist key of their position, then by move. The book only holds
+ * the canonical form of the positions (see FagSymmetry): the moves of a
+ * mirrored position are the mirrored moves of its canonical form. An entry is 16 bytes:
+ * the key of the position (8 bytes) and a book move (8 bytes) packing the
+ * mask of the taken geese (33 bits), the points 'from' and 'to' (6 bits
+ * each) and the weight of the move (16 bits):
+ * </p>
+ * <pre>
+ *   63 ... 48 | 47 ... 42 | 41 ... 36 | 35 .. 33 | 32 ... 0
+ *    weight   |    to     |   from    |  unused  |  taken
+ * </pre>
+ * <p>
+ * The file is memory-mapped and looked up by binary search: a probe reads
+ * O(log n) entries, and nothing is loaded in the heap. The moves of a
+ * position are chosen at random in proportion to their weights, so that
+ * the games are varied.
+ * </p>
+ */
+public class OpeningBook implements AutoCloseable {
+
+    public final static int MAX_WEIGHT = 0xFFFF;
+
+    private final static int MAGIC   = 0x46414742; // "FAGB"
+    private final static int VERSION = 2;
+    final static int HEADER_SIZE     = 32;
+    final static int ENTRY_SIZE      = 16;
+
+    // Header fields (offsets)
+    private final static int H_MAGIC      = 0;
+    private final static int H_VERSION    = 4;
+    private final static int H_NR_ENTRIES = 8;
+    private final static int H_PLIES      = 12;
+    private final static int H_DEPTH      = 16;
+    private final static int H_MARGIN     = 20;
+
+    private final static int  TAKEN_BITS = 33;
+    private final static long TAKEN_MASK = (1L << TAKEN_BITS) - 1;
+    private final static int  FROM_SHIFT   = 36;
+    private final static int  TO_SHIFT     = 42;
+    private final static int  WEIGHT_SHIFT = 48;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final int nrEntries;
+    private final MoveList list = new MoveList();
+
+    private OpeningBook(RandomAccessFile file) throws IOException {
+        this.file = file;
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        if ((file.length() < HEADER_SIZE) || (buffer.getInt(H_MAGIC) != MAGIC) || (buffer.getInt(H_VERSION) != VERSION)) {
+            file.close();
+            throw new IOException("Not an opening book");
+        }
+        nrEntries = buffer.getInt(H_NR_ENTRIES);
+        if (HEADER_SIZE + (long) nrEntries * ENTRY_SIZE != file.length()) {
+            file.close();
+            throw new IOException("Truncated opening book (" + nrEntries + " entries expected)");
+        }
+    }
+
+    /**
+     * Opens a book.
+     * @return The book, or null if there is no such file.
+     * @throws IOException If the file is not a book.
+     */
+    public static OpeningBook open(File path) throws IOException {
+        if (!path.isFile()) {
+            return null;
+        }
+        return new OpeningBook(new RandomAccessFile(path, "r"));
+    }
+
+    /*************************************************************
+     * ENTRIES
+     *************************************************************/
+
+    /**
+     * Packs a book move (see the class comment).
+     */
+    static long encode(int from, int to, long taken, int weight) {
+        return ((long) weight << WEIGHT_SHIFT) | ((long) to << TO_SHIFT) | ((long) from << FROM_SHIFT) | (taken & TAKEN_MASK);
+    }
+
+    public static int getFrom(long move) {
+        return (int) (move >>> FROM_SHIFT) & 0x3F;
+    }
+
+    public static int getTo(long move) {
+        return (int) (move >>> TO_SHIFT) & 0x3F;
+    }
+
+    public static long getTaken(long move) {
+        return move & TAKEN_MASK;
+    }
+
+    public static int getWeight(long move) {
+        return (int) (move >>> WEIGHT_SHIFT) & MAX_WEIGHT;
+    }
+
+    /**
+     * Writes the header of a book of a given number of entries.
+     */
+    static void writeHeader(DataOutput out, int nrEntries, int plies, int depth, int margin) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(nrEntries);
+        out.writeInt(plies);
+        out.writeInt(depth);
+        out.writeInt(margin);
+        for (int i = 24; i < HEADER_SIZE; i++) {
+            out.writeByte(0);
+        }
+    }
+
+    private long getKey(int entry) {
+        return buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    private long getMove(int entry) {
+        return buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE + 8);
+    }
+
+    // The first entry whose key is not below a key (nrEntries if none)
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = nrEntries;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (getKey(mid) < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /*************************************************************
+     * PROBES
+     *************************************************************/
+
+    /**
+     * Returns the book moves of a position, with their weights.
+     * The moves which are not legal in the position (i.e. a collision of
+     * the keys) are ignored.
+     * @return The packed moves (see the class comment), possibly none.
+     */
+    public synchronized List<Long> getMoves(FagBitboard position) {
+        List<Long>  moves     = new ArrayList<>();
+        boolean     mirrored  = FagSymmetry.isMirrored(position.getGeese(), position.getFox());
+        FagBitboard canonical = mirrored ? FagSymmetry.mirror(position) : position;
+        long key = canonical.getKey();
+        MoveGenerator.generate(canonical.getGeese(), canonical.getFox(), canonical.isFoxToMove(), list);
+        for (int e = lowerBound(key); (e < nrEntries) && (getKey(e) == key); e++) {
+            long move = getMove(e);
+            for (int i = 0; i < list.size(); i++) {
+                if ((list.getFrom(i) == getFrom(move)) && (list.getTo(i) == getTo(move)) && (list.getTaken(i) == getTaken(move))) {
+                    moves.add(mirrored ? encode(FagSymmetry.mirror(getFrom(move)), FagSymmetry.mirror(getTo(move)),
+                                                FagSymmetry.mirror(getTaken(move)), getWeight(move)) : move);
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Chooses a book move of a position, at random in proportion to the weights.
+     * @param position The position.
+     * @param random   The random generator.
+     * @return The move (with its weight as score), or null if the position is not in the book.
+     */
+    public SearchResult getMove(FagBitboard position, Random random) {
+        long start = System.currentTimeMillis();
+        List<Long> moves = getMoves(position);
+        int total = 0;
+        for (long move : moves) {
+            total += getWeight(move);
+        }
+        if (total == 0) {
+            return null;
+        }
+        int n = random.nextInt(total);
+        for (long move : moves) {
+            n -= getWeight(move);
+            if (n < 0) {
+                return new SearchResult(getFrom(move), getTo(move), getTaken(move), getWeight(move),
+                                        0, moves.size(), System.currentTimeMillis() - start);
+            }
+        }
+        return null;
+    }
+
+    public int getNrEntries() {
+        return nrEntries;
+    }
+
+    /**
+     * Returns the number of plies from the initial position covered by the book.
+     */
+    public int getPlies() {
+        return buffer.getInt(H_PLIES);
+    }
+
+    /**
+     * Returns the depth of the searches which scored the book moves.
+     */
+    public int getDepth() {
+        return buffer.getInt(H_DEPTH);
+    }
+
+    public String toString() {
+        return "OpeningBook[" + nrEntries + " moves, " + getPlies() + " plies, depth " + getDepth() +
+               ", margin " + buffer.getInt(H_MARGIN) + "]";
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
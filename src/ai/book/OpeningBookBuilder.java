@@ -0,0 +1,197 @@
+package ai.book;
+
+import ai.search.AlphaBetaSearch;
+import ai.search.IterativeDeepening;
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import ai.search.SearchLimits;
+import ai.search.TranspositionTable;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.FagSymmetry;
+import model.rules.GameResult;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the opening book (see OpeningBook) by deep searches from the
+ * initial position.
+ *
+ * <p>
+ * The tree of the first plies is expanded breadth first. Every move of a
+ * position is scored by a search of the resulting position; the moves
+ * within a margin of the best score are kept in the book, with a weight
+ * which decreases with their distance to the best one, and only their
+ * positions are expanded at the next ply. Only the canonical form of the
+ * positions is expanded (see FagSymmetry), so that a position reached by
+ * several paths, or its mirror, is expanded once.
+ * </p>
+ * <p>
+ * The positions of a ply are searched in parallel, each search with a
+ * cleared transposition table: the book does not depend on the number of
+ * threads.
+ * </p>
+ *
+ * Usage: OpeningBookBuilder [file] [plies] [depth] [margin] [threads]
+ */
+public class OpeningBookBuilder {
+
+    public final static String FILE   = "opening.book"; // See FagDecider
+    public final static int    PLIES  = 8;
+    public final static int    DEPTH  = 8;
+    public final static int    MARGIN = 20; // in hundredths of a goose
+
+    // The size of the transposition table of each thread (in MB)
+    private final static int TT_SIZE_MB = 16;
+
+    private final int depth;
+    private final int margin;
+    private final int threads;
+
+    // The search of each thread, and its table
+    private final ThreadLocal<TranspositionTable> tables;
+    private final ThreadLocal<IterativeDeepening> searches;
+
+    /**
+     * Basic constructor.
+     * @param depth   The depth of the searches which score the moves (in plies).
+     * @param margin  The largest difference to the best score of a book move.
+     * @param threads The number of threads.
+     */
+    public OpeningBookBuilder(int depth, int margin, int threads) {
+        this.depth   = Math.max(2, depth);
+        this.margin  = Math.max(0, margin);
+        this.threads = Math.max(1, threads);
+        this.tables   = ThreadLocal.withInitial(() -> new TranspositionTable(TT_SIZE_MB));
+        this.searches = ThreadLocal.withInitial(() -> new IterativeDeepening(tables.get()));
+    }
+
+    /**
+     * Builds a book and writes it.
+     * @param file  The book file.
+     * @param plies The number of plies from the initial position.
+     * @return The number of book moves.
+     */
+    public int build(File file, int plies) throws IOException, InterruptedException {
+        List<long[]> entries  = new ArrayList<>(); // {key, move}
+        Set<Long>    expanded = new HashSet<>();
+        List<FagBitboard> frontier = new ArrayList<>();
+        frontier.add(FagSymmetry.getCanonical(FagBitboard.initial()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int ply = 0; (ply < plies) && !frontier.isEmpty(); ply++) {
+                long start = System.currentTimeMillis();
+                List<Future<long[]>> futures = new ArrayList<>();
+                for (FagBitboard position : frontier) {
+                    futures.add(pool.submit(() -> getBookMoves(position)));
+                }
+                List<FagBitboard> next = new ArrayList<>();
+                int moves = 0;
+                for (int p = 0; p < frontier.size(); p++) {
+                    FagBitboard position = frontier.get(p);
+                    long[] bookMoves;
+                    try {
+                        bookMoves = futures.get(p).get();
+                    }
+                    catch (ExecutionException e) {
+                        throw new IOException("A search failed: " + e.getMessage(), e);
+                    }
+                    for (long move : bookMoves) {
+                        entries.add(new long[] { position.getKey(), move });
+                        moves++;
+                        FagBitboard child = FagSymmetry.getCanonical(FagRules.play(position, new FagMove(
+                            OpeningBook.getFrom(move), OpeningBook.getTo(move), OpeningBook.getTaken(move))));
+                        if (!FagRules.getResult(child).isOver() && expanded.add(child.getKey())) {
+                            next.add(child);
+                        }
+                    }
+                }
+                System.out.println("Ply " + (ply + 1) + ": " + frontier.size() + " positions, " + moves + " book moves in " +
+                                   (System.currentTimeMillis() - start) + " ms");
+                frontier = next;
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+
+        write(file, entries, plies);
+        return entries.size();
+    }
+
+    /**
+     * Scores the moves of a position and keeps the best ones.
+     * @return The packed book moves (see OpeningBook).
+     */
+    long[] getBookMoves(FagBitboard position) {
+        IterativeDeepening search = searches.get();
+        MoveList list = new MoveList();
+        MoveGenerator.generate(position.getGeese(), position.getFox(), position.isFoxToMove(), list);
+        int[] scores = new int[list.size()];
+        int   best   = -AlphaBetaSearch.INFINITY;
+        for (int i = 0; i < list.size(); i++) {
+            FagBitboard child  = FagRules.play(position, new FagMove(list.getFrom(i), list.getTo(i), list.getTaken(i)));
+            GameResult  result = FagRules.getResult(child);
+            if (result.isOver()) {
+                // The side to move of the child lost (it cannot move, or the fox took enough geese)
+                boolean foxWins = (result.getWinner() == FagRules.FOX_TEAM);
+                scores[i] = (foxWins == position.isFoxToMove()) ? AlphaBetaSearch.WIN : -AlphaBetaSearch.WIN;
+            } else {
+                tables.get().clear();
+                scores[i] = -search.search(child, SearchLimits.depth(depth - 1)).getScore();
+            }
+            best = Math.max(best, scores[i]);
+        }
+
+        long[] moves = new long[list.size()];
+        int    count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (best - scores[i] <= margin) {
+                int weight = Math.min(OpeningBook.MAX_WEIGHT, 1 + margin - (best - scores[i]));
+                moves[count++] = OpeningBook.encode(list.getFrom(i), list.getTo(i), list.getTaken(i), weight);
+            }
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    // Writes the entries sorted by key, then by move (see OpeningBook)
+    private void write(File file, List<long[]> entries, int plies) throws IOException {
+        entries.sort((a, b) -> (a[0] != b[0]) ? Long.compare(a[0], b[0]) : Long.compare(b[1], a[1]));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            OpeningBook.writeHeader(out, entries.size(), plies, depth, margin);
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                out.writeLong(entry[1]);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        File file    = new File((args.length > 0) ? args[0] : FILE);
+        int  plies   = (args.length > 1) ? Integer.parseInt(args[1]) : PLIES;
+        int  depth   = (args.length > 2) ? Integer.parseInt(args[2]) : DEPTH;
+        int  margin  = (args.length > 3) ? Integer.parseInt(args[3]) : MARGIN;
+        int  threads = (args.length > 4) ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        System.out.println("Building an opening book of " + plies + " plies, searched at depth " + depth +
+                           " with a margin of " + margin + " on " + threads + " thread(s)");
+        long start = System.currentTimeMillis();
+        int  moves = new OpeningBookBuilder(depth, margin, threads).build(file, plies);
+        System.out.println("Wrote " + moves + " book moves in " + file + " (" + file.length() + " bytes) in " +
+                           (System.currentTimeMillis() - start) + " ms");
+    }
+}
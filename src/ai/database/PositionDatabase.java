@@ -0,0 +1,618 @@
+package ai.database;
+
+import ai.record.GameRecordReader;
+import ai.record.GameReplay;
+import model.rules.FagBitboard;
+import model.rules.FagSymmetry;
+import model.rules.GameResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * A database of the positions of the recorded games (see ai.record), with
+ * the number of games which went through each of them and their results,
+ * e.g. to select the openings of the book or the positions of the tuning.
+ *
+ * <p>
+ * The database is made of two files. The data file holds the positions,
+ * packed in 8 bytes, in the order they were added: it is only appended to.
+ * The index file is an open-addressing hash table (linear probing) of
+ * slots of 24 bytes, memory-mapped and updated in place:
+ * </p>
+ * <pre>
+ *   offset size
+ *        0    8  Zobrist key of the position (see FagBitboard.getKey)
+ *        8    4  number of the position in the data file + 1 (0: empty slot)
+ *       12    4  number of games which went through the position
+ *       16    4  number of these games won by the fox
+ *       20    4  number of these games won by the geese
+ * </pre>
+ * <p>
+ * The positions are stored in their canonical form (see FagSymmetry), so
+ * that a position and its mirror are counted together, and a position is
+ * counted once per game, even if the game went through it several times.
+ * The keys are not verified against the data file: two positions with the
+ * same 64-bit key would be merged, which is as unlikely as in the
+ * transposition table. The table is doubled once it is 3/4 full.
+ * </p>
+ * <p>
+ * The games are added in batches (see Batch): the positions of a batch are
+ * gathered and merged in the heap, then written at once under the lock of
+ * the database. ingest replays the games of files of games on several
+ * threads, each of them filling its own batches.
+ * </p>
+ * <p>
+ * The slots are updated in place, so a batch is first written to a journal
+ * file, with the new counts of its positions rather than their increments.
+ * A batch interrupted by a crash is applied again when the database is
+ * opened, and a journal which was not completely written is ignored:
+ * </p>
+ * <pre>
+ *   offset size
+ *        0    4  magic, written once the rest of the journal is stored
+ *        4    4  number of positions of the batch
+ *        8    4  number of positions of the database before the batch
+ *       12    4  number of positions of the database after the batch
+ *       16    8  number of games after the batch
+ *   then per position of the batch, 32 bytes:
+ *        0    8  Zobrist key of the position
+ *        8    8  packed position
+ *       16    4  number of the position in the data file + 1
+ *       20   12  numbers of games, of fox wins and of geese wins
+ * </pre>
+ *
+ * Usage: PositionDatabase database [games...]
+ *  (adds the games of the files of games to the database, created if needed,
+ *  then prints its statistics)
+ */
+public class PositionDatabase implements AutoCloseable {
+
+    public final static String INDEX_SUFFIX   = ".idx";
+    public final static String JOURNAL_SUFFIX = ".jnl";
+    public final static int    BATCH_SIZE   = 1 << 16; // The distinct positions of a batch
+
+    private final static int DATA_MAGIC  = 0x46414750; // "FAGP"
+    private final static int INDEX_MAGIC = 0x46414749; // "FAGI"
+    private final static int JOURNAL_MAGIC = 0x4641474A; // "FAGJ"
+    private final static int VERSION     = 1;
+    final static int HEADER_SIZE   = 32;
+    final static int POSITION_SIZE = 8;
+    final static int SLOT_SIZE     = 24;
+    final static int JOURNAL_HEADER_SIZE = 24;
+    final static int JOURNAL_ENTRY_SIZE  = 32;
+    final static int MIN_CAPACITY  = 1 << 12;
+    // The mapping of a file is limited to 2 GB
+    private final static int MAX_CAPACITY = 1 << 26;
+
+    // Header fields (offsets)
+    private final static int H_MAGIC    = 0;
+    private final static int H_VERSION  = 4;
+    private final static int H_CAPACITY = 8;  // index only
+    private final static int H_SIZE     = 12; // index only
+    private final static int H_GAMES    = 16; // index only
+
+    // Slot fields (offsets)
+    private final static int S_KEY        = 0;
+    private final static int S_ENTRY      = 8;
+    private final static int S_VISITS     = 12;
+    private final static int S_FOX_WINS   = 16;
+    private final static int S_GEESE_WINS = 20;
+
+    // Journal header fields (offsets)
+    private final static int J_MAGIC   = 0;
+    private final static int J_ENTRIES = 4;
+    private final static int J_FIRST   = 8;
+    private final static int J_SIZE    = 12;
+    private final static int J_GAMES   = 16;
+
+    // Journal entry fields (offsets)
+    private final static int E_KEY        = 0;
+    private final static int E_POSITION   = 8;
+    private final static int E_ENTRY      = 16;
+    private final static int E_VISITS     = 20;
+    private final static int E_FOX_WINS   = 24;
+    private final static int E_GEESE_WINS = 28;
+
+    // Packed position
+    private final static int FOX_SHIFT  = 33;
+    private final static int SIDE_SHIFT = 39;
+
+    private final File        indexFile;
+    private final File        journalFile;
+    private final FileChannel data;
+    private MappedByteBuffer  index;
+    private int  capacity;
+    private int  size;  // The number of positions
+    private long games; // The number of added games
+
+    private PositionDatabase(File file) throws IOException {
+        indexFile = new File(file.getPath() + INDEX_SUFFIX);
+        journalFile = new File(file.getPath() + JOURNAL_SUFFIX);
+        data = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                StandardOpenOption.WRITE);
+        try {
+            if (data.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(H_MAGIC, DATA_MAGIC).putInt(H_VERSION, VERSION);
+                data.write(header, 0);
+                index = createIndex(indexFile, MIN_CAPACITY, 0, 0);
+                Files.deleteIfExists(journalFile.toPath());
+            } else {
+                openIndex(file);
+            }
+            capacity = index.getInt(H_CAPACITY);
+            size = index.getInt(H_SIZE);
+            games = index.getLong(H_GAMES);
+            replayJournal();
+        } catch (IOException e) {
+            data.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a database, created if needed.
+     * @param file The data file (the index file has the same name, followed
+     *             by INDEX_SUFFIX).
+     * @throws IOException If the files are not those of a database.
+     */
+    public static PositionDatabase open(File file) throws IOException {
+        return new PositionDatabase(file);
+    }
+
+    // Maps the index of an existing data file, and removes the positions which are not indexed
+    private void openIndex(File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        data.read(header, 0);
+        if ((data.size() < HEADER_SIZE) || (header.getInt(H_MAGIC) != DATA_MAGIC) || (header.getInt(H_VERSION) != VERSION)) {
+            throw new IOException("Not a position database");
+        }
+        if (!indexFile.isFile()) {
+            throw new IOException("No index " + indexFile);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(indexFile, "rw")) {
+            if (raf.length() < HEADER_SIZE) {
+                throw new IOException("Not an index of positions");
+            }
+            index = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+        }
+        if ((index.getInt(H_MAGIC) != INDEX_MAGIC) || (index.getInt(H_VERSION) != VERSION) ||
+            (index.capacity() != HEADER_SIZE + (long) index.getInt(H_CAPACITY) * SLOT_SIZE)) {
+            throw new IOException("Not an index of positions");
+        }
+        long indexed = index.getInt(H_SIZE);
+        long stored  = (data.size() - HEADER_SIZE) / POSITION_SIZE;
+        if (stored < indexed) {
+            throw new IOException("The index " + indexFile + " does not match " + file);
+        }
+        if (data.size() > HEADER_SIZE + indexed * POSITION_SIZE) {
+            // A batch interrupted by a crash (applied again from the journal, if it is complete)
+            System.out.println("WARNING: Removing the positions of " + file + " which are not indexed (" +
+                               (stored - indexed) + " positions)");
+            data.truncate(HEADER_SIZE + indexed * POSITION_SIZE);
+        }
+    }
+
+    // Creates an empty index file, and maps it
+    private static MappedByteBuffer createIndex(File file, int capacity, int size, long games) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(0);
+            raf.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+            buffer.putInt(H_MAGIC, INDEX_MAGIC);
+            buffer.putInt(H_VERSION, VERSION);
+            buffer.putInt(H_CAPACITY, capacity);
+            buffer.putInt(H_SIZE, size);
+            buffer.putLong(H_GAMES, games);
+            return buffer;
+        }
+    }
+
+    /*************************************************************
+     * PACKING
+     *************************************************************/
+
+    static long pack(FagBitboard position) {
+        return position.getGeese() | ((long) position.getFox() << FOX_SHIFT) |
+               ((position.isFoxToMove() ? 1L : 0L) << SIDE_SHIFT);
+    }
+
+    static FagBitboard unpack(long packed) {
+        return new FagBitboard(packed & ((1L << FOX_SHIFT) - 1), (int) (packed >>> FOX_SHIFT) & 0x3F,
+                               ((packed >>> SIDE_SHIFT) & 1L) != 0);
+    }
+
+    /*************************************************************
+     * INDEX
+     *************************************************************/
+
+    private static int getSlotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    // Returns the offset of the slot of a key, or of the empty slot where it would be added
+    private static int findSlot(MappedByteBuffer table, int capacity, long key) {
+        int slot = (int) key & (capacity - 1);
+        while (true) {
+            int offset = getSlotOffset(slot);
+            if ((table.getInt(offset + S_ENTRY) == 0) || (table.getLong(offset + S_KEY) == key)) {
+                return offset;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    // Doubles the table until it holds 'needed' positions, and rehashes the positions
+    private void grow(long needed) throws IOException {
+        int newCapacity = capacity;
+        while (needed > newCapacity / 4L * 3) {
+            if (newCapacity == MAX_CAPACITY) {
+                throw new IOException("The position database is full (" + size + " positions)");
+            }
+            newCapacity *= 2;
+        }
+        if (newCapacity == capacity) {
+            return;
+        }
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        MappedByteBuffer table = createIndex(tmp, newCapacity, size, games);
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = getSlotOffset(slot);
+            if (index.getInt(offset + S_ENTRY) != 0) {
+                int to = findSlot(table, newCapacity, index.getLong(offset + S_KEY));
+                for (int i = 0; i < SLOT_SIZE; i++) {
+                    table.put(to + i, index.get(offset + i));
+                }
+            }
+        }
+        table.force();
+        Files.move(tmp.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        index = table;
+        capacity = newCapacity;
+    }
+
+    /*************************************************************
+     * QUERIES
+     *************************************************************/
+
+    /**
+     * Returns the statistics of a position (or of its mirror), or null if no
+     * game of the database went through it.
+     */
+    public synchronized PositionStats get(FagBitboard position) {
+        FagBitboard canonical = FagSymmetry.getCanonical(position);
+        int offset = findSlot(index, capacity, canonical.getKey());
+        if (index.getInt(offset + S_ENTRY) == 0) {
+            return null;
+        }
+        return getStats(canonical, offset);
+    }
+
+    private PositionStats getStats(FagBitboard position, int offset) {
+        return new PositionStats(position, index.getInt(offset + S_VISITS), index.getInt(offset + S_FOX_WINS),
+                                 index.getInt(offset + S_GEESE_WINS));
+    }
+
+    /**
+     * Gives the statistics of all the positions, in the order they were added.
+     */
+    public synchronized void forEach(Consumer<PositionStats> consumer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        long end = HEADER_SIZE + (long) size * POSITION_SIZE;
+        for (long offset = HEADER_SIZE; offset < end; ) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - offset));
+            while (buffer.hasRemaining()) {
+                if (data.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("The data file is truncated");
+                }
+            }
+            buffer.flip();
+            offset += buffer.limit();
+            while (buffer.hasRemaining()) {
+                FagBitboard position = unpack(buffer.getLong());
+                consumer.accept(getStats(position, findSlot(index, capacity, position.getKey())));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of positions.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of games added to the database.
+     */
+    public synchronized long getNrGames() {
+        return games;
+    }
+
+    /*************************************************************
+     * INSERTION
+     *************************************************************/
+
+    /**
+     * Adds the positions of a batch of games, then clears the batch.
+     * @throws IOException If the positions cannot be written, or if the
+     *  database is full.
+     */
+    public synchronized void add(Batch batch) throws IOException {
+        if (batch.size() == 0) {
+            return;
+        }
+        apply(writeJournal(batch));
+        Files.deleteIfExists(journalFile.toPath());
+        batch.clear();
+    }
+
+    // Writes a batch to the journal, with the counts of its positions once it is added
+    ByteBuffer writeJournal(Batch batch) throws IOException {
+        ByteBuffer journal = ByteBuffer.allocate(JOURNAL_HEADER_SIZE + batch.size() * JOURNAL_ENTRY_SIZE);
+        journal.position(JOURNAL_HEADER_SIZE);
+        int next = size;
+        for (Map.Entry<Long, long[]> entry : batch.counts.entrySet()) {
+            long[] counts = entry.getValue();
+            int    offset = findSlot(index, capacity, entry.getKey());
+            int    number = index.getInt(offset + S_ENTRY);
+            journal.putLong(entry.getKey());
+            journal.putLong(counts[0]);
+            journal.putInt((number == 0) ? ++next : number);
+            journal.putInt(index.getInt(offset + S_VISITS)     + (int) counts[1]);
+            journal.putInt(index.getInt(offset + S_FOX_WINS)   + (int) counts[2]);
+            journal.putInt(index.getInt(offset + S_GEESE_WINS) + (int) counts[3]);
+        }
+        journal.putInt(J_ENTRIES, batch.size());
+        journal.putInt(J_FIRST, size);
+        journal.putInt(J_SIZE, next);
+        journal.putLong(J_GAMES, games + batch.games);
+
+        // The magic is written last: a journal without it is incomplete
+        try (FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            journal.flip();
+            long position = 0;
+            while (journal.hasRemaining()) {
+                position += channel.write(journal, position);
+            }
+            channel.force(false);
+            channel.write(ByteBuffer.allocate(4).putInt(0, JOURNAL_MAGIC), J_MAGIC);
+            channel.force(false);
+        }
+        return journal.putInt(J_MAGIC, JOURNAL_MAGIC);
+    }
+
+    // Applies a batch of the journal. The counts are not increments, so a
+    //  batch which was partly applied before a crash can be applied again.
+    void apply(ByteBuffer journal) throws IOException {
+        int entries = journal.getInt(J_ENTRIES);
+        int first   = journal.getInt(J_FIRST);
+        int last    = journal.getInt(J_SIZE);
+        grow(last);
+
+        // The new positions are written to the data file first
+        ByteBuffer buffer = ByteBuffer.allocate((last - first) * POSITION_SIZE);
+        for (int i = 0; i < entries; i++) {
+            int entry  = JOURNAL_HEADER_SIZE + i * JOURNAL_ENTRY_SIZE;
+            int number = journal.getInt(entry + E_ENTRY);
+            if (number > first) {
+                buffer.putLong((number - 1 - first) * POSITION_SIZE, journal.getLong(entry + E_POSITION));
+            }
+        }
+        long position = HEADER_SIZE + (long) first * POSITION_SIZE;
+        while (buffer.hasRemaining()) {
+            position += data.write(buffer, position);
+        }
+
+        for (int i = 0; i < entries; i++) {
+            int  entry  = JOURNAL_HEADER_SIZE + i * JOURNAL_ENTRY_SIZE;
+            long key    = journal.getLong(entry + E_KEY);
+            int  offset = findSlot(index, capacity, key);
+            index.putLong(offset + S_KEY,       key);
+            index.putInt(offset + S_ENTRY,      journal.getInt(entry + E_ENTRY));
+            index.putInt(offset + S_VISITS,     journal.getInt(entry + E_VISITS));
+            index.putInt(offset + S_FOX_WINS,   journal.getInt(entry + E_FOX_WINS));
+            index.putInt(offset + S_GEESE_WINS, journal.getInt(entry + E_GEESE_WINS));
+        }
+        size  = last;
+        games = journal.getLong(J_GAMES);
+        index.putInt(H_SIZE, size);
+        index.putLong(H_GAMES, games);
+        // The journal is only removed once the batch is stored
+        flush();
+    }
+
+    // Applies the batch of a complete journal left by a crash, and removes the journal
+    private void replayJournal() throws IOException {
+        if (!journalFile.isFile()) {
+            return;
+        }
+        byte[] bytes = Files.readAllBytes(journalFile.toPath());
+        ByteBuffer journal = ByteBuffer.wrap(bytes);
+        if ((bytes.length >= JOURNAL_HEADER_SIZE) && (journal.getInt(J_MAGIC) == JOURNAL_MAGIC) &&
+            (bytes.length == JOURNAL_HEADER_SIZE + (long) journal.getInt(J_ENTRIES) * JOURNAL_ENTRY_SIZE) &&
+            (journal.getInt(J_FIRST) <= size)) {
+            System.out.println("WARNING: Adding the batch of " + journalFile + " again (" +
+                               journal.getInt(J_ENTRIES) + " positions)");
+            apply(journal);
+        }
+        Files.delete(journalFile.toPath());
+    }
+
+    /**
+     * Adds the games of files of games (see GameRecordReader). The games of
+     * each file are shared among the threads, each of them replaying its
+     * games and adding them in batches. A game with an illegal move is
+     * skipped.
+     * @param files   The files of games.
+     * @param threads The number of threads.
+     * @return The number of added games.
+     */
+    public long ingest(List<File> files, int threads) throws IOException, InterruptedException {
+        int step = Math.max(1, threads);
+        ExecutorService pool = Executors.newFixedThreadPool(step);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (File file : files) {
+                for (int t = 0; t < step; t++) {
+                    int first = t;
+                    futures.add(pool.submit(() -> ingest(file, first, step)));
+                }
+            }
+            long added = 0;
+            for (Future<Long> future : futures) {
+                try {
+                    added += future.get();
+                }
+                catch (ExecutionException e) {
+                    throw new IOException("Cannot add the games: " + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return added;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Adds the games of a file whose number modulo 'step' is 'first'
+    private long ingest(File file, int first, int step) throws IOException {
+        Batch batch = new Batch();
+        long  added = 0;
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            if (reader == null) {
+                throw new IOException("No such file of games " + file);
+            }
+            for (int n = 0; reader.next(); n++) {
+                if (n % step != first) continue;
+                GameReplay replay;
+                try {
+                    replay = new GameReplay(reader.getRecord());
+                }
+                catch (RuntimeException e) {
+                    System.out.println("WARNING: Skipping the game " + (n + 1) + " of " + file + ": " + e.getMessage());
+                    continue;
+                }
+                batch.addGame(replay.getPositions(), replay.getRecord().getResult());
+                added++;
+                if (batch.size() >= BATCH_SIZE) {
+                    add(batch);
+                }
+            }
+        }
+        add(batch);
+        return added;
+    }
+
+    /**
+     * Writes the changes of the files to the storage device.
+     */
+    public synchronized void flush() throws IOException {
+        data.force(false);
+        index.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            data.close();
+        }
+    }
+
+    /*************************************************************
+     * BATCH
+     *************************************************************/
+
+    /**
+     * The positions of some games, merged in the heap before being added to
+     * a database at once (see add). A batch is not thread-safe.
+     */
+    public static class Batch {
+
+        // The canonical key of a position -> {packed position, visits, fox wins, geese wins}
+        private final Map<Long, long[]> counts = new HashMap<>();
+        private final Set<Long>         game   = new HashSet<>();
+        private long games = 0;
+
+        /**
+         * Adds the positions of a game, each of them once.
+         * @param positions The positions of the game (see GameReplay.getPositions).
+         * @param result    The result of the game.
+         */
+        public void addGame(FagBitboard[] positions, GameResult result) {
+            game.clear();
+            for (FagBitboard position : positions) {
+                FagBitboard canonical = FagSymmetry.getCanonical(position);
+                if (!game.add(canonical.getKey())) continue;
+                long[] entry = counts.computeIfAbsent(canonical.getKey(), key -> new long[] { pack(canonical), 0, 0, 0 });
+                entry[1]++;
+                if (result == GameResult.FOX_WINS) entry[2]++;
+                if (result == GameResult.GEESE_WIN) entry[3]++;
+            }
+            games++;
+        }
+
+        /**
+         * Returns the number of distinct positions of the batch.
+         */
+        public int size() {
+            return counts.size();
+        }
+
+        public long getNrGames() {
+            return games;
+        }
+
+        public void clear() {
+            counts.clear();
+            games = 0;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: PositionDatabase database [games...]");
+            System.exit(1);
+        }
+        List<File> files = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            files.add(new File(args[i]));
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (PositionDatabase database = PositionDatabase.open(new File(args[0]))) {
+            if (!files.isEmpty()) {
+                long start = System.currentTimeMillis();
+                long added = database.ingest(files, threads);
+                System.out.println("Added " + added + " games on " + threads + " thread(s) in " +
+                                   (System.currentTimeMillis() - start) + " ms");
+            }
+            System.out.println(database.size() + " positions of " + database.getNrGames() + " games in " + args[0]);
+            PositionStats initial = database.get(FagBitboard.initial());
+            if (initial != null) {
+                System.out.println("Initial position: " + initial);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ai.database;
+
+import model.rules.FagBitboard;
+
+/**
+ * The statistics of a position of a PositionDatabase: the number of games
+ * which went through it, and how many of them each team won.
+ */
+public class PositionStats {
+
+    private final FagBitboard position;
+    private final int visits;
+    private final int foxWins;
+    private final int geeseWins;
+
+    /**
+     * Basic constructor.
+     * @param position  The position (in its canonical form, see FagSymmetry).
+     * @param visits    The number of games which went through the position.
+     * @param foxWins   The number of these games won by the fox.
+     * @param geeseWins The number of these games won by the geese.
+     */
+    public PositionStats(FagBitboard position, int visits, int foxWins, int geeseWins) {
+        this.position = position;
+        this.visits = visits;
+        this.foxWins = foxWins;
+        this.geeseWins = geeseWins;
+    }
+
+    public FagBitboard getPosition() {
+        return position;
+    }
+
+    public int getVisits() {
+        return visits;
+    }
+
+    public int getFoxWins() {
+        return foxWins;
+    }
+
+    public int getGeeseWins() {
+        return geeseWins;
+    }
+
+    /**
+     * Returns the number of games which were neither won by the fox nor by
+     * the geese (i.e. drawn or stopped).
+     */
+    public int getDraws() {
+        return visits - foxWins - geeseWins;
+    }
+
+    /**
+     * Returns the score of the fox in the games of the position, between 0
+     * (all lost) and 1 (all won), a draw counting as half a win.
+     */
+    public double getFoxScore() {
+        return (visits == 0) ? 0.5 : (foxWins + 0.5 * getDraws()) / visits;
+    }
+
+    @Override
+    public String toString() {
+        return visits + " games: " + foxWins + " won by the fox, " + geeseWins + " by the geese, " + getDraws() + " draws";
+    }
+}
@@ -0,0 +1,218 @@
+package ai.mcts;
+
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import model.rules.GameResult;
+
+import static model.rules.FagBitboard.bit;
+
+/**
+ * A node of the tree of MctsSearch: a position, the move which leads to it,
+ * and the statistics of the playouts which went through it.
+ *
+ * <p>
+ * The value of a node is the sum of the rewards of the side which played
+ * the move of the node (1 for a win, 0.5 for a draw). The children are
+ * created one by one, in the order of the move generator, on the visits of
+ * the node. The nodes are shared by the threads of the search: every
+ * access to the statistics or to the children is synchronized on the node.
+ * </p>
+ */
+final class MctsNode {
+
+    final long    geese;
+    final int     fox;
+    final boolean foxToMove;
+    // The move played by the parent to reach this node
+    final int     from;
+    final int     to;
+    final long    taken;
+
+    MctsNode   parent;
+    volatile GameResult result;
+
+    // The moves of the position, generated on the first visit
+    private int[]      moveFrom;
+    private int[]      moveTo;
+    private long[]     moveTaken;
+    private MctsNode[] children;
+    private int        nrChildren;
+
+    private int    visits;
+    private double value;
+    private int    virtualLosses;
+
+    MctsNode(MctsNode parent, long geese, int fox, boolean foxToMove, int from, int to, long taken) {
+        this.parent = parent;
+        this.geese = geese;
+        this.fox = fox;
+        this.foxToMove = foxToMove;
+        this.from = from;
+        this.to = to;
+        this.taken = taken;
+        this.result = (Long.bitCount(geese) <= FagRules.FOX_WIN_GEESE) ? GameResult.FOX_WINS : GameResult.NONE;
+    }
+
+    /**
+     * Returns true if the game is over in this node.
+     */
+    boolean isTerminal() {
+        return result.isOver();
+    }
+
+    /**
+     * Goes one step down the tree: creates the next child if some moves
+     * were not tried yet, or else selects the child of best UCT value.
+     * A virtual loss is added to the returned child, so that the other
+     * threads prefer other paths until the playout is back (see update).
+     * @param exploration The exploration constant of UCT.
+     * @param list        A list for the move generation.
+     * @return The child, or null if the node is terminal.
+     */
+    synchronized MctsNode select(double exploration, MoveList list) {
+        if (moveFrom == null) {
+            generateMoves(list);
+        }
+        if (isTerminal()) {
+            return null;
+        }
+        MctsNode child;
+        if (nrChildren < moveFrom.length) {
+            child = createChild(nrChildren);
+            children[nrChildren++] = child;
+        } else {
+            child = children[0];
+            double best = Double.NEGATIVE_INFINITY;
+            double logVisits = Math.log(Math.max(1, visits + virtualLosses));
+            for (int i = 0; i < nrChildren; i++) {
+                double uct = children[i].getUct(exploration, logVisits);
+                if (uct > best) {
+                    best  = uct;
+                    child = children[i];
+                }
+            }
+        }
+        child.addVirtualLoss();
+        return child;
+    }
+
+    private void generateMoves(MoveList list) {
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        moveFrom  = new int[list.size()];
+        moveTo    = new int[list.size()];
+        moveTaken = new long[list.size()];
+        for (int i = 0; i < list.size(); i++) {
+            moveFrom[i]  = list.getFrom(i);
+            moveTo[i]    = list.getTo(i);
+            moveTaken[i] = list.getTaken(i);
+        }
+        children = new MctsNode[list.size()];
+        // The side to move loses if it cannot move
+        if ((list.size() == 0) && !isTerminal()) {
+            result = foxToMove ? GameResult.GEESE_WIN : GameResult.FOX_WINS;
+        }
+    }
+
+    private MctsNode createChild(int i) {
+        if (foxToMove) {
+            return new MctsNode(this, geese & ~moveTaken[i], moveTo[i], false, moveFrom[i], moveTo[i], moveTaken[i]);
+        }
+        long next = (geese & ~bit(moveFrom[i])) | bit(moveTo[i]);
+        return new MctsNode(this, next, fox, true, moveFrom[i], moveTo[i], 0L);
+    }
+
+    // The UCT value of this node, seen from its parent (with the virtual losses)
+    private synchronized double getUct(double exploration, double logParentVisits) {
+        int n = visits + virtualLosses;
+        if (n == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (value / n) + exploration * Math.sqrt(logParentVisits / n);
+    }
+
+    private synchronized void addVirtualLoss() {
+        virtualLosses++;
+    }
+
+    /**
+     * Adds the result of a playout which went through this node.
+     * @param foxReward   The reward of the fox (1 for a win, 0.5 for a draw, 0 for a loss).
+     * @param virtualLoss True if a virtual loss was added to the node (i.e. if it is not the root).
+     */
+    synchronized void update(double foxReward, boolean virtualLoss) {
+        visits++;
+        // The move of this node was played by the other side than the one to move
+        value += foxToMove ? (1.0 - foxReward) : foxReward;
+        if (virtualLoss) {
+            virtualLosses--;
+        }
+    }
+
+    synchronized int getVisits() {
+        return visits;
+    }
+
+    /**
+     * Returns the average reward of the side which played the move of this node.
+     */
+    synchronized double getMeanValue() {
+        return (visits == 0) ? 0.5 : value / visits;
+    }
+
+    /**
+     * Returns a child which ends the game with the win of the side to move,
+     * or null if there is none (among the expanded children).
+     */
+    synchronized MctsNode getWinningChild() {
+        int winner = foxToMove ? FagRules.FOX_TEAM : FagRules.GEESE_TEAM;
+        for (int i = 0; i < nrChildren; i++) {
+            if (children[i].isTerminal() && (children[i].result.getWinner() == winner)) {
+                return children[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the most visited child, or null if there is none.
+     */
+    synchronized MctsNode getMostVisitedChild() {
+        MctsNode best = null;
+        for (int i = 0; i < nrChildren; i++) {
+            if ((best == null) || (children[i].getVisits() > best.getVisits())) {
+                best = children[i];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Looks for a position in this node and its descendants, down to a depth.
+     * @return The node of the position, or null if it is not in the tree.
+     */
+    synchronized MctsNode find(FagBitboard position, int depth) {
+        if ((geese == position.getGeese()) && (fox == position.getFox()) && (foxToMove == position.isFoxToMove())) {
+            return this;
+        }
+        for (int i = 0; (depth > 0) && (i < nrChildren); i++) {
+            MctsNode node = children[i].find(position, depth - 1);
+            if (node != null) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the depth of the deepest node below this one.
+     */
+    synchronized int getHeight() {
+        int height = 0;
+        for (int i = 0; i < nrChildren; i++) {
+            height = Math.max(height, 1 + children[i].getHeight());
+        }
+        return height;
+    }
+}
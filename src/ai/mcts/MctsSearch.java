@@ -0,0 +1,245 @@
+package ai.mcts;
+
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import ai.search.SearchEngine;
+import ai.search.SearchLimits;
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static model.rules.FagBitboard.bit;
+
+/**
+ * A Monte Carlo tree search (UCT): the tree grows by one node per playout,
+ * towards the moves which won the most playouts so far, and the most
+ * visited move of the root is played.
+ *
+ * <p>
+ * Several threads grow the same tree ("tree parallelisation"): a thread
+ * adds a virtual loss to the nodes of its path until its playout is back,
+ * so that the other threads explore other paths meanwhile. As in
+ * LazySmpSearch, the main thread runs in the calling thread: with a single
+ * thread and a number of playouts (see setMaxPlayouts), the search is
+ * fully deterministic.
+ * </p>
+ * <p>
+ * The tree is kept from a search to the next one: when the new position is
+ * in the tree (usually two plies below the previous root), its subtree and
+ * its statistics are reused.
+ * </p>
+ */
+public class MctsSearch implements SearchEngine {
+
+    // The exploration constant of UCT (sqrt(2) for rewards in [0,1])
+    public final static double EXPLORATION = Math.sqrt(2);
+    // A playout longer than this is a draw, as a game
+    public final static int    MAX_PLAYOUT_PLIES = FagRules.MAX_PLIES;
+    // The number of playouts of a search without any time limit
+    public final static long   DEFAULT_PLAYOUTS = 10000;
+
+    private final PlayoutPolicy   policy;
+    private final Random[]        randoms;
+    private final MoveList[]      lists;
+    private final ExecutorService helpers; // null with a single thread
+    private long maxPlayouts = 0;
+
+    private MctsNode root = null;
+
+    // Statistics of the last search
+    private long playouts;
+    private long elapsed;
+    private long reusedVisits;
+
+    /**
+     * Basic constructor.
+     * @param policy  The policy of the playouts.
+     * @param threads The number of threads (at least 1).
+     * @param seed    The seed of the playouts.
+     */
+    public MctsSearch(PlayoutPolicy policy, int threads, long seed) {
+        this.policy = policy;
+        threads = Math.max(1, threads);
+        randoms = new Random[threads];
+        lists   = new MoveList[threads];
+        for (int i = 0; i < threads; i++) {
+            randoms[i] = new Random(seed + i);
+            lists[i]   = new MoveList();
+        }
+        helpers = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread thread = new Thread(r, "mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Sets the maximal number of playouts of a search.
+     * @param maxPlayouts The number of playouts, or 0 for the time limit only
+     *  (DEFAULT_PLAYOUTS if there is no time limit either).
+     */
+    public void setMaxPlayouts(long maxPlayouts) {
+        this.maxPlayouts = Math.max(0, maxPlayouts);
+    }
+
+    /**
+     * Forgets the tree, e.g. at the start of a new game.
+     */
+    public synchronized void clearTree() {
+        root = null;
+    }
+
+    /**
+     * Searches the best move of a position.
+     * @param position The position to search.
+     * @param limits   The thinking time of the search (the depth is not used).
+     * @return The most visited move, with its mean reward in per mille as
+     *  score, the height of the tree as depth and the playouts as nodes.
+     */
+    @Override
+    public synchronized SearchResult search(FagBitboard position, SearchLimits limits) {
+        long start = System.currentTimeMillis();
+        root = (root != null) ? root.find(position, 2) : null;
+        if (root == null) {
+            root = new MctsNode(null, position.getGeese(), position.getFox(), position.isFoxToMove(),
+                                FagBitboard.NO_POINT, FagBitboard.NO_POINT, 0L);
+        }
+        root.parent = null;
+        reusedVisits = root.getVisits();
+
+        long budget   = (maxPlayouts > 0) ? maxPlayouts : (limits.hasTimeLimit() ? Long.MAX_VALUE : DEFAULT_PLAYOUTS);
+        long deadline = limits.hasTimeLimit() ? start + limits.getMoveTime() : Long.MAX_VALUE;
+        AtomicLong counter = new AtomicLong();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i < randoms.length; i++) {
+            int thread = i;
+            futures.add(helpers.submit(() -> run(thread, counter, budget, deadline)));
+        }
+        run(0, counter, budget, deadline);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException | ExecutionException e) {
+                System.out.println("WARNING: A playout thread failed: " + e.getMessage());
+            }
+        }
+        playouts = Math.min(counter.get(), budget);
+        elapsed  = System.currentTimeMillis() - start;
+
+        // The rewards of the other moves may be as high when the playouts are long
+        MctsNode best = root.getWinningChild();
+        if (best == null) {
+            best = root.getMostVisitedChild();
+        }
+        if (best == null) {
+            return new SearchResult(FagBitboard.NO_POINT, FagBitboard.NO_POINT, 0L, 0, 0, playouts, elapsed);
+        }
+        int score = (int) Math.round(1000 * best.getMeanValue());
+        return new SearchResult(best.from, best.to, best.taken, score, root.getHeight(), playouts, elapsed);
+    }
+
+    // The loop of a thread: selection and expansion, playout, backpropagation
+    private void run(int thread, AtomicLong counter, long budget, long deadline) {
+        MoveList list   = lists[thread];
+        Random   random = randoms[thread];
+        while ((System.currentTimeMillis() < deadline) && (counter.getAndIncrement() < budget)) {
+            MctsNode node = root;
+            MctsNode next;
+            while ((next = node.select(EXPLORATION, list)) != null) {
+                node = next;
+                if (node.getVisits() == 0) break;
+            }
+            double foxReward = playout(node, list, random);
+            for (MctsNode n = node; n != null; n = n.parent) {
+                n.update(foxReward, n != root);
+            }
+        }
+    }
+
+    /**
+     * Plays a game from a node to its end with the policy.
+     * @return The reward of the fox.
+     */
+    private double playout(MctsNode node, MoveList list, Random random) {
+        if (node.isTerminal()) {
+            return node.result.getWinner() == FagRules.FOX_TEAM ? 1.0 : 0.0;
+        }
+        long    geese     = node.geese;
+        int     fox       = node.fox;
+        boolean foxToMove = node.foxToMove;
+        for (int ply = 0; ply < MAX_PLAYOUT_PLIES; ply++) {
+            if (Long.bitCount(geese) <= FagRules.FOX_WIN_GEESE) {
+                return 1.0;
+            }
+            MoveGenerator.generate(geese, fox, foxToMove, list);
+            if (list.size() == 0) {
+                // The side to move loses
+                return foxToMove ? 0.0 : 1.0;
+            }
+            int i = policy.choose(geese, fox, foxToMove, list, random);
+            if (foxToMove) {
+                geese &= ~list.getTaken(i);
+                fox = list.getTo(i);
+            } else {
+                geese = (geese & ~bit(list.getFrom(i))) | bit(list.getTo(i));
+            }
+            foxToMove = !foxToMove;
+        }
+        return 0.5;
+    }
+
+    public PlayoutPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getThreads() {
+        return randoms.length;
+    }
+
+    /**
+     * Returns the number of playouts of the last search.
+     */
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * Returns the number of playouts per second of the last search.
+     */
+    public long getPlayoutsPerSecond() {
+        return (playouts * 1000) / Math.max(1, elapsed);
+    }
+
+    /**
+     * Returns the number of playouts of the root which were reused from the
+     * previous search.
+     */
+    public long getReusedPlayouts() {
+        return reusedVisits;
+    }
+
+    /**
+     * Stops the helper threads. The engine cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    public String toString() {
+        return "MCTS[" + policy + " threads=" + randoms.length + " playouts=" + playouts +
+               " pps=" + getPlayoutsPerSecond() + " reused=" + reusedVisits + "]";
+    }
+}
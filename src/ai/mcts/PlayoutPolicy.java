@@ -0,0 +1,75 @@
+package ai.mcts;
+
+import ai.search.GeeseHeuristic;
+import ai.search.MoveList;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+
+import java.util.Random;
+
+/**
+ * The policies which play the moves of the playouts of MctsSearch, from a
+ * new leaf of the tree to the end of the game.
+ */
+public enum PlayoutPolicy {
+
+    /**
+     * Both sides play a random legal move.
+     */
+    RANDOM {
+        @Override
+        int choose(long geese, int fox, boolean foxToMove, MoveList moves, Random random) {
+            return random.nextInt(moves.size());
+        }
+    },
+
+    /**
+     * The fox plays as FoxAi0 (a longest chain of jumps, or a random step)
+     * and the geese as GeeseAi1 (see GeeseHeuristic).
+     */
+    HEURISTIC {
+        @Override
+        int choose(long geese, int fox, boolean foxToMove, MoveList moves, Random random) {
+            if (foxToMove) {
+                // The captures come first in the list (see MoveGenerator)
+                int longest = 0;
+                int count   = 0;
+                for (int i = 0; i < moves.size(); i++) {
+                    int taken = Long.bitCount(moves.getTaken(i));
+                    if (taken > longest) {
+                        longest = taken;
+                        count   = 0;
+                    }
+                    if (taken == longest) count++;
+                }
+                if (longest == 0) {
+                    return random.nextInt(moves.size());
+                }
+                int n = random.nextInt(count);
+                for (int i = 0; i < moves.size(); i++) {
+                    if ((Long.bitCount(moves.getTaken(i)) == longest) && (n-- == 0)) {
+                        return i;
+                    }
+                }
+            }
+            FagMove move = GeeseHeuristic.getMove(new FagBitboard(geese, fox, false));
+            for (int i = 0; (move != null) && (i < moves.size()); i++) {
+                if ((moves.getFrom(i) == move.getFrom()) && (moves.getTo(i) == move.getTo())) {
+                    return i;
+                }
+            }
+            return random.nextInt(moves.size());
+        }
+    };
+
+    /**
+     * Chooses the move of the side to move.
+     * @param geese     The mask of the geese.
+     * @param fox       The point of the fox.
+     * @param foxToMove True if the fox plays.
+     * @param moves     The legal moves (at least one).
+     * @param random    The random generator of the playout.
+     * @return The index of the move in the list.
+     */
+    abstract int choose(long geese, int fox, boolean foxToMove, MoveList moves, Random random);
+}
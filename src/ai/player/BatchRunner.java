@@ -0,0 +1,60 @@
+package ai.player;
+
+import java.util.function.Consumer;
+
+/**
+ * Plays a batch of games between two computer players as fast as possible
+ * (see GameRunner), and aggregates their results.
+ */
+public class BatchRunner {
+
+    private final GameRunner runner;
+    private boolean verbose = true;
+    private Consumer<GameSummary> gameListener = null;
+
+    /**
+     * Basic constructor.
+     * @param runner The runner of the games.
+     */
+    public BatchRunner(GameRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * Prints the result of each game.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Sets a listener called after each game, e.g. to record it (see
+     * ai.tuning.TrainingData.Recorder).
+     * @param gameListener The listener, or null if none.
+     */
+    public void setGameListener(Consumer<GameSummary> gameListener) {
+        this.gameListener = gameListener;
+    }
+
+    /**
+     * Plays a batch of games from the initial position.
+     * @param games The number of games.
+     * @return The statistics of the batch.
+     */
+    public BatchStatistics run(int games) {
+        BatchStatistics statistics = new BatchStatistics();
+        long start = System.nanoTime();
+        for (int g = 1; g <= games; g++) {
+            GameSummary game = runner.play();
+            statistics.add(game);
+            if (gameListener != null) {
+                gameListener.accept(game);
+            }
+            if (verbose) {
+                System.out.println("Game " + g + "/" + games + ": " + game);
+            }
+        }
+        statistics.setElapsed(System.nanoTime() - start);
+        return statistics;
+    }
+}
@@ -0,0 +1,124 @@
+package ai.player;
+
+import model.rules.GameResult;
+
+import java.util.Arrays;
+
+/**
+ * The aggregated results of a batch of games: the wins of each team, the
+ * length of the games, and the decision latencies of each team.
+ */
+public class BatchStatistics {
+
+    private int  games;
+    private int  foxWins;
+    private int  geeseWins;
+    private long plies;
+    private long elapsed; // in ns, wall-clock time of the whole batch
+
+    // The latencies of the moves of each team (in ns)
+    private long[] foxLatencies   = new long[1024];
+    private int    nrFoxMoves;
+    private long[] geeseLatencies = new long[1024];
+    private int    nrGeeseMoves;
+
+    /**
+     * Adds a game to the statistics.
+     */
+    public synchronized void add(GameSummary game) {
+        games++;
+        if (game.getResult() == GameResult.FOX_WINS) {
+            foxWins++;
+        } else if (game.getResult() == GameResult.GEESE_WIN) {
+            geeseWins++;
+        }
+        plies += game.getNrPlies();
+        for (int ply = 0; ply < game.getNrPlies(); ply++) {
+            if (game.isFoxPly(ply)) {
+                if (nrFoxMoves == foxLatencies.length) foxLatencies = Arrays.copyOf(foxLatencies, 2 * nrFoxMoves);
+                foxLatencies[nrFoxMoves++] = game.getLatency(ply);
+            } else {
+                if (nrGeeseMoves == geeseLatencies.length) geeseLatencies = Arrays.copyOf(geeseLatencies, 2 * nrGeeseMoves);
+                geeseLatencies[nrGeeseMoves++] = game.getLatency(ply);
+            }
+        }
+    }
+
+    /**
+     * Sets the wall-clock time of the batch (in ns).
+     */
+    public synchronized void setElapsed(long elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    public synchronized int getNrGames() {
+        return games;
+    }
+
+    public synchronized int getFoxWins() {
+        return foxWins;
+    }
+
+    public synchronized int getGeeseWins() {
+        return geeseWins;
+    }
+
+    public synchronized int getDraws() {
+        return games - foxWins - geeseWins;
+    }
+
+    public synchronized double getAveragePlies() {
+        return (games > 0) ? (double) plies / games : 0.0;
+    }
+
+    /**
+     * Returns the number of moves played per second of wall-clock time.
+     */
+    public synchronized double getMovesPerSecond() {
+        return (elapsed > 0) ? plies * 1e9 / elapsed : 0.0;
+    }
+
+    /**
+     * Returns a percentile of the decision latencies of a team (in ns).
+     * @param fox        True for the fox, false for the geese.
+     * @param percentile The percentile, between 0 and 100.
+     */
+    public synchronized long getLatencyPercentile(boolean fox, double percentile) {
+        long[] sorted = fox ? Arrays.copyOf(foxLatencies, nrFoxMoves) : Arrays.copyOf(geeseLatencies, nrGeeseMoves);
+        Arrays.sort(sorted);
+        return percentile(sorted, percentile);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] values, double percentile) {
+        if (values.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * values.length);
+        return values[Math.min(values.length, Math.max(1, rank)) - 1];
+    }
+
+    private static String formatLatencies(long[] values, int count) {
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return String.format("%d moves, p50=%.3fms p90=%.3fms p99=%.3fms max=%.3fms", count,
+                             percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6,
+                             percentile(sorted, 99) / 1e6, percentile(sorted, 100) / 1e6);
+    }
+
+    private static String formatRate(int count, int games) {
+        return String.format("%d (%.1f%%)", count, (games > 0) ? 100.0 * count / games : 0.0);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Games: " + games + " in " + String.format("%.2fs", elapsed / 1e9) + "\n" +
+               "  Fox wins:   " + formatRate(foxWins, games) + "\n" +
+               "  Geese win:  " + formatRate(geeseWins, games) + "\n" +
+               "  Draws:      " + formatRate(getDraws(), games) + "\n" +
+               "  Plies:      " + String.format("%.1f", getAveragePlies()) + " per game, " +
+                                   String.format("%.0f", getMovesPerSecond()) + " moves/s\n" +
+               "  Fox moves:   " + formatLatencies(foxLatencies, nrFoxMoves) + "\n" +
+               "  Geese moves: " + formatLatencies(geeseLatencies, nrGeeseMoves);
+    }
+}
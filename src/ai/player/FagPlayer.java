@@ -0,0 +1,40 @@
+package ai.player;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+
+/**
+ * A computer player which chooses the moves of one team without any
+ * graphical toolkit (see GameRunner).
+ *
+ * <p>
+ * A player only sees the positions where it is to move, and owns its random
+ * generator and search tables: two players never share any mutable state.
+ * </p>
+ */
+public interface FagPlayer {
+
+    /**
+     * Returns the name of the player (i.e. "Ai-0", "Ai-1", ...).
+     */
+    String getName();
+
+    /**
+     * Called before the first move of a game.
+     */
+    default void newGame() {
+    }
+
+    /**
+     * Chooses a move.
+     * @param position The position, whose side to move is the team of the player.
+     * @return A legal move (see FagRules).
+     */
+    FagMove decide(FagBitboard position);
+
+    /**
+     * Releases the threads of the player, if any.
+     */
+    default void shutdown() {
+    }
+}
@@ -0,0 +1,85 @@
+package ai.player;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.GameResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Plays complete games between two computer players through the rules of
+ * the game (see FagRules), without any animation or rendering.
+ *
+ * <p>
+ * The geese can shuffle sideways forever: a game which is not over after
+ * FagRules.MAX_PLIES plies is a draw.
+ * </p>
+ */
+public class GameRunner {
+
+    private final FagPlayer foxPlayer;
+    private final FagPlayer geesePlayer;
+    private int maxPlies = FagRules.MAX_PLIES;
+
+    /**
+     * Basic constructor.
+     * @param foxPlayer   The player of the fox.
+     * @param geesePlayer The player of the geese.
+     */
+    public GameRunner(FagPlayer foxPlayer, FagPlayer geesePlayer) {
+        this.foxPlayer = foxPlayer;
+        this.geesePlayer = geesePlayer;
+    }
+
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    public FagPlayer getFoxPlayer() {
+        return foxPlayer;
+    }
+
+    public FagPlayer getGeesePlayer() {
+        return geesePlayer;
+    }
+
+    /**
+     * Plays a game from the initial position (see FagBitboard.initial).
+     * @return The summary of the game.
+     */
+    public GameSummary play() {
+        return play(FagBitboard.initial());
+    }
+
+    /**
+     * Plays a game from a position.
+     * @param first The first position of the game.
+     * @return The summary of the game.
+     * @throws IllegalArgumentException If a player chooses an illegal move.
+     */
+    public GameSummary play(FagBitboard first) {
+        foxPlayer.newGame();
+        geesePlayer.newGame();
+
+        FagBitboard   position  = first;
+        List<FagMove> moves     = new ArrayList<>();
+        long[]        latencies = new long[maxPlies];
+        GameResult    result    = FagRules.getResult(position);
+        while (!result.isOver() && (moves.size() < maxPlies)) {
+            FagPlayer player = position.isFoxToMove() ? foxPlayer : geesePlayer;
+            long    start = System.nanoTime();
+            FagMove move  = player.decide(position);
+            latencies[moves.size()] = System.nanoTime() - start;
+            if (move == null) {
+                throw new IllegalArgumentException(player.getName() + " did not find any move in position\n" + position);
+            }
+            position = FagRules.play(position, move);
+            moves.add(move);
+            result = FagRules.getResult(position);
+        }
+        return new GameSummary(first, moves, Arrays.copyOf(latencies, moves.size()), result);
+    }
+}
@@ -0,0 +1,65 @@
+package ai.player;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.GameResult;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The summary of a game played by a GameRunner: its moves, the time spent
+ * by the players on each of them, and its result.
+ */
+public class GameSummary {
+
+    private final FagBitboard   first;
+    private final List<FagMove> moves;
+    private final long[]        latencies; // in ns, per ply
+    private final GameResult    result;
+
+    public GameSummary(FagBitboard first, List<FagMove> moves, long[] latencies, GameResult result) {
+        this.first = first;
+        this.moves = Collections.unmodifiableList(moves);
+        this.latencies = latencies;
+        this.result = result;
+    }
+
+    public FagBitboard getFirstPosition() {
+        return first;
+    }
+
+    public List<FagMove> getMoves() {
+        return moves;
+    }
+
+    public int getNrPlies() {
+        return moves.size();
+    }
+
+    /**
+     * Returns the time spent by a player to choose the move of a ply (in ns).
+     */
+    public long getLatency(int ply) {
+        return latencies[ply];
+    }
+
+    /**
+     * Returns true if the move of a ply was played by the fox.
+     */
+    public boolean isFoxPly(int ply) {
+        return first.isFoxToMove() == ((ply & 1) == 0);
+    }
+
+    /**
+     * Returns the result of the game (NONE for a draw, see FagRules.MAX_PLIES).
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return result + " in " + moves.size() + " plies";
+    }
+}
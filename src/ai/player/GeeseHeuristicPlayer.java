@@ -0,0 +1,22 @@
+package ai.player;
+
+import ai.search.GeeseHeuristic;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+
+/**
+ * The AI #1 of the geese (see FagDecider.GeeseAi1), on a bitboard: a player
+ * over GeeseHeuristic.
+ */
+public class GeeseHeuristicPlayer implements FagPlayer {
+
+    @Override
+    public String getName() {
+        return "Ai-1";
+    }
+
+    @Override
+    public FagMove decide(FagBitboard position) {
+        return GeeseHeuristic.getMove(position);
+    }
+}
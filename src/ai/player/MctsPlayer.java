@@ -0,0 +1,71 @@
+package ai.player;
+
+import ai.mcts.MctsSearch;
+import ai.mcts.PlayoutPolicy;
+import ai.search.SearchLimits;
+import ai.search.SearchResult;
+import ai.tablebase.Tablebase;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+
+/**
+ * The Monte Carlo tree search AIs of both teams (see FagDecider.MctsAi):
+ * the move is read from the endgame tablebases if the position is in them,
+ * and searched by MctsSearch otherwise.
+ *
+ * <p>
+ * The tree of a move is reused by the next one, and forgotten at the start
+ * of each game.
+ * </p>
+ */
+public class MctsPlayer implements FagPlayer {
+
+    private final String       name;
+    private final SearchLimits limits;
+    private final MctsSearch   engine;
+    private final Tablebase    tablebase;
+
+    /**
+     * Basic constructor.
+     * @param name      The name of the player.
+     * @param policy    The policy of the playouts.
+     * @param limits    The thinking time of each search.
+     * @param threads   The number of search threads.
+     * @param seed      The seed of the playouts.
+     * @param tablebase The endgame tablebases, or null.
+     */
+    public MctsPlayer(String name, PlayoutPolicy policy, SearchLimits limits, int threads, long seed, Tablebase tablebase) {
+        this.name = name;
+        this.limits = limits;
+        this.engine = new MctsSearch(policy, threads, seed);
+        this.tablebase = tablebase;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public MctsSearch getEngine() {
+        return engine;
+    }
+
+    @Override
+    public void newGame() {
+        engine.clearTree();
+    }
+
+    @Override
+    public FagMove decide(FagBitboard position) {
+        SearchResult result = (tablebase != null) ? tablebase.getBestMove(position) : null;
+        if (result == null) {
+            result = engine.search(position, limits);
+        }
+        return result.hasMove() ? new FagMove(result.getFrom(), result.getTo(), result.getTaken()) : null;
+    }
+
+    @Override
+    public void shutdown() {
+        engine.shutdown();
+    }
+}
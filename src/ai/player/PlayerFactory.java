@@ -0,0 +1,18 @@
+package ai.player;
+
+import java.util.Random;
+
+/**
+ * Creates the players of an AI, so that each game (and each thread) gets its
+ * own players (see FagDecider.createPlayer).
+ */
+public interface PlayerFactory {
+
+    /**
+     * Creates a player.
+     * @param team   The team of the player (FagRules.FOX_TEAM or FagRules.GEESE_TEAM).
+     * @param random The random generator of the player.
+     * @return The player.
+     */
+    FagPlayer create(int team, Random random);
+}
@@ -0,0 +1,60 @@
+package ai.player;
+
+import model.rules.FagBitboard;
+import model.rules.FagCaptures;
+import model.rules.FagMove;
+import model.rules.FagRules;
+
+import java.util.Random;
+
+/**
+ * The AI #0 of both teams (see FagDecider.FoxAi0 and FagDecider.GeeseAi0).
+ *
+ * <ul>
+ *   <li>The fox plays a chain of jumps which takes the most geese when it
+ *       can take a goose (a random one among them), and moves at random
+ *       otherwise.</li>
+ *   <li>The geese move a random movable goose in a random direction.</li>
+ * </ul>
+ */
+public class RandomPlayer implements FagPlayer {
+
+    private final Random      random;
+    private final FagCaptures captures = new FagCaptures();
+
+    /**
+     * Basic constructor.
+     * @param random The random generator of this player.
+     */
+    public RandomPlayer(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public String getName() {
+        return "Ai-0";
+    }
+
+    @Override
+    public FagMove decide(FagBitboard position) {
+        if (position.isFoxToMove()) {
+            int fox   = position.getFox();
+            int chain = captures.generate(position.getGeese(), fox).pickLongest(random);
+            if (chain >= 0) {
+                return new FagMove(fox, captures.getTo(chain), captures.getTaken(chain));
+            }
+            return FagRules.findMove(position, fox, pick(position.reachableForFox()));
+        }
+        int goose = pick(FagBitboard.movableGeese(position.getGeese(), position.getFox()));
+        return FagRules.findMove(position, goose, pick(position.reachableForGoose(goose)));
+    }
+
+    // Picks a random point of a (non empty) mask
+    private int pick(long mask) {
+        int n = random.nextInt(Long.bitCount(mask));
+        for (int i = 0; i < n; i++) {
+            mask &= mask - 1;
+        }
+        return Long.numberOfTrailingZeros(mask);
+    }
+}
@@ -0,0 +1,96 @@
+package ai.player;
+
+import ai.book.OpeningBook;
+import ai.search.LazySmpSearch;
+import ai.search.SearchLimits;
+import ai.search.SearchResult;
+import ai.search.TranspositionTable;
+import ai.tablebase.Tablebase;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+
+import java.util.Random;
+
+/**
+ * The search based AIs of both teams (see FagDecider.SearchAi): the move is
+ * read from the opening book or from the endgame tablebases if the position
+ * is in them, and searched otherwise.
+ *
+ * <p>
+ * The player owns its search and its transposition table, which is cleared
+ * at the start of each game: the games of a batch do not depend on each
+ * other.
+ * </p>
+ */
+public class SearchPlayer implements FagPlayer {
+
+    private final String             name;
+    private final SearchLimits       limits;
+    private final TranspositionTable transpositionTable;
+    private final LazySmpSearch      engine;
+    private final Tablebase          tablebase;
+    private OpeningBook openingBook = null;
+    private Random      bookRandom  = null;
+
+    /**
+     * Basic constructor.
+     * @param name      The name of the player.
+     * @param limits    The depth and time limits of each search.
+     * @param ttSizeMb  The size of the transposition table (in MB).
+     * @param threads   The number of search threads.
+     * @param seed      The seed of the helper threads (see LazySmpSearch).
+     * @param tablebase The endgame tablebases, or null.
+     */
+    public SearchPlayer(String name, SearchLimits limits, int ttSizeMb, int threads, long seed, Tablebase tablebase) {
+        this.name = name;
+        this.limits = limits;
+        this.transpositionTable = new TranspositionTable(ttSizeMb);
+        this.engine = new LazySmpSearch(transpositionTable, threads, seed);
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets the opening book of the player. The book is only used if its
+     *  moves were searched at most as deep as the limits of the player.
+     * @param openingBook The book, or null if none.
+     * @param random      The random generator of the choice between the book moves.
+     */
+    public void setOpeningBook(OpeningBook openingBook, Random random) {
+        this.openingBook = openingBook;
+        this.bookRandom = random;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    @Override
+    public void newGame() {
+        transpositionTable.clear();
+    }
+
+    @Override
+    public FagMove decide(FagBitboard position) {
+        SearchResult result = null;
+        if ((openingBook != null) && (openingBook.getDepth() <= limits.getDepth())) {
+            result = openingBook.getMove(position, bookRandom);
+        }
+        if ((result == null) && (tablebase != null)) {
+            result = tablebase.getBestMove(position);
+        }
+        if (result == null) {
+            result = engine.search(position, limits);
+        }
+        return result.hasMove() ? new FagMove(result.getFrom(), result.getTo(), result.getTaken()) : null;
+    }
+
+    @Override
+    public void shutdown() {
+        engine.shutdown();
+    }
+}
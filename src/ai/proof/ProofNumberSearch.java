@@ -0,0 +1,332 @@
+package ai.proof;
+
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import model.rules.FagSymmetry;
+import model.rules.FagZobrist;
+
+/**
+ * A depth-first proof-number search (df-pn) which proves or disproves the
+ * forced win of a team: the geese trapping the fox, or the fox taking enough
+ * geese (or leaving the geese without a move).
+ *
+ * <p>
+ * The positions of the team trying to win (the attacker) are OR nodes: one
+ * winning move proves them. The positions of the defender are AND nodes:
+ * all the moves must lose. Each node has a proof number and a disproof
+ * number, the least numbers of leaves to prove or to disprove it, and the
+ * search always expands the most proving node. Unlike an alpha-beta search,
+ * it needs no evaluation: it goes deep along the forcing lines, and a
+ * mobile fox is quickly disproven.
+ * </p>
+ * <p>
+ * The numbers are kept in a bounded table (see ProofTable), keyed by the
+ * canonical form of the positions (see FagSymmetry). The search of a node
+ * returns once its numbers exceed the thresholds given by its parent, and
+ * the threshold of the best child is 1+1/4 times the number of the second
+ * best one, so that the search does not keep switching between them. An
+ * unknown position where the fox is to move starts with its number of moves
+ * as the number the defender or the attacker must gather, and the other
+ * one at 1. The numbers saturate at INFINITY-1 while unsolved.
+ * </p>
+ * <p>
+ * A position repeated along the current path is a failure of the attacker,
+ * as the game could go on forever. A disproof may therefore be found where
+ * another path would prove the win, but a proof is always sound. Only the
+ * positions since the last irreversible move (a capture, or a goose going
+ * South) are compared.
+ * </p>
+ *
+ * @note An instance is not thread-safe.
+ */
+public class ProofNumberSearch {
+
+    public final static int INFINITY = ProofTable.INFINITY;
+    // The deepest path of the search, beyond which a position is disproven
+    public final static int MAX_PLY = 512;
+
+    // The threshold of the best child is (1 + 1/2^EPSILON_SHIFT) times the number of the second best
+    private final static int EPSILON_SHIFT = 2;
+
+    private final ProofTable table;
+    private final int        foxWinGeese;
+
+    // Per ply: the moves, and the numbers of the children (allocated on first use)
+    private final MoveList[] moveLists      = new MoveList[MAX_PLY];
+    private final int[][]    childProofs    = new int[MAX_PLY][];
+    private final int[][]    childDisproofs = new int[MAX_PLY][];
+    // The canonical keys of the positions of the current path
+    private final long[]     path = new long[MAX_PLY];
+    // Per ply: the first ply of the path since the last irreversible move
+    private final int[]      reversibleStart = new int[MAX_PLY];
+
+    private boolean foxAttacks;
+    private long    nodes;
+    private long    maxNodes;
+
+    /**
+     * Basic constructor.
+     * @param tableSizeMb The size of the table of the numbers, in megabytes.
+     */
+    public ProofNumberSearch(int tableSizeMb) {
+        this(new ProofTable(tableSizeMb), FagRules.FOX_WIN_GEESE);
+    }
+
+    /**
+     * Constructor of a variant of the game (see TablebaseGenerator).
+     * @param table       The table of the numbers.
+     * @param foxWinGeese The number of geese at which the fox wins.
+     */
+    public ProofNumberSearch(ProofTable table, int foxWinGeese) {
+        this.table = table;
+        this.foxWinGeese = foxWinGeese;
+    }
+
+    public ProofTable getTable() {
+        return table;
+    }
+
+    /**
+     * Proves or disproves the win of a team. The table is kept from a call
+     * to the next: the numbers of a position do not depend on the search.
+     * @param position The position.
+     * @param attacker The team whose win is searched (FOX_TEAM or GEESE_TEAM).
+     * @param maxNodes The node budget of the search.
+     * @return The result, with the winning move if the win is proven and the
+     *  attacker is to move.
+     */
+    public ProofResult solve(FagBitboard position, int attacker, long maxNodes) {
+        long start = System.currentTimeMillis();
+        if (foxAttacks != (attacker == FagRules.FOX_TEAM)) {
+            // The numbers of the other attacker do not apply
+            table.clear();
+        }
+        this.foxAttacks = (attacker == FagRules.FOX_TEAM);
+        this.maxNodes = Math.max(1, maxNodes);
+        nodes = 0;
+        reversibleStart[0] = 0;
+
+        long geese     = position.getGeese();
+        int  fox       = position.getFox();
+        long numbers   = search(position.getKey(), FagSymmetry.getMirrorKey(geese, fox, position.isFoxToMove()),
+                                geese, fox, position.isFoxToMove(), INFINITY, INFINITY, 0);
+        int  proof     = getProof(numbers);
+        int  disproof  = getDisproof(numbers);
+        ProofResult.Status status = (proof == 0)    ? ProofResult.Status.PROVEN :
+                                    (disproof == 0) ? ProofResult.Status.DISPROVEN : ProofResult.Status.UNKNOWN;
+
+        // The winning move is the proven child of the root
+        int  from  = FagBitboard.NO_POINT;
+        int  to    = FagBitboard.NO_POINT;
+        long taken = 0L;
+        if ((status == ProofResult.Status.PROVEN) && (position.isFoxToMove() == foxAttacks) && (moveLists[0] != null)) {
+            MoveList list = moveLists[0];
+            for (int i = 0; i < list.size(); i++) {
+                if (childProofs[0][i] == 0) {
+                    from  = list.getFrom(i);
+                    to    = list.getTo(i);
+                    taken = list.getTaken(i);
+                    break;
+                }
+            }
+        }
+        return new ProofResult(status, from, to, taken, nodes, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Returns the number of nodes visited by the last call to solve.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * The recursive df-pn search of a position, until its numbers reach the
+     * thresholds or the node budget is spent.
+     * @param key       The Zobrist key of the position.
+     * @param mirrorKey The Zobrist key of the mirrored position.
+     * @return The proof and disproof numbers of the position (see getProof and getDisproof).
+     */
+    private long search(long key, long mirrorKey, long geese, int fox, boolean foxToMove,
+                        int proofThreshold, int disproofThreshold, int ply) {
+        nodes++;
+        long startNodes = nodes;
+        if (Long.bitCount(geese) <= foxWinGeese) {
+            return getWin(true);
+        }
+        MoveList list = getMoveList(ply);
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        // The side which cannot move loses
+        if (list.size() == 0) {
+            return getWin(!foxToMove);
+        }
+        if (childProofs[ply].length < list.size()) {
+            childProofs[ply]    = new int[list.size()];
+            childDisproofs[ply] = new int[list.size()];
+        }
+        if (ply + 1 >= MAX_PLY) {
+            return pack(INFINITY, 0);
+        }
+        long canonical = FagSymmetry.isMirrored(geese, fox) ? mirrorKey : key;
+        path[ply] = canonical;
+
+        // OR node: min of the proofs, sum of the disproofs. AND node: the other way round.
+        boolean orNode    = (foxToMove == foxAttacks);
+        int[]   proofs    = childProofs[ply];
+        int[]   disproofs = childDisproofs[ply];
+        int     proof;
+        int     disproof;
+        while (true) {
+            int  best      = 0;
+            int  bestMin   = INFINITY + 1;
+            int  secondMin = INFINITY;
+            long sum       = 0;
+            boolean solved = false; // A child has an infinite number in the sum
+            for (int i = 0; i < list.size(); i++) {
+                long child = getChildNumbers(key, mirrorKey, geese, fox, foxToMove, list, i, ply);
+                proofs[i]    = getProof(child);
+                disproofs[i] = getDisproof(child);
+                int min = orNode ? proofs[i] : disproofs[i];
+                int summed = orNode ? disproofs[i] : proofs[i];
+                sum += summed;
+                solved |= (summed >= INFINITY);
+                if (min < bestMin) {
+                    secondMin = bestMin;
+                    bestMin   = min;
+                    best      = i;
+                } else if (min < secondMin) {
+                    secondMin = min;
+                }
+            }
+            int min = bestMin;
+            // A large sum saturates below INFINITY, which only means a proof or a disproof
+            int sat = solved ? INFINITY : (int) Math.min(sum, INFINITY - 1);
+            proof    = orNode ? min : sat;
+            disproof = orNode ? sat : min;
+            if ((proof >= proofThreshold) || (disproof >= disproofThreshold) || (nodes >= maxNodes)) {
+                break;
+            }
+
+            // The thresholds of the best child
+            int minThreshold = orNode ? proofThreshold : disproofThreshold;
+            int sumThreshold = orNode ? disproofThreshold : proofThreshold;
+            int bestSum      = orNode ? disproofs[best] : proofs[best];
+            int childMin = Math.min(minThreshold, secondMin + (secondMin >> EPSILON_SHIFT) + 1);
+            int childSum = (sumThreshold >= INFINITY) ? INFINITY :
+                           (int) Math.min(INFINITY, (long) sumThreshold - sum + bestSum);
+            searchChild(key, mirrorKey, geese, fox, foxToMove, list, best,
+                        orNode ? childMin : childSum, orNode ? childSum : childMin, ply);
+        }
+        table.store(canonical, proof, disproof, nodes - startNodes + 1);
+        return pack(proof, disproof);
+    }
+
+    // Plays the i-th move of a list and searches the resulting position
+    private void searchChild(long key, long mirrorKey, long geese, int fox, boolean foxToMove, MoveList list, int i,
+                             int proofThreshold, int disproofThreshold, int ply) {
+        int from = list.getFrom(i);
+        int to   = list.getTo(i);
+        reversibleStart[ply + 1] = isReversible(foxToMove, from, to, list.getTaken(i)) ? reversibleStart[ply] : ply + 1;
+        if (foxToMove) {
+            long taken = list.getTaken(i);
+            search(key ^ FagZobrist.getFoxMoveKey(from, to, taken),
+                   mirrorKey ^ FagSymmetry.getMirrorFoxMoveKey(from, to, taken),
+                   geese & ~taken, to, false, proofThreshold, disproofThreshold, ply + 1);
+        } else {
+            search(key ^ FagZobrist.getGooseMoveKey(from, to),
+                   mirrorKey ^ FagSymmetry.getMirrorGooseMoveKey(from, to),
+                   (geese & ~FagBitboard.bit(from)) | FagBitboard.bit(to), fox, true,
+                   proofThreshold, disproofThreshold, ply + 1);
+        }
+    }
+
+    // Returns the numbers of the position reached by the i-th move of a list
+    private long getChildNumbers(long key, long mirrorKey, long geese, int fox, boolean foxToMove, MoveList list, int i,
+                                 int ply) {
+        int from = list.getFrom(i);
+        int to   = list.getTo(i);
+        if (foxToMove) {
+            long taken = list.getTaken(i);
+            geese &= ~taken;
+            if (Long.bitCount(geese) <= foxWinGeese) {
+                return getWin(true);
+            }
+            key       ^= FagZobrist.getFoxMoveKey(from, to, taken);
+            mirrorKey ^= FagSymmetry.getMirrorFoxMoveKey(from, to, taken);
+            fox = to;
+        } else {
+            geese = (geese & ~FagBitboard.bit(from)) | FagBitboard.bit(to);
+            key       ^= FagZobrist.getGooseMoveKey(from, to);
+            mirrorKey ^= FagSymmetry.getMirrorGooseMoveKey(from, to);
+        }
+        boolean childFoxToMove = !foxToMove;
+
+        // The game is over in the child
+        int foxMoves = 0;
+        if (childFoxToMove) {
+            foxMoves = Long.bitCount(FagBitboard.foxSteps(fox, geese)) + (FagBitboard.canJump(fox, geese) ? 1 : 0);
+            if (foxMoves == 0) {
+                return getWin(false);
+            }
+        } else if (FagBitboard.movableGeese(geese, fox) == 0L) {
+            return getWin(true);
+        }
+
+        long canonical = FagSymmetry.isMirrored(geese, fox) ? mirrorKey : key;
+        if (isReversible(foxToMove, from, to, list.getTaken(i))) {
+            // Only the positions of the same side to move since the last irreversible move can repeat
+            for (int p = ply - 1; p >= reversibleStart[ply]; p -= 2) {
+                if (path[p] == canonical) {
+                    return pack(INFINITY, 0); // A repetition
+                }
+            }
+        }
+        long data = table.probe(canonical);
+        if (data != 0L) {
+            return pack(ProofTable.getProof(data), ProofTable.getDisproof(data));
+        }
+        // The more mobile the fox, the harder it is to trap, and the more moves it has to win
+        if (childFoxToMove) {
+            return foxAttacks ? pack(1, foxMoves) : pack(foxMoves, 1);
+        }
+        return pack(1, 1);
+    }
+
+    // Returns true if a move can be undone: a step of the fox, or a goose move
+    //  to the East or the West (the geese never go back North, and the taken geese never come back)
+    private static boolean isReversible(boolean foxMove, int from, int to, long taken) {
+        return foxMove ? (taken == 0L) : (FagBitboard.getRow(from) == FagBitboard.getRow(to));
+    }
+
+    // The numbers of a position won by the fox or by the geese
+    private long getWin(boolean foxWins) {
+        return (foxWins == foxAttacks) ? pack(0, INFINITY) : pack(INFINITY, 0);
+    }
+
+    private MoveList getMoveList(int ply) {
+        if (moveLists[ply] == null) {
+            moveLists[ply]      = new MoveList();
+            childProofs[ply]    = new int[MoveList.INITIAL_SIZE];
+            childDisproofs[ply] = new int[MoveList.INITIAL_SIZE];
+        }
+        return moveLists[ply];
+    }
+
+    private static long pack(int proof, int disproof) {
+        return ((long) proof << 32) | disproof;
+    }
+
+    private static int getProof(long numbers) {
+        return (int) (numbers >>> 32);
+    }
+
+    private static int getDisproof(long numbers) {
+        return (int) numbers;
+    }
+
+    public String toString() {
+        return "PNS[attacker=" + (foxAttacks ? "fox" : "geese") + " nodes=" + nodes + " " + table + "]";
+    }
+}
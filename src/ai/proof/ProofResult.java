@@ -0,0 +1,98 @@
+package ai.proof;
+
+import ai.search.AlphaBetaSearch;
+import ai.search.SearchLimits;
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+
+/**
+ * The outcome of a ProofNumberSearch: whether the win of the attacker was
+ * proven or disproven, the winning move when it was proven and the attacker
+ * is to move, and some statistics about the search.
+ */
+public class ProofResult {
+
+    public enum Status {
+        PROVEN,    // The attacker wins whatever the defender plays
+        DISPROVEN, // The defender avoids the loss
+        UNKNOWN    // The node budget was spent first
+    }
+
+    private final Status status;
+    private final int    from;
+    private final int    to;
+    private final long   taken;
+    private final long   nodes;
+    private final long   elapsed; // in milliseconds
+
+    /**
+     * Basic constructor.
+     * @param status  The status of the win of the attacker.
+     * @param from    The point of the moved pawn of the winning move (NO_POINT if none).
+     * @param to      The destination point of the moved pawn.
+     * @param taken   The mask of the geese taken by the move.
+     * @param nodes   The number of visited nodes.
+     * @param elapsed The search time in milliseconds.
+     */
+    public ProofResult(Status status, int from, int to, long taken, long nodes, long elapsed) {
+        this.status = status;
+        this.from = from;
+        this.to = to;
+        this.taken = taken;
+        this.nodes = nodes;
+        this.elapsed = elapsed;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isProven() {
+        return status == Status.PROVEN;
+    }
+
+    public boolean isDisproven() {
+        return status == Status.DISPROVEN;
+    }
+
+    /**
+     * Returns true if the result holds a winning move.
+     */
+    public boolean hasMove() {
+        return from != FagBitboard.NO_POINT;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public long getTaken() {
+        return taken;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the winning move as the result of a search. The distance to the
+     * win is not known: the score is the lowest score of a win.
+     */
+    public SearchResult toSearchResult() {
+        return new SearchResult(from, to, taken, AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH, 0, nodes, elapsed);
+    }
+
+    public String toString() {
+        String move = hasMove() ? " move=" + FagBitboard.toString(from) + " -> " + FagBitboard.toString(to) +
+                " (takes " + Long.bitCount(taken) + ")" : "";
+        return status + move + " nodes=" + nodes + " time=" + elapsed + "ms";
+    }
+}
@@ -0,0 +1,131 @@
+package ai.proof;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of the proof and disproof numbers of the positions
+ * searched by a ProofNumberSearch.
+ *
+ * <p>
+ * The table is a power-of-two number of buckets stored in a single primitive
+ * long[] array. Each bucket has two entries of two longs: the Zobrist key and
+ * the data. When a bucket is full, the entry with the smallest work (i.e.
+ * the number of nodes searched to compute its numbers) is replaced, so that
+ * the expensive results stay in the table.
+ * </p>
+ *
+ * <pre>
+ * Data layout (64 bits):
+ *   bits  0-27  proof number
+ *   bits 28-55  disproof number
+ *   bits 56-62  work (log2 of the number of nodes + 1)
+ * </pre>
+ *
+ * @note An instance is not thread-safe.
+ */
+public class ProofTable {
+
+    // The numbers saturate at INFINITY: a number of INFINITY is a proof or a disproof
+    public final static int INFINITY = (1 << 28) - 1;
+
+    private final static int NUMBER_BITS = 28;
+    private final static int WORK_SHIFT  = 2 * NUMBER_BITS;
+    private final static int LONGS_PER_BUCKET = 4; // 2 entries of 2 longs
+    private final static int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] table;
+    private final long   bucketMask;
+
+    // Statistics
+    private long stores     = 0;
+    private long overwrites = 0;
+
+    /**
+     * Basic constructor.
+     * @param sizeMb The size of the table in megabytes. It is rounded down to
+     *               a power of two number of buckets.
+     */
+    public ProofTable(int sizeMb) {
+        long buckets = Long.highestOneBit(Math.max(1L, ((long) sizeMb << 20) / BYTES_PER_BUCKET));
+        // A Java array cannot have more than 2^31-1 elements
+        buckets = Math.min(buckets, 1L << 28);
+        table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Empties the table and resets its statistics.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        stores = 0;
+        overwrites = 0;
+    }
+
+    /**
+     * Returns the data of a position (see getProof and getDisproof), or 0 if
+     * the position is not in the table.
+     */
+    public long probe(long key) {
+        int b = getBucket(key);
+        for (int e = 0; e < LONGS_PER_BUCKET; e += 2) {
+            if ((table[b + e] == key) && (table[b + e + 1] != 0L)) {
+                return table[b + e + 1];
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores the numbers of a position.
+     * @param key      The Zobrist key of the position.
+     * @param proof    The proof number.
+     * @param disproof The disproof number.
+     * @param work     The number of nodes searched to compute them.
+     */
+    public void store(long key, int proof, int disproof, long work) {
+        int  b    = getBucket(key);
+        long data = encode(proof, disproof, work);
+        stores++;
+        int victim = -1;
+        for (int e = 0; e < LONGS_PER_BUCKET; e += 2) {
+            if ((table[b + e] == key) || (table[b + e + 1] == 0L)) {
+                victim = e;
+                break;
+            }
+        }
+        if (victim < 0) {
+            // Keep the entry which was the most expensive to compute
+            victim = (getWork(table[b + 1]) <= getWork(table[b + 3])) ? 0 : 2;
+            overwrites++;
+        }
+        table[b + victim]     = key;
+        table[b + victim + 1] = data;
+    }
+
+    private int getBucket(long key) {
+        return (int) (key & bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    static long encode(int proof, int disproof, long work) {
+        long log = 64 - Long.numberOfLeadingZeros(work); // log2(work) + 1, at least 1
+        return (long) Math.min(proof, INFINITY) | ((long) Math.min(disproof, INFINITY) << NUMBER_BITS) |
+               (Math.max(1L, Math.min(log, 127L)) << WORK_SHIFT);
+    }
+
+    public static int getProof(long data) {
+        return (int) (data & INFINITY);
+    }
+
+    public static int getDisproof(long data) {
+        return (int) ((data >>> NUMBER_BITS) & INFINITY);
+    }
+
+    static int getWork(long data) {
+        return (int) (data >>> WORK_SHIFT);
+    }
+
+    public String toString() {
+        return "ProofTable[entries=" + (table.length / 2) + " stores=" + stores + " overwrites=" + overwrites + "]";
+    }
+}
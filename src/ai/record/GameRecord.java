@@ -0,0 +1,99 @@
+package ai.record;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.GameResult;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recorded game: who played it, with which seed, its first position, its
+ * moves and its result (see GameRecordWriter and GameRecordReader for the
+ * format of the files).
+ */
+public class GameRecord {
+
+    // The level of a human player
+    public final static int HUMAN = -1;
+
+    private final long          seed;
+    private final int           number;
+    private final String        foxName;
+    private final int           foxLevel;
+    private final String        geeseName;
+    private final int           geeseLevel;
+    private final FagBitboard   first;
+    private final List<FagMove> moves;
+    private final GameResult    result;
+
+    /**
+     * Basic constructor.
+     * @param seed       The seed of the random generators of the game.
+     * @param number     The number of the game in its batch or tournament (0 if none).
+     * @param foxName    The name of the player of the fox.
+     * @param foxLevel   The AI level of the player of the fox (HUMAN for a human).
+     * @param geeseName  The name of the player of the geese.
+     * @param geeseLevel The AI level of the player of the geese (HUMAN for a human).
+     * @param first      The first position of the game.
+     * @param moves      The moves of the game.
+     * @param result     The result of the game (NONE for a draw or an unfinished game).
+     */
+    public GameRecord(long seed, int number, String foxName, int foxLevel, String geeseName, int geeseLevel,
+                      FagBitboard first, List<FagMove> moves, GameResult result) {
+        this.seed = seed;
+        this.number = number;
+        this.foxName = foxName;
+        this.foxLevel = foxLevel;
+        this.geeseName = geeseName;
+        this.geeseLevel = geeseLevel;
+        this.first = first;
+        this.moves = Collections.unmodifiableList(moves);
+        this.result = result;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public String getFoxName() {
+        return foxName;
+    }
+
+    public int getFoxLevel() {
+        return foxLevel;
+    }
+
+    public String getGeeseName() {
+        return geeseName;
+    }
+
+    public int getGeeseLevel() {
+        return geeseLevel;
+    }
+
+    public FagBitboard getFirstPosition() {
+        return first;
+    }
+
+    public List<FagMove> getMoves() {
+        return moves;
+    }
+
+    public int getNrPlies() {
+        return moves.size();
+    }
+
+    public GameResult getResult() {
+        return result;
+    }
+
+    public String toString() {
+        return "Game " + number + " (seed " + seed + "): " + foxName + " (Fox) - " + geeseName + " (Geese): " +
+               result + " in " + moves.size() + " plies";
+    }
+}
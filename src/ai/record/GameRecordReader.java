@@ -0,0 +1,343 @@
+package ai.record;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.GameResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scans a file of games written by a GameRecordWriter.
+ *
+ * <p>
+ * The file starts with a small header, followed by the records of the games
+ * one after the other. A record starts with a fixed header of 24 bytes,
+ * followed by the names of the players (UTF-8), the first position of the
+ * game when it is not the initial one, and the plies:
+ * </p>
+ * <pre>
+ *   offset size
+ *        0    4  size of the record (in bytes, this field included)
+ *        4    8  seed of the game
+ *       12    4  number of the game in its batch or tournament
+ *       16    2  number of plies
+ *       18    1  winner (FOX_TEAM, GEESE_TEAM, or -1 if none)
+ *       19    1  flags (FLAG_FIRST: the first position follows the names)
+ *       20    1  AI level of the fox (-1 for a human)
+ *       21    1  AI level of the geese (-1 for a human)
+ *       22    1  length of the name of the fox
+ *       23    1  length of the name of the geese
+ * </pre>
+ * <p>
+ * A ply is a single byte, but for a chain of jumps. The teams play in turn,
+ * so that the team of a ply is known, and so is the point of the fox:
+ * </p>
+ * <pre>
+ *   goose:  7 6 | 5 ... 0     fox:  7 6 | 5 ... 0
+ *           dir |  from              kind |   to
+ * </pre>
+ * <p>
+ * The direction of a goose step is SOUTH, EAST or WEST. The kind of a fox
+ * move is a STEP, a JUMP over the goose between its points, or a CHAIN of
+ * jumps, followed by the mask of the taken geese (5 bytes).
+ * </p>
+ * <p>
+ * The file is memory-mapped and the fields of a record are read in place:
+ * scanning the headers of the games (i.e. their players and results) does
+ * not decode their plies nor copy anything in the heap.
+ * </p>
+ */
+public class GameRecordReader implements AutoCloseable {
+
+    final static int MAGIC   = 0x46414752; // "FAGR"
+    final static int VERSION = 1;
+    final static int HEADER_SIZE        = 16;
+    final static int RECORD_HEADER_SIZE = 24;
+    // The mapping of a file is limited to 2 GB
+    final static long MAX_FILE_SIZE = Integer.MAX_VALUE;
+
+    // Record header fields (offsets)
+    final static int R_SIZE        = 0;
+    final static int R_SEED        = 4;
+    final static int R_NUMBER      = 12;
+    final static int R_PLIES       = 16;
+    final static int R_WINNER      = 18;
+    final static int R_FLAGS       = 19;
+    final static int R_FOX_LEVEL   = 20;
+    final static int R_GEESE_LEVEL = 21;
+    final static int R_FOX_NAME    = 22;
+    final static int R_GEESE_NAME  = 23;
+
+    final static int FLAG_FIRST = 1;
+    final static int FIRST_SIZE = 10; // geese (8), fox (1), fox to move (1)
+
+    // The plies
+    final static int POINT_MASK = 0x3F;
+    final static int KIND_SHIFT = 6;
+    final static int SOUTH = 0;
+    final static int EAST  = 1;
+    final static int WEST  = 2;
+    final static int STEP  = 0;
+    final static int JUMP  = 1;
+    final static int CHAIN = 2;
+    final static int TAKEN_SIZE = 5;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    private final long size;
+
+    private long    offset    = -1; // The offset of the current record (-1 before the first one)
+    private boolean truncated = false;
+
+    private GameRecordReader(RandomAccessFile file) throws IOException {
+        this.file = file;
+        size = file.length();
+        if (size > MAX_FILE_SIZE) {
+            file.close();
+            throw new IOException("File of games too large (" + size + " bytes)");
+        }
+        buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if ((size < HEADER_SIZE) || (buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != VERSION)) {
+            file.close();
+            throw new IOException("Not a file of games");
+        }
+    }
+
+    /**
+     * Opens a file of games.
+     * @return The reader, before the first game, or null if there is no such file.
+     * @throws IOException If the file is not a file of games.
+     */
+    public static GameRecordReader open(File path) throws IOException {
+        if (!path.isFile()) {
+            return null;
+        }
+        return new GameRecordReader(new RandomAccessFile(path, "r"));
+    }
+
+    /**
+     * Writes the header of a file of games.
+     */
+    static void writeHeader(ByteBuffer out) {
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.putLong(0L);
+    }
+
+    /**
+     * Returns the size of the record at an offset of a file, or 0 if no
+     * complete record starts there (i.e. the end of the file, or a record
+     * truncated by a crash of its writer).
+     */
+    static int getRecordSize(ByteBuffer buffer, long offset, long size) {
+        if (offset + RECORD_HEADER_SIZE > size) {
+            return 0;
+        }
+        int recordSize = buffer.getInt((int) offset + R_SIZE);
+        return ((recordSize >= RECORD_HEADER_SIZE) && (offset + recordSize <= size)) ? recordSize : 0;
+    }
+
+    /*************************************************************
+     * NAVIGATION
+     *************************************************************/
+
+    /**
+     * Moves to the next game.
+     * @return false at the end of the file.
+     */
+    public boolean next() {
+        long next = (offset < 0) ? HEADER_SIZE : offset + getInt(R_SIZE);
+        if (getRecordSize(buffer, next, size) == 0) {
+            truncated = (next < size);
+            return false;
+        }
+        offset = next;
+        return true;
+    }
+
+    /**
+     * Moves to the game at an offset (see getOffset), e.g. to read a game
+     * found in an index.
+     * @return false if no game starts at this offset.
+     */
+    public boolean seek(long offset) {
+        if ((offset < HEADER_SIZE) || (getRecordSize(buffer, offset, size) == 0)) {
+            return false;
+        }
+        this.offset = offset;
+        return true;
+    }
+
+    /**
+     * Moves back before the first game.
+     */
+    public void rewind() {
+        offset = -1;
+        truncated = false;
+    }
+
+    /**
+     * Returns the offset of the current game in the file.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns true if the scan stopped on a truncated record, i.e. the last
+     * game of a writer which did not close the file.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /*************************************************************
+     * THE CURRENT GAME
+     *************************************************************/
+
+    private int getInt(int field) {
+        return buffer.getInt((int) offset + field);
+    }
+
+    private int getByte(int field) {
+        return buffer.get((int) offset + field);
+    }
+
+    public long getSeed() {
+        return buffer.getLong((int) offset + R_SEED);
+    }
+
+    public int getNumber() {
+        return getInt(R_NUMBER);
+    }
+
+    public int getNrPlies() {
+        return buffer.getShort((int) offset + R_PLIES) & 0xFFFF;
+    }
+
+    public GameResult getResult() {
+        int winner = getByte(R_WINNER);
+        for (GameResult result : GameResult.values()) {
+            if (result.getWinner() == winner) {
+                return result;
+            }
+        }
+        return GameResult.NONE;
+    }
+
+    public int getFoxLevel() {
+        return getByte(R_FOX_LEVEL);
+    }
+
+    public int getGeeseLevel() {
+        return getByte(R_GEESE_LEVEL);
+    }
+
+    public String getFoxName() {
+        return getString((int) offset + RECORD_HEADER_SIZE, getByte(R_FOX_NAME) & 0xFF);
+    }
+
+    public String getGeeseName() {
+        return getString((int) offset + RECORD_HEADER_SIZE + (getByte(R_FOX_NAME) & 0xFF), getByte(R_GEESE_NAME) & 0xFF);
+    }
+
+    private String getString(int start, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // The offset in the file of the data following the names
+    private int getDataOffset() {
+        return (int) offset + RECORD_HEADER_SIZE + (getByte(R_FOX_NAME) & 0xFF) + (getByte(R_GEESE_NAME) & 0xFF);
+    }
+
+    public FagBitboard getFirstPosition() {
+        if ((getByte(R_FLAGS) & FLAG_FIRST) == 0) {
+            return FagBitboard.initial();
+        }
+        int data = getDataOffset();
+        return new FagBitboard(buffer.getLong(data), buffer.get(data + 8), buffer.get(data + 9) != 0);
+    }
+
+    /**
+     * Decodes the moves of the current game.
+     * @throws IllegalStateException If a ply cannot be decoded.
+     */
+    public List<FagMove> getMoves() {
+        FagBitboard   first = getFirstPosition();
+        int           nrPlies = getNrPlies();
+        List<FagMove> moves = new ArrayList<>(nrPlies);
+        int     data      = getDataOffset() + (((getByte(R_FLAGS) & FLAG_FIRST) != 0) ? FIRST_SIZE : 0);
+        int     end       = (int) offset + getInt(R_SIZE);
+        int     fox       = first.getFox();
+        boolean foxToMove = first.isFoxToMove();
+        for (int ply = 0; ply < nrPlies; ply++) {
+            if (data >= end) {
+                throw new IllegalStateException("Game at offset " + offset + ": ply " + ply + " is missing");
+            }
+            int code  = buffer.get(data++) & 0xFF;
+            int point = code & POINT_MASK;
+            int kind  = code >>> KIND_SHIFT;
+            if (point >= FagBitboard.POINTS) {
+                throw new IllegalStateException("Game at offset " + offset + ": ply " + ply + " is not a move");
+            }
+            FagMove move;
+            if (foxToMove) {
+                long taken = 0L;
+                if (kind == JUMP) {
+                    taken = FagBitboard.bit(getMiddle(fox, point));
+                } else if (kind == CHAIN) {
+                    for (int i = 0; i < TAKEN_SIZE; i++) {
+                        taken = (taken << 8) | (buffer.get(data++) & 0xFF);
+                    }
+                }
+                move = new FagMove(fox, point, taken);
+                fox = point;
+            } else {
+                int row = FagBitboard.getRow(point);
+                int col = FagBitboard.getCol(point);
+                int to  = (kind == SOUTH) ? FagBitboard.getPoint(row + 1, col) :
+                          (kind == EAST)  ? FagBitboard.getPoint(row, col + 1) : FagBitboard.getPoint(row, col - 1);
+                move = new FagMove(point, to, 0L);
+            }
+            if ((move.getTo() < 0) || (move.getTo() >= FagBitboard.POINTS)) {
+                throw new IllegalStateException("Game at offset " + offset + ": ply " + ply + " is not a move");
+            }
+            moves.add(move);
+            foxToMove = !foxToMove;
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the point between the points of a jump.
+     */
+    static int getMiddle(int from, int to) {
+        return FagBitboard.getPoint((FagBitboard.getRow(from) + FagBitboard.getRow(to)) / 2,
+                                    (FagBitboard.getCol(from) + FagBitboard.getCol(to)) / 2);
+    }
+
+    /**
+     * Returns the current game, with its decoded moves.
+     */
+    public GameRecord getRecord() {
+        return new GameRecord(getSeed(), getNumber(), getFoxName(), getFoxLevel(), getGeeseName(), getGeeseLevel(),
+                              getFirstPosition(), getMoves(), getResult());
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,352 @@
+package ai.record;
+
+import ai.player.GameSummary;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.GameResult;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static ai.record.GameRecordReader.*;
+
+/**
+ * Appends games to a file of games (see GameRecordReader for the format).
+ *
+ * <p>
+ * A game is appended once it is over, in a single record: the file is
+ * never rewritten, and a record is either complete or the truncated last
+ * one of a writer which did not close the file. Such a record is removed
+ * when the file is opened again. The records are gathered in a buffer of
+ * 64 KB before being written, so that recording a game costs a copy of a
+ * hundred bytes or so.
+ * </p>
+ * <p>
+ * The games are given either as a whole (see write and accept, e.g. as the
+ * listener of a BatchRunner), or ply by ply while they are played (see
+ * begin, play and end).
+ * </p>
+ *
+ * @note The methods are synchronized: the threads of a tournament may share
+ * a writer. A single game at a time is recorded ply by ply.
+ */
+public class GameRecordWriter implements Consumer<GameSummary>, Closeable {
+
+    private final static int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer  buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long size;  // The size of the file, with the buffered records
+    private long games = 0;
+
+    // The players of the games given to accept (see setPlayers)
+    private long   seed       = 0;
+    private String foxName    = "";
+    private int    foxLevel   = GameRecord.HUMAN;
+    private String geeseName  = "";
+    private int    geeseLevel = GameRecord.HUMAN;
+    private int    accepted   = 0;
+
+    // The game recorded ply by ply, or null
+    private Encoder current = null;
+
+    /**
+     * Opens a file of games, created if needed, to append games to it.
+     * @throws IOException If the file is not a file of games.
+     */
+    public GameRecordWriter(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                   StandardOpenOption.WRITE);
+        try {
+            size = channel.size();
+            if (size == 0) {
+                GameRecordReader.writeHeader(buffer);
+                size = HEADER_SIZE;
+            } else {
+                size = getEnd(file);
+            }
+            channel.position(size - buffer.position());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Returns the end of the last complete record of a file, and truncates the file there
+    private long getEnd(File file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if ((size < HEADER_SIZE) || (header.getInt(0) != MAGIC) || (header.getInt(4) != VERSION)) {
+            throw new IOException("Not a file of games");
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long end = HEADER_SIZE;
+        while (true) {
+            record.clear();
+            if (channel.read(record, end) < RECORD_HEADER_SIZE) {
+                break;
+            }
+            int recordSize = GameRecordReader.getRecordSize(record.rewind(), 0, size - end);
+            if (recordSize == 0) {
+                break;
+            }
+            end += recordSize;
+        }
+        if (end < size) {
+            System.out.println("WARNING: Removing the truncated last game of " + file + " (" + (size - end) + " bytes)");
+            channel.truncate(end);
+        }
+        return end;
+    }
+
+    /**
+     * Sets the players of the games given to accept.
+     * @param seed       The seed of the batch of games.
+     * @param foxName    The name of the player of the fox.
+     * @param foxLevel   The AI level of the player of the fox.
+     * @param geeseName  The name of the player of the geese.
+     * @param geeseLevel The AI level of the player of the geese.
+     */
+    public synchronized void setPlayers(long seed, String foxName, int foxLevel, String geeseName, int geeseLevel) {
+        this.seed = seed;
+        this.foxName = foxName;
+        this.foxLevel = foxLevel;
+        this.geeseName = geeseName;
+        this.geeseLevel = geeseLevel;
+        this.accepted = 0;
+    }
+
+    /**
+     * Appends a game played by a GameRunner, between the players given to
+     * setPlayers. The games are numbered in the order they are given.
+     */
+    @Override
+    public synchronized void accept(GameSummary game) {
+        try {
+            write(new GameRecord(seed, ++accepted, foxName, foxLevel, geeseName, geeseLevel,
+                                 game.getFirstPosition(), game.getMoves(), game.getResult()));
+        }
+        catch (IOException e) {
+            System.out.println("WARNING: Cannot record the game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends a game.
+     * @throws IOException If the game cannot be written.
+     * @throws IllegalArgumentException If a move of the game cannot be recorded.
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        Encoder encoder = new Encoder(record.getSeed(), record.getNumber(), record.getFoxName(), record.getFoxLevel(),
+                                      record.getGeeseName(), record.getGeeseLevel(), record.getFirstPosition());
+        for (FagMove move : record.getMoves()) {
+            encoder.add(move);
+        }
+        append(encoder.finish(record.getResult()));
+    }
+
+    /**
+     * Starts to record a game ply by ply. A game which was being recorded is
+     * ended without a result.
+     * @param seed The seed of the game.
+     * @param first The first position of the game.
+     * (See GameRecord for the other parameters.)
+     */
+    public synchronized void begin(long seed, int number, String foxName, int foxLevel, String geeseName, int geeseLevel,
+                                   FagBitboard first) throws IOException {
+        end(GameResult.NONE);
+        current = new Encoder(seed, number, foxName, foxLevel, geeseName, geeseLevel, first);
+    }
+
+    /**
+     * Records the next ply of the game started by begin (if any).
+     * @throws IllegalArgumentException If the move cannot be recorded.
+     */
+    public synchronized void play(FagMove move) {
+        if (current != null) {
+            current.add(move);
+        }
+    }
+
+    /**
+     * Returns true if a game is being recorded ply by ply.
+     */
+    public synchronized boolean isRecording() {
+        return current != null;
+    }
+
+    /**
+     * Ends the game started by begin (if any), appends it and flushes the file.
+     * @param result The result of the game (NONE if it was stopped).
+     */
+    public synchronized void end(GameResult result) throws IOException {
+        if (current == null) {
+            return;
+        }
+        ByteBuffer record = current.finish(result);
+        current = null;
+        append(record);
+        flush();
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+        if (size + record.remaining() > MAX_FILE_SIZE) {
+            throw new IOException("The file of games is full (" + size + " bytes)");
+        }
+        if (record.remaining() > buffer.remaining()) {
+            flush();
+        }
+        size += record.remaining();
+        if (record.remaining() > buffer.remaining()) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        } else {
+            buffer.put(record);
+        }
+        games++;
+    }
+
+    /**
+     * Writes the buffered games to the file.
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Returns the number of games appended since the file was opened.
+     */
+    public synchronized long getNrGames() {
+        return games;
+    }
+
+    /**
+     * Closes the file. A game being recorded ply by ply is ended without a result.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            end(GameResult.NONE);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /*************************************************************
+     * ENCODING
+     *************************************************************/
+
+    /**
+     * Encodes a record, ply after ply, in a growing buffer.
+     */
+    static class Encoder {
+
+        private ByteBuffer record;
+        private int     plies = 0;
+        private int     fox;
+        private boolean foxToMove;
+
+        Encoder(long seed, int number, String foxName, int foxLevel, String geeseName, int geeseLevel, FagBitboard first) {
+            byte[]  foxBytes   = getName(foxName);
+            byte[]  geeseBytes = getName(geeseName);
+            boolean initial    = first.equals(FagBitboard.initial());
+            // The header, the names and the first position, with room for the first moves
+            record = ByteBuffer.allocate(RECORD_HEADER_SIZE + foxBytes.length + geeseBytes.length + FIRST_SIZE + 64);
+            record.putInt(0); // The size, see finish
+            record.putLong(seed);
+            record.putInt(number);
+            record.putShort((short) 0); // The plies, see finish
+            record.put((byte) -1);      // The winner, see finish
+            record.put((byte) (initial ? 0 : FLAG_FIRST));
+            record.put((byte) foxLevel);
+            record.put((byte) geeseLevel);
+            record.put((byte) foxBytes.length);
+            record.put((byte) geeseBytes.length);
+            record.put(foxBytes);
+            record.put(geeseBytes);
+            if (!initial) {
+                record.putLong(first.getGeese());
+                record.put((byte) first.getFox());
+                record.put((byte) (first.isFoxToMove() ? 1 : 0));
+            }
+            this.fox = first.getFox();
+            this.foxToMove = first.isFoxToMove();
+        }
+
+        // The UTF-8 bytes of a name, cut to 255 bytes
+        static byte[] getName(String name) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFF) {
+                // A character cut in the middle is dropped: the cut moves back
+                //  while the first dropped byte continues a character
+                int end = 0xFF;
+                while ((end > 0) && ((bytes[end] & 0xC0) == 0x80)) {
+                    end--;
+                }
+                bytes = Arrays.copyOf(bytes, end);
+            }
+            return bytes;
+        }
+
+        void add(FagMove move) {
+            if (plies == 0xFFFF) {
+                throw new IllegalArgumentException("Too many plies");
+            }
+            if (record.remaining() < 1 + TAKEN_SIZE) {
+                record = ByteBuffer.allocate(2 * record.capacity()).put(record.flip());
+            }
+            int from = move.getFrom();
+            int to   = move.getTo();
+            if ((from < 0) || (from >= FagBitboard.POINTS) || (to < 0) || (to >= FagBitboard.POINTS)) {
+                throw new IllegalArgumentException("Not a move: " + move);
+            }
+            if (foxToMove) {
+                if (from != fox) {
+                    throw new IllegalArgumentException("Not a move of the fox: " + move);
+                }
+                long taken = move.getTaken();
+                int  kind  = (taken == 0L) ? STEP :
+                             ((Long.bitCount(taken) == 1) && (taken == FagBitboard.bit(getMiddle(from, to)))) ? JUMP : CHAIN;
+                record.put((byte) (to | (kind << KIND_SHIFT)));
+                if (kind == CHAIN) {
+                    for (int i = TAKEN_SIZE - 1; i >= 0; i--) {
+                        record.put((byte) (taken >>> (8 * i)));
+                    }
+                }
+                fox = to;
+            } else {
+                int rows = FagBitboard.getRow(to) - FagBitboard.getRow(from);
+                int cols = FagBitboard.getCol(to) - FagBitboard.getCol(from);
+                int dir  = ((rows == 1) && (cols == 0))  ? SOUTH :
+                           ((rows == 0) && (cols == 1))  ? EAST  :
+                           ((rows == 0) && (cols == -1)) ? WEST  : -1;
+                if ((dir < 0) || move.isCapture()) {
+                    throw new IllegalArgumentException("Not a step of a goose: " + move);
+                }
+                record.put((byte) (from | (dir << KIND_SHIFT)));
+            }
+            plies++;
+            foxToMove = !foxToMove;
+        }
+
+        ByteBuffer finish(GameResult result) {
+            record.putInt(R_SIZE, record.position());
+            record.putShort(R_PLIES, (short) plies);
+            record.put(R_WINNER, (byte) result.getWinner());
+            return record.flip();
+        }
+    }
+}
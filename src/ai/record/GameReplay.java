@@ -0,0 +1,179 @@
+package ai.record;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.GameResult;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Replays a recorded game through the rules of the game (see FagRules),
+ * without any animation or rendering.
+ *
+ * <p>
+ * The moves are played once, when the replay is created, and each of them
+ * must be legal in its position. A snapshot of the position is kept every
+ * SNAPSHOT_INTERVAL plies: the position of any ply is then reached from the
+ * closest snapshot before it, in less than SNAPSHOT_INTERVAL moves whatever
+ * the length of the game.
+ * </p>
+ *
+ * Usage: GameReplay file [game] [ply]
+ *  (validates all the games of the file, or prints a position of a game,
+ *  the first game being 1)
+ */
+public class GameReplay {
+
+    public final static int SNAPSHOT_INTERVAL = 8;
+
+    private final GameRecord    record;
+    private final FagBitboard[] snapshots;
+    private final GameResult    result;
+
+    /**
+     * Replays a game.
+     * @param record The recorded game.
+     * @throws IllegalArgumentException If a move is not legal, or if the
+     *  recorded result is not the result of the last position.
+     */
+    public GameReplay(GameRecord record) {
+        this.record = record;
+        int nrPlies = record.getNrPlies();
+        snapshots = new FagBitboard[nrPlies / SNAPSHOT_INTERVAL + 1];
+        FagBitboard position = record.getFirstPosition();
+        for (int ply = 0; ply < nrPlies; ply++) {
+            if (ply % SNAPSHOT_INTERVAL == 0) {
+                snapshots[ply / SNAPSHOT_INTERVAL] = position;
+            }
+            FagMove move = record.getMoves().get(ply);
+            if (!FagRules.isLegal(position, move)) {
+                throw new IllegalArgumentException(record + ": illegal move " + move + " at ply " + ply + " in position\n" + position);
+            }
+            position = play(position, move);
+        }
+        if (nrPlies % SNAPSHOT_INTERVAL == 0) {
+            snapshots[nrPlies / SNAPSHOT_INTERVAL] = position;
+        }
+        result = FagRules.getResult(position);
+        if (record.getResult().isOver() && (record.getResult() != result)) {
+            throw new IllegalArgumentException(record + ": the last position is " + result + "\n" + position);
+        }
+    }
+
+    // Plays a legal move
+    private static FagBitboard play(FagBitboard position, FagMove move) {
+        return position.isFoxToMove() ? position.moveFox(move.getTo(), move.getTaken()) :
+                                        position.moveGoose(move.getFrom(), move.getTo());
+    }
+
+    public GameRecord getRecord() {
+        return record;
+    }
+
+    public int getNrPlies() {
+        return record.getNrPlies();
+    }
+
+    /**
+     * Returns the move of a ply (the first ply being 0).
+     */
+    public FagMove getMove(int ply) {
+        return record.getMoves().get(ply);
+    }
+
+    /**
+     * Returns the position before the move of a ply, or the last position
+     * of the game for the ply getNrPlies().
+     * @throws IndexOutOfBoundsException If there is no such ply.
+     */
+    public FagBitboard getPosition(int ply) {
+        if ((ply < 0) || (ply > record.getNrPlies())) {
+            throw new IndexOutOfBoundsException("No ply " + ply + " in " + record);
+        }
+        FagBitboard position = snapshots[ply / SNAPSHOT_INTERVAL];
+        for (int p = ply - ply % SNAPSHOT_INTERVAL; p < ply; p++) {
+            position = play(position, record.getMoves().get(p));
+        }
+        return position;
+    }
+
+    /**
+     * Returns the positions of all the plies, from the first position to the
+     * last one (i.e. getNrPlies() + 1 positions).
+     */
+    public FagBitboard[] getPositions() {
+        FagBitboard[] positions = new FagBitboard[record.getNrPlies() + 1];
+        positions[0] = record.getFirstPosition();
+        for (int ply = 0; ply < record.getNrPlies(); ply++) {
+            positions[ply + 1] = play(positions[ply], record.getMoves().get(ply));
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the state of the last position of the game: NONE if the game
+     * was a draw or was stopped.
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the first ply at which the position is the same as a position,
+     * or -1 if the game does not go through it.
+     */
+    public int findPly(FagBitboard position) {
+        for (int ply = 0; ply <= record.getNrPlies(); ply++) {
+            if (getPosition(ply).equals(position)) {
+                return ply;
+            }
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: GameReplay file [game] [ply]");
+            System.exit(1);
+        }
+        int game = (args.length > 1) ? Integer.parseInt(args[1]) : 0;
+        int ply  = (args.length > 2) ? Integer.parseInt(args[2]) : -1;
+        try (GameRecordReader reader = GameRecordReader.open(new File(args[0]))) {
+            if (reader == null) {
+                System.out.println("ERROR: No such file " + args[0]);
+                System.exit(1);
+            }
+            long start  = System.currentTimeMillis();
+            int  index  = 0;
+            int  games  = 0;
+            int  errors = 0;
+            long plies  = 0;
+            while (reader.next()) {
+                index++;
+                if ((game > 0) && (index != game)) continue;
+                games++;
+                try {
+                    GameReplay replay = new GameReplay(reader.getRecord());
+                    plies += replay.getNrPlies();
+                    if (game > 0) {
+                        System.out.println(replay.getRecord());
+                        int p = (ply < 0) ? replay.getNrPlies() : Math.min(ply, replay.getNrPlies());
+                        System.out.println("Ply " + p + ((p < replay.getNrPlies()) ? ", next move " + replay.getMove(p) : "") +
+                                           ":\n" + replay.getPosition(p));
+                    }
+                }
+                catch (RuntimeException e) {
+                    System.out.println("ERROR: Game " + index + " at offset " + reader.getOffset() + ": " + e.getMessage());
+                    errors++;
+                }
+            }
+            if (reader.isTruncated()) {
+                System.out.println("WARNING: The last game of the file is truncated");
+            }
+            System.out.println("Replayed " + games + " games (" + plies + " plies, " + errors + " errors) in " +
+                               (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+}
@@ -0,0 +1,561 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.FagSymmetry;
+import model.rules.FagZobrist;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static model.rules.FagBitboard.bit;
+
+/**
+ * A negamax search with alpha-beta pruning.
+ *
+ * <p>
+ * The search works on raw bitboard masks passed by value, so that making and
+ * unmaking a move is free and no object is allocated per node. The moves are
+ * ordered before being searched: the move of the previous principal variation
+ * first (see IterativeDeepening), then the move stored in the transposition
+ * table, then the longest jump chains, then the killer moves and the quiet
+ * moves by history (see MoveOrdering).
+ * </p>
+ * <p>
+ * The positions at the depth limit are not evaluated as such while the fox
+ * can take geese: a quiescence search plays the jump chains of the fox, and
+ * the replies of the geese which parry a threatened jump, up to a
+ * quiescence depth (see SearchLimits), so that only quiet positions are
+ * evaluated. The fox may always decline its captures (stand pat).
+ * </p>
+ * <p>
+ * The Zobrist key of the position is updated incrementally along the moves
+ * and used to probe an optional transposition table, which can be shared by
+ * several engines. The key of the mirrored position is updated along, so
+ * that a position and its mirror share their entry: the table is probed
+ * with the key of the canonical form (see FagSymmetry), and the move of the
+ * entry is mirrored when the position is not canonical. The evaluator
+ * follows the moves as well (see Evaluator), so that it can cache its terms
+ * per ply.
+ * </p>
+ *
+ * @note An instance is not thread-safe: use one engine per thread (see
+ *  LazySmpSearch for a parallel search).
+ */
+public class AlphaBetaSearch implements SearchEngine {
+
+    public final static int INFINITY = 32000;
+    public final static int WIN      = 30000; // A win in 'n' plies scores WIN-n
+
+    // How often (in nodes) the clock is checked
+    private final static int CHECK_TIME_MASK = 1023;
+
+    protected final Evaluator          evaluator;
+    protected final TranspositionTable transpositionTable; // null if none
+    protected final MoveList[]         moveLists = new MoveList[SearchLimits.MAX_DEPTH + 1];
+    protected final MoveOrdering       ordering  = new MoveOrdering();
+
+    protected long    nodes;
+    protected long    quiescenceNodes; // The part of the nodes searched by quiesce
+    protected int     quiescenceDepth;
+    protected long    startTime; // in ns
+    protected long    deadline;  // in ns, 0 if none
+    protected volatile boolean aborted;
+    protected AtomicBoolean stopSignal;    // Raised by another thread to stop the search, null if none
+    protected boolean       ageTable = true;
+
+    // Random noise added to the ordering of the quiet moves, to diversify parallel searches
+    protected int              orderingNoise;
+    protected SplittableRandom random;
+
+    // Triangular table of the principal variation being searched
+    protected final int[][]  pvFrom   = new int[SearchLimits.MAX_DEPTH + 1][SearchLimits.MAX_DEPTH + 1];
+    protected final int[][]  pvTo     = new int[SearchLimits.MAX_DEPTH + 1][SearchLimits.MAX_DEPTH + 1];
+    protected final long[][] pvTaken  = new long[SearchLimits.MAX_DEPTH + 1][SearchLimits.MAX_DEPTH + 1];
+    protected final int[]    pvLength = new int[SearchLimits.MAX_DEPTH + 1];
+    // Principal variation of the previous iteration, searched first
+    protected final int[]    prevPvFrom  = new int[SearchLimits.MAX_DEPTH + 1];
+    protected final int[]    prevPvTo    = new int[SearchLimits.MAX_DEPTH + 1];
+    protected final long[]   prevPvTaken = new long[SearchLimits.MAX_DEPTH + 1];
+    protected int            prevPvLength;
+    protected boolean        followPv;
+
+    /**
+     * Basic constructor.
+     * @param evaluator          The evaluation of the leaf positions.
+     * @param transpositionTable A transposition table (null if none).
+     */
+    public AlphaBetaSearch(Evaluator evaluator, TranspositionTable transpositionTable) {
+        this.evaluator = evaluator;
+        this.transpositionTable = transpositionTable;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    public AlphaBetaSearch(TranspositionTable transpositionTable) {
+        this(new FagEvaluator(), transpositionTable);
+    }
+
+    public AlphaBetaSearch() {
+        this(new FagEvaluator(), null);
+    }
+
+    @Override
+    public SearchResult search(FagBitboard position, SearchLimits limits) {
+        startSearch(limits);
+        return searchRoot(position, limits.getDepth());
+    }
+
+    /**
+     * Prepares a new search: resets the statistics, arms the deadline and
+     * forgets the previous principal variation.
+     * @param limits The limits of the search.
+     */
+    public void startSearch(SearchLimits limits) {
+        startTime = System.nanoTime();
+        nodes = 0;
+        quiescenceNodes = 0;
+        quiescenceDepth = limits.getQuiescenceDepth();
+        aborted = false;
+        deadline = limits.hasTimeLimit() ? startTime + limits.getMoveTime() * 1000000L : 0;
+        prevPvLength = 0;
+        followPv = false;
+        ordering.newSearch();
+        if ((transpositionTable != null) && ageTable) {
+            transpositionTable.newSearch();
+        }
+    }
+
+    /**
+     * Sets a flag which aborts the search as soon as it is raised (it is
+     * polled along with the clock).
+     * @param stopSignal The flag, or null if none.
+     */
+    public void setStopSignal(AtomicBoolean stopSignal) {
+        this.stopSignal = stopSignal;
+    }
+
+    /**
+     * Sets whether startSearch starts a new search in the transposition
+     * table. When several engines share a table for the same search, only
+     * one of them must do it.
+     */
+    public void setAgeTable(boolean ageTable) {
+        this.ageTable = ageTable;
+    }
+
+    /**
+     * Adds a random noise to the ordering of the moves which are neither the
+     * principal variation, the move of the table nor a capture. The search
+     * remains deterministic for a given seed.
+     * @param noise The maximal noise (0 for none).
+     * @param seed  The seed of the noise.
+     */
+    public void setOrderingNoise(int noise, long seed) {
+        this.orderingNoise = noise;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Searches the root position to a given depth. The clock and the node
+     * counter are those armed by the last call to startSearch, so that an
+     * iterative deepening can call this method once per depth.
+     * @param position The position to search.
+     * @param depth    The depth of this iteration.
+     * @return The best move. If the search is aborted, the best move found so
+     *  far (at least the first ordered move) is returned and isAborted() is true.
+     */
+    public SearchResult searchRoot(FagBitboard position, int depth) {
+        long    key       = position.getKey();
+        long    geese     = position.getGeese();
+        int     fox       = position.getFox();
+        boolean foxToMove = position.isFoxToMove();
+        long    mirrorKey = FagSymmetry.getMirrorKey(geese, fox, foxToMove);
+        boolean mirrored  = FagSymmetry.isMirrored(geese, fox);
+
+        long ttData = (transpositionTable != null) ? transpositionTable.probe(mirrored ? mirrorKey : key) : 0L;
+
+        MoveList list = moveLists[0];
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        evaluator.setRoot(geese, fox);
+        followPv = (prevPvLength > 0);
+        orderMoves(list, foxToMove, ttData, mirrored, 0);
+        pvLength[0] = 0;
+
+        int  bestFrom  = FagBitboard.NO_POINT;
+        int  bestTo    = FagBitboard.NO_POINT;
+        long bestTaken = 0L;
+        int  alpha     = -INFINITY;
+
+        for (int i = 0; i < list.size(); i++) {
+            list.pickBest(i);
+            int score = -searchMove(key, mirrorKey, geese, fox, foxToMove, list, i, depth - 1, -INFINITY, -alpha, 1);
+            followPv = false;
+            if (aborted) {
+                break;
+            }
+            // The first move is always kept, so that a move is returned even if time is over
+            if ((score > alpha) || (bestFrom == FagBitboard.NO_POINT)) {
+                alpha     = Math.max(alpha, score);
+                bestFrom  = list.getFrom(i);
+                bestTo    = list.getTo(i);
+                bestTaken = list.getTaken(i);
+                updatePv(0, list, i);
+            }
+        }
+        if ((bestFrom == FagBitboard.NO_POINT) && (list.size() > 0)) {
+            // Aborted while searching the first move
+            bestFrom  = list.getFrom(0);
+            bestTo    = list.getTo(0);
+            bestTaken = list.getTaken(0);
+        }
+
+        if ((transpositionTable != null) && !aborted && (bestFrom != FagBitboard.NO_POINT)) {
+            store(mirrored ? mirrorKey : key, mirrored, TranspositionTable.toTableScore(alpha, 0), depth,
+                  TranspositionTable.BOUND_EXACT, bestFrom, bestTo, bestTaken);
+        }
+
+        long elapsed = (System.nanoTime() - startTime) / 1000000L;
+        return new SearchResult(bestFrom, bestTo, bestTaken, alpha, depth, nodes, elapsed);
+    }
+
+    /*************************************************************
+     * PRINCIPAL VARIATION
+     *************************************************************/
+
+    // Copies the move i of the list followed by the PV of the next ply into the PV of 'ply'
+    private void updatePv(int ply, MoveList list, int i) {
+        pvFrom[ply][ply]  = list.getFrom(i);
+        pvTo[ply][ply]    = list.getTo(i);
+        pvTaken[ply][ply] = list.getTaken(i);
+        int length = (ply + 1 < pvLength.length) ? pvLength[ply + 1] : ply + 1;
+        for (int p = ply + 1; p < length; p++) {
+            pvFrom[ply][p]  = pvFrom[ply + 1][p];
+            pvTo[ply][p]    = pvTo[ply + 1][p];
+            pvTaken[ply][p] = pvTaken[ply + 1][p];
+        }
+        pvLength[ply] = Math.max(length, ply + 1);
+    }
+
+    /**
+     * Keeps the principal variation of the last completed iteration, so that
+     * the next iteration searches it first.
+     */
+    public void savePv() {
+        prevPvLength = pvLength[0];
+        for (int p = 0; p < prevPvLength; p++) {
+            prevPvFrom[p]  = pvFrom[0][p];
+            prevPvTo[p]    = pvTo[0][p];
+            prevPvTaken[p] = pvTaken[0][p];
+        }
+    }
+
+    /**
+     * Returns the principal variation of the last completed iteration as a
+     * string of moves, e.g. "[5,3]-[4,3] [2,3]-[3,3]x0".
+     */
+    public String getPrincipalVariation() {
+        StringBuilder sb = new StringBuilder();
+        for (int p = 0; p < prevPvLength; p++) {
+            if (p > 0) sb.append(' ');
+            sb.append('[').append(FagBitboard.getRow(prevPvFrom[p])).append(',').append(FagBitboard.getCol(prevPvFrom[p]))
+              .append("]-[").append(FagBitboard.getRow(prevPvTo[p])).append(',').append(FagBitboard.getCol(prevPvTo[p])).append(']');
+            if (prevPvTaken[p] != 0L) sb.append('x').append(Long.bitCount(prevPvTaken[p]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a move of the principal variation of the last completed iteration.
+     * @param ply The ply of the move (0 for the move of the root).
+     * @return The move, or null if the variation is shorter.
+     */
+    public FagMove getPvMove(int ply) {
+        return (ply < prevPvLength) ? new FagMove(prevPvFrom[ply], prevPvTo[ply], prevPvTaken[ply]) : null;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * Returns the time elapsed since the start of the search, in ms.
+     */
+    public long getElapsed() {
+        return (System.nanoTime() - startTime) / 1000000L;
+    }
+
+    /**
+     * Plays the i-th move of a list and searches the resulting position.
+     * @return The score of the resulting position, for the side which plays after the move.
+     */
+    protected int searchMove(long key, long mirrorKey, long geese, int fox, boolean foxToMove, MoveList list, int i,
+                             int depth, int alpha, int beta, int ply) {
+        int from = list.getFrom(i);
+        int to   = list.getTo(i);
+        evaluator.play(ply - 1, foxToMove, from, to, list.getTaken(i));
+        if (foxToMove) {
+            long taken = list.getTaken(i);
+            return negamax(key ^ FagZobrist.getFoxMoveKey(from, to, taken),
+                           mirrorKey ^ FagSymmetry.getMirrorFoxMoveKey(from, to, taken), geese & ~taken, to, false,
+                           depth, alpha, beta, ply);
+        } else {
+            long nextGeese = (geese & ~bit(from)) | bit(to);
+            return negamax(key ^ FagZobrist.getGooseMoveKey(from, to),
+                           mirrorKey ^ FagSymmetry.getMirrorGooseMoveKey(from, to), nextGeese, fox, true,
+                           depth, alpha, beta, ply);
+        }
+    }
+
+    /**
+     * The recursive negamax search.
+     * @param key       The Zobrist key of the position.
+     * @param mirrorKey The Zobrist key of the mirrored position.
+     * @return The score of the position for the side to move.
+     */
+    protected int negamax(long key, long mirrorKey, long geese, int fox, boolean foxToMove, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        pvLength[ply] = ply;
+        if (isOver()) {
+            return 0;
+        }
+
+        // The fox took enough geese
+        if (Long.bitCount(geese) <= FagRules.FOX_WIN_GEESE) {
+            return foxToMove ? WIN - ply : -(WIN - ply);
+        }
+        if ((depth <= 0) || (ply >= SearchLimits.MAX_DEPTH)) {
+            return quiesce(geese, fox, foxToMove, alpha, beta, ply, quiescenceDepth);
+        }
+
+        // Probe the transposition table (but do not cut the previous principal variation short)
+        long    ttData   = 0L;
+        boolean mirrored = false;
+        if (transpositionTable != null) {
+            mirrored = FagSymmetry.isMirrored(geese, fox);
+            ttData = transpositionTable.probe(mirrored ? mirrorKey : key);
+            if ((ttData != 0L) && !followPv && (TranspositionTable.getDepth(ttData) >= depth)) {
+                int ttScore = TranspositionTable.fromTableScore(TranspositionTable.getScore(ttData), ply);
+                int bound   = TranspositionTable.getBound(ttData);
+                if ((bound == TranspositionTable.BOUND_EXACT) ||
+                    ((bound == TranspositionTable.BOUND_LOWER) && (ttScore >= beta)) ||
+                    ((bound == TranspositionTable.BOUND_UPPER) && (ttScore <= alpha))) {
+                    return ttScore;
+                }
+            }
+        }
+
+        MoveList list = moveLists[ply];
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        // The side which cannot move loses (i.e. a trapped fox)
+        if (list.size() == 0) {
+            return -(WIN - ply);
+        }
+        orderMoves(list, foxToMove, ttData, mirrored, ply);
+
+        int alphaOrig = alpha;
+        int best      = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < list.size(); i++) {
+            list.pickBest(i);
+            int score = -searchMove(key, mirrorKey, geese, fox, foxToMove, list, i, depth - 1, -beta, -alpha, ply + 1);
+            // Only the first move of a node can follow the previous principal variation
+            followPv = false;
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestIndex = i;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, list, i);
+                    if (alpha >= beta) {
+                        ordering.cutoff(ply, foxToMove, list.getMove(i), depth, i);
+                        break; // Cut-off
+                    }
+                }
+            }
+        }
+
+        if (transpositionTable != null) {
+            int bound = (best <= alphaOrig) ? TranspositionTable.BOUND_UPPER :
+                        (best >= beta)      ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+            store(mirrored ? mirrorKey : key, mirrored, TranspositionTable.toTableScore(best, ply), depth, bound,
+                  list.getFrom(bestIndex), list.getTo(bestIndex), list.getTaken(bestIndex));
+        }
+        return best;
+    }
+
+    // Polls the clock and the stop signal every CHECK_TIME_MASK+1 nodes, returns true once aborted
+    private boolean isOver() {
+        if ((nodes & CHECK_TIME_MASK) == 0) {
+            if (((deadline != 0) && (System.nanoTime() > deadline)) || ((stopSignal != null) && stopSignal.get())) {
+                aborted = true;
+            }
+        }
+        return aborted;
+    }
+
+    /**
+     * The quiescence search of a leaf: the fox plays its jump chains only,
+     * or stands pat on the evaluation, and the geese play the moves which
+     * parry a jump while the fox threatens one (or pass when none does). The
+     * position is evaluated once it is quiet or the quiescence depth is
+     * spent. The table is not used.
+     * @param qdepth The remaining quiescence depth.
+     * @return The score of the position for the side to move.
+     */
+    protected int quiesce(long geese, int fox, boolean foxToMove, int alpha, int beta, int ply, int qdepth) {
+        if ((qdepth <= 0) || (ply >= SearchLimits.MAX_DEPTH)) {
+            return evaluate(geese, fox, foxToMove, ply);
+        }
+        MoveList list = moveLists[ply];
+        int      best;
+        if (foxToMove) {
+            best = evaluate(geese, fox, true, ply);
+            if (best >= beta) {
+                return best;
+            }
+            MoveGenerator.generateJumps(geese, fox, list);
+            // The longest chains first
+            for (int i = 0; i < list.size(); i++) {
+                list.setScore(i, Move.getNrTaken(list.getMove(i)));
+            }
+        } else {
+            MoveGenerator.generateGeeseEvasions(geese, fox, list);
+            if (list.size() == 0) {
+                if (!FagBitboard.canJump(fox, geese)) {
+                    return evaluate(geese, fox, false, ply);
+                }
+                if (FagBitboard.movableGeese(geese, fox) == 0L) {
+                    return -(WIN - ply);
+                }
+                // Nothing parries the jump: whatever the geese play, the fox takes
+                evaluator.play(ply, true, fox, fox, 0L);
+                return -quiesceMove(geese, fox, true, -beta, -alpha, ply + 1, qdepth - 1);
+            }
+            best = -INFINITY;
+            for (int i = 0; i < list.size(); i++) {
+                list.setScore(i, ordering.getScore(ply, false, list.getMove(i)));
+            }
+        }
+        alpha = Math.max(alpha, best);
+
+        for (int i = 0; i < list.size(); i++) {
+            list.pickBest(i);
+            int  from  = list.getFrom(i);
+            int  to    = list.getTo(i);
+            long taken = list.getTaken(i);
+            evaluator.play(ply, foxToMove, from, to, taken);
+            int score = foxToMove ? -quiesceMove(geese & ~taken, to, false, -beta, -alpha, ply + 1, qdepth - 1)
+                                  : -quiesceMove((geese & ~bit(from)) | bit(to), fox, true, -beta, -alpha, ply + 1, qdepth - 1);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    // A node of the quiescence search, reached by a move
+    private int quiesceMove(long geese, int fox, boolean foxToMove, int alpha, int beta, int ply, int qdepth) {
+        nodes++;
+        quiescenceNodes++;
+        if (isOver()) {
+            return 0;
+        }
+        if (Long.bitCount(geese) <= FagRules.FOX_WIN_GEESE) {
+            return foxToMove ? WIN - ply : -(WIN - ply);
+        }
+        return quiesce(geese, fox, foxToMove, alpha, beta, ply, qdepth);
+    }
+
+    // Stores an entry under the key of the canonical position, with the move in its orientation
+    private void store(long key, boolean mirrored, int score, int depth, int bound, int from, int to, long taken) {
+        if (mirrored) {
+            transpositionTable.store(key, score, depth, bound,
+                                     FagSymmetry.mirror(from), FagSymmetry.mirror(to), FagSymmetry.mirror(taken));
+        } else {
+            transpositionTable.store(key, score, depth, bound, from, to, taken);
+        }
+    }
+
+    // Returns true if the i-th move of a list is the move of the table entry
+    private static boolean isHashMove(long ttData, boolean mirrored, MoveList list, int i) {
+        if (!mirrored) {
+            return TranspositionTable.isMove(ttData, list.getFrom(i), list.getTo(i), list.getTaken(i));
+        }
+        int from = FagSymmetry.mirror(list.getFrom(i));
+        return (TranspositionTable.getFrom(ttData) == from) &&
+               TranspositionTable.isMove(ttData, from, FagSymmetry.mirror(list.getTo(i)), FagSymmetry.mirror(list.getTaken(i)));
+    }
+
+    /**
+     * Evaluates the position of a ply from the point of view of the side to move.
+     */
+    protected int evaluate(long geese, int fox, boolean foxToMove, int ply) {
+        int score = evaluator.evaluate(ply, geese, fox);
+        return foxToMove ? score : -score;
+    }
+
+    /**
+     * Scores the moves of a list so that the most promising ones are searched
+     * first: the move of the previous principal variation, the move of the
+     * transposition table, then the captures, killer moves and quiet moves
+     * scored by the move ordering (see MoveOrdering).
+     * @param ttData   The entry of the transposition table for this position (0 if none).
+     * @param mirrored True if the entry is the one of the mirrored position.
+     * @param ply      The ply of the position.
+     */
+    protected void orderMoves(MoveList list, boolean foxToMove, long ttData, boolean mirrored, int ply) {
+        boolean pvFound = false;
+        for (int i = 0; i < list.size(); i++) {
+            int score = 0;
+            if (followPv && (ply < prevPvLength) && (list.getFrom(i) == prevPvFrom[ply]) &&
+                (list.getTo(i) == prevPvTo[ply]) && (list.getTaken(i) == prevPvTaken[ply])) {
+                score = MoveOrdering.PV_MOVE_SCORE;
+                pvFound = true;
+            } else if ((ttData != 0L) && isHashMove(ttData, mirrored, list, i)) {
+                score = MoveOrdering.HASH_MOVE_SCORE;
+            } else {
+                score = ordering.getScore(ply, foxToMove, list.getMove(i));
+                if ((orderingNoise > 0) && (score < MoveOrdering.KILLER_SCORE - 1)) {
+                    score += random.nextInt(orderingNoise);
+                }
+            }
+            list.setScore(i, score);
+        }
+        // Leaving the previous principal variation
+        if (!pvFound) followPv = false;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of nodes of the current search which were searched
+     * by the quiescence search (they are part of getNodes).
+     */
+    public long getQuiescenceNodes() {
+        return quiescenceNodes;
+    }
+
+    /**
+     * Returns the move ordering, with the statistics of the current search.
+     */
+    public MoveOrdering getOrdering() {
+        return ordering;
+    }
+}
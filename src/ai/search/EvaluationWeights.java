@@ -0,0 +1,153 @@
+package ai.search;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * The weights of the features of FagEvaluator (in hundredths of a goose,
+ * from the point of view of the fox).
+ *
+ * <p>
+ * The weights are read from a properties file, one "feature = weight" per
+ * line, so that they can be tuned without recompiling, e.g.:
+ * </p>
+ * <pre>
+ *   taken_goose   = 100
+ *   fox_step      = 6
+ *   goose_row     = -2
+ * </pre>
+ * <p>
+ * A feature missing from the file keeps its default weight.
+ * </p>
+ */
+public final class EvaluationWeights {
+
+    // The features of the evaluation (see FagEvaluator.getFeatures)
+    public final static int TAKEN_GOOSE   = 0; // The geese taken by the fox
+    public final static int FOX_STEP      = 1; // The empty points next to the fox
+    public final static int GOOSE_AT_RISK = 2; // The geese the fox can jump over right now
+    public final static int GOOSE_PASSED  = 3; // The geese South of the fox (they cannot come back)
+    public final static int GOOSE_ROW     = 4; // The sum of the rows of the other geese
+    public final static int GOOSE_SPREAD  = 5; // The spread of the geese around their center of mass
+    public final static int FOX_TRAPPED   = 6; // 1 if the fox can neither step nor jump
+    public final static int NR_FEATURES   = 7;
+
+    public final static String[] FEATURE_NAMES = {
+        "taken_goose", "fox_step", "goose_at_risk", "goose_passed", "goose_row", "goose_spread", "fox_trapped"
+    };
+
+    private final static int[] DEFAULT_WEIGHTS = { 100, 6, 40, 15, -2, 1, -1000 };
+
+    private static EvaluationWeights defaultWeights = new EvaluationWeights(DEFAULT_WEIGHTS);
+
+    private final int[] weights;
+
+    /**
+     * Basic constructor.
+     * @param weights The weights of the NR_FEATURES features.
+     */
+    public EvaluationWeights(int[] weights) {
+        if (weights.length != NR_FEATURES) {
+            throw new IllegalArgumentException("Expected " + NR_FEATURES + " weights instead of " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Returns the weights used by the evaluators created without weights
+     * (the built-in weights unless setDefault was called).
+     */
+    public static synchronized EvaluationWeights getDefault() {
+        return defaultWeights;
+    }
+
+    /**
+     * Sets the weights used by the evaluators created from now on.
+     * @param weights The weights, or null for the built-in weights.
+     */
+    public static synchronized void setDefault(EvaluationWeights weights) {
+        defaultWeights = (weights != null) ? weights : new EvaluationWeights(DEFAULT_WEIGHTS);
+    }
+
+    public int get(int feature) {
+        return weights[feature];
+    }
+
+    /**
+     * Returns a copy of the weights, indexed by feature.
+     */
+    public int[] toArray() {
+        return weights.clone();
+    }
+
+    /**
+     * Reads weights in the properties format.
+     * @throws IOException If the file cannot be read, or if a feature is
+     *  unknown or its weight is not an integer.
+     */
+    public static EvaluationWeights read(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        for (String name : properties.stringPropertyNames()) {
+            int feature = Arrays.asList(FEATURE_NAMES).indexOf(name);
+            if (feature < 0) {
+                throw new IOException("Unknown feature: " + name);
+            }
+            try {
+                weights[feature] = Integer.parseInt(properties.getProperty(name).trim());
+            }
+            catch (NumberFormatException e) {
+                throw new IOException("Invalid weight of " + name + ": " + properties.getProperty(name));
+            }
+        }
+        return new EvaluationWeights(weights);
+    }
+
+    public static EvaluationWeights load(File file) throws IOException {
+        try (Reader reader = new FileReader(file)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Writes the weights in the properties format (see read).
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write("# The weights of the evaluation (see ai.search.EvaluationWeights)\n");
+        for (int i = 0; i < NR_FEATURES; i++) {
+            writer.write(FEATURE_NAMES[i] + " = " + weights[i] + "\n");
+        }
+    }
+
+    public void save(File file) throws IOException {
+        try (Writer writer = new FileWriter(file)) {
+            write(writer);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return (o instanceof EvaluationWeights) && Arrays.equals(weights, ((EvaluationWeights) o).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < NR_FEATURES; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(FEATURE_NAMES[i]).append('=').append(weights[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package ai.search;
+
+/**
+ * A static evaluation of a position.
+ *
+ * <p>
+ * An evaluation may also follow the moves of the search, so as to update
+ * its terms incrementally instead of computing them at every leaf: the
+ * search sets the position of its root (ply 0), plays every move from a ply
+ * to the next one, and evaluates its leaves by ply. The default methods
+ * ignore the moves and evaluate the leaves from scratch.
+ * </p>
+ */
+public interface Evaluator {
+
+    /**
+     * Evaluates a quiet position from the point of view of the Fox: the
+     * higher the score, the better for the fox.
+     * @param geese The mask of the geese.
+     * @param fox   The point of the fox.
+     * @return A score (in hundredths of a goose).
+     */
+    int evaluate(long geese, int fox);
+
+    /**
+     * Sets the position of the root of a search (ply 0).
+     */
+    default void setRoot(long geese, int fox) {
+    }
+
+    /**
+     * Plays a move of the position of a ply, which gives the position of the next ply.
+     * @param ply     The ply of the position before the move.
+     * @param foxMove True for a move of the fox, false for a move of a goose.
+     * @param from    The point the piece leaves.
+     * @param to      The point the piece reaches.
+     * @param taken   The mask of the geese taken by the move.
+     */
+    default void play(int ply, boolean foxMove, int from, int to, long taken) {
+    }
+
+    /**
+     * Evaluates the position of a ply, reached by setRoot and play.
+     * @param ply   The ply of the position.
+     * @param geese The mask of the geese (the same as the position of the ply).
+     * @param fox   The point of the fox (the same as the position of the ply).
+     * @return The same score as evaluate(geese, fox).
+     */
+    default int evaluate(int ply, long geese, int fox) {
+        return evaluate(geese, fox);
+    }
+}
@@ -0,0 +1,184 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagTopology;
+
+import static ai.search.EvaluationWeights.*;
+import static model.rules.FagBitboard.bit;
+
+/**
+ * The default evaluation of a FoxAndGeese position: a weighted sum of
+ * features (see EvaluationWeights).
+ *
+ * <p>
+ * It combines the taken geese, the mobility of the fox (its steps, the geese
+ * it can jump over, and whether it is trapped) and the shape of the geese:
+ * the geese which went past the fox cannot come back (geese never move
+ * North) and are useless to trap it, the others must move South as a
+ * compact wall.
+ * </p>
+ * <p>
+ * The terms of the geese (the number of geese per row and the sums of their
+ * columns and squared coordinates) are cached per ply and updated by play(),
+ * so that a leaf is evaluated in constant time: the terms of the fox only
+ * depend on its neighbourhood.
+ * </p>
+ *
+ * @note An instance is not thread-safe: use one evaluator per search.
+ */
+public class FagEvaluator implements Evaluator {
+
+    // The rows are counted on 4 bits each (see getRowCount)
+    private final static int ROW_BITS = 4;
+    private final static int MAX_PLIES = SearchLimits.MAX_DEPTH + 2;
+
+    private final int[] weights;
+    private final int[] features = new int[NR_FEATURES];
+
+    // The cached terms of the geese, per ply
+    private final long[] rowCounts  = new long[MAX_PLIES];
+    private final int[]  colSums    = new int[MAX_PLIES];
+    private final int[]  squareSums = new int[MAX_PLIES];
+
+    /**
+     * Creates an evaluator with the default weights.
+     */
+    public FagEvaluator() {
+        this(EvaluationWeights.getDefault());
+    }
+
+    public FagEvaluator(EvaluationWeights weights) {
+        this.weights = weights.toArray();
+    }
+
+    @Override
+    public int evaluate(long geese, int fox) {
+        getFeatures(geese, fox, features);
+        return score(features);
+    }
+
+    @Override
+    public void setRoot(long geese, int fox) {
+        rowCounts[0]  = getRowCounts(geese);
+        colSums[0]    = getColSum(geese);
+        squareSums[0] = getSquareSum(geese);
+    }
+
+    @Override
+    public void play(int ply, boolean foxMove, int from, int to, long taken) {
+        long rowCount  = rowCounts[ply];
+        int  colSum    = colSums[ply];
+        int  squareSum = squareSums[ply];
+        if (!foxMove) {
+            taken = bit(from);
+            rowCount  += 1L << (ROW_BITS * FagBitboard.getRow(to));
+            colSum    += FagBitboard.getCol(to);
+            squareSum += getSquare(to);
+        }
+        for (long t = taken; t != 0; t &= t - 1) {
+            int point = Long.numberOfTrailingZeros(t);
+            rowCount  -= 1L << (ROW_BITS * FagBitboard.getRow(point));
+            colSum    -= FagBitboard.getCol(point);
+            squareSum -= getSquare(point);
+        }
+        rowCounts[ply + 1]  = rowCount;
+        colSums[ply + 1]    = colSum;
+        squareSums[ply + 1] = squareSum;
+    }
+
+    @Override
+    public int evaluate(int ply, long geese, int fox) {
+        computeFeatures(geese, fox, rowCounts[ply], colSums[ply], squareSums[ply], features);
+        return score(features);
+    }
+
+    // The weighted sum of the features
+    private int score(int[] features) {
+        int score = 0;
+        for (int i = 0; i < NR_FEATURES; i++) {
+            score += weights[i] * features[i];
+        }
+        return score;
+    }
+
+    /**
+     * Computes the features of a position from scratch (e.g. to tune the weights).
+     * @param geese    The mask of the geese.
+     * @param fox      The point of the fox.
+     * @param features The array of the NR_FEATURES features, filled by this method.
+     */
+    public static void getFeatures(long geese, int fox, int[] features) {
+        computeFeatures(geese, fox, getRowCounts(geese), getColSum(geese), getSquareSum(geese), features);
+    }
+
+    private static void computeFeatures(long geese, int fox, long rowCounts, int colSum, int squareSum, int[] features) {
+        int nrGeese = Long.bitCount(geese);
+        features[TAKEN_GOOSE] = FagTopology.GEESE_COUNT - nrGeese;
+
+        // Mobility of the fox: its steps and the geese it can take with a first jump
+        long steps  = FagBitboard.foxSteps(fox, geese);
+        long empty  = FagBitboard.BOARD_MASK & ~(geese | bit(fox));
+        int  atRisk = 0;
+        for (int j = 0; j < FagBitboard.getNrJumps(fox); j++) {
+            if (((geese & bit(FagBitboard.getJumpOver(fox, j))) != 0) && ((empty & bit(FagBitboard.getJumpTo(fox, j))) != 0)) {
+                atRisk++;
+            }
+        }
+        features[FOX_STEP]      = Long.bitCount(steps);
+        features[GOOSE_AT_RISK] = atRisk;
+        features[FOX_TRAPPED]   = ((steps == 0) && (atRisk == 0)) ? 1 : 0;
+
+        // Shape of the geese: they must move South as a wall, without passing the fox
+        int foxRow = FagBitboard.getRow(fox);
+        int passed = 0;
+        int rows   = 0;
+        int rowSum = 0;
+        for (int row = 0; row < FagTopology.GRID_SIZE; row++) {
+            int count = getRowCount(rowCounts, row);
+            rowSum += row * count;
+            if (row > foxRow) {
+                passed += count;
+            } else {
+                rows += row * count;
+            }
+        }
+        features[GOOSE_PASSED] = passed;
+        features[GOOSE_ROW]    = rows;
+        // The sum of the squared distances to the center of mass
+        features[GOOSE_SPREAD] = (nrGeese == 0) ? 0 : ((nrGeese * squareSum) - (rowSum * rowSum) - (colSum * colSum)) / nrGeese;
+    }
+
+    private static int getRowCount(long rowCounts, int row) {
+        return (int) (rowCounts >>> (ROW_BITS * row)) & ((1 << ROW_BITS) - 1);
+    }
+
+    private static long getRowCounts(long geese) {
+        long rowCounts = 0L;
+        for (long g = geese; g != 0; g &= g - 1) {
+            rowCounts += 1L << (ROW_BITS * FagBitboard.getRow(Long.numberOfTrailingZeros(g)));
+        }
+        return rowCounts;
+    }
+
+    private static int getColSum(long geese) {
+        int sum = 0;
+        for (long g = geese; g != 0; g &= g - 1) {
+            sum += FagBitboard.getCol(Long.numberOfTrailingZeros(g));
+        }
+        return sum;
+    }
+
+    private static int getSquareSum(long geese) {
+        int sum = 0;
+        for (long g = geese; g != 0; g &= g - 1) {
+            sum += getSquare(Long.numberOfTrailingZeros(g));
+        }
+        return sum;
+    }
+
+    private static int getSquare(int point) {
+        int row = FagBitboard.getRow(point);
+        int col = FagBitboard.getCol(point);
+        return (row * row) + (col * col);
+    }
+}
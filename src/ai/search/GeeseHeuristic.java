@@ -0,0 +1,126 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+
+/**
+ * The heuristic of the AI #1 of the geese (see FagDecider.GeeseAi1), on a
+ * bitboard.
+ *
+ * <ul>
+ *   <li>Defense: when geese are at risk, the one closest to the fox moves
+ *       away from it, or else the movable goose closest to the fox moves
+ *       towards it (to cover the goose at risk).</li>
+ *   <li>Attack: otherwise, the movable goose farthest from the fox (Manhattan
+ *       distance) moves to keep the formation compact.</li>
+ * </ul>
+ * <p>
+ * The ties are broken as FagDecider does, so both play the same moves. The
+ * heuristic has no state: the players (see ai.player.GeeseHeuristicPlayer)
+ * and the playouts of the Monte Carlo tree search share it.
+ * </p>
+ */
+public final class GeeseHeuristic {
+
+    private GeeseHeuristic() {
+    }
+
+    /**
+     * Returns the move of the geese.
+     * @param position The position, the geese to move.
+     * @return The move, as GeeseAi1 plays it.
+     */
+    public static FagMove getMove(FagBitboard position) {
+        int  fox     = position.getFox();
+        long movable = FagBitboard.movableGeese(position.getGeese(), fox);
+        long atRisk  = 0L;
+        for (FagMove move : FagRules.getMoves(new FagBitboard(position.getGeese(), fox, true))) {
+            atRisk |= move.getTaken();
+        }
+
+        int gooseSrc;
+        int gooseDst;
+        if (atRisk != 0) {
+            // Defense
+            gooseSrc = getClosest(fox, atRisk);
+            if ((movable & FagBitboard.bit(gooseSrc)) != 0) {
+                gooseDst = getFarthest(fox, position.reachableForGoose(gooseSrc));
+            } else {
+                gooseSrc = getClosest(fox, movable);
+                gooseDst = getClosest(fox, position.reachableForGoose(gooseSrc));
+            }
+        } else {
+            // Attack
+            gooseSrc = getMaxManhattan(fox, movable);
+            long   reachable = position.reachableForGoose(gooseSrc);
+            double row = 0.0;
+            double col = 0.0;
+            for (long m = reachable; m != 0; m &= m - 1) {
+                row += FagBitboard.getRow(Long.numberOfTrailingZeros(m));
+                col += FagBitboard.getCol(Long.numberOfTrailingZeros(m));
+            }
+            row /= Long.bitCount(reachable);
+            col /= Long.bitCount(reachable);
+            gooseDst = -1;
+            double smallest = Double.MAX_VALUE;
+            for (long m = reachable; m != 0; m &= m - 1) {
+                int    point    = Long.numberOfTrailingZeros(m);
+                double distance = Math.hypot(FagBitboard.getCol(point) - col, FagBitboard.getRow(point) - row);
+                if (distance < smallest) {
+                    smallest = distance;
+                    gooseDst = point;
+                }
+            }
+        }
+        return FagRules.findMove(position, gooseSrc, gooseDst);
+    }
+
+    private static double distance(int p1, int p2) {
+        return Math.hypot(FagBitboard.getCol(p2) - FagBitboard.getCol(p1), FagBitboard.getRow(p2) - FagBitboard.getRow(p1));
+    }
+
+    // The first point of a mask which is the closest to a point
+    private static int getClosest(int point, long mask) {
+        int    closest  = -1;
+        double smallest = Double.MAX_VALUE;
+        for (long m = mask; m != 0; m &= m - 1) {
+            int p = Long.numberOfTrailingZeros(m);
+            if (distance(point, p) < smallest) {
+                smallest = distance(point, p);
+                closest  = p;
+            }
+        }
+        return closest;
+    }
+
+    // The first point of a mask which is the farthest from a point
+    private static int getFarthest(int point, long mask) {
+        int    farthest = -1;
+        double biggest  = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            int p = Long.numberOfTrailingZeros(m);
+            if (distance(point, p) > biggest) {
+                biggest  = distance(point, p);
+                farthest = p;
+            }
+        }
+        return farthest;
+    }
+
+    // The last point of a mask which is the farthest from a point (Manhattan distance)
+    private static int getMaxManhattan(int point, long mask) {
+        int farthest = -1;
+        int longest  = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            int p = Long.numberOfTrailingZeros(m);
+            int distance = Math.abs(FagBitboard.getRow(p) - FagBitboard.getRow(point)) +
+                           Math.abs(FagBitboard.getCol(p) - FagBitboard.getCol(point));
+            if (distance >= longest) {
+                longest  = distance;
+                farthest = p;
+            }
+        }
+        return farthest;
+    }
+}
@@ -0,0 +1,158 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+
+/**
+ * An iterative deepening driver around an AlphaBetaSearch.
+ *
+ * <p>
+ * The position is searched at depth 1, 2, 3... until the depth limit is
+ * reached or the time budget is spent. Each iteration searches the principal
+ * variation of the previous one first and fills the transposition table, so
+ * that the deeper iterations are well ordered and the total cost is close to
+ * the cost of the last iteration alone.
+ * </p>
+ * <p>
+ * The result is the one of the last completed iteration, or the one of the
+ * iteration aborted by the clock if its first move was completed: as this
+ * first move is the best move of the previous iteration, any other move it
+ * kept has been proven better.
+ * </p>
+ * <p>
+ * The stability of the search is measured along the iterations: the number
+ * of times the best move changed from an iteration to the next, and the
+ * mean change of the score. A search which only evaluates quiet positions
+ * (see the quiescence depth of SearchLimits) changes its mind less.
+ * </p>
+ */
+public class IterativeDeepening implements SearchEngine {
+
+    // A new iteration is not started once this part of the time budget is spent
+    private final static double NEXT_ITERATION_TIME_RATIO = 0.5;
+
+    private final AlphaBetaSearch search;
+    private boolean verbose;
+    private int     firstDepth = 1;
+    private int     completedDepth;
+
+    // Stability of the last search
+    private int  iterations;
+    private int  bestMoveChanges;
+    private long scoreChanges; // The sum of the absolute score changes
+
+    /**
+     * Basic constructor.
+     * @param search The fixed-depth search called by each iteration.
+     */
+    public IterativeDeepening(AlphaBetaSearch search) {
+        this.search = search;
+    }
+
+    public IterativeDeepening(TranspositionTable transpositionTable) {
+        this(new AlphaBetaSearch(transpositionTable));
+    }
+
+    /**
+     * Prints a line per completed iteration (depth, score, nodes with the
+     * quiescence nodes, time, cut-offs with the rate of first-move cut-offs,
+     * and principal variation) on the standard output.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    /**
+     * Sets the depth of the first iteration (1 by default). The helpers of a
+     * parallel search start at different depths, so that they do not all
+     * search the same tree at the same time.
+     */
+    public void setFirstDepth(int firstDepth) {
+        this.firstDepth = Math.max(1, firstDepth);
+    }
+
+    @Override
+    public SearchResult search(FagBitboard position, SearchLimits limits) {
+        search.startSearch(limits);
+        SearchResult result = null;
+        completedDepth = 0;
+        iterations = 0;
+        bestMoveChanges = 0;
+        scoreChanges = 0;
+
+        for (int depth = Math.min(firstDepth, limits.getDepth()); depth <= limits.getDepth(); depth++) {
+            SearchResult current = search.searchRoot(position, depth);
+            if (search.isAborted()) {
+                // Keep a partial iteration only if its first move (the previous best one) was completed
+                if ((result == null) || (current.getScore() > -AlphaBetaSearch.INFINITY)) {
+                    result = current;
+                }
+                break;
+            }
+            if (result != null) {
+                if ((current.getFrom() != result.getFrom()) || (current.getTo() != result.getTo()) ||
+                    (current.getTaken() != result.getTaken())) {
+                    bestMoveChanges++;
+                }
+                scoreChanges += Math.abs(current.getScore() - result.getScore());
+            }
+            result = current;
+            completedDepth = depth;
+            iterations++;
+            search.savePv();
+            if (verbose) {
+                System.out.println("info depth " + depth + " score " + current.getScore() + " nodes " + current.getNodes() +
+                                   " qnodes " + search.getQuiescenceNodes() + " time " + current.getElapsed() +
+                                   " cutoffs " + search.getOrdering().getCutoffs() +
+                                   String.format(" first-move %.1f%%", 100.0 * search.getOrdering().getFirstMoveCutoffRate()) +
+                                   " pv " + search.getPrincipalVariation());
+            }
+
+            // A forced win or loss was found: searching deeper cannot change it
+            if (Math.abs(current.getScore()) >= AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH) {
+                break;
+            }
+            // The next iteration would most likely not complete in time
+            if (limits.hasTimeLimit() && (search.getElapsed() > limits.getMoveTime() * NEXT_ITERATION_TIME_RATIO)) {
+                break;
+            }
+        }
+
+        long elapsed = search.getElapsed();
+        return new SearchResult(result.getFrom(), result.getTo(), result.getTaken(), result.getScore(),
+                                result.getDepth(), search.getNodes(), elapsed);
+    }
+
+    /**
+     * Returns the depth of the last completed iteration (0 if none).
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of completed iterations of the last search whose
+     * best move differs from the one of the previous iteration.
+     */
+    public int getBestMoveChanges() {
+        return bestMoveChanges;
+    }
+
+    /**
+     * Returns the mean absolute change of the score between two completed
+     * iterations of the last search (0 with less than two iterations).
+     */
+    public double getMeanScoreChange() {
+        return (iterations < 2) ? 0.0 : (double) scoreChanges / (iterations - 1);
+    }
+
+    public AlphaBetaSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Returns the principal variation of the last completed iteration.
+     */
+    public String getPrincipalVariation() {
+        return search.getPrincipalVariation();
+    }
+}
@@ -0,0 +1,193 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A parallel search ("Lazy SMP"): several threads run their own iterative
+ * deepening on the same position and only share the transposition table.
+ *
+ * <p>
+ * The threads do not split the tree: each one benefits from the entries
+ * stored by the others, which is enough to make the main thread search
+ * deeper in the same time. To keep the helpers from searching the very same
+ * nodes, every other helper starts one ply deeper and all of them add a
+ * small seeded noise to the ordering of their quiet moves.
+ * </p>
+ * <p>
+ * The main thread runs in the calling thread and has no noise: with a single
+ * thread and a depth limit, the search is fully deterministic. When the main
+ * thread is done, the helpers are stopped and the deepest completed
+ * iteration wins (the main thread on ties).
+ * </p>
+ */
+public class LazySmpSearch implements SearchEngine {
+
+    // The noise added to the ordering of the quiet moves of the helpers (captures score 100 per goose)
+    private final static int HELPER_ORDERING_NOISE = 16;
+
+    private final TranspositionTable   transpositionTable;
+    private final IterativeDeepening[] workers;
+    private final ExecutorService      helpers; // null with a single thread
+
+    // Statistics of the last search, per thread
+    private final long[] workerNodes;
+    private final long[] workerElapsed;
+
+    // The stop signal of the running search (see stop)
+    private volatile AtomicBoolean stopSignal = null;
+
+    /**
+     * Basic constructor.
+     * @param transpositionTable The transposition table shared by the threads.
+     * @param threads            The number of threads (at least 1).
+     * @param seed               The seed of the move ordering noise of the helpers.
+     */
+    public LazySmpSearch(TranspositionTable transpositionTable, int threads, long seed) {
+        this.transpositionTable = transpositionTable;
+        threads = Math.max(1, threads);
+        workers = new IterativeDeepening[threads];
+        for (int i = 0; i < threads; i++) {
+            AlphaBetaSearch search = new AlphaBetaSearch(transpositionTable);
+            // The table is aged once per search, by this class
+            search.setAgeTable(false);
+            workers[i] = new IterativeDeepening(search);
+            if (i > 0) {
+                search.setOrderingNoise(HELPER_ORDERING_NOISE, seed + i);
+                workers[i].setFirstDepth(1 + (i % 2));
+            }
+        }
+        workerNodes = new long[threads];
+        workerElapsed = new long[threads];
+        helpers = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Prints the iterations of the main thread (see IterativeDeepening).
+     */
+    public void setVerbose(boolean verbose) {
+        workers[0].setVerbose(verbose);
+    }
+
+    @Override
+    public synchronized SearchResult search(FagBitboard position, SearchLimits limits) {
+        if (transpositionTable != null) {
+            transpositionTable.newSearch();
+        }
+        AtomicBoolean stop = new AtomicBoolean(false);
+        for (IterativeDeepening worker : workers) {
+            worker.getSearch().setStopSignal(stop);
+        }
+        stopSignal = stop;
+
+        List<Future<SearchResult>> futures = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            IterativeDeepening worker = workers[i];
+            futures.add(helpers.submit(() -> worker.search(position, limits)));
+        }
+        SearchResult best = workers[0].search(position, limits);
+        int bestDepth = workers[0].getCompletedDepth();
+        stop.set(true);
+        stopSignal = null;
+
+        long nodes = workers[0].getSearch().getNodes();
+        workerNodes[0]   = nodes;
+        workerElapsed[0] = best.getElapsed();
+        for (int i = 1; i < workers.length; i++) {
+            try {
+                SearchResult result = futures.get(i - 1).get();
+                workerNodes[i]   = workers[i].getSearch().getNodes();
+                workerElapsed[i] = result.getElapsed();
+                nodes += workerNodes[i];
+                if ((workers[i].getCompletedDepth() > bestDepth) && result.hasMove()) {
+                    best = result;
+                    bestDepth = workers[i].getCompletedDepth();
+                }
+            }
+            catch (InterruptedException | ExecutionException e) {
+                System.out.println("WARNING: A search thread failed: " + e.getMessage());
+            }
+        }
+        return new SearchResult(best.getFrom(), best.getTo(), best.getTaken(), best.getScore(),
+                                bestDepth, nodes, workerElapsed[0]);
+    }
+
+    /**
+     * Stops the running search, if any, from another thread: the search
+     * returns the best move found so far as if its time was over.
+     */
+    public void stop() {
+        AtomicBoolean stop = stopSignal;
+        if (stop != null) {
+            stop.set(true);
+        }
+    }
+
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Returns the number of nodes visited by a thread during the last search.
+     * @param thread The index of the thread (0 for the main thread).
+     */
+    public long getNodes(int thread) {
+        return workerNodes[thread];
+    }
+
+    /**
+     * Returns the number of nodes per second of a thread during the last search.
+     * @param thread The index of the thread (0 for the main thread).
+     */
+    public long getNodesPerSecond(int thread) {
+        return (workerNodes[thread] * 1000) / Math.max(1, workerElapsed[thread]);
+    }
+
+    /**
+     * Returns the principal variation of the main thread.
+     */
+    public String getPrincipalVariation() {
+        return workers[0].getPrincipalVariation();
+    }
+
+    /**
+     * Returns a move of the principal variation of the main thread (see
+     * AlphaBetaSearch.getPvMove).
+     */
+    public FagMove getPvMove(int ply) {
+        return workers[0].getSearch().getPvMove(ply);
+    }
+
+    /**
+     * Stops the helper threads. The engine cannot be used afterwards.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SMP[threads=" + workers.length);
+        for (int i = 0; i < workers.length; i++) {
+            sb.append(" #").append(i).append(": nodes=").append(workerNodes[i])
+              .append(" nps=").append(getNodesPerSecond(i));
+        }
+        sb.append(String.format(" first-move-cutoffs=%.1f%%", 100.0 * workers[0].getSearch().getOrdering().getFirstMoveCutoffRate()));
+        sb.append(" qnodes=").append(workers[0].getSearch().getQuiescenceNodes())
+          .append(" best-move-changes=").append(workers[0].getBestMoveChanges());
+        return sb.append(']').toString();
+    }
+}
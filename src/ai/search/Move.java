@@ -0,0 +1,60 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+
+/**
+ * The packed encoding of a move in an int, for the search.
+ *
+ * <pre>
+ *   bits  0-5   'from' point
+ *   bits  6-11  'to' point
+ *   bits 12-17  number of geese taken by the move
+ * </pre>
+ * <p>
+ * The mask of the taken geese (33 bits) does not fit: it is kept aside
+ * (see MoveList). Two chains of jumps with the same landing point and the
+ * same number of taken geese therefore share their code, which does not
+ * matter to the heuristics keyed by move (killer moves and history, see
+ * MoveOrdering) as they only hold moves which take nothing.
+ * </p>
+ */
+public final class Move {
+
+    // Not a move: the 'from' and 'to' points of a move differ
+    public final static int NONE = 0;
+
+    private final static int POINT_MASK  = 0x3F;
+    private final static int TO_SHIFT    = 6;
+    private final static int TAKEN_SHIFT = 12;
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int nrTaken) {
+        return from | (to << TO_SHIFT) | (nrTaken << TAKEN_SHIFT);
+    }
+
+    public static int getFrom(int move) {
+        return move & POINT_MASK;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> TO_SHIFT) & POINT_MASK;
+    }
+
+    public static int getNrTaken(int move) {
+        return move >>> TAKEN_SHIFT;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move >>> TAKEN_SHIFT) != 0;
+    }
+
+    /**
+     * Returns a move as "[row,col]-[row,col]", followed by "xN" if it takes N geese.
+     */
+    public static String toString(int move) {
+        String s = FagBitboard.toString(getFrom(move)) + "-" + FagBitboard.toString(getTo(move));
+        return isCapture(move) ? s + "x" + getNrTaken(move) : s;
+    }
+}
@@ -0,0 +1,101 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagCaptures;
+
+/**
+ * Generates the legal moves of a position into a MoveList.
+ *
+ * <p>
+ * A fox move is a step to an adjacent empty point or a chain of jumps. Every
+ * distinct chain (i.e. landing point and set of taken geese) is a move of its
+ * own, since the fox may stop after any jump of the chain.
+ * </p>
+ */
+public final class MoveGenerator {
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Generates the moves of the side to move.
+     * @param geese     The mask of the geese.
+     * @param fox       The point of the fox.
+     * @param foxToMove True if the fox plays.
+     * @param list      The list to fill (it is cleared first).
+     */
+    public static void generate(long geese, int fox, boolean foxToMove, MoveList list) {
+        list.clear();
+        if (foxToMove) {
+            generateFoxMoves(geese, fox, list);
+        } else {
+            generateGeeseMoves(geese, fox, list);
+        }
+    }
+
+    public static void generateFoxMoves(long geese, int fox, MoveList list) {
+        // Jump chains first: they are the most interesting moves
+        addCaptures(geese, fox, list);
+        for (long m = FagBitboard.foxSteps(fox, geese); m != 0; m &= m - 1) {
+            list.add(fox, Long.numberOfTrailingZeros(m), 0L);
+        }
+    }
+
+    /**
+     * Generates the jump chains only (i.e. the captures) of the fox.
+     */
+    public static void generateJumps(long geese, int fox, MoveList list) {
+        list.clear();
+        addCaptures(geese, fox, list);
+    }
+
+    // The chains are enumerated by the capture generator of the list (see FagCaptures)
+    private static void addCaptures(long geese, int fox, MoveList list) {
+        FagCaptures captures = list.captures.generate(geese, fox);
+        for (int i = 0; i < captures.size(); i++) {
+            list.add(fox, captures.getTo(i), captures.getTaken(i));
+        }
+    }
+
+    /**
+     * Generates the moves of the geese which parry a first jump of the fox:
+     * the goose jumped over leaves, or a goose fills the landing point. The
+     * list is empty if the fox cannot jump, or if no move parries a jump.
+     */
+    public static void generateGeeseEvasions(long geese, int fox, MoveList list) {
+        list.clear();
+        long empty      = FagBitboard.BOARD_MASK & ~(geese | FagBitboard.bit(fox));
+        long threatened = 0L; // The geese which can be jumped over
+        long landings   = 0L; // The points where the fox lands
+        for (int j = 0; j < FagBitboard.getNrJumps(fox); j++) {
+            int over = FagBitboard.getJumpOver(fox, j);
+            int to   = FagBitboard.getJumpTo(fox, j);
+            if (((geese & FagBitboard.bit(over)) != 0) && ((empty & FagBitboard.bit(to)) != 0)) {
+                threatened |= FagBitboard.bit(over);
+                landings   |= FagBitboard.bit(to);
+            }
+        }
+        if (threatened == 0L) {
+            return;
+        }
+        for (long g = geese; g != 0; g &= g - 1) {
+            int  goose = Long.numberOfTrailingZeros(g);
+            long steps = FagBitboard.gooseSteps(goose, geese, fox);
+            if ((threatened & FagBitboard.bit(goose)) == 0) {
+                steps &= landings;
+            }
+            for (long m = steps; m != 0; m &= m - 1) {
+                list.add(goose, Long.numberOfTrailingZeros(m), 0L);
+            }
+        }
+    }
+
+    public static void generateGeeseMoves(long geese, int fox, MoveList list) {
+        for (long g = geese; g != 0; g &= g - 1) {
+            int goose = Long.numberOfTrailingZeros(g);
+            for (long m = FagBitboard.gooseSteps(goose, geese, fox); m != 0; m &= m - 1) {
+                list.add(goose, Long.numberOfTrailingZeros(m), 0L);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ai.search;
+
+import model.rules.FagCaptures;
+
+import java.util.Arrays;
+
+/**
+ * A reusable list of moves. The moves are stored in parallel primitive
+ * arrays so that the search does not allocate any object per node: the
+ * packed moves (see Move), the masks of their taken geese and their
+ * ordering scores.
+ *
+ * <p>
+ * The arrays grow on the positions with many moves: the distinct chains of
+ * jumps of the fox (i.e. a landing point and a set of taken geese) go well
+ * past a few hundred with 12 or 13 geese.
+ * </p>
+ */
+public class MoveList {
+
+    // Geese: 13 geese x 3 directions. Fox: 8 steps + the jump chains.
+    public final static int INITIAL_SIZE = 64;
+
+    int[]  moves = new int[INITIAL_SIZE];
+    long[] taken = new long[INITIAL_SIZE];
+    int[]  score = new int[INITIAL_SIZE];
+    int size;
+
+    // The captures of the fox, reused from node to node
+    final FagCaptures captures = new FagCaptures();
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends a move to the list.
+     */
+    public void add(int from, int to, long taken) {
+        if (size == moves.length) {
+            this.moves = Arrays.copyOf(moves, 2 * size);
+            this.taken = Arrays.copyOf(this.taken, 2 * size);
+            this.score = Arrays.copyOf(score, 2 * size);
+        }
+        this.moves[size] = Move.encode(from, to, Long.bitCount(taken));
+        this.taken[size] = taken;
+        this.score[size] = 0;
+        size++;
+    }
+
+    /**
+     * Returns the packed move of index i (see Move).
+     */
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    public int getFrom(int i) {
+        return Move.getFrom(moves[i]);
+    }
+
+    public int getTo(int i) {
+        return Move.getTo(moves[i]);
+    }
+
+    public long getTaken(int i) {
+        return taken[i];
+    }
+
+    public int getScore(int i) {
+        return score[i];
+    }
+
+    public void setScore(int i, int score) {
+        this.score[i] = score;
+    }
+
+    /**
+     * Moves the best scored move among [i, size[ to the index i
+     * (i.e. one step of a selection sort, so that the moves are only sorted
+     * as far as the search needs them).
+     */
+    public void pickBest(int i) {
+        int best = i;
+        for (int j = i + 1; j < size; j++) {
+            if (score[j] > score[best]) best = j;
+        }
+        if (best != i) swap(i, best);
+    }
+
+    void swap(int i, int j) {
+        int  m = moves[i]; moves[i] = moves[j]; moves[j] = m;
+        long k = taken[i]; taken[i] = taken[j]; taken[j] = k;
+        int  s = score[i]; score[i] = score[j]; score[j] = s;
+    }
+}
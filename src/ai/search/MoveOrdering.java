@@ -0,0 +1,154 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+
+/**
+ * The move ordering heuristics of a search.
+ *
+ * <p>
+ * Alpha-beta prunes the most when the best move of a node is searched
+ * first. The moves are therefore scored before being searched, in this
+ * order:
+ * </p>
+ * <ol>
+ *   <li>the move of the previous principal variation (see AlphaBetaSearch);</li>
+ *   <li>the move of the transposition table;</li>
+ *   <li>the chains of jumps, the longest first;</li>
+ *   <li>the killer moves of the ply, i.e. the last two quiet moves which
+ *       caused a cut-off at the same ply in a sibling node;</li>
+ *   <li>the other quiet moves by their history score: the sum of the
+ *       squared depths of the cut-offs they caused, per side, whatever the
+ *       position (the geese moving South first on equal scores).</li>
+ * </ol>
+ * <p>
+ * The effectiveness of the ordering is measured by the rate of the
+ * cut-offs caused by the first searched move of a node.
+ * </p>
+ *
+ * @note An instance belongs to a single search thread.
+ */
+public class MoveOrdering {
+
+    // Ordering scores, from the first searched moves to the last ones
+    public final static int PV_MOVE_SCORE   = 1 << 22;
+    public final static int HASH_MOVE_SCORE = 1 << 21;
+    public final static int CAPTURE_SCORE   = 1 << 20; // Plus 100 per taken goose
+    public final static int KILLER_SCORE    = 1 << 19; // The second killer scores one less
+    // The history scores are halved once one of them reaches this value
+    public final static int HISTORY_MAX     = 1 << 16;
+
+    private final static int NR_KILLERS = 2;
+
+    private final int[][] killers = new int[SearchLimits.MAX_DEPTH + 1][NR_KILLERS];
+    // history[side][from * POINTS + to], side 1 for the fox
+    private final int[][] history = new int[2][FagBitboard.POINTS * FagBitboard.POINTS];
+
+    // Statistics of the current search
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * Prepares a new search: forgets the killer moves and the statistics,
+     * and halves the history, so that the last searches weigh the most.
+     */
+    public void newSearch() {
+        for (int[] plyKillers : killers) {
+            for (int k = 0; k < NR_KILLERS; k++) {
+                plyKillers[k] = Move.NONE;
+            }
+        }
+        ageHistory();
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    private void ageHistory() {
+        for (int[] sideHistory : history) {
+            for (int i = 0; i < sideHistory.length; i++) {
+                sideHistory[i] >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the ordering score of a move which is neither the move of the
+     * principal variation nor the move of the table.
+     * @param ply       The ply of the node.
+     * @param foxToMove True if the fox plays the move.
+     * @param move      The packed move (see Move).
+     */
+    public int getScore(int ply, boolean foxToMove, int move) {
+        if (Move.isCapture(move)) {
+            return CAPTURE_SCORE + Move.getNrTaken(move) * 100;
+        }
+        if (move == killers[ply][0]) {
+            return KILLER_SCORE;
+        }
+        if (move == killers[ply][1]) {
+            return KILLER_SCORE - 1;
+        }
+        int from  = Move.getFrom(move);
+        int to    = Move.getTo(move);
+        int score = history[foxToMove ? 1 : 0][from * FagBitboard.POINTS + to] << 1;
+        // On equal history, the geese moving South first
+        if (!foxToMove && (FagBitboard.getRow(to) > FagBitboard.getRow(from))) {
+            score++;
+        }
+        return score;
+    }
+
+    /**
+     * Records a cut-off: the statistics, and the killer moves and the
+     * history when the move is quiet.
+     * @param ply       The ply of the node.
+     * @param foxToMove True if the fox played the move.
+     * @param move      The packed move which caused the cut-off.
+     * @param depth     The remaining depth of the node.
+     * @param index     The rank of the move in the node (0 for the first searched move).
+     */
+    public void cutoff(int ply, boolean foxToMove, int move, int depth, int index) {
+        cutoffs++;
+        if (index == 0) {
+            firstMoveCutoffs++;
+        }
+        if (Move.isCapture(move)) {
+            return;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] sideHistory = history[foxToMove ? 1 : 0];
+        int   i = Move.getFrom(move) * FagBitboard.POINTS + Move.getTo(move);
+        sideHistory[i] += depth * depth;
+        if (sideHistory[i] >= HISTORY_MAX) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Returns the number of cut-offs of the current search.
+     */
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    /**
+     * Returns the number of cut-offs caused by the first searched move of a node.
+     */
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    /**
+     * Returns the rate of the cut-offs caused by the first searched move of
+     * a node (1 for a perfect ordering, 0 if there was no cut-off).
+     */
+    public double getFirstMoveCutoffRate() {
+        return (cutoffs == 0) ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+    }
+
+    public String toString() {
+        return String.format("Ordering[cutoffs=%d first-move=%.1f%%]", cutoffs, 100.0 * getFirstMoveCutoffRate());
+    }
+}
@@ -0,0 +1,247 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.FagTopology;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static model.rules.FagBitboard.bit;
+
+/**
+ * Counts the leaf nodes of the tree of the legal moves to a given depth
+ * ("perft"), in order to check the move generation and measure its speed.
+ *
+ * <p>
+ * The counts of MoveGenerator (the one of the search) are compared with
+ * reference counts, and optionally with the counts of FagRules (the one of
+ * the board and the players). A position where the game is over has no
+ * child: the fox took enough geese, or the side to move cannot move.
+ * </p>
+ * <p>
+ * The reference positions (see perft.txt) are written one per line, with
+ * the 33 points in order ('G' goose, 'F' fox, '.' empty), the side to move
+ * ('f' or 'g'), then the counts of the depths 1, 2, ...:
+ * </p>
+ * <pre>
+ *   GGGGGGGGGGGGG..........F......... f ;D1 5 ;D2 ...
+ * </pre>
+ *
+ * Usage: Perft [maxDepth] [positions file] [--rules]
+ */
+public class Perft {
+
+    // The reference positions shipped with the sources
+    public final static String POSITIONS = "perft.txt";
+
+    private final MoveList[] lists;
+
+    /**
+     * Basic constructor.
+     * @param maxDepth The maximal depth of the counts.
+     */
+    public Perft(int maxDepth) {
+        lists = new MoveList[Math.max(1, maxDepth)];
+        for (int ply = 0; ply < lists.length; ply++) {
+            lists[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * Counts the leaf nodes with MoveGenerator.
+     * @param position The root position.
+     * @param depth    The depth (at most the maximal depth of the constructor).
+     */
+    public long perft(FagBitboard position, int depth) {
+        return perft(position.getGeese(), position.getFox(), position.isFoxToMove(), depth, 0);
+    }
+
+    private long perft(long geese, int fox, boolean foxToMove, int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (Long.bitCount(geese) <= FagRules.FOX_WIN_GEESE) {
+            return 0;
+        }
+        MoveList list = lists[ply];
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        if (depth == 1) {
+            return list.size(); // Bulk counting
+        }
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            if (foxToMove) {
+                nodes += perft(geese & ~list.getTaken(i), list.getTo(i), false, depth - 1, ply + 1);
+            } else {
+                nodes += perft((geese & ~bit(list.getFrom(i))) | bit(list.getTo(i)), fox, true, depth - 1, ply + 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes with FagRules (slower, for the cross-checks).
+     */
+    public static long perftRules(FagBitboard position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (FagRules.getResult(position).isOver()) {
+            return 0;
+        }
+        long nodes = 0;
+        for (FagMove move : FagRules.getMoves(position)) {
+            nodes += perftRules(FagRules.play(position, move), depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * Reads a position written as in the reference file (see the class comment).
+     * @throws IllegalArgumentException If the notation is not valid.
+     */
+    public static FagBitboard parse(String notation) {
+        String[] fields = notation.trim().split("\\s+");
+        if ((fields.length < 2) || (fields[0].length() != FagTopology.POINTS) ||
+            !(fields[1].equals("f") || fields[1].equals("g"))) {
+            throw new IllegalArgumentException("Invalid position: " + notation);
+        }
+        long geese = 0L;
+        int  fox   = FagBitboard.NO_POINT;
+        for (int p = 0; p < FagTopology.POINTS; p++) {
+            char c = fields[0].charAt(p);
+            if (c == 'G') geese |= bit(p);
+            else if (c == 'F') fox = p;
+            else if (c != '.') throw new IllegalArgumentException("Invalid point '" + c + "' in " + notation);
+        }
+        if (fox == FagBitboard.NO_POINT) {
+            throw new IllegalArgumentException("No fox in " + notation);
+        }
+        return new FagBitboard(geese, fox, fields[1].equals("f"));
+    }
+
+    /**
+     * Writes a position as in the reference file (see the class comment).
+     */
+    public static String toNotation(FagBitboard position) {
+        StringBuilder sb = new StringBuilder();
+        for (int p = 0; p < FagTopology.POINTS; p++) {
+            sb.append((p == position.getFox()) ? 'F' : position.isGooseAt(p) ? 'G' : '.');
+        }
+        return sb.append(position.isFoxToMove() ? " f" : " g").toString();
+    }
+
+    /**
+     * A reference position and its counts.
+     */
+    public static class Entry {
+        public final FagBitboard position;
+        public final long[] counts; // counts[d-1]: the count of depth d
+
+        Entry(FagBitboard position, long[] counts) {
+            this.position = position;
+            this.counts = counts;
+        }
+    }
+
+    /**
+     * Reads the reference positions ('#' starts a comment).
+     */
+    public static List<Entry> readEntries(Reader input) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(input);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(";");
+            long[] counts = new long[fields.length - 1];
+            for (int d = 1; d < fields.length; d++) {
+                String[] count = fields[d].trim().split("\\s+");
+                if (!count[0].equals("D" + d)) {
+                    throw new IOException("Expected D" + d + " in: " + line);
+                }
+                counts[d - 1] = Long.parseLong(count[1]);
+            }
+            entries.add(new Entry(parse(fields[0]), counts));
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the reference positions shipped with the sources.
+     */
+    public static List<Entry> readEntries() throws IOException {
+        InputStream stream = Perft.class.getResourceAsStream(POSITIONS);
+        if (stream == null) {
+            throw new IOException("Cannot find " + POSITIONS);
+        }
+        try (Reader reader = new InputStreamReader(stream)) {
+            return readEntries(reader);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int     maxDepth = 8;
+        String  file     = null;
+        boolean rules    = false;
+        for (String arg : args) {
+            if (arg.equals("--rules")) rules = true;
+            else if (arg.matches("\\d+")) maxDepth = Integer.parseInt(arg);
+            else file = arg;
+        }
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry(FagBitboard.initial(), new long[0]));
+        if (file != null) {
+            try (Reader reader = new FileReader(file)) {
+                entries.addAll(readEntries(reader));
+            }
+        } else {
+            entries.addAll(readEntries());
+        }
+
+        Perft perft = new Perft(maxDepth);
+        int errors = 0;
+        long totalNodes = 0;
+        long totalTime  = 0;
+        for (Entry entry : entries) {
+            System.out.println(toNotation(entry.position));
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                long start = System.nanoTime();
+                long nodes = perft.perft(entry.position, depth);
+                long time  = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalTime  += time;
+                String check = "";
+                if (depth <= entry.counts.length) {
+                    check = (nodes == entry.counts[depth - 1]) ? " OK" : " MISMATCH (expected " + entry.counts[depth - 1] + ")";
+                    if (nodes != entry.counts[depth - 1]) errors++;
+                }
+                if (rules) {
+                    long reference = perftRules(entry.position, depth);
+                    if (reference != nodes) {
+                        check += " MISMATCH WITH FagRules (" + reference + ")";
+                        errors++;
+                    }
+                }
+                System.out.printf("  D%-2d %14d nodes %9.1f ms %12.0f nodes/s%s%n", depth, nodes, time / 1e6,
+                                  (time > 0) ? nodes * 1e9 / time : 0.0, check);
+            }
+        }
+        System.out.printf("Total: %d nodes, %.0f nodes/s, %d error(s)%n", totalNodes,
+                          (totalTime > 0) ? totalNodes * 1e9 / totalTime : 0.0, errors);
+        if (errors > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+
+/**
+ * Thinks on the time of the opponent ("pondering").
+ *
+ * <p>
+ * While the opponent is to play, a background thread plays the predicted
+ * reply of the opponent and searches the resulting position. When the
+ * opponent actually played the predicted move (a ponder hit), the result of
+ * this search is used at once, or after the rest of the thinking time if it
+ * is not complete yet. Otherwise (a ponder miss), the search is stopped
+ * and the engine searches the actual position, with a transposition table
+ * which was warmed up by the pondering.
+ * </p>
+ * <p>
+ * The reply is the second move of the principal variation of the last
+ * search when the caller knows it, or the best move of a shallow search of
+ * the position of the opponent.
+ * </p>
+ *
+ * @note The engine is the one of the regular searches: the pondering must
+ *  be cancelled (see getResult and cancel) before it is used again.
+ */
+public class PonderSearch {
+
+    // The depth of the search which predicts the reply of the opponent
+    private final static int PREDICTION_DEPTH = 4;
+
+    private final LazySmpSearch engine;
+
+    private volatile Thread      thread = null;
+    private volatile boolean     started = false; // Until the result is asked for
+    private volatile boolean     cancelled;
+    private volatile FagMove     predicted = null;      // The predicted reply, null until known
+    private volatile FagBitboard ponderPosition = null; // The position searched, null until known
+    // The result of the search of the pondered position (guarded by this)
+    private SearchResult result = null;
+    private boolean      finished = true;
+
+    // Statistics
+    private int hits   = 0;
+    private int misses = 0;
+
+    /**
+     * Basic constructor.
+     * @param engine The search of the computer.
+     */
+    public PonderSearch(LazySmpSearch engine) {
+        this.engine = engine;
+    }
+
+    public LazySmpSearch getEngine() {
+        return engine;
+    }
+
+    /**
+     * Starts to ponder, in a background thread. A previous pondering is
+     * cancelled first.
+     * @param position  The position, the opponent to move.
+     * @param predicted The predicted reply of the opponent, or null to let a
+     *                  shallow search predict it.
+     * @param limits    The limits of the next search of the computer. Only
+     *                  its depths apply: the pondering has no time limit.
+     */
+    public void start(FagBitboard position, FagMove predicted, SearchLimits limits) {
+        cancel();
+        started = true;
+        cancelled = false;
+        this.predicted = null;
+        ponderPosition = null;
+        synchronized (this) {
+            result = null;
+            finished = false;
+        }
+        SearchLimits ponderLimits = SearchLimits.depth(limits.getDepth()).withQuiescenceDepth(limits.getQuiescenceDepth());
+        Thread ponder = new Thread(() -> ponder(position, predicted, ponderLimits), "ponder");
+        ponder.setDaemon(true);
+        thread = ponder;
+        ponder.start();
+    }
+
+    // The body of the pondering thread
+    private void ponder(FagBitboard position, FagMove move, SearchLimits limits) {
+        SearchResult ponderResult = null;
+        try {
+            if ((move == null) || !FagRules.getMoves(position).contains(move)) {
+                SearchResult prediction = engine.search(position, SearchLimits.depth(PREDICTION_DEPTH)
+                                                                    .withQuiescenceDepth(limits.getQuiescenceDepth()));
+                if (cancelled || !prediction.hasMove()) {
+                    return;
+                }
+                move = new FagMove(prediction.getFrom(), prediction.getTo(), prediction.getTaken());
+            }
+            FagBitboard next = FagRules.play(position, move);
+            predicted = move;
+            if (FagRules.getResult(next).isOver()) {
+                return;
+            }
+            ponderPosition = next;
+            if (!cancelled) {
+                ponderResult = engine.search(next, limits);
+            }
+        }
+        finally {
+            synchronized (this) {
+                result = ponderResult;
+                finished = true;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns true if a pondering thread is running.
+     */
+    public boolean isPondering() {
+        Thread ponder = thread;
+        return (ponder != null) && ponder.isAlive();
+    }
+
+    /**
+     * Returns the predicted reply of the opponent, or null if it is not known yet.
+     */
+    public FagMove getPredictedMove() {
+        return predicted;
+    }
+
+    /**
+     * Tells the move played by the opponent: the pondering is cancelled at
+     * once if it is not the predicted one.
+     */
+    public void opponentMoved(FagMove move) {
+        FagMove reply = predicted;
+        if ((thread != null) && ((reply == null) || !reply.equals(move))) {
+            cancel();
+        }
+    }
+
+    /**
+     * Returns the result of the pondering for the position of the computer.
+     * On a ponder hit, waits for the pondering search, up to the thinking
+     * time of the limits, then stops it. On a ponder miss, the pondering is
+     * cancelled. Either way, the engine is free when this method returns.
+     * @param position The position, the computer to move.
+     * @param limits   The limits of the search of the computer.
+     * @return The result of the pondering search, or null on a miss.
+     */
+    public SearchResult getResult(FagBitboard position, SearchLimits limits) {
+        if (!started) {
+            return null; // Nothing was pondered
+        }
+        started = false;
+        FagBitboard pondered = ponderPosition;
+        if ((pondered == null) || !pondered.equals(position)) {
+            misses++;
+            cancel();
+            ponderPosition = null;
+            return null;
+        }
+        hits++;
+        long deadline = limits.hasTimeLimit() ? System.currentTimeMillis() + limits.getMoveTime() : 0;
+        synchronized (this) {
+            while (!finished) {
+                long wait = (deadline == 0) ? 0 : deadline - System.currentTimeMillis();
+                if ((deadline != 0) && (wait <= 0)) {
+                    break;
+                }
+                try {
+                    wait(wait);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        // The search returns its best move so far when it is stopped
+        cancel();
+        ponderPosition = null;
+        synchronized (this) {
+            return ((result != null) && result.hasMove()) ? result : null;
+        }
+    }
+
+    /**
+     * Stops the pondering at once, if any, and waits for its thread.
+     */
+    public void cancel() {
+        Thread ponder = thread;
+        if (ponder == null) {
+            return;
+        }
+        cancelled = true;
+        // The thread may be about to start a search: stop until it is over
+        while (ponder.isAlive()) {
+            engine.stop();
+            try {
+                ponder.join(1);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        thread = null;
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public String toString() {
+        return "Ponder[hits=" + hits + " misses=" + misses + "]";
+    }
+}
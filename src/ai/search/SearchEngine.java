@@ -0,0 +1,22 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+
+/**
+ * A search engine which chooses a move for the side to move of a position.
+ *
+ * <p>
+ * Engines work on a FagBitboard, i.e. a cheap copy of the board, and never
+ * touch the FagBoard which is displayed by JavaFX.
+ * </p>
+ */
+public interface SearchEngine {
+
+    /**
+     * Searches the best move of a position.
+     * @param position The position to search.
+     * @param limits   The depth and time limits of the search.
+     * @return The result of the search (the best move, its score and some statistics).
+     */
+    SearchResult search(FagBitboard position, SearchLimits limits);
+}
@@ -0,0 +1,80 @@
+package ai.search;
+
+/**
+ * The limits of a search: a maximal depth (in plies) and/or a maximal
+ * thinking time (in milliseconds), and the depth of the quiescence search
+ * at the leaves (see AlphaBetaSearch).
+ */
+public class SearchLimits {
+
+    public final static int  MAX_DEPTH = 64;
+    public final static long NO_TIME_LIMIT = 0;
+    // The default number of fox captures (and geese replies) searched beyond the depth
+    public final static int  QUIESCENCE_DEPTH = 4;
+
+    private final int  depth;
+    private final long moveTime;
+    private final int  quiescenceDepth;
+
+    /**
+     * Basic constructor.
+     * @param depth    The maximal depth of the search, in plies.
+     * @param moveTime The maximal thinking time in milliseconds (NO_TIME_LIMIT if none).
+     */
+    public SearchLimits(int depth, long moveTime) {
+        this(depth, moveTime, QUIESCENCE_DEPTH);
+    }
+
+    /**
+     * Constructor with a quiescence depth.
+     * @param depth           The maximal depth of the search, in plies.
+     * @param moveTime        The maximal thinking time in milliseconds (NO_TIME_LIMIT if none).
+     * @param quiescenceDepth The maximal depth of the quiescence search, in plies (0 for none).
+     */
+    public SearchLimits(int depth, long moveTime, int quiescenceDepth) {
+        this.depth = Math.max(1, Math.min(depth, MAX_DEPTH));
+        this.moveTime = Math.max(NO_TIME_LIMIT, moveTime);
+        this.quiescenceDepth = Math.max(0, Math.min(quiescenceDepth, MAX_DEPTH));
+    }
+
+    /**
+     * Returns limits with a fixed depth and no time limit.
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, NO_TIME_LIMIT);
+    }
+
+    /**
+     * Returns limits with a thinking time and no depth limit.
+     */
+    public static SearchLimits moveTime(long moveTime) {
+        return new SearchLimits(MAX_DEPTH, moveTime);
+    }
+
+    /**
+     * Returns the same limits with another quiescence depth (0 for none).
+     */
+    public SearchLimits withQuiescenceDepth(int quiescenceDepth) {
+        return new SearchLimits(depth, moveTime, quiescenceDepth);
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getMoveTime() {
+        return moveTime;
+    }
+
+    public int getQuiescenceDepth() {
+        return quiescenceDepth;
+    }
+
+    public boolean hasTimeLimit() {
+        return moveTime != NO_TIME_LIMIT;
+    }
+
+    public String toString() {
+        return "depth=" + depth + (hasTimeLimit() ? " movetime=" + moveTime + "ms" : "") + " qdepth=" + quiescenceDepth;
+    }
+}
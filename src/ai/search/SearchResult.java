@@ -0,0 +1,84 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+
+/**
+ * The outcome of a search: the best move found, its score and some
+ * statistics about the search itself.
+ */
+public class SearchResult {
+
+    private final int  from;
+    private final int  to;
+    private final long taken;
+    private final int  score;
+    private final int  depth;
+    private final long nodes;
+    private final long elapsed; // in milliseconds
+
+    /**
+     * Basic constructor.
+     * @param from    The point of the moved pawn (NO_POINT if there is no move).
+     * @param to      The destination point of the moved pawn.
+     * @param taken   The mask of the geese taken by the move.
+     * @param score   The score of the move for the side to move.
+     * @param depth   The depth that was reached.
+     * @param nodes   The number of visited nodes.
+     * @param elapsed The search time in milliseconds.
+     */
+    public SearchResult(int from, int to, long taken, int score, int depth, long nodes, long elapsed) {
+        this.from = from;
+        this.to = to;
+        this.taken = taken;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsed = elapsed;
+    }
+
+    public boolean hasMove() {
+        return from != FagBitboard.NO_POINT;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public long getTaken() {
+        return taken;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the number of visited nodes per second.
+     */
+    public long getNodesPerSecond() {
+        return (nodes * 1000) / Math.max(1, elapsed);
+    }
+
+    public String toString() {
+        String move = hasMove() ? FagBitboard.toString(from) + " -> " + FagBitboard.toString(to) +
+                " (takes " + Long.bitCount(taken) + ")" : "none";
+        return "move=" + move + " score=" + score + " depth=" + depth + " nodes=" + nodes +
+               " time=" + elapsed + "ms nps=" + getNodesPerSecond();
+    }
+}
@@ -0,0 +1,259 @@
+package ai.search;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size transposition table shared by the searches.
+ *
+ * <p>
+ * The table is a power-of-two number of buckets stored in a single primitive
+ * long[] array. Each bucket has two entries: a depth-preferred one, which is
+ * only replaced by a deeper search (or an entry of an older search), and an
+ * always-replace one. An entry is made of two longs: the Zobrist key XORed
+ * with the data, and the data itself.
+ * </p>
+ * <p>
+ * The table is lockless: several search threads can probe and store at the
+ * same time. A torn entry (i.e. the two longs written by two different
+ * threads) fails the XOR verification and is simply seen as a miss.
+ * </p>
+ *
+ * <pre>
+ * Data layout (64 bits):
+ *   bits  0-15  score (signed)
+ *   bits 16-23  depth
+ *   bits 24-25  bound (EXACT, LOWER or UPPER)
+ *   bits 26-31  age of the search which stored the entry
+ *   bits 32-37  'from' point of the best move (63 if none)
+ *   bits 38-43  'to' point of the best move
+ *   bits 44-59  fold of the mask of the geese taken by the best move
+ * </pre>
+ */
+public class TranspositionTable {
+
+    public final static int BOUND_NONE  = 0;
+    public final static int BOUND_EXACT = 1;
+    public final static int BOUND_LOWER = 2; // The score is a lower bound (fail-high)
+    public final static int BOUND_UPPER = 3; // The score is an upper bound (fail-low)
+
+    public final static int NO_MOVE_POINT = 63;
+
+    private final static int LONGS_PER_BUCKET = 4; // 2 entries of 2 longs
+    private final static int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    private final long[] table;
+    private final long   bucketMask;
+    private volatile int age;
+
+    // Statistics
+    private final LongAdder hits       = new LongAdder();
+    private final LongAdder misses     = new LongAdder();
+    private final LongAdder stores     = new LongAdder();
+    private final LongAdder overwrites = new LongAdder();
+
+    /**
+     * Basic constructor.
+     * @param sizeMb The size of the table in megabytes. It is rounded down to
+     *               a power of two number of buckets.
+     */
+    public TranspositionTable(int sizeMb) {
+        long buckets = Long.highestOneBit(Math.max(1L, ((long) sizeMb << 20) / BYTES_PER_BUCKET));
+        // A Java array cannot have more than 2^31-1 elements
+        buckets = Math.min(buckets, 1L << 28);
+        table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Starts a new search: the entries of the previous searches become
+     * replaceable, but remain usable.
+     */
+    public void newSearch() {
+        age = (age + 1) & 0x3F;
+    }
+
+    /**
+     * Empties the table and resets its statistics.
+     */
+    public void clear() {
+        Arrays.fill(table, 0L);
+        hits.reset();
+        misses.reset();
+        stores.reset();
+        overwrites.reset();
+    }
+
+    /**
+     * Looks for a position in the table.
+     * @param key The Zobrist key of the position.
+     * @return The data of the entry (see the class comment), or 0 if the
+     *  position is not in the table.
+     */
+    public long probe(long key) {
+        int index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+        for (int e = 0; e < LONGS_PER_BUCKET; e += 2) {
+            long data = table[index + e + 1];
+            if ((data != 0L) && ((table[index + e] ^ data) == key)) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return 0L;
+    }
+
+    /**
+     * Stores a search result in the table.
+     * @param key   The Zobrist key of the position.
+     * @param score The score of the position (already adjusted, see toTableScore).
+     * @param depth The depth of the search.
+     * @param bound The type of bound of the score.
+     * @param from  The 'from' point of the best move (NO_MOVE_POINT if none).
+     * @param to    The 'to' point of the best move.
+     * @param taken The mask of the geese taken by the best move.
+     */
+    public void store(long key, int score, int depth, int bound, int from, int to, long taken) {
+        long data = pack(score, depth, bound, age, from, to, taken);
+        int  index = (int) (key & bucketMask) * LONGS_PER_BUCKET;
+
+        // Depth-preferred entry: replaced by the same position, a deeper search or an older search
+        long oldData = table[index + 1];
+        long oldKey  = table[index] ^ oldData;
+        if ((oldData == 0L) || (oldKey == key) || (depth >= getDepth(oldData)) || (getAge(oldData) != age)) {
+            if ((oldData != 0L) && (oldKey != key)) {
+                overwrites.increment();
+                // Keep the previous entry in the always-replace slot
+                table[index + 2] = table[index];
+                table[index + 3] = oldData;
+            }
+            table[index]     = key ^ data;
+            table[index + 1] = data;
+        } else {
+            // Always-replace entry
+            long replacedData = table[index + 3];
+            if ((replacedData != 0L) && ((table[index + 2] ^ replacedData) != key)) {
+                overwrites.increment();
+            }
+            table[index + 2] = key ^ data;
+            table[index + 3] = data;
+        }
+        stores.increment();
+    }
+
+    /*************************************************************
+     * DATA PACKING
+     *************************************************************/
+
+    static long pack(int score, int depth, int bound, int age, int from, int to, long taken) {
+        return (score & 0xFFFFL) |
+               ((long) (depth & 0xFF) << 16) |
+               ((long) (bound & 0x3) << 24) |
+               ((long) (age & 0x3F) << 26) |
+               ((long) (from & 0x3F) << 32) |
+               ((long) (to & 0x3F) << 38) |
+               ((long) foldTaken(taken) << 44);
+    }
+
+    public static int getScore(long data) {
+        return (short) (data & 0xFFFF);
+    }
+
+    public static int getDepth(long data) {
+        return (int) ((data >>> 16) & 0xFF);
+    }
+
+    public static int getBound(long data) {
+        return (int) ((data >>> 24) & 0x3);
+    }
+
+    static int getAge(long data) {
+        return (int) ((data >>> 26) & 0x3F);
+    }
+
+    public static int getFrom(long data) {
+        return (int) ((data >>> 32) & 0x3F);
+    }
+
+    public static int getTo(long data) {
+        return (int) ((data >>> 38) & 0x3F);
+    }
+
+    /**
+     * Returns true if the move of an entry matches a given move.
+     */
+    public static boolean isMove(long data, int from, int to, long taken) {
+        return (getFrom(data) == from) && (getTo(data) == to) &&
+               ((int) ((data >>> 44) & 0xFFFF) == foldTaken(taken));
+    }
+
+    // A 16 bits digest of a mask of taken geese, to tell apart the chains with the same landing point
+    static int foldTaken(long taken) {
+        return (int) ((taken ^ (taken >>> 16) ^ (taken >>> 32)) & 0xFFFF);
+    }
+
+    /**
+     * Converts a score relative to the root into a score relative to the
+     * node, so that a win in 'n' plies is stored independently of the ply
+     * where it was found.
+     */
+    public static int toTableScore(int score, int ply) {
+        if (score >= AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH * 2) return score + ply;
+        if (score <= -AlphaBetaSearch.WIN + SearchLimits.MAX_DEPTH * 2) return score - ply;
+        return score;
+    }
+
+    /**
+     * The inverse of toTableScore.
+     */
+    public static int fromTableScore(int score, int ply) {
+        if (score >= AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH * 2) return score - ply;
+        if (score <= -AlphaBetaSearch.WIN + SearchLimits.MAX_DEPTH * 2) return score + ply;
+        return score;
+    }
+
+    /*************************************************************
+     * STATISTICS
+     *************************************************************/
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    public long getOverwrites() {
+        return overwrites.sum();
+    }
+
+    public long getNrEntries() {
+        return table.length / 2;
+    }
+
+    /**
+     * Returns the filling of the table in per mille, estimated on the first
+     * thousand entries.
+     */
+    public int getFill() {
+        int used = 0;
+        int sampled = (int) Math.min(1000, getNrEntries());
+        for (int e = 0; e < sampled; e++) {
+            if ((table[2 * e + 1] != 0L) && (getAge(table[2 * e + 1]) == age)) used++;
+        }
+        return (used * 1000) / Math.max(1, sampled);
+    }
+
+    public String toString() {
+        long probes = getHits() + getMisses();
+        return "TT[entries=" + getNrEntries() + " hits=" + getHits() + " misses=" + getMisses() +
+               " hitRate=" + ((probes == 0) ? 0 : (getHits() * 100) / probes) + "%" +
+               " stores=" + getStores() + " overwrites=" + getOverwrites() +
+               " fill=" + getFill() + "permil]";
+    }
+}
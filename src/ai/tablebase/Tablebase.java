@@ -0,0 +1,165 @@
+package ai.tablebase;
+
+import ai.search.AlphaBetaSearch;
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+import model.rules.FagTopology;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Probes the endgame tablebases built by TablebaseGenerator.
+ *
+ * <p>
+ * Only the complete tables of a directory are used. A position whose number
+ * of geese has a table is played perfectly: the winning side goes for the
+ * fastest win, the losing side for the longest resistance, and a drawn
+ * position keeps the draw.
+ * </p>
+ */
+public class Tablebase implements AutoCloseable {
+
+    // The value of a position which is not in the tables
+    public final static int NOT_AVAILABLE = -1;
+
+    private final TablebaseFile[] tables = new TablebaseFile[FagTopology.GEESE_COUNT + 1];
+    private int foxWinGeese = TablebaseGenerator.FOX_WIN_GEESE;
+
+    private Tablebase() {
+    }
+
+    /**
+     * Opens the complete tables of a directory.
+     * @param directory The directory of the tables.
+     * @return The tablebase (possibly without any table).
+     */
+    public static Tablebase open(File directory) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        for (int k = 1; k <= FagTopology.GEESE_COUNT; k++) {
+            TablebaseFile table = TablebaseFile.open(directory, k);
+            if ((table != null) && table.isComplete()) {
+                tablebase.tables[k] = table;
+                tablebase.foxWinGeese = table.getFoxWinGeese();
+            } else if (table != null) {
+                table.close();
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Returns true if the positions with a given number of geese are in the tables.
+     */
+    public boolean contains(int geeseCount) {
+        return (geeseCount >= 0) && (geeseCount < tables.length) && (tables[geeseCount] != null);
+    }
+
+    /**
+     * Returns the number of the tables which can be probed.
+     */
+    public int getNrTables() {
+        int count = 0;
+        for (TablebaseFile table : tables) {
+            if (table != null) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of a position (see TablebaseFile).
+     * @return The value, or NOT_AVAILABLE if the position is not in the tables.
+     */
+    public int probe(long geese, int fox, boolean foxToMove) {
+        int count = Long.bitCount(geese);
+        if ((count <= foxWinGeese) || !contains(count)) {
+            return NOT_AVAILABLE;
+        }
+        return tables[count].get(TablebaseIndex.getIndex(geese, fox, foxToMove));
+    }
+
+    /**
+     * Returns the best move of a position.
+     * @param position The position.
+     * @return The best move, with a score on the scale of AlphaBetaSearch and
+     *  the distance to the end as depth, or null if the position is not in
+     *  the tables (or has no move).
+     * @note The tables are only read: the threads of a tournament probe them
+     *  at once, each with its own list of moves.
+     */
+    public SearchResult getBestMove(FagBitboard position) {
+        long start = System.currentTimeMillis();
+        long geese = position.getGeese();
+        int  fox   = position.getFox();
+        int  value = probe(geese, fox, position.isFoxToMove());
+        if (value == NOT_AVAILABLE) {
+            return null;
+        }
+        MoveList list = new MoveList();
+        MoveGenerator.generate(geese, fox, position.isFoxToMove(), list);
+        int best = -1;
+        int bestChild = 0;
+        for (int i = 0; i < list.size(); i++) {
+            int child = getChildValue(geese, fox, position.isFoxToMove(), list, i);
+            if (child == NOT_AVAILABLE) {
+                return null;
+            }
+            if ((best < 0) || isBetter(value, child, bestChild)) {
+                best = i;
+                bestChild = child;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+
+        int score;
+        int distance = TablebaseFile.getDistance(value);
+        if (TablebaseFile.isWin(value)) {
+            score = AlphaBetaSearch.WIN - distance;
+        } else if (TablebaseFile.isLoss(value)) {
+            score = -(AlphaBetaSearch.WIN - distance);
+        } else {
+            score = 0;
+            distance = 0;
+        }
+        return new SearchResult(list.getFrom(best), list.getTo(best), list.getTaken(best), score,
+                                distance, list.size(), System.currentTimeMillis() - start);
+    }
+
+    // Compares two children for a parent of a given value: the fastest win, the longest loss, or a draw
+    private static boolean isBetter(int value, int child, int bestChild) {
+        if (TablebaseFile.isWin(value)) {
+            return TablebaseFile.isLoss(child) &&
+                   (!TablebaseFile.isLoss(bestChild) || (child < bestChild));
+        }
+        if (TablebaseFile.isLoss(value)) {
+            return TablebaseFile.isWin(child) && TablebaseFile.isWin(bestChild) && (child > bestChild);
+        }
+        return !TablebaseFile.isKnown(child) && TablebaseFile.isKnown(bestChild);
+    }
+
+    private int getChildValue(long geese, int fox, boolean foxToMove, MoveList list, int i) {
+        if (foxToMove) {
+            long remaining = geese & ~list.getTaken(i);
+            if (Long.bitCount(remaining) <= foxWinGeese) {
+                return TablebaseFile.encode(0); // The geese lost
+            }
+            return probe(remaining, list.getTo(i), false);
+        } else {
+            long next = (geese & ~FagBitboard.bit(list.getFrom(i))) | FagBitboard.bit(list.getTo(i));
+            return probe(next, fox, true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (TablebaseFile table : tables) {
+            if (table != null) {
+                table.close();
+            }
+        }
+    }
+}
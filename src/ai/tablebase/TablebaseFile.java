@@ -0,0 +1,223 @@
+package ai.tablebase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The file of the table of a given number of geese, read and written through
+ * memory-mapped buffers.
+ *
+ * <p>
+ * The file starts with a small header, followed by one byte per position
+ * (see TablebaseIndex for the order of the positions). A byte packs the
+ * result and the distance to the end of the game, in plies:
+ * </p>
+ * <pre>
+ *   0            unknown (i.e. a draw once the table is complete)
+ *   distance + 1 the side to move wins if the distance is odd, and loses
+ *                if it is even (0: it cannot move, or the fox took enough geese)
+ * </pre>
+ * <p>
+ * A MappedByteBuffer cannot exceed 2GB, so the values are mapped as several
+ * segments. The pages are loaded lazily by the operating system: probing a
+ * few positions of a large table is cheap.
+ * </p>
+ */
+public class TablebaseFile implements AutoCloseable {
+
+    public final static int UNKNOWN      = 0;
+    public final static int MAX_DISTANCE = 254;
+
+    private final static int MAGIC       = 0x46414754; // "FAGT"
+    private final static int VERSION     = 2; // 2: the canonical positions only (see TablebaseIndex)
+    final static int HEADER_SIZE         = 64;
+    private final static int SEGMENT_BITS = 30;
+    private final static long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    // Header fields (offsets)
+    private final static int H_MAGIC         = 0;
+    private final static int H_VERSION       = 4;
+    private final static int H_GEESE_COUNT   = 8;
+    private final static int H_FOX_WIN_GEESE = 12;
+    private final static int H_NEXT_PASS     = 16;
+    private final static int H_COMPLETE      = 20;
+    private final static int H_MAX_DISTANCE  = 24;
+
+    private final RandomAccessFile   file;
+    private final MappedByteBuffer   header;
+    private final MappedByteBuffer[] segments;
+    private final int  geeseCount;
+    private final long size;
+
+    private TablebaseFile(RandomAccessFile file, boolean writable, int geeseCount) throws IOException {
+        this.file = file;
+        this.geeseCount = geeseCount;
+        this.size = TablebaseIndex.getSize(geeseCount);
+        FileChannel channel = file.getChannel();
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        header = channel.map(mode, 0, HEADER_SIZE);
+        int nrSegments = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+        segments = new MappedByteBuffer[nrSegments];
+        for (int s = 0; s < nrSegments; s++) {
+            long offset = (long) s << SEGMENT_BITS;
+            segments[s] = channel.map(mode, HEADER_SIZE + offset, Math.min(SEGMENT_SIZE, size - offset));
+        }
+    }
+
+    /**
+     * Returns the name of the file of a table in a directory.
+     */
+    public static File getFile(File directory, int geeseCount) {
+        return new File(directory, "fag-" + geeseCount + "geese.tb");
+    }
+
+    /**
+     * Opens an existing table for reading.
+     * @param directory  The directory of the tables.
+     * @param geeseCount The number of geese of the table.
+     * @return The table, or null if there is no such file.
+     * @throws IOException If the file is not a table of this number of geese.
+     */
+    public static TablebaseFile open(File directory, int geeseCount) throws IOException {
+        File path = getFile(directory, geeseCount);
+        if (!path.isFile()) {
+            return null;
+        }
+        TablebaseFile table = new TablebaseFile(new RandomAccessFile(path, "r"), false, geeseCount);
+        table.checkHeader();
+        return table;
+    }
+
+    /**
+     * Opens a table for writing, creating it if needed. An existing table
+     * keeps its values and its progress, so that a generation can be resumed.
+     * @param directory   The directory of the tables.
+     * @param geeseCount  The number of geese of the table.
+     * @param foxWinGeese The number of geese at which the fox wins.
+     */
+    public static TablebaseFile create(File directory, int geeseCount, int foxWinGeese) throws IOException {
+        File    path   = getFile(directory, geeseCount);
+        boolean exists = path.isFile();
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        file.setLength(HEADER_SIZE + TablebaseIndex.getSize(geeseCount));
+        TablebaseFile table = new TablebaseFile(file, true, geeseCount);
+        if (exists && (table.header.getInt(H_MAGIC) == MAGIC)) {
+            table.checkHeader();
+            if (table.getFoxWinGeese() != foxWinGeese) {
+                table.close();
+                throw new IOException(path + " was generated for another rule (fox wins at " + table.getFoxWinGeese() + " geese)");
+            }
+        } else {
+            table.header.putInt(H_MAGIC, MAGIC);
+            table.header.putInt(H_VERSION, VERSION);
+            table.header.putInt(H_GEESE_COUNT, geeseCount);
+            table.header.putInt(H_FOX_WIN_GEESE, foxWinGeese);
+            table.header.putInt(H_NEXT_PASS, 0);
+            table.header.putInt(H_COMPLETE, 0);
+            table.header.putInt(H_MAX_DISTANCE, 0);
+            table.header.force();
+        }
+        return table;
+    }
+
+    private void checkHeader() throws IOException {
+        if ((header.getInt(H_MAGIC) != MAGIC) || (header.getInt(H_VERSION) != VERSION) ||
+            (header.getInt(H_GEESE_COUNT) != geeseCount)) {
+            throw new IOException("Not a table of " + geeseCount + " geese");
+        }
+    }
+
+    /*************************************************************
+     * VALUES
+     *************************************************************/
+
+    /**
+     * Returns the raw value of a position (see the class comment).
+     */
+    public int get(long index) {
+        return segments[(int) (index >>> SEGMENT_BITS)].get((int) (index & (SEGMENT_SIZE - 1))) & 0xFF;
+    }
+
+    void put(long index, int value) {
+        segments[(int) (index >>> SEGMENT_BITS)].put((int) (index & (SEGMENT_SIZE - 1)), (byte) value);
+    }
+
+    public static int encode(int distance) {
+        return distance + 1;
+    }
+
+    public static boolean isKnown(int value) {
+        return value != UNKNOWN;
+    }
+
+    public static int getDistance(int value) {
+        return value - 1;
+    }
+
+    /**
+     * Returns true if the side to move wins.
+     */
+    public static boolean isWin(int value) {
+        return (value != UNKNOWN) && ((getDistance(value) & 1) == 1);
+    }
+
+    /**
+     * Returns true if the side to move loses.
+     */
+    public static boolean isLoss(int value) {
+        return (value != UNKNOWN) && ((getDistance(value) & 1) == 0);
+    }
+
+    /*************************************************************
+     * HEADER
+     *************************************************************/
+
+    public int getGeeseCount() {
+        return geeseCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getFoxWinGeese() {
+        return header.getInt(H_FOX_WIN_GEESE);
+    }
+
+    /**
+     * Returns the first generation pass which was not completed.
+     */
+    public int getNextPass() {
+        return header.getInt(H_NEXT_PASS);
+    }
+
+    public boolean isComplete() {
+        return header.getInt(H_COMPLETE) != 0;
+    }
+
+    public int getMaxDistance() {
+        return header.getInt(H_MAX_DISTANCE);
+    }
+
+    /**
+     * Flushes the values on disk, then records the progress of the
+     * generation: the values are always saved before the header says so.
+     */
+    void commit(int nextPass, int maxDistance, boolean complete) {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.putInt(H_NEXT_PASS, nextPass);
+        header.putInt(H_MAX_DISTANCE, maxDistance);
+        header.putInt(H_COMPLETE, complete ? 1 : 0);
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,245 @@
+package ai.tablebase;
+
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import model.rules.FagSymmetry;
+import model.rules.FagTopology;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the endgame tablebases by retrograde analysis.
+ *
+ * <p>
+ * The tables are built from the fewest geese up, since a capture leads to a
+ * table with fewer geese (or to a win of the fox). Each table is solved by
+ * successive passes over all its positions: pass 'n' resolves the positions
+ * which are won or lost in exactly 'n' plies.
+ * </p>
+ * <ul>
+ *   <li>pass 0: the side to move cannot move and loses;</li>
+ *   <li>odd pass 'n': the side to move wins if one of its moves leads to a
+ *       position lost in n-1 plies (or to a win of the fox);</li>
+ *   <li>even pass 'n': the side to move loses if all its moves lead to
+ *       positions won (by the opponent) in less than 'n' plies.</li>
+ * </ul>
+ * <p>
+ * A pass only reads the values of the previous passes, so its positions can
+ * be solved in any order: the passes are split in chunks processed by several
+ * threads. The table is flushed to disk and its progress recorded after each
+ * pass, so that an interrupted generation resumes at the pass it was running.
+ * The positions which are still unknown once no pass can resolve anything
+ * are draws (e.g. the geese shuffling sideways forever). Only the canonical
+ * positions are solved (see TablebaseIndex), the children being looked up
+ * through the index of their canonical form.
+ * </p>
+ *
+ * Usage: TablebaseGenerator &lt;directory&gt; &lt;maxGeese&gt; [threads]
+ */
+public class TablebaseGenerator {
+
+    // The number of geese at which the fox wins
+    public final static int FOX_WIN_GEESE = FagRules.FOX_WIN_GEESE;
+
+    // The number of positions processed by a thread at once
+    private final static int CHUNK_SIZE = 1 << 16;
+
+    private final File directory;
+    private final int  threads;
+    private final int  foxWinGeese;
+    private final TablebaseFile[] tables = new TablebaseFile[FagTopology.GEESE_COUNT + 1];
+
+    /**
+     * Basic constructor.
+     * @param directory The directory of the tables.
+     * @param threads   The number of generation threads.
+     */
+    public TablebaseGenerator(File directory, int threads) {
+        this(directory, threads, FOX_WIN_GEESE);
+    }
+
+    /**
+     * Constructor with another winning condition, for small experiments.
+     * @param foxWinGeese The number of geese at which the fox wins.
+     */
+    TablebaseGenerator(File directory, int threads, int foxWinGeese) {
+        this.directory = directory;
+        this.threads = Math.max(1, threads);
+        this.foxWinGeese = foxWinGeese;
+    }
+
+    /**
+     * Generates (or completes) all the tables up to a number of geese.
+     * @param maxGeese The largest number of geese.
+     */
+    public void generate(int maxGeese) throws IOException, InterruptedException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        for (int k = foxWinGeese + 1; k <= maxGeese; k++) {
+            TablebaseFile table = TablebaseFile.open(directory, k);
+            if ((table != null) && table.isComplete()) {
+                System.out.println("Table of " + k + " geese: already complete.");
+                tables[k] = table;
+                continue;
+            }
+            if (table != null) {
+                table.close();
+            }
+            tables[k] = generateTable(k);
+        }
+    }
+
+    private TablebaseFile generateTable(int geeseCount) throws IOException, InterruptedException {
+        TablebaseFile table = TablebaseFile.create(directory, geeseCount, foxWinGeese);
+        int lowerMaxDistance = 0;
+        for (int k = foxWinGeese + 1; k < geeseCount; k++) {
+            lowerMaxDistance = Math.max(lowerMaxDistance, tables[k].getMaxDistance());
+        }
+
+        int  pass        = table.getNextPass();
+        int  maxDistance = table.getMaxDistance();
+        long start       = System.currentTimeMillis();
+        if (pass > 0) {
+            System.out.println("Table of " + geeseCount + " geese: resuming at pass " + pass + ".");
+        }
+        while (true) {
+            long resolved = runPass(table, pass);
+            if (resolved > 0) {
+                maxDistance = pass;
+            }
+            // Nothing can be resolved any more once no position was resolved
+            //  at a distance which is beyond the ones of the smaller tables
+            boolean done = ((resolved == 0) && (pass > lowerMaxDistance + 1)) || (pass >= TablebaseFile.MAX_DISTANCE);
+            table.commit(pass + 1, maxDistance, done);
+            System.out.println("Table of " + geeseCount + " geese: pass " + pass + ", " + resolved +
+                               " positions resolved (" + (System.currentTimeMillis() - start) / 1000 + "s)");
+            if (done) {
+                break;
+            }
+            pass++;
+        }
+        return table;
+    }
+
+    // Runs a pass on several threads and returns the number of positions resolved by this pass
+    private long runPass(TablebaseFile table, int pass) throws InterruptedException {
+        AtomicLong nextChunk = new AtomicLong();
+        LongAdder  resolved  = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                MoveList list = new MoveList();
+                long start;
+                while ((start = nextChunk.getAndAdd(CHUNK_SIZE)) < table.getSize()) {
+                    long end = Math.min(start + CHUNK_SIZE, table.getSize());
+                    resolved.add(runChunk(table, pass, start, end, list));
+                }
+            }, "tablebase-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return resolved.sum();
+    }
+
+    private long runChunk(TablebaseFile table, int pass, long start, long end, MoveList list) {
+        int  geeseCount = table.getGeeseCount();
+        int  current    = TablebaseFile.encode(pass);
+        long resolved   = 0;
+        for (long index = start; index < end; index++) {
+            int value = table.get(index);
+            if (value == current) {
+                resolved++; // Already resolved by an interrupted run of this pass
+                continue;
+            }
+            if (value != TablebaseFile.UNKNOWN) {
+                continue;
+            }
+            long    geese     = TablebaseIndex.getGeese(geeseCount, index);
+            int     fox       = TablebaseIndex.getFox(geeseCount, index);
+            boolean foxToMove = TablebaseIndex.isFoxToMove(index);
+            if (FagSymmetry.isMirrored(geese, fox)) {
+                continue; // A hole, never probed (see TablebaseIndex)
+            }
+            if (solve(table, geese, fox, foxToMove, pass, list)) {
+                table.put(index, current);
+                resolved++;
+            }
+        }
+        return resolved;
+    }
+
+    // Returns true if a position is won or lost in exactly 'pass' plies
+    private boolean solve(TablebaseFile table, long geese, int fox, boolean foxToMove, int pass, MoveList list) {
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        if (pass == 0) {
+            return list.size() == 0;
+        }
+        boolean winPass = (pass & 1) == 1;
+        for (int i = 0; i < list.size(); i++) {
+            int child = getChildValue(table, geese, fox, foxToMove, list, i);
+            boolean known = TablebaseFile.isKnown(child) && (TablebaseFile.getDistance(child) < pass);
+            if (winPass) {
+                if (known && TablebaseFile.isLoss(child)) {
+                    return true;
+                }
+            } else if (!known || !TablebaseFile.isWin(child)) {
+                return false;
+            }
+        }
+        return !winPass;
+    }
+
+    // Returns the value of the position reached by the i-th move of a list
+    private int getChildValue(TablebaseFile table, long geese, int fox, boolean foxToMove, MoveList list, int i) {
+        if (foxToMove) {
+            long remaining = geese & ~list.getTaken(i);
+            int  count     = Long.bitCount(remaining);
+            if (count <= foxWinGeese) {
+                return TablebaseFile.encode(0); // The geese lost
+            }
+            TablebaseFile childTable = (count == table.getGeeseCount()) ? table : tables[count];
+            return childTable.get(TablebaseIndex.getIndex(remaining, list.getTo(i), false));
+        } else {
+            long next = (geese & ~FagBitboard.bit(list.getFrom(i))) | FagBitboard.bit(list.getTo(i));
+            return table.get(TablebaseIndex.getIndex(next, fox, true));
+        }
+    }
+
+    /**
+     * Closes the tables opened by the generation.
+     */
+    public void close() throws IOException {
+        for (TablebaseFile table : tables) {
+            if (table != null) {
+                table.close();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.out.println("Usage: TablebaseGenerator <directory> <maxGeese> [threads]");
+            System.exit(1);
+        }
+        File directory = new File(args[0]);
+        int  maxGeese  = Integer.parseInt(args[1]);
+        int  threads   = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        for (int k = FOX_WIN_GEESE + 1; k <= maxGeese; k++) {
+            System.out.println("Table of " + k + " geese: " + TablebaseIndex.getSize(k) + " positions.");
+        }
+        TablebaseGenerator generator = new TablebaseGenerator(directory, threads);
+        generator.generate(maxGeese);
+        generator.close();
+    }
+}
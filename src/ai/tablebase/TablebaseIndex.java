@@ -0,0 +1,159 @@
+package ai.tablebase;
+
+import model.rules.FagBitboard;
+import model.rules.FagSymmetry;
+
+import java.util.Arrays;
+
+/**
+ * The perfect hash of the positions of a tablebase.
+ *
+ * <p>
+ * A table holds the canonical form (see FagSymmetry) of all the positions
+ * with a given number 'k' of geese: the fox on any of the 20 points of the
+ * left half of the board (middle column included), the geese on any subset
+ * of size 'k' of the 32 other points, and either side to move. The geese
+ * mask is first squeezed to 32 bits by removing the bit of the fox, then
+ * ranked among the subsets of size 'k' with the combinatorial number system:
+ * </p>
+ * <pre>
+ *   rank  = C(p1,1) + C(p2,2) + ... + C(pk,k)  with p1 &lt; p2 &lt; ... &lt; pk
+ *   index = ((foxSlot * C(32,k)) + rank) * 2 + (foxToMove ? 1 : 0)
+ * </pre>
+ * <p>
+ * A position is mirrored to its canonical form before being indexed, so
+ * that a table is 20/33 of the size of a table of all the positions. The
+ * indexes of the positions with the fox on the middle column which are not
+ * canonical are holes: they are never probed (see isCanonical).
+ * </p>
+ */
+public final class TablebaseIndex {
+
+    // The number of points a goose can be on, once the fox is placed
+    final static int OTHER_POINTS = FagBitboard.POINTS - 1;
+
+    // The points the fox can be on in a canonical position, and the slot of each point (-1 if none)
+    private final static int[] FOX_POINTS;
+    private final static int[] FOX_SLOTS = new int[FagBitboard.POINTS];
+    final static int NR_FOX_SLOTS;
+
+    // BINOMIAL[n][k] = C(n,k)
+    private final static long[][] BINOMIAL = new long[OTHER_POINTS + 1][OTHER_POINTS + 2];
+
+    static {
+        int slots = 0;
+        int[] points = new int[FagBitboard.POINTS];
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            FOX_SLOTS[p] = (FagBitboard.getCol(p) <= FagSymmetry.MIDDLE_COL) ? slots : -1;
+            if (FOX_SLOTS[p] >= 0) points[slots++] = p;
+        }
+        FOX_POINTS   = Arrays.copyOf(points, slots);
+        NR_FOX_SLOTS = slots;
+
+        for (int n = 0; n <= OTHER_POINTS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + ((k <= n - 1) ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private TablebaseIndex() {
+    }
+
+    public static long binomial(int n, int k) {
+        return ((k < 0) || (k > n)) ? 0 : BINOMIAL[n][k];
+    }
+
+    /**
+     * Returns the number of positions with a given number of geese.
+     * @param geeseCount The number of geese.
+     */
+    public static long getSize(int geeseCount) {
+        return NR_FOX_SLOTS * binomial(OTHER_POINTS, geeseCount) * 2;
+    }
+
+    /**
+     * Returns the index of a position in the table of its number of geese,
+     * i.e. the index of its canonical form.
+     * @param geese     The mask of the geese.
+     * @param fox       The point of the fox.
+     * @param foxToMove True if the fox is the next to play.
+     */
+    public static long getIndex(long geese, int fox, boolean foxToMove) {
+        if (FagSymmetry.isMirrored(geese, fox)) {
+            geese = FagSymmetry.mirror(geese);
+            fox   = FagSymmetry.mirror(fox);
+        }
+        int  geeseCount = Long.bitCount(geese);
+        long rank = rank(squeeze(geese, fox));
+        return ((FOX_SLOTS[fox] * binomial(OTHER_POINTS, geeseCount) + rank) << 1) | (foxToMove ? 1 : 0);
+    }
+
+    /**
+     * Returns true if the position of an index is canonical, false if the
+     * index is a hole.
+     */
+    public static boolean isCanonical(int geeseCount, long index) {
+        return !FagSymmetry.isMirrored(getGeese(geeseCount, index), getFox(geeseCount, index));
+    }
+
+    /**
+     * Returns the point of the fox of an index.
+     * @param geeseCount The number of geese of the table.
+     * @param index      The index of the position.
+     */
+    public static int getFox(int geeseCount, long index) {
+        return FOX_POINTS[(int) ((index >>> 1) / binomial(OTHER_POINTS, geeseCount))];
+    }
+
+    /**
+     * Returns the mask of the geese of an index.
+     * @param geeseCount The number of geese of the table.
+     * @param index      The index of the position.
+     */
+    public static long getGeese(int geeseCount, long index) {
+        int  fox  = getFox(geeseCount, index);
+        long rank = (index >>> 1) % binomial(OTHER_POINTS, geeseCount);
+        return expand(unrank(geeseCount, rank), fox);
+    }
+
+    public static boolean isFoxToMove(long index) {
+        return (index & 1) != 0;
+    }
+
+    // Removes the bit of the fox, the upper points move down by one
+    static long squeeze(long geese, int fox) {
+        long low = geese & ((1L << fox) - 1);
+        return low | ((geese >>> (fox + 1)) << fox);
+    }
+
+    // The inverse of squeeze
+    static long expand(long squeezed, int fox) {
+        long low = squeezed & ((1L << fox) - 1);
+        return low | ((squeezed >>> fox) << (fox + 1));
+    }
+
+    static long rank(long squeezed) {
+        long rank = 0;
+        int  i = 1;
+        for (long m = squeezed; m != 0; m &= m - 1, i++) {
+            rank += binomial(Long.numberOfTrailingZeros(m), i);
+        }
+        return rank;
+    }
+
+    static long unrank(int geeseCount, long rank) {
+        long squeezed = 0L;
+        int  p = OTHER_POINTS - 1;
+        for (int i = geeseCount; i >= 1; i--) {
+            while (binomial(p, i) > rank) {
+                p--;
+            }
+            squeezed |= 1L << p;
+            rank -= binomial(p, i);
+            p--;
+        }
+        return squeezed;
+    }
+}
@@ -0,0 +1,172 @@
+package ai.tournament;
+
+/**
+ * Maximum likelihood ratings of the participants of a tournament, with the
+ * model of BayesElo: the fox side has an advantage and the draws have their
+ * own probability.
+ *
+ * <p>
+ * When the fox is rated 'f' and the geese 'g', with x = f - g + advantage:
+ * </p>
+ * <pre>
+ *   P(fox wins)   = 1 / (1 + 10^((drawElo - x) / 400))
+ *   P(geese win)  = 1 / (1 + 10^((drawElo + x) / 400))
+ *   P(draw)       = 1 - P(fox wins) - P(geese win)
+ * </pre>
+ * <p>
+ * Like BayesElo, every pair of participants which met gets a prior of one
+ * virtual draw per side, so that a participant which won (or lost) all its
+ * games keeps a finite rating. The ratings are centered on 0, and their
+ * error margins come from the curvature of the likelihood.
+ * </p>
+ */
+public class BayesElo {
+
+    private final static double PRIOR_DRAWS = 1.0;
+    private final static int    MAX_ITERATIONS = 500;
+    private final static double EPSILON = 1e-3; // Elo
+    private final static double STEP = 1.0;     // Elo, for the numerical derivatives
+
+    private final int n;
+    // [fox][geese][0: fox wins, 1: draws, 2: geese win]
+    private final double[][][] results;
+
+    private final double[] ratings;
+    private double advantage;
+    private double drawElo = 100.0;
+
+    /**
+     * Basic constructor.
+     * @param nrParticipants The number of participants.
+     */
+    public BayesElo(int nrParticipants) {
+        n = nrParticipants;
+        results = new double[n][n][3];
+        ratings = new double[n];
+    }
+
+    /**
+     * Adds the result of a game.
+     * @param fox    The participant who played the fox.
+     * @param geese  The participant who played the geese.
+     * @param result 1 if the fox won, 0 if the geese won, 0.5 for a draw.
+     */
+    public void add(int fox, int geese, double result) {
+        results[fox][geese][(result > 0.75) ? 0 : (result < 0.25) ? 2 : 1]++;
+    }
+
+    /**
+     * Computes the ratings from the results added so far.
+     */
+    public void compute() {
+        double[][][] data = new double[n][n][];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                data[i][j] = results[i][j].clone();
+                if ((i != j) && (results[i][j][0] + results[i][j][1] + results[i][j][2] +
+                                 results[j][i][0] + results[j][i][1] + results[j][i][2] > 0)) {
+                    data[i][j][1] += PRIOR_DRAWS;
+                }
+            }
+        }
+        // Coordinate-wise Newton steps on the log-likelihood
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double change = 0.0;
+            for (int p = 0; p <= n + 1; p++) {
+                change = Math.max(change, Math.abs(newtonStep(data, p)));
+            }
+            center();
+            if (change < EPSILON) {
+                break;
+            }
+        }
+    }
+
+    // Moves a parameter (a rating, then the advantage and the draw Elo) to the maximum of the likelihood
+    private double newtonStep(double[][][] data, int p) {
+        double value = get(p);
+        double l0 = logLikelihood(data);
+        set(p, value + STEP);
+        double lPlus = logLikelihood(data);
+        set(p, value - STEP);
+        double lMinus = logLikelihood(data);
+        double gradient  = (lPlus - lMinus) / (2 * STEP);
+        double curvature = (lPlus - 2 * l0 + lMinus) / (STEP * STEP);
+        double delta = (curvature < 0) ? -gradient / curvature : Math.signum(gradient) * 10.0;
+        delta = Math.max(-100.0, Math.min(100.0, delta));
+        if (p == n + 1) {
+            delta = Math.max(delta, -value); // The draw Elo stays positive
+        }
+        set(p, value + delta);
+        return delta;
+    }
+
+    private double get(int p) {
+        return (p < n) ? ratings[p] : (p == n) ? advantage : drawElo;
+    }
+
+    private void set(int p, double value) {
+        if (p < n) ratings[p] = value;
+        else if (p == n) advantage = value;
+        else drawElo = value;
+    }
+
+    private void center() {
+        double mean = 0.0;
+        for (double rating : ratings) mean += rating;
+        mean /= n;
+        for (int i = 0; i < n; i++) ratings[i] -= mean;
+    }
+
+    private double logLikelihood(double[][][] data) {
+        double sum = 0.0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double[] r = data[i][j];
+                if (r[0] + r[1] + r[2] == 0) continue;
+                double x = ratings[i] - ratings[j] + advantage;
+                double foxWins  = Elo.toScore(x - drawElo);
+                double geeseWin = Elo.toScore(-x - drawElo);
+                double draw     = Math.max(1e-12, 1.0 - foxWins - geeseWin);
+                sum += r[0] * Math.log(foxWins) + r[1] * Math.log(draw) + r[2] * Math.log(geeseWin);
+            }
+        }
+        return sum;
+    }
+
+    public double getRating(int participant) {
+        return ratings[participant];
+    }
+
+    /**
+     * Returns the 95% error margin of a rating, the others being known.
+     */
+    public double getErrorMargin(int participant) {
+        double[][][] data = new double[n][n][];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                data[i][j] = results[i][j].clone();
+            }
+        }
+        double value = ratings[participant];
+        double l0 = logLikelihood(data);
+        ratings[participant] = value + STEP;
+        double lPlus = logLikelihood(data);
+        ratings[participant] = value - STEP;
+        double lMinus = logLikelihood(data);
+        ratings[participant] = value;
+        double curvature = (lPlus - 2 * l0 + lMinus) / (STEP * STEP);
+        return (curvature < 0) ? Elo.Z_95 / Math.sqrt(-curvature) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the advantage of the fox side (in Elo).
+     */
+    public double getAdvantage() {
+        return advantage;
+    }
+
+    public double getDrawElo() {
+        return drawElo;
+    }
+}
@@ -0,0 +1,77 @@
+package ai.tournament;
+
+/**
+ * Conversions between Elo differences and expected scores, and the error
+ * margin of a score measured over a number of games.
+ */
+public final class Elo {
+
+    // The quantile of the normal distribution of a 95% confidence interval
+    public final static double Z_95 = 1.959964;
+
+    private Elo() {
+    }
+
+    /**
+     * Returns the expected score (between 0 and 1) of an Elo difference.
+     */
+    public static double toScore(double elo) {
+        return 1.0 / (1.0 + Math.pow(10.0, -elo / 400.0));
+    }
+
+    /**
+     * Returns the Elo difference of an expected score (infinite for a score
+     * of 0 or 1).
+     */
+    public static double fromScore(double score) {
+        if (score <= 0.0) return Double.NEGATIVE_INFINITY;
+        if (score >= 1.0) return Double.POSITIVE_INFINITY;
+        return -400.0 * Math.log10(1.0 / score - 1.0);
+    }
+
+    /**
+     * Returns the score of a number of wins, draws and losses.
+     */
+    public static double getScore(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        return (games > 0) ? (wins + 0.5 * draws) / games : 0.5;
+    }
+
+    /**
+     * Returns the variance of the score of a single game.
+     */
+    public static double getVariance(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0.0;
+        }
+        double score = getScore(wins, draws, losses);
+        return (wins * (1.0 - score) * (1.0 - score) + draws * (0.5 - score) * (0.5 - score) +
+                losses * score * score) / games;
+    }
+
+    /**
+     * Returns the bounds of the 95% confidence interval of an Elo difference.
+     * @return {lower, upper}
+     */
+    public static double[] getInterval(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        double score  = getScore(wins, draws, losses);
+        double margin = (games > 0) ? Z_95 * Math.sqrt(getVariance(wins, draws, losses) / games) : 0.5;
+        return new double[] { fromScore(score - margin), fromScore(score + margin) };
+    }
+
+    /**
+     * Formats an Elo difference with its 95% confidence interval (i.e. "+35 [+12,+58]").
+     */
+    public static String format(int wins, int draws, int losses) {
+        double[] interval = getInterval(wins, draws, losses);
+        return format(fromScore(getScore(wins, draws, losses))) +
+               " [" + format(interval[0]) + "," + format(interval[1]) + "]";
+    }
+
+    static String format(double elo) {
+        if (Double.isInfinite(elo)) return (elo > 0) ? "+inf" : "-inf";
+        return String.format("%+d", Math.round(elo));
+    }
+}
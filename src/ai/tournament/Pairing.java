@@ -0,0 +1,87 @@
+package ai.tournament;
+
+/**
+ * The games between two participants of a tournament, counted from the
+ * point of view of the first one. Both participants play both teams.
+ */
+public class Pairing {
+
+    private final int  first;
+    private final int  second;
+    private final Sprt sprt; // null if the pairing is not tested
+
+    private int wins;
+    private int draws;
+    private int losses;
+    private Sprt.Status status = Sprt.Status.CONTINUE;
+
+    /**
+     * Basic constructor.
+     * @param first  The index of the first participant.
+     * @param second The index of the second participant.
+     * @param sprt   The test which may stop the pairing early, or null.
+     */
+    public Pairing(int first, int second, Sprt sprt) {
+        this.first = first;
+        this.second = second;
+        this.sprt = sprt;
+    }
+
+    public int getFirst() {
+        return first;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    /**
+     * Adds the result of a game.
+     * @param score The score of the first participant (1, 0.5 or 0).
+     */
+    public synchronized void add(double score) {
+        if (score > 0.75) wins++;
+        else if (score < 0.25) losses++;
+        else draws++;
+        if (sprt != null) {
+            status = sprt.getStatus(wins, draws, losses);
+        }
+    }
+
+    /**
+     * Returns true if the SPRT took its decision: the remaining games of the
+     * pairing are not played.
+     */
+    public synchronized boolean isDecided() {
+        return status != Sprt.Status.CONTINUE;
+    }
+
+    public synchronized Sprt.Status getStatus() {
+        return status;
+    }
+
+    public synchronized int getNrGames() {
+        return wins + draws + losses;
+    }
+
+    public synchronized int getWins() {
+        return wins;
+    }
+
+    public synchronized int getDraws() {
+        return draws;
+    }
+
+    public synchronized int getLosses() {
+        return losses;
+    }
+
+    @Override
+    public synchronized String toString() {
+        String text = "+" + wins + " =" + draws + " -" + losses + "  Elo " + Elo.format(wins, draws, losses);
+        if (sprt != null) {
+            text += String.format("  LLR %.2f %s", sprt.getLlr(wins, draws, losses), status);
+        }
+        return text;
+    }
+}
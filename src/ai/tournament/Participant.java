@@ -0,0 +1,51 @@
+package ai.tournament;
+
+import ai.player.PlayerFactory;
+
+/**
+ * An AI taking part in a tournament: it plays both teams.
+ */
+public class Participant {
+
+    private final String        name;
+    private final int           level;
+    private final PlayerFactory factory;
+
+    /**
+     * Basic constructor.
+     * @param name    The name of the AI (i.e. "Ai-0", "Ai-1", ...).
+     * @param factory The factory of its players.
+     */
+    public Participant(String name, PlayerFactory factory) {
+        this(name, -1, factory);
+    }
+
+    /**
+     * Constructor of an AI level of the game (see FagDecider.createPlayer).
+     * @param name    The name of the AI.
+     * @param level   The AI level (-1 if none).
+     * @param factory The factory of its players.
+     */
+    public Participant(String name, int level, PlayerFactory factory) {
+        this.name = name;
+        this.level = level;
+        this.factory = factory;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public PlayerFactory getFactory() {
+        return factory;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,83 @@
+package ai.tournament;
+
+/**
+ * A sequential probability ratio test between two hypotheses on the Elo
+ * difference of a pairing: H0 (elo = elo0) and H1 (elo = elo1).
+ *
+ * <p>
+ * The log-likelihood ratio uses the normal approximation of the score of
+ * the games (the "generalized" SPRT): LLR = n (s1 - s0) (2s - s0 - s1) / 2var,
+ * where s is the score, var its variance per game, and s0, s1 the scores of
+ * elo0 and elo1. The test stops once the LLR leaves [log(beta/(1-alpha)),
+ * log((1-beta)/alpha)].
+ * </p>
+ */
+public class Sprt {
+
+    public enum Status { CONTINUE, ACCEPT_H0, ACCEPT_H1 }
+
+    // The minimal number of games before taking a decision (the variance is too rough before)
+    public final static int MIN_GAMES = 8;
+    // The smallest variance per game, for the pairings whose games always end the same way
+    private final static double MIN_VARIANCE = 0.01;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * Basic constructor.
+     * @param elo0  The Elo difference of H0.
+     * @param elo1  The Elo difference of H1.
+     * @param alpha The probability to accept H1 when H0 holds.
+     * @param beta  The probability to accept H0 when H1 holds.
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1.0 - alpha));
+        this.upperBound = Math.log((1.0 - beta) / alpha);
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Returns the log-likelihood ratio of the games played so far.
+     */
+    public double getLlr(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0.0;
+        }
+        double variance = Math.max(MIN_VARIANCE, Elo.getVariance(wins, draws, losses));
+        double score = Elo.getScore(wins, draws, losses);
+        double s0 = Elo.toScore(elo0);
+        double s1 = Elo.toScore(elo1);
+        return games * (s1 - s0) * (2.0 * score - s0 - s1) / (2.0 * variance);
+    }
+
+    /**
+     * Returns the decision of the test on the games played so far.
+     */
+    public Status getStatus(int wins, int draws, int losses) {
+        if (wins + draws + losses < MIN_GAMES) {
+            return Status.CONTINUE;
+        }
+        double llr = getLlr(wins, draws, losses);
+        if (llr >= upperBound) return Status.ACCEPT_H1;
+        if (llr <= lowerBound) return Status.ACCEPT_H0;
+        return Status.CONTINUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT elo0=%.1f elo1=%.1f bounds=[%.2f,%.2f]", elo0, elo1, lowerBound, upperBound);
+    }
+}
@@ -0,0 +1,292 @@
+package ai.tournament;
+
+import ai.player.FagPlayer;
+import ai.player.GameRunner;
+import ai.player.GameSummary;
+import ai.record.GameRecord;
+import ai.record.GameRecordWriter;
+import model.rules.FagRules;
+import model.rules.GameResult;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays a tournament between computer players on a fixed pool of threads.
+ *
+ * <p>
+ * The participants meet in a round-robin (every pair of participants) or a
+ * gauntlet (the first participant against each of the others). A pairing
+ * plays a number of games, alternating the teams, and may be stopped early
+ * by a SPRT (see Sprt).
+ * </p>
+ * <p>
+ * The threads do not share any mutable state but the results: every game
+ * creates its own players, with random generators seeded from the seed of
+ * the tournament and the number of the game. A game therefore plays the same
+ * moves whatever the number of threads (as long as the search is limited by
+ * depth and not by time). The result of each game is appended to the results
+ * file as soon as it is known.
+ * </p>
+ */
+public class Tournament {
+
+    public enum Format { ROUND_ROBIN, GAUNTLET }
+
+    private final static String RESULTS_HEADER = "game,seed,fox,geese,result,plies,fox_ms,geese_ms";
+
+    private final List<Participant> participants;
+    private final List<Pairing>     pairings = new ArrayList<>();
+    private final int  gamesPerPairing;
+    private final long seed;
+    private final BayesElo bayesElo;
+
+    private int     threads  = Runtime.getRuntime().availableProcessors();
+    private int     maxPlies = FagRules.MAX_PLIES;
+    private File    resultsFile = null;
+    private GameRecordWriter gameRecorder = null;
+    private boolean verbose = true;
+
+    private final AtomicInteger played  = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private BufferedWriter results;
+    private long elapsed; // in ms
+
+    /**
+     * Basic constructor.
+     * @param participants    The participants (at least 2).
+     * @param format          The pairings of the participants.
+     * @param gamesPerPairing The number of games of each pairing (half of them with each team).
+     * @param sprt            The test which stops the pairings early, or null.
+     * @param seed            The seed of the games.
+     */
+    public Tournament(List<Participant> participants, Format format, int gamesPerPairing, Sprt sprt, long seed) {
+        if (participants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least 2 participants");
+        }
+        this.participants = new ArrayList<>(participants);
+        this.gamesPerPairing = gamesPerPairing;
+        this.seed = seed;
+        this.bayesElo = new BayesElo(participants.size());
+        for (int i = 0; i < participants.size(); i++) {
+            for (int j = i + 1; j < participants.size(); j++) {
+                if ((format == Format.ROUND_ROBIN) || (i == 0)) {
+                    pairings.add(new Pairing(i, j, sprt));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the number of threads playing the games.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Sets the number of plies after which a game is a draw (see GameRunner).
+     */
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Sets the file where the result of each game is appended (CSV), or null.
+     */
+    public void setResultsFile(File resultsFile) {
+        this.resultsFile = resultsFile;
+    }
+
+    /**
+     * Sets the writer of the file where the moves of each game are appended
+     * (see ai.record), or null.
+     */
+    public void setGameRecorder(GameRecordWriter gameRecorder) {
+        this.gameRecorder = gameRecorder;
+    }
+
+    /**
+     * Prints the result of each game.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public List<Participant> getParticipants() {
+        return participants;
+    }
+
+    public List<Pairing> getPairings() {
+        return pairings;
+    }
+
+    public BayesElo getBayesElo() {
+        return bayesElo;
+    }
+
+    public int getNrGamesPlayed() {
+        return played.get();
+    }
+
+    /**
+     * Returns the number of games which were not played, once the SPRT of
+     * their pairing had decided.
+     */
+    public int getNrGamesSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Returns the seed of a game of a tournament.
+     */
+    public static long getGameSeed(long seed, int game) {
+        // SplitMix64 finalizer
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Plays all the games of the tournament.
+     */
+    public void run() throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        boolean appending = (resultsFile != null) && (resultsFile.length() > 0);
+        results = (resultsFile != null) ? new BufferedWriter(new FileWriter(resultsFile, true)) : null;
+        try {
+            if ((results != null) && !appending) {
+                results.write(RESULTS_HEADER);
+                results.newLine();
+                results.flush();
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(threads, r -> new Thread(r, "tournament"));
+            // The rounds are interleaved, so that every pairing progresses at the same pace
+            int game = 0;
+            for (int round = 0; round < gamesPerPairing; round++) {
+                for (Pairing pairing : pairings) {
+                    final int number = game++;
+                    final boolean firstIsFox = (round % 2 == 0);
+                    pool.execute(() -> playGame(number, pairing, firstIsFox));
+                }
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Wait for the last games
+            }
+        } finally {
+            if (results != null) {
+                results.close();
+            }
+        }
+        synchronized (bayesElo) {
+            bayesElo.compute();
+        }
+        elapsed = System.currentTimeMillis() - start;
+    }
+
+    private void playGame(int number, Pairing pairing, boolean firstIsFox) {
+        if (pairing.isDecided()) {
+            skipped.incrementAndGet();
+            return;
+        }
+        int fox   = firstIsFox ? pairing.getFirst() : pairing.getSecond();
+        int geese = firstIsFox ? pairing.getSecond() : pairing.getFirst();
+        long   gameSeed = getGameSeed(seed, number);
+        Random random   = new Random(gameSeed);
+        FagPlayer foxPlayer   = participants.get(fox).getFactory().create(FagRules.FOX_TEAM, new Random(random.nextLong()));
+        FagPlayer geesePlayer = participants.get(geese).getFactory().create(FagRules.GEESE_TEAM, new Random(random.nextLong()));
+        GameSummary summary;
+        try {
+            GameRunner runner = new GameRunner(foxPlayer, geesePlayer);
+            runner.setMaxPlies(maxPlies);
+            summary = runner.play();
+        } catch (RuntimeException e) {
+            System.out.println("WARNING: Game " + number + " failed: " + e.getMessage());
+            return;
+        } finally {
+            foxPlayer.shutdown();
+            geesePlayer.shutdown();
+        }
+        record(number, gameSeed, fox, geese, pairing, firstIsFox, summary);
+    }
+
+    private void record(int number, long gameSeed, int fox, int geese, Pairing pairing, boolean firstIsFox, GameSummary summary) {
+        double foxScore = (summary.getResult() == GameResult.FOX_WINS) ? 1.0 :
+                          (summary.getResult() == GameResult.GEESE_WIN) ? 0.0 : 0.5;
+        pairing.add(firstIsFox ? foxScore : 1.0 - foxScore);
+        synchronized (bayesElo) {
+            bayesElo.add(fox, geese, foxScore);
+        }
+        played.incrementAndGet();
+
+        long foxTime = 0;
+        long geeseTime = 0;
+        for (int ply = 0; ply < summary.getNrPlies(); ply++) {
+            if (summary.isFoxPly(ply)) foxTime += summary.getLatency(ply);
+            else geeseTime += summary.getLatency(ply);
+        }
+        if (gameRecorder != null) {
+            try {
+                gameRecorder.write(new GameRecord(gameSeed, number, participants.get(fox).getName(), participants.get(fox).getLevel(),
+                                                  participants.get(geese).getName(), participants.get(geese).getLevel(),
+                                                  summary.getFirstPosition(), summary.getMoves(), summary.getResult()));
+            } catch (IOException e) {
+                System.out.println("WARNING: Cannot record the moves of game " + number + ": " + e.getMessage());
+            }
+        }
+        String line = number + "," + gameSeed + "," + participants.get(fox) + "," + participants.get(geese) + "," +
+                      summary.getResult() + "," + summary.getNrPlies() + "," + foxTime / 1000000 + "," + geeseTime / 1000000;
+        synchronized (this) {
+            if (results != null) {
+                try {
+                    results.write(line);
+                    results.newLine();
+                    results.flush();
+                } catch (IOException e) {
+                    System.out.println("WARNING: Cannot write the result of game " + number + ": " + e.getMessage());
+                }
+            }
+            if (verbose) {
+                System.out.println("Game " + number + ": " + participants.get(fox) + " (Fox) - " +
+                                   participants.get(geese) + " (Geese): " + summary);
+            }
+        }
+    }
+
+    /**
+     * Returns the standings (ratings of BayesElo) and the results of the pairings.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Tournament: %d games played, %d skipped by the SPRT, in %.1fs (%d threads)%n",
+                                  played.get(), skipped.get(), elapsed / 1000.0, threads));
+        Integer[] order = new Integer[participants.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(bayesElo.getRating(b), bayesElo.getRating(a)));
+        text.append("Rank Name        Elo    +/-\n");
+        for (int r = 0; r < order.length; r++) {
+            int i = order[r];
+            text.append(String.format("%4d %-10s %+5.0f %6.0f%n", r + 1, participants.get(i).getName(),
+                                      bayesElo.getRating(i), bayesElo.getErrorMargin(i)));
+        }
+        text.append(String.format("Fox advantage: %+.0f Elo, draw Elo: %.0f%n", bayesElo.getAdvantage(), bayesElo.getDrawElo()));
+        for (Pairing pairing : pairings) {
+            text.append(String.format("%-10s vs %-10s %s%n", participants.get(pairing.getFirst()).getName(),
+                                      participants.get(pairing.getSecond()).getName(), pairing));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,357 @@
+package ai.tuning;
+
+import ai.search.EvaluationWeights;
+import ai.search.FagEvaluator;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static ai.search.EvaluationWeights.NR_FEATURES;
+
+/**
+ * Tunes the weights of the evaluation on recorded games ("Texel tuning").
+ *
+ * <p>
+ * The result of a game is predicted from the evaluation of each of its
+ * positions by a sigmoid: 1 / (1 + exp(-K * score)). The tuning minimizes
+ * the mean squared error between the predictions and the actual results:
+ * the scale K is fitted first with the initial weights, then the weights
+ * are optimized by gradient descent (Adam), the evaluation being linear in
+ * its weights (see FagEvaluator.getFeatures).
+ * </p>
+ * <p>
+ * The training data (see TrainingData) is streamed, never loaded: it is read
+ * once to write the features of its quiet positions (a fox to move which can
+ * jump is not quiet) to a compact temporary file, which every pass streams
+ * again by chunks to a pool of threads. The memory used does not depend on
+ * the number of positions. The chunks are summed in the order of the file,
+ * so that the tuning is deterministic whatever the number of threads.
+ * </p>
+ *
+ * Usage: TexelTuner &lt;data file&gt;... [--output FILE] [--iterations INT] [--rate DOUBLE] [--threads INT]
+ */
+public class TexelTuner {
+
+    public final static String OUTPUT        = "evaluation.properties"; // See FagDecider
+    public final static int    ITERATIONS    = 200;
+    public final static double LEARNING_RATE = 1.0;
+
+    // The samples given at once to a thread
+    private final static int CHUNK_SAMPLES = 16384;
+    // A sample in the features file: the features (as shorts) and the score of the fox (in halves)
+    private final static int SAMPLE_BYTES  = 2 * NR_FEATURES + 1;
+    // The bounds of the search of the scale K
+    private final static double MIN_SCALE = 1e-5;
+    private final static double MAX_SCALE = 1e-1;
+    private final static int    SCALE_STEPS = 40;
+
+    private final int             threads;
+    private final ExecutorService pool;
+    private final File            featuresFile;
+
+    private long   samples = 0;
+    private long   skipped = 0; // Not quiet, or over
+    private long   invalid = 0;
+    private double scale   = 0.0;
+
+    /**
+     * Basic constructor.
+     * @param threads The number of threads of the passes.
+     * @throws IOException If the temporary features file cannot be created.
+     */
+    public TexelTuner(int threads) throws IOException {
+        this.threads = Math.max(1, threads);
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread thread = new Thread(r, "texel-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        featuresFile = File.createTempFile("texel", ".features");
+        featuresFile.deleteOnExit();
+    }
+
+    /**
+     * Reads training data files and keeps the features of their quiet positions.
+     * The invalid lines are counted and skipped.
+     */
+    public void load(File... files) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(featuresFile, true), 1 << 16))) {
+            int[] features = new int[NR_FEATURES];
+            for (File file : files) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(file), 1 << 16)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        TrainingData.Sample sample;
+                        try {
+                            sample = TrainingData.parse(line);
+                        }
+                        catch (IllegalArgumentException e) {
+                            if (invalid++ == 0) {
+                                System.out.println("WARNING: " + e.getMessage());
+                            }
+                            continue;
+                        }
+                        if (sample == null) continue;
+                        if (!isQuiet(sample.position)) {
+                            skipped++;
+                            continue;
+                        }
+                        FagEvaluator.getFeatures(sample.position.getGeese(), sample.position.getFox(), features);
+                        for (int feature : features) {
+                            out.writeShort(feature);
+                        }
+                        out.writeByte((int) Math.round(2 * sample.foxScore));
+                        samples++;
+                    }
+                }
+            }
+        }
+    }
+
+    // A position where the fox can take a goose, or where the game is over, is not evaluated by the search
+    private static boolean isQuiet(FagBitboard position) {
+        if (FagRules.getResult(position).isOver()) {
+            return false;
+        }
+        return !position.isFoxToMove() || (FagBitboard.jumpTargets(position.getFox(), position.getGeese()) == 0);
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Fits the scale K of the sigmoid which minimizes the error of some
+     * weights (by a golden section search on log(K)).
+     * @return The scale.
+     */
+    public double fitScale(EvaluationWeights weights) throws IOException {
+        double[] w  = toDoubles(weights);
+        double   lo = Math.log(MIN_SCALE);
+        double   hi = Math.log(MAX_SCALE);
+        double   ratio = (Math.sqrt(5) - 1) / 2;
+        double   a  = hi - ratio * (hi - lo);
+        double   b  = lo + ratio * (hi - lo);
+        double   ea = getError(w, Math.exp(a));
+        double   eb = getError(w, Math.exp(b));
+        for (int step = 0; step < SCALE_STEPS; step++) {
+            if (ea < eb) {
+                hi = b; b = a; eb = ea;
+                a  = hi - ratio * (hi - lo);
+                ea = getError(w, Math.exp(a));
+            } else {
+                lo = a; a = b; ea = eb;
+                b  = lo + ratio * (hi - lo);
+                eb = getError(w, Math.exp(b));
+            }
+        }
+        scale = Math.exp((lo + hi) / 2);
+        return scale;
+    }
+
+    /**
+     * Returns the mean squared error of some weights with the fitted scale.
+     */
+    public double getError(EvaluationWeights weights) throws IOException {
+        return getError(toDoubles(weights), scale);
+    }
+
+    private double getError(double[] weights, double k) throws IOException {
+        return pass(weights, k, false)[NR_FEATURES] / Math.max(1, samples);
+    }
+
+    /**
+     * Optimizes the weights with the fitted scale (see fitScale).
+     * @param initial      The initial weights.
+     * @param iterations   The number of passes over the samples.
+     * @param learningRate The step of Adam (in units of the weights).
+     * @return The weights of smallest error, rounded (the initial weights if
+     *  the tuning did not improve them).
+     */
+    public EvaluationWeights tune(EvaluationWeights initial, int iterations, double learningRate) throws IOException {
+        final double beta1 = 0.9, beta2 = 0.999, epsilon = 1e-8;
+        double[] w = toDoubles(initial);
+        double[] m = new double[NR_FEATURES];
+        double[] v = new double[NR_FEATURES];
+        double[] best = w.clone();
+        double   bestError = Double.MAX_VALUE;
+        for (int t = 1; t <= iterations; t++) {
+            double[] sums  = pass(w, scale, true);
+            double   error = sums[NR_FEATURES] / Math.max(1, samples);
+            // The error of the weights of this pass, before their update
+            if (error < bestError) {
+                bestError = error;
+                best = w.clone();
+            }
+            for (int i = 0; i < NR_FEATURES; i++) {
+                double g = sums[i] / Math.max(1, samples);
+                m[i] = beta1 * m[i] + (1 - beta1) * g;
+                v[i] = beta2 * v[i] + (1 - beta2) * g * g;
+                double mHat = m[i] / (1 - Math.pow(beta1, t));
+                double vHat = v[i] / (1 - Math.pow(beta2, t));
+                w[i] -= learningRate * mHat / (Math.sqrt(vHat) + epsilon);
+            }
+            if ((t % 10 == 0) || (t == iterations)) {
+                System.out.println("Iteration " + t + ": error " + error + " (best " + bestError + ")");
+            }
+        }
+        // The rounding must not lose the gain
+        EvaluationWeights tuned = toWeights(best);
+        return (getError(tuned) < getError(initial)) ? tuned : initial;
+    }
+
+    /**
+     * Streams the features file through the threads.
+     * @return The sums of the gradient (if asked) and, at index NR_FEATURES,
+     *  the sum of the squared errors.
+     */
+    private double[] pass(double[] weights, double k, boolean gradient) throws IOException {
+        double[] sums = new double[NR_FEATURES + 1];
+        Deque<Future<double[]>> pending = new ArrayDeque<>();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(featuresFile), 1 << 16)) {
+            byte[] chunk;
+            while ((chunk = in.readNBytes(CHUNK_SAMPLES * SAMPLE_BYTES)).length > 0) {
+                byte[] samples = chunk;
+                pending.add(pool.submit(() -> passChunk(samples, weights, k, gradient)));
+                // A few chunks in flight per thread bound the memory
+                if (pending.size() >= 2 * threads) {
+                    add(sums, pending.poll());
+                }
+            }
+        }
+        while (!pending.isEmpty()) {
+            add(sums, pending.poll());
+        }
+        return sums;
+    }
+
+    private static void add(double[] sums, Future<double[]> future) throws IOException {
+        try {
+            double[] chunk = future.get();
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += chunk[i];
+            }
+        }
+        catch (InterruptedException | ExecutionException e) {
+            throw new IOException("A pass failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static double[] passChunk(byte[] chunk, double[] weights, double k, boolean gradient) {
+        double[] sums     = new double[NR_FEATURES + 1];
+        int[]    features = new int[NR_FEATURES];
+        for (int s = 0; s + SAMPLE_BYTES <= chunk.length; s += SAMPLE_BYTES) {
+            double score = 0.0;
+            for (int i = 0; i < NR_FEATURES; i++) {
+                features[i] = (short) (((chunk[s + 2 * i] & 0xFF) << 8) | (chunk[s + 2 * i + 1] & 0xFF));
+                score += weights[i] * features[i];
+            }
+            double result     = chunk[s + 2 * NR_FEATURES] / 2.0;
+            double prediction = 1.0 / (1.0 + Math.exp(-k * score));
+            double error      = result - prediction;
+            sums[NR_FEATURES] += error * error;
+            if (gradient) {
+                // d(error^2)/dw = -2 * error * p * (1 - p) * K * feature
+                double factor = -2.0 * error * prediction * (1.0 - prediction) * k;
+                for (int i = 0; i < NR_FEATURES; i++) {
+                    sums[i] += factor * features[i];
+                }
+            }
+        }
+        return sums;
+    }
+
+    private static double[] toDoubles(EvaluationWeights weights) {
+        double[] w = new double[NR_FEATURES];
+        for (int i = 0; i < NR_FEATURES; i++) {
+            w[i] = weights.get(i);
+        }
+        return w;
+    }
+
+    private static EvaluationWeights toWeights(double[] w) {
+        int[] weights = new int[NR_FEATURES];
+        for (int i = 0; i < NR_FEATURES; i++) {
+            weights[i] = (int) Math.round(w[i]);
+        }
+        return new EvaluationWeights(weights);
+    }
+
+    /**
+     * Stops the threads and deletes the features file.
+     */
+    public void close() {
+        pool.shutdownNow();
+        if (!featuresFile.delete()) {
+            System.out.println("WARNING: Cannot delete " + featuresFile);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<File> files = new ArrayList<>();
+        File   output       = new File(OUTPUT);
+        int    iterations   = ITERATIONS;
+        double learningRate = LEARNING_RATE;
+        int    threads      = Runtime.getRuntime().availableProcessors();
+        for (int l = 0; l < args.length; l++) {
+            if (args[l].equals("--output")) output = new File(args[++l]);
+            else if (args[l].equals("--iterations")) iterations = Integer.parseInt(args[++l]);
+            else if (args[l].equals("--rate")) learningRate = Double.parseDouble(args[++l]);
+            else if (args[l].equals("--threads")) threads = Integer.parseInt(args[++l]);
+            else files.add(new File(args[l]));
+        }
+        if (files.isEmpty()) {
+            System.out.println("Usage: TexelTuner <data file>... [--output FILE] [--iterations INT] [--rate DOUBLE] [--threads INT]");
+            System.exit(1);
+        }
+
+        TexelTuner tuner = new TexelTuner(threads);
+        long start = System.currentTimeMillis();
+        tuner.load(files.toArray(new File[0]));
+        System.out.println("Read " + tuner.getSamples() + " quiet positions (" + tuner.getSkipped() + " skipped, " +
+                           tuner.getInvalid() + " invalid) in " + (System.currentTimeMillis() - start) + " ms");
+        if (tuner.getSamples() == 0) {
+            System.out.println("ERROR: No position to tune on.");
+            System.exit(1);
+        }
+
+        // The current weights of the evaluation, if any, are the starting point
+        EvaluationWeights initial = output.isFile() ? EvaluationWeights.load(output) : EvaluationWeights.getDefault();
+        System.out.println("Scale K = " + tuner.fitScale(initial) + ", error " + tuner.getError(initial) + " with " + initial);
+        EvaluationWeights tuned = tuner.tune(initial, iterations, learningRate);
+        System.out.println("Error " + tuner.getError(tuned) + " with " + tuned + " in " + (System.currentTimeMillis() - start) + " ms");
+        tuned.save(output);
+        System.out.println("Wrote " + output);
+        tuner.close();
+    }
+}
@@ -0,0 +1,139 @@
+package ai.tuning;
+
+import ai.player.GameSummary;
+import ai.search.Perft;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.GameResult;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * The positions of recorded games with the result of their game, to tune
+ * the weights of the evaluation (see TexelTuner).
+ *
+ * <p>
+ * A position is written on a line, in the notation of Perft, followed by
+ * the score of the fox in the game (1 for a win, 0.5 for a draw, 0 for a
+ * loss); '#' starts a comment:
+ * </p>
+ * <pre>
+ *   GGGGGGGGGGGGG..........F......... f 0.5
+ * </pre>
+ */
+public class TrainingData {
+
+    /**
+     * A position and the score of the fox in its game.
+     */
+    public static class Sample {
+        public final FagBitboard position;
+        public final double      foxScore;
+
+        public Sample(FagBitboard position, double foxScore) {
+            this.position = position;
+            this.foxScore = foxScore;
+        }
+    }
+
+    /**
+     * Returns the score of the fox for the result of a game (NONE for a draw).
+     */
+    public static double getFoxScore(GameResult result) {
+        return !result.isOver() ? 0.5 : (result.getWinner() == FagRules.FOX_TEAM) ? 1.0 : 0.0;
+    }
+
+    /**
+     * Writes a sample on a line.
+     */
+    public static String toLine(FagBitboard position, double foxScore) {
+        return Perft.toNotation(position) + " " + ((foxScore == 0.5) ? "0.5" : (foxScore > 0.5) ? "1" : "0");
+    }
+
+    /**
+     * Reads a line of the training data.
+     * @return The sample, or null if the line is blank or a comment.
+     * @throws IllegalArgumentException If the line is not valid.
+     */
+    public static Sample parse(String line) {
+        int comment = line.indexOf('#');
+        if (comment >= 0) line = line.substring(0, comment);
+        line = line.trim();
+        if (line.isEmpty()) {
+            return null;
+        }
+        int space = line.lastIndexOf(' ');
+        if (space < 0) {
+            throw new IllegalArgumentException("No result in: " + line);
+        }
+        double foxScore;
+        try {
+            foxScore = Double.parseDouble(line.substring(space + 1));
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid result in: " + line);
+        }
+        if ((foxScore != 0.0) && (foxScore != 0.5) && (foxScore != 1.0)) {
+            throw new IllegalArgumentException("Invalid result in: " + line);
+        }
+        return new Sample(Perft.parse(line.substring(0, space)), foxScore);
+    }
+
+    /**
+     * Writes every position of a game, from its first position to its last
+     * one, with the result of the game.
+     */
+    public static void write(GameSummary game, Writer writer) throws IOException {
+        double      foxScore = getFoxScore(game.getResult());
+        FagBitboard position = game.getFirstPosition();
+        writer.write(toLine(position, foxScore) + "\n");
+        for (FagMove move : game.getMoves()) {
+            position = FagRules.play(position, move);
+            writer.write(toLine(position, foxScore) + "\n");
+        }
+    }
+
+    /**
+     * Appends the positions of the games played by a batch to a file (see
+     * BatchRunner.setGameListener), e.g. to tune the evaluation on self-play.
+     */
+    public static class Recorder implements Consumer<GameSummary>, Closeable {
+
+        private final Writer writer;
+        private long positions = 0;
+
+        public Recorder(File file) throws IOException {
+            writer = new BufferedWriter(new FileWriter(file, true));
+        }
+
+        @Override
+        public synchronized void accept(GameSummary game) {
+            try {
+                write(game, writer);
+                positions += game.getNrPlies() + 1;
+            }
+            catch (IOException e) {
+                System.out.println("WARNING: Cannot record the game: " + e.getMessage());
+            }
+        }
+
+        /**
+         * Returns the number of positions recorded so far.
+         */
+        public synchronized long getPositions() {
+            return positions;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            writer.close();
+        }
+    }
+}
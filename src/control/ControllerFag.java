@@ -1,12 +1,21 @@
 package control;
 
+import ai.record.GameRecord;
+import ai.record.GameReplay;
+import ai.record.GameRecordWriter;
 import gamifier.control.ActionPlayer;
 import gamifier.control.Controller;
+import gamifier.model.GameException;
 import gamifier.model.Model;
 import gamifier.model.Player;
 import gamifier.view.View;
 import model.FagStageModel;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.GameResult;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Random;
 
@@ -14,6 +23,19 @@ public class ControllerFag extends Controller {
 
     public static Random generator = new Random();
 
+    // The file where the games are appended (see setGameRecorder), the seed
+    //  of the games, and the last recorded position of the current game
+    private static GameRecordWriter gameRecorder = null;
+    private static long             recordSeed = 0;
+    private static FagBitboard      recordedPosition = null;
+
+    // The game replayed on the board (see setReplay), the first ply which is
+    //  shown, the time of a shown ply, and the next ply to play
+    private static GameReplay replay = null;
+    private static int        replayStart = 0;
+    private static long       replayPlyTime = 1000;
+    private int               replayPly = 0;
+
     /**
      * Global controller of the FoxAndGeese game. This class contains most of the
      * methods needed for the management of the game.
@@ -47,16 +69,165 @@ public class ControllerFag extends Controller {
         String team = (model.getIdPlayer() == 0) ? "Fox" : "Geese";
         stageModel.getPlayerName().setText(p.getName() + " (" + team + ")");
 
+        if (replay != null) {
+            playReplay();
+            return;
+        }
+
         List<Player> players = model.getPlayers();
         Player currPlayer = players.get(model.getIdPlayer());
         if (p.getType() == Player.COMPUTER) {
             System.out.println("COMPUTER " + currPlayer.getName() + " PLAYS " + team + " (IdPlayer=" + model.getIdPlayer() + ")");
             FagDecider decider = new FagDecider(model,this);
             ActionPlayer play = new ActionPlayer(model, view, this, decider, null);
+            play.onActionsPlayed(this::recordMove);
             play.start();
         }
         else {
             System.out.println("HUMAN " + currPlayer.getName() + " PLAYS " + team + " (IdPlayer=" + model.getIdPlayer() + ")");
+            // Against a computer, let it think on the time of the human
+            Player opponent = players.get(1 - model.getIdPlayer());
+            if (opponent.getType() == Player.COMPUTER) {
+                FagDecider.startPondering(stageModel.getBoard(), model.getIdPlayer(), FagDecider.getAiLevel(opponent.getName()));
+            }
+        }
+    }
+
+    @Override
+    public void startGame() throws GameException {
+        super.startGame();
+        if (replay != null) {
+            // Nothing else makes the fox play first
+            replayPly = 0;
+            playReplay();
+            return;
+        }
+        beginRecord();
+    }
+
+    /**
+     * Replays a recorded game on the board, instead of letting the players
+     * play (see ReplayDecider). The board always starts from the initial
+     * position: the plies before the first shown one are played at once.
+     * @param game      The replayed game, or null to play normally.
+     * @param startPly  The first ply which is animated.
+     * @param plyTime   The time of an animated ply (in ms).
+     */
+    public static synchronized void setReplay(GameReplay game, int startPly, long plyTime) {
+        replay = game;
+        replayStart = startPly;
+        replayPlyTime = plyTime;
+    }
+
+    // Plays the next ply of the replayed game, if any
+    private void playReplay() {
+        if (replayPly >= replay.getNrPlies()) {
+            System.out.println("REPLAY: end of " + replay.getRecord() + ", " + replay.getResult());
+            return;
+        }
+        boolean shown = (replayPly >= replayStart);
+        ReplayDecider decider = new ReplayDecider(model, this, replay, replayPly++, shown, replayPlyTime);
+        ActionPlayer play = new ActionPlayer(model, view, this, decider, null);
+        play.start();
+    }
+
+    @Override
+    public void stopGame() {
+        FagDecider.stopPondering();
+        endRecord(GameResult.NONE);
+        super.stopGame();
+    }
+
+    @Override
+    public void endGame() {
+        FagDecider.stopPondering();
+        int idWinner = model.getIdWinner();
+        endRecord((idWinner == FagRules.FOX_TEAM)   ? GameResult.FOX_WINS :
+                  (idWinner == FagRules.GEESE_TEAM) ? GameResult.GEESE_WIN : GameResult.NONE);
+        super.endGame();
+    }
+
+    /**
+     * Sets the file where the games are appended, ply by ply (see ai.record).
+     * @param writer The writer of the file, or null to record nothing.
+     * @param seed   The seed of the games (i.e. of the central random generator).
+     */
+    public static synchronized void setGameRecorder(GameRecordWriter writer, long seed) {
+        gameRecorder = writer;
+        recordSeed = seed;
+        recordedPosition = null;
+    }
+
+    // Starts to record the game which has just started (the fox plays first)
+    private void beginRecord() {
+        synchronized (ControllerFag.class) {
+            if (gameRecorder == null) return;
+            List<Player> players = model.getPlayers();
+            Player fox   = players.get(FagRules.FOX_TEAM);
+            Player geese = players.get(FagRules.GEESE_TEAM);
+            recordedPosition = getBoardPosition();
+            try {
+                gameRecorder.begin(recordSeed, 0, fox.getName(), getLevel(fox), geese.getName(), getLevel(geese),
+                                   recordedPosition);
+            }
+            catch (IOException e) {
+                System.out.println("WARNING: Cannot record the game: " + e.getMessage());
+                recordedPosition = null;
+            }
+        }
+    }
+
+    private static int getLevel(Player player) {
+        return (player.getType() == Player.COMPUTER) ? FagDecider.getAiLevel(player.getName()) : GameRecord.HUMAN;
+    }
+
+    private FagBitboard getBoardPosition() {
+        return ((FagStageModel) model.getGameStage()).getBoard().toBitboard(FagRules.FOX_TEAM);
+    }
+
+    /**
+     * Records the move which was just played on the board, i.e. the legal
+     *  move from the last recorded position to the position of the board.
+     *  Note: It is called once the actions of a player are played (see
+     *  ActionPlayer.onActionsPlayed), and at the end of the game, in case
+     *  the game ended before.
+     */
+    public void recordMove() {
+        synchronized (ControllerFag.class) {
+            if (recordedPosition == null) return;
+            FagBitboard board = getBoardPosition();
+            if ((board.getGeese() == recordedPosition.getGeese()) && (board.getFox() == recordedPosition.getFox())) {
+                return;
+            }
+            for (FagMove move : FagRules.getMoves(recordedPosition)) {
+                FagBitboard next = FagRules.play(recordedPosition, move);
+                if ((next.getGeese() == board.getGeese()) && (next.getFox() == board.getFox())) {
+                    gameRecorder.play(move);
+                    recordedPosition = next;
+                    return;
+                }
+            }
+            System.out.println("WARNING: Cannot record the move leading to\n" + board + "The game is recorded up to there.");
+            stopRecord(GameResult.NONE);
+        }
+    }
+
+    // Ends the record of the current game, if any, with its last move
+    private void endRecord(GameResult result) {
+        synchronized (ControllerFag.class) {
+            recordMove();
+            stopRecord(result);
+        }
+    }
+
+    private static synchronized void stopRecord(GameResult result) {
+        if (recordedPosition == null) return;
+        recordedPosition = null;
+        try {
+            gameRecorder.end(result);
+        }
+        catch (IOException e) {
+            System.out.println("WARNING: Cannot record the game: " + e.getMessage());
         }
     }
 }
@@ -16,6 +16,8 @@ import javafx.geometry.Point2D;
 import javafx.scene.input.*;
 import model.FagPawn;
 import model.FagStageModel;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
 
 import java.util.List;
 import java.util.ListIterator;
@@ -109,6 +111,7 @@ public class ControllerFagMouse extends ControllerMouse implements EventHandler<
                         // Add the action to the action list.
                         actions.addSingleAction(move);
                         // Step 2 : Check if there is a take. In this case remove the pawn from the board.
+                        long taken = 0L;
                         if (selectedPawn.isFox()) {
                             List<GameElement> geList = fagStageModel.getTakenPawns(selectedPawn, dstCell[0], dstCell[1]);
                             ListIterator<GameElement> geListItor = geList.listIterator();
@@ -116,11 +119,17 @@ public class ControllerFagMouse extends ControllerMouse implements EventHandler<
                                 GameElement p = geListItor.next();
                                 if (DEBUG) System.out.println(methodName + "Must remove " + p);
                                 actions.addSingleAction(new RemoveAction(model, p));
+                                int[] takenCell = fagStageModel.getElementCell(p);
+                                taken |= FagBitboard.bit(FagBitboard.getPoint(takenCell[0], takenCell[1]));
                             }
                         }
+                        // Stop the pondering of the computer at once if it did not expect this move
+                        FagDecider.humanMoved(new FagMove(FagBitboard.getPoint(srcCell[0], srcCell[1]),
+                                                          FagBitboard.getPoint(dstCell[0], dstCell[1]), taken));
                         fagStageModel.unselectAll();
                         fagStageModel.setState(FagStageModel.STATE_SELECTPAWN);
                         ActionPlayer play = new ActionPlayer(model, view, control, actions);
+                        play.onActionsPlayed(((ControllerFag) control)::recordMove);
                         play.start();
                     }
                 }
@@ -1,5 +1,22 @@
 package control;
 
+import ai.book.OpeningBook;
+import ai.mcts.MctsSearch;
+import ai.mcts.PlayoutPolicy;
+import ai.player.FagPlayer;
+import ai.player.GeeseHeuristicPlayer;
+import ai.player.MctsPlayer;
+import ai.player.RandomPlayer;
+import ai.player.SearchPlayer;
+import ai.proof.ProofNumberSearch;
+import ai.proof.ProofResult;
+import ai.search.EvaluationWeights;
+import ai.search.LazySmpSearch;
+import ai.search.PonderSearch;
+import ai.search.SearchLimits;
+import ai.search.SearchResult;
+import ai.search.TranspositionTable;
+import ai.tablebase.Tablebase;
 import gamifier.control.Controller;
 import gamifier.control.Decider;
 import gamifier.model.GameElement;
@@ -11,13 +28,19 @@ import gamifier.model.action.RemoveAction;
 import gamifier.model.animation.AnimationTypes;
 import gamifier.view.GridLook;
 import javafx.geometry.Point2D;
+import model.rules.FagBitboard;
+import model.rules.FagCaptures;
+import model.rules.FagMove;
+import model.rules.FagRules;
 import model.FagBoard;
 import model.FagStageModel;
 import model.FagPawn;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Random;
 
 import static java.lang.Integer.MAX_VALUE;
 import static model.FagBoard.GRID_SIZE;
@@ -25,6 +48,385 @@ import static model.FagBoard.GRID_SIZE;
 public class FagDecider extends Decider {
     final static String boardName = "board";
 
+    // Depth (in plies) of the search of FoxAi1: one move of the fox and the answer of the geese
+    final static int  FOX_AI1_DEPTH = 2;
+    // A safety limit on the thinking time of the search based AIs (in ms)
+    final static long MAX_THINKING_TIME = 5000;
+    // The size of the transposition table (in MB)
+    final static int  TT_SIZE_MB = 64;
+    // The size of the transposition table of each headless player (in MB, see createPlayer)
+    final static int  PLAYER_TT_SIZE_MB = 16;
+    // The levels of the Monte Carlo tree search AIs, with random or heuristic playouts (see MctsAi)
+    final static int  MCTS_LEVEL = 10;
+    final static int  MCTS_HEURISTIC_LEVEL = 11;
+    // The thinking time of the Monte Carlo tree search AIs (in ms, unless set by setSearchLimits)
+    final static long MCTS_MOVE_TIME = 1000;
+    // The proof-number search is tried below this number of points reachable by the fox (see proveWin)
+    final static int  PROOF_FOX_MOBILITY = 4;
+    // The node budget and the size of the table (in MB) of the proof-number search
+    final static long PROOF_NODES = 200000;
+    final static int  PROOF_TT_SIZE_MB = 16;
+
+    // The transposition table is shared by all the searches (and both teams),
+    //  so that a search benefits from the previous ones.
+    private static TranspositionTable transpositionTable = null;
+
+    // The search limits given on the command line (-1 if not given, see setSearchLimits)
+    private static int  searchDepth = -1;
+    private static long searchMoveTime = -1;
+    private static int  searchQuiescenceDepth = SearchLimits.QUIESCENCE_DEPTH;
+    // The number of threads of the search, and the search itself (shared by both teams)
+    private static int  searchThreads = 1;
+    private static LazySmpSearch searchEngine = null;
+    // The Monte Carlo tree searches, one per team so that each one reuses its own tree
+    private static final MctsSearch[] mctsEngines = new MctsSearch[2];
+    // The proof-number search of the forced wins (shared by both teams)
+    private static ProofNumberSearch proofSearch = null;
+
+    // The directory of the endgame tablebases, and the tablebases themselves (see getTablebase)
+    private static String    tablebaseDirectory = "tablebases";
+    private static Tablebase tablebase = null;
+    private static boolean   tablebaseLoaded = false;
+
+    // The file of the opening book, and the book itself (see getOpeningBook)
+    private static String      openingBookFile = "opening.book";
+    private static OpeningBook openingBook = null;
+    private static boolean     openingBookLoaded = false;
+
+    // Whether the search thinks on the time of the human (see startPondering), and the
+    //  pondering itself with the reply predicted by the last search (null if none)
+    private static boolean      ponder = true;
+    private static PonderSearch ponderSearch = null;
+    private static FagMove      predictedReply = null;
+
+    // The file of the weights of the evaluation (see loadEvaluationWeights)
+    private static String  evaluationWeightsFile = "evaluation.properties";
+    private static boolean evaluationWeightsLoaded = false;
+
+    /**
+     * Sets the directory of the endgame tablebases probed by the search based AIs.
+     * @param directory The directory (see ai.tablebase.TablebaseGenerator).
+     */
+    public static synchronized void setTablebaseDirectory(String directory) {
+        tablebaseDirectory = directory;
+        tablebaseLoaded = false;
+    }
+
+    /**
+     * Returns the endgame tablebases, or null if there are none.
+     */
+    static synchronized Tablebase getTablebase() {
+        if (!tablebaseLoaded) {
+            tablebaseLoaded = true;
+            tablebase = null;
+            File directory = new File(tablebaseDirectory);
+            if (directory.isDirectory()) {
+                try {
+                    tablebase = Tablebase.open(directory);
+                    System.out.println("Found " + tablebase.getNrTables() + " endgame table(s) in " + directory);
+                }
+                catch (IOException e) {
+                    System.out.println("WARNING: Cannot open the endgame tables: " + e.getMessage());
+                }
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Sets the file of the opening book probed by the search based AIs.
+     * @param file The book (see ai.book.OpeningBookBuilder).
+     */
+    public static synchronized void setOpeningBookFile(String file) {
+        openingBookFile = file;
+        openingBookLoaded = false;
+    }
+
+    /**
+     * Returns the opening book, or null if there is none.
+     */
+    static synchronized OpeningBook getOpeningBook() {
+        if (!openingBookLoaded) {
+            openingBookLoaded = true;
+            openingBook = null;
+            try {
+                openingBook = OpeningBook.open(new File(openingBookFile));
+                if (openingBook != null) {
+                    System.out.println("Found " + openingBook.getNrEntries() + " book moves in " + openingBookFile);
+                }
+            }
+            catch (IOException e) {
+                System.out.println("WARNING: Cannot open the opening book: " + e.getMessage());
+            }
+        }
+        return openingBook;
+    }
+
+    /**
+     * Sets the file of the weights of the evaluation of the search based AIs.
+     * @param file The file (see ai.search.EvaluationWeights). The built-in
+     *  weights are used if it does not exist.
+     */
+    public static synchronized void setEvaluationWeightsFile(String file) {
+        evaluationWeightsFile = file;
+        evaluationWeightsLoaded = false;
+        // The search evaluates with the weights it was created with
+        stopPondering();
+        if (searchEngine != null) {
+            searchEngine.shutdown();
+            searchEngine = null;
+        }
+    }
+
+    /**
+     * Reads the weights of the evaluation, once, and makes them the default
+     *  weights of the searches created afterwards.
+     */
+    static synchronized void loadEvaluationWeights() {
+        if (!evaluationWeightsLoaded) {
+            evaluationWeightsLoaded = true;
+            EvaluationWeights weights = null;
+            File file = new File(evaluationWeightsFile);
+            if (file.isFile()) {
+                try {
+                    weights = EvaluationWeights.load(file);
+                    System.out.println("Read the evaluation weights from " + file + ": " + weights);
+                }
+                catch (IOException e) {
+                    System.out.println("WARNING: Cannot read the evaluation weights: " + e.getMessage());
+                }
+            }
+            EvaluationWeights.setDefault(weights);
+        }
+    }
+
+    /**
+     * Sets the number of threads of the search based AIs.
+     * @param threads The number of threads (1 for a sequential and deterministic search).
+     */
+    public static synchronized void setSearchThreads(int threads) {
+        searchThreads = Math.max(1, threads);
+        stopPondering();
+        if (searchEngine != null) {
+            searchEngine.shutdown();
+            searchEngine = null;
+        }
+        for (int team = 0; team < mctsEngines.length; team++) {
+            if (mctsEngines[team] != null) {
+                mctsEngines[team].shutdown();
+                mctsEngines[team] = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the search shared by the search based AIs.
+     *  The seed of its helper threads is drawn from the central random
+     *  generator, so that the games can be replayed with the same seed.
+     */
+    static synchronized LazySmpSearch getSearchEngine() {
+        if (searchEngine == null) {
+            loadEvaluationWeights();
+            searchEngine = new LazySmpSearch(getTranspositionTable(), searchThreads, ControllerFag.generator.nextLong());
+        }
+        return searchEngine;
+    }
+
+    /**
+     * Returns the proof-number search shared by the search based AIs.
+     */
+    static synchronized ProofNumberSearch getProofSearch() {
+        if (proofSearch == null) {
+            proofSearch = new ProofNumberSearch(PROOF_TT_SIZE_MB);
+        }
+        return proofSearch;
+    }
+
+    /**
+     * Sets whether the search based AIs think while the human is to play.
+     */
+    public static synchronized void setPonder(boolean enabled) {
+        ponder = enabled;
+        if (!enabled) stopPondering();
+    }
+
+    /**
+     * Returns the pondering of the search shared by the search based AIs.
+     */
+    static synchronized PonderSearch getPonderSearch() {
+        if ((ponderSearch == null) || (ponderSearch.getEngine() != getSearchEngine())) {
+            ponderSearch = new PonderSearch(getSearchEngine());
+        }
+        return ponderSearch;
+    }
+
+    /**
+     * Starts to think on the time of the human (Single mode): the reply of
+     *  the human is predicted, and the position it leads to is searched in
+     *  a background thread until the human moves (see humanMoved and SearchAi).
+     * @param fagBoard  A ref. to the board.
+     * @param humanTeam The team of the human (FOX_TEAM or GEESE_TEAM), to move.
+     * @param level     The level of the computer. Only the alpha-beta searches
+     *                  (#2 and above) ponder, and not in the endgames of
+     *                  the tablebases, which answer at once.
+     */
+    static synchronized void startPondering(FagBoard fagBoard, int humanTeam, int level) {
+        final boolean DEBUG = true;
+        if (!ponder || (level < 2) || isMctsLevel(level)) {
+            return;
+        }
+        FagBitboard position  = fagBoard.toBitboard(humanTeam);
+        Tablebase   tablebase = getTablebase();
+        if ((tablebase != null) &&
+            (tablebase.probe(position.getGeese(), position.getFox(), position.isFoxToMove()) != Tablebase.NOT_AVAILABLE)) {
+            return;
+        }
+        if (!FagRules.getMoves(position).isEmpty()) {
+            if (DEBUG) System.out.println("[FagDecider.startPondering()] Predicted reply: " + predictedReply);
+            getPonderSearch().start(position, predictedReply, getSearchLimits(level));
+        }
+    }
+
+    /**
+     * Tells the move of the human: the pondering is stopped at once unless
+     *  the human played the predicted reply.
+     */
+    static synchronized void humanMoved(FagMove move) {
+        if (ponderSearch != null) {
+            ponderSearch.opponentMoved(move);
+        }
+    }
+
+    /**
+     * Stops the pondering, if any (e.g. at the end of the game).
+     */
+    static synchronized void stopPondering() {
+        if (ponderSearch != null) {
+            ponderSearch.cancel();
+        }
+    }
+
+    /**
+     * Returns the Monte Carlo tree search of a team. A new search is created
+     *  when the playout policy of the team changes.
+     * @param team   The team of the computer (FOX_TEAM or GEESE_TEAM).
+     * @param policy The policy of the playouts.
+     */
+    static synchronized MctsSearch getMctsEngine(int team, PlayoutPolicy policy) {
+        if ((mctsEngines[team] == null) || (mctsEngines[team].getPolicy() != policy)) {
+            if (mctsEngines[team] != null) {
+                mctsEngines[team].shutdown();
+            }
+            mctsEngines[team] = new MctsSearch(policy, searchThreads, ControllerFag.generator.nextLong());
+        }
+        return mctsEngines[team];
+    }
+
+    /**
+     * Returns the policy of the playouts of a Monte Carlo tree search level.
+     */
+    static PlayoutPolicy getPlayoutPolicy(int level) {
+        return (level == MCTS_HEURISTIC_LEVEL) ? PlayoutPolicy.HEURISTIC : PlayoutPolicy.RANDOM;
+    }
+
+    /**
+     * Returns the thinking time of the Monte Carlo tree search AIs.
+     */
+    static SearchLimits getMctsLimits() {
+        return SearchLimits.moveTime((searchMoveTime > 0) ? searchMoveTime : MCTS_MOVE_TIME);
+    }
+
+    /**
+     * Returns true if an AI level is a Monte Carlo tree search.
+     */
+    static boolean isMctsLevel(int level) {
+        return (level == MCTS_LEVEL) || (level == MCTS_HEURISTIC_LEVEL);
+    }
+
+    /**
+     * Sets the limits of the search based AIs (levels #2 and above).
+     * @param depth    The maximal depth in plies, or -1 to use the depth of the AI level.
+     * @param moveTime The thinking time per move in ms, or -1 to use MAX_THINKING_TIME.
+     *  When only a thinking time is given, the search deepens until the time is spent.
+     */
+    public static void setSearchLimits(int depth, long moveTime) {
+        searchDepth = depth;
+        searchMoveTime = moveTime;
+    }
+
+    /**
+     * Sets the depth of the quiescence search of the search based AIs
+     * (levels #1 and above, see AlphaBetaSearch.quiesce).
+     * @param quiescenceDepth The depth in plies, 0 to evaluate the leaves as they are.
+     */
+    public static void setQuiescenceDepth(int quiescenceDepth) {
+        searchQuiescenceDepth = quiescenceDepth;
+    }
+
+    /**
+     * Returns the limits of the search of the fox AI level #1.
+     */
+    static SearchLimits getFoxAi1Limits() {
+        return new SearchLimits(FOX_AI1_DEPTH, MAX_THINKING_TIME, searchQuiescenceDepth);
+    }
+
+    /**
+     * Returns the limits of the search for an AI level (#2 and above).
+     * @param level The level of the AI.
+     */
+    static SearchLimits getSearchLimits(int level) {
+        int depth;
+        if (searchDepth > 0) {
+            depth = searchDepth;
+        } else if (searchMoveTime > 0) {
+            depth = SearchLimits.MAX_DEPTH;
+        } else {
+            depth = getSearchDepth(level);
+        }
+        return new SearchLimits(depth, (searchMoveTime > 0) ? searchMoveTime : MAX_THINKING_TIME, searchQuiescenceDepth);
+    }
+
+    /**
+     * Returns the transposition table shared by the search based AIs.
+     */
+    static synchronized TranspositionTable getTranspositionTable() {
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable(TT_SIZE_MB);
+        }
+        return transpositionTable;
+    }
+
+    /**
+     * Creates a headless player of an AI level, which plays the same moves as
+     *  decide() without any board or animation (see ai.player.GameRunner).
+     *  The search based players use the limits, threads, opening book,
+     *  tablebases and evaluation weights set on this class, but their own transposition table.
+     * @param team   The team of the computer (FOX_TEAM or GEESE_TEAM).
+     * @param level  The level of the AI.
+     * @param random The random generator of the player.
+     * @return The player, or null if this AI is not implemented.
+     */
+    public static FagPlayer createPlayer(int team, int level, Random random) {
+        if (level == 0) {
+            return new RandomPlayer(random);
+        }
+        if ((level == 1) && (team == FagBoard.GEESE_TEAM)) {
+            return new GeeseHeuristicPlayer();
+        }
+        if (isMctsLevel(level)) {
+            return new MctsPlayer("Ai-" + level, getPlayoutPolicy(level), getMctsLimits(), searchThreads, random.nextLong(), getTablebase());
+        }
+        if (level >= 1) {
+            SearchLimits limits = (level == 1) ? getFoxAi1Limits() : getSearchLimits(level);
+            loadEvaluationWeights();
+            SearchPlayer player = new SearchPlayer("Ai-" + level, limits, PLAYER_TT_SIZE_MB, searchThreads, random.nextLong(), getTablebase());
+            player.setOpeningBook(getOpeningBook(), random);
+            return player;
+        }
+        System.out.println("WARNING: This AI method (Ai-" + level + ") is not yet implemented!");
+        return null;
+    }
+
     public FagDecider(Model model, Controller control) {
         super(model, control);
     }
@@ -239,7 +641,8 @@ public class FagDecider extends Decider {
      * @param actions A ref. to the action list to be executed after this AI.
      *
      * @Note: This is a naive algorithm. It always moves the fox to a random
-     *  place unless there is a goose to be eaten.
+     *  place unless there are geese to be eaten. Then it plays the chain of
+     *  jumps which eats a maximum number of geese (see FagCaptures).
      */
     void FoxAi0(FagBoard fagBoard, ActionList actions) {
         final boolean DEBUG = true;
@@ -247,37 +650,31 @@ public class FagDecider extends Decider {
                 new Throwable().getStackTrace()[0].getMethodName() + "()] ";
 
         FagBoard.Cell foxSrc = fagBoard.getFoxLocation();
-        FagBoard.Cell foxDst = new FagBoard.Cell();
-
-        List<FagBoard.Cell> reachableForFox = fagBoard.reachableForFox(foxSrc.row, foxSrc.col);
-
-        // Collect the geese which are at risk of being eaten
-        List<FagBoard.Cell> geeseAtRisk = fagBoard.getGeeseAtRisk(foxSrc);
-
-        if (!geeseAtRisk.isEmpty()) {
-            if (DEBUG) System.out.println(methodName + "Found " + geeseAtRisk.size() + " geese at risk: " + geeseAtRisk.toString());
-            // Eat a random number of geese
-            //  TODO - Should eat a maximum number of geese
-            List<FagBoard.Cell> reachableForJump = fagBoard.reachableForJump(foxSrc, new boolean[GRID_SIZE][GRID_SIZE]);
-            // Move to a random jump
-            int jumpId = ControllerFag.generator.nextInt(reachableForJump.size());
-            foxDst.row = reachableForFox.get(jumpId).row;
-            foxDst.col = reachableForFox.get(jumpId).col;
+        FagBoard.Cell foxDst;
+        long          eaten = 0L;
+
+        // Collect the chains of jumps, i.e. the geese at risk of being eaten
+        FagCaptures captures = fagBoard.getCaptures(foxSrc);
+
+        if (captures.size() != 0) {
+            // Eat a maximum number of geese
+            int chain = captures.pickLongest(ControllerFag.generator);
+            foxDst = FagBoard.getCell(captures.getTo(chain));
+            eaten  = captures.getTaken(chain);
+            if (DEBUG) System.out.println(methodName + "Found " + captures.size() + " chains of jumps, eating up to " + captures.getMaxTaken() + " geese");
         }
         else {
             // Move to a random position
+            List<FagBoard.Cell> reachableForFox = fagBoard.reachableForFox(foxSrc.row, foxSrc.col);
             int dirId = ControllerFag.generator.nextInt(reachableForFox.size());
-            foxDst.row = reachableForFox.get(dirId).row;
-            foxDst.col = reachableForFox.get(dirId).col;
+            foxDst = reachableForFox.get(dirId);
         }
 
         FagPawn foxPawnElement = (FagPawn) fagBoard.getElement(foxSrc.row, foxSrc.col);
 
         // Remove eaten geese from the board
-        List<GameElement> geese = fagBoard.getTakenPawns(foxPawnElement, foxDst.row, foxDst.col);
-        ListIterator<GameElement> gooseItor = geese.listIterator();
-        while (gooseItor.hasNext()) {
-            GameElement p = gooseItor.next();
+        for (FagBoard.Cell goose : FagBoard.getCells(eaten)) {
+            GameElement p = fagBoard.getElement(goose.row, goose.col);
             if (DEBUG) System.out.println(methodName + "Must remove goose:" + p);
             actions.addSingleAction(new RemoveAction(model, p));
         }
@@ -292,55 +689,208 @@ public class FagDecider extends Decider {
      *
      * @Note: This algorithm builds a decision tree and walks through it with a MinMax
      * algorithm which goal is to find the highest gain that a player can be sure to
-     * get without knowing the actions of the other player.
+     * get without knowing the actions of the other player. The tree is searched
+     * on a bitboard copy of the board with an alpha-beta search (see SearchAi).
      */
     void FoxAi1(FagBoard fagBoard, ActionList actions) {
+        SearchAi(fagBoard, FagBoard.FOX_TEAM, getFoxAi1Limits(), actions);
+    }
+
+    /**
+     * AI algorithms #2 and above (but the MCTS levels, see MctsAi), for both teams.
+     * @param fagBoard A ref. to the board.
+     * @param team     The team of the computer (FOX_TEAM or GEESE_TEAM).
+     * @param limits   The depth and time limits of the search.
+     * @param actions  A ref. to the action list to be executed after this AI.
+     *
+     * @Note: The board is turned into a FagBitboard and searched by a negamax
+     *  with alpha-beta pruning, deepened iteratively until the depth limit is
+     *  reached or the thinking time is spent, on one or several threads (see
+     *  setSearchThreads). In the opening, the move is chosen among the moves
+     *  of the book (see setOpeningBookFile), if they were searched at most as
+     *  deep as this search. In the endgame, the move is read from the
+     *  tablebases instead (see setTablebaseDirectory). When the fox is nearly
+     *  trapped, a forced win proven by a proof-number search is played at
+     *  once (see proveWin). When the computer
+     *  pondered the position while the human was thinking (see
+     *  startPondering), the result of the pondering is played at once. The
+     *  pondering is over before the book, the tablebases or the proof are
+     *  tried. The live board is only used to create the actions.
+     */
+    void SearchAi(FagBoard fagBoard, int team, SearchLimits limits, ActionList actions) {
         final boolean DEBUG = true;
         String methodName = "[" + new Throwable().getStackTrace()[0].getClassName() + "." +
                 new Throwable().getStackTrace()[0].getMethodName() + "()] ";
 
-        FagBoard.Cell foxSrc = fagBoard.getFoxLocation();
-        FagBoard.Cell foxDst = new FagBoard.Cell();
+        FagBitboard   position = fagBoard.toBitboard(team);
+        // On a ponder miss, the pondering is cancelled; on a hit, its search is over
+        SearchResult  pondered = getPonderSearch().getResult(position, limits);
+        // In the opening, the book gives a move searched offline (deeper than the level would not be fair)
+        OpeningBook   book   = getOpeningBook();
+        SearchResult  result = null;
+        predictedReply = null;
+        if ((book != null) && (book.getDepth() <= limits.getDepth())) {
+            result = book.getMove(position, ControllerFag.generator);
+        }
+        // In the endgame, the tablebases give the perfect move at once
+        Tablebase     tablebase = getTablebase();
+        if (result != null) {
+            if (DEBUG) System.out.println(methodName + "Book: " + result);
+        } else if ((tablebase != null) && ((result = tablebase.getBestMove(position)) != null)) {
+            if (DEBUG) System.out.println(methodName + "Tablebase: " + result);
+        } else if ((result = proveWin(fagBoard, team, position)) != null) {
+            if (DEBUG) System.out.println(methodName + "Proof: " + result);
+        } else if ((result = pondered) != null) {
+            if (DEBUG) System.out.println(methodName + "Ponder hit: " + result);
+            if (DEBUG) System.out.println(methodName + getPonderSearch());
+            predictedReply = getPredictedReply(result);
+        } else {
+            LazySmpSearch engine = getSearchEngine();
+            engine.setVerbose(DEBUG);
+            result = engine.search(position, limits);
+            if (DEBUG) System.out.println(methodName + "Search (" + limits + "): " + result);
+            if (DEBUG) System.out.println(methodName + engine);
+            if (DEBUG) System.out.println(methodName + getTranspositionTable());
+            predictedReply = getPredictedReply(result);
+        }
 
-        List<FagBoard.Cell> reachableForFox = fagBoard.reachableForFox(foxSrc.row, foxSrc.col);
+        if (!result.hasMove()) {
+            System.out.println("WARNING: The search did not find any move!");
+            return;
+        }
+        createSearchActions(fagBoard, result, actions);
+    }
 
-        // Collect the geese which are at risk of being eaten
-        List<FagBoard.Cell> geeseAtRisk = fagBoard.getGeeseAtRisk(foxSrc);
+    /**
+     * Tries to prove a forced win of the computer when the fox has less than
+     *  PROOF_FOX_MOBILITY reachable points: the geese trapping the fox, or the
+     *  fox taking enough geese (see ai.proof.ProofNumberSearch).
+     * @param fagBoard A ref. to the board.
+     * @param team     The team of the computer, to move (FOX_TEAM or GEESE_TEAM).
+     * @param position The position of the board.
+     * @return The winning move, or null if the fox is mobile or if the win
+     *  was not proven within PROOF_NODES nodes.
+     */
+    private static SearchResult proveWin(FagBoard fagBoard, int team, FagBitboard position) {
+        final boolean DEBUG = true;
+        String methodName = "[" + new Throwable().getStackTrace()[0].getClassName() + "." +
+                new Throwable().getStackTrace()[0].getMethodName() + "()] ";
 
-        /*** TODO
-        try{
-            FagBoard clone = (FagBoard)fagBoard.clone();
+        FagBoard.Cell fox = fagBoard.getFoxLocation();
+        if ((fox == null) || (fagBoard.reachableForFox(fox.row, fox.col).size() >= PROOF_FOX_MOBILITY)) {
+            return null;
         }
-        catch(CloneNotSupportedException c){}
-        ***/
+        ProofNumberSearch solver = getProofSearch();
+        ProofResult       proof  = solver.solve(position, team, PROOF_NODES);
+        if (DEBUG) System.out.println(methodName + proof + " " + solver.getTable());
+        return (proof.isProven() && proof.hasMove()) ? proof.toSearchResult() : null;
+    }
 
-        if (!geeseAtRisk.isEmpty()) {
-            if (DEBUG) System.out.println(methodName + "Found " + geeseAtRisk.size() + " geese at risk: " + geeseAtRisk.toString());
-            // Eat a random number of geese
-            //  TODO - Should try to eat a maximum number of geese
-            List<FagBoard.Cell> reachableForJump = fagBoard.reachableForJump(foxSrc, new boolean[GRID_SIZE][GRID_SIZE]);
-            // Move to a random jump
-            int jumpId = ControllerFag.generator.nextInt(reachableForJump.size());
-            foxDst.row = reachableForFox.get(jumpId).row;
-            foxDst.col = reachableForFox.get(jumpId).col;
+    /**
+     * Returns the reply to a move predicted by the last search, i.e. the
+     *  second move of its principal variation, or null if the search did not
+     *  play this move.
+     */
+    private static FagMove getPredictedReply(SearchResult result) {
+        LazySmpSearch engine = getSearchEngine();
+        FagMove       played = engine.getPvMove(0);
+        if ((played == null) || (played.getFrom() != result.getFrom()) || (played.getTo() != result.getTo()) ||
+            (played.getTaken() != result.getTaken())) {
+            return null;
         }
-        else {
-            // Move to a random position
-            int dirId = ControllerFag.generator.nextInt(reachableForFox.size());
-            foxDst.row = reachableForFox.get(dirId).row;
-            foxDst.col = reachableForFox.get(dirId).col;
+        return engine.getPvMove(1);
+    }
+
+    /**
+     * AI algorithms #10 and #11, for both teams.
+     * @param fagBoard A ref. to the board.
+     * @param team     The team of the computer (FOX_TEAM or GEESE_TEAM).
+     * @param level    The level of the AI (see getPlayoutPolicy).
+     * @param actions  A ref. to the action list to be executed after this AI.
+     *
+     * @Note: A Monte Carlo tree search (see MctsSearch) plays games from the
+     *  position until the thinking time is spent (see getMctsLimits), with
+     *  random moves (#10) or with the moves of FoxAi0 and GeeseAi1 (#11), and
+     *  plays the move which was tried the most. The tree is kept for the next
+     *  move of the team. In the endgame, the move is read from the tablebases.
+     */
+    void MctsAi(FagBoard fagBoard, int team, int level, ActionList actions) {
+        final boolean DEBUG = true;
+        String methodName = "[" + new Throwable().getStackTrace()[0].getClassName() + "." +
+                new Throwable().getStackTrace()[0].getMethodName() + "()] ";
+
+        FagBitboard  position  = fagBoard.toBitboard(team);
+        Tablebase    tablebase = getTablebase();
+        SearchResult result    = (tablebase != null) ? tablebase.getBestMove(position) : null;
+        if (result != null) {
+            if (DEBUG) System.out.println(methodName + "Tablebase: " + result);
+        } else {
+            MctsSearch engine = getMctsEngine(team, getPlayoutPolicy(level));
+            result = engine.search(position, getMctsLimits());
+            if (DEBUG) System.out.println(methodName + "Search (" + getMctsLimits() + "): " + result);
+            if (DEBUG) System.out.println(methodName + engine);
         }
 
-        FagPawn foxPawnElement = (FagPawn) fagBoard.getElement(foxSrc.row, foxSrc.col);
-        createMoveAction(fagBoard, foxDst.row, foxDst.col, foxPawnElement, actions);
+        if (!result.hasMove()) {
+            System.out.println("WARNING: The search did not find any move!");
+            return;
+        }
+        createSearchActions(fagBoard, result, actions);
+    }
 
-        // Remove eaten geese from the board
-        List<GameElement> geese = fagBoard.getTakenPawns(foxPawnElement, foxDst.row, foxDst.col);
-        ListIterator<GameElement> gooseItor = geese.listIterator();
-        while (gooseItor.hasNext()) {
-            GameElement p = gooseItor.next();
-            if (DEBUG) System.out.println(methodName + "Must remove goose:" + p);
-            actions.addSingleAction(new RemoveAction(model, p));
+    /**
+     * Returns the search depth of the AI levels #2 and above (2 plies per level).
+     * @param level The level of the AI.
+     */
+    static int getSearchDepth(int level) {
+        return 2 * level;
+    }
+
+    /**
+     * Turns the result of a search into a move action, followed by the removal
+     * of the taken geese.
+     * @param fagBoard A ref. to the board.
+     * @param result   The result of a search.
+     * @param actions  A list of actions to perform.
+     */
+    private void createSearchActions(FagBoard fagBoard, SearchResult result, ActionList actions) {
+        createMoveActions(fagBoard, new FagMove(result.getFrom(), result.getTo(), result.getTaken()),
+                          AnimationTypes.MOVELINEARPROP_NAME, 10, actions);
+    }
+
+    /**
+     * Turns a move into a move action, followed by the removal of the taken
+     * geese.
+     * @param fagBoard      A ref. to the board.
+     * @param move          The move.
+     * @param animationName The animation of the move (see createMoveAction).
+     * @param factor        The speed or the duration of the animation.
+     * @param actions       A list of actions to perform.
+     */
+    void createMoveActions(FagBoard fagBoard, FagMove move, String animationName, double factor, ActionList actions) {
+        GameElement pawn = fagBoard.getElement(FagBitboard.getRow(move.getFrom()), FagBitboard.getCol(move.getFrom()));
+        createMoveAction(fagBoard, FagBitboard.getRow(move.getTo()), FagBitboard.getCol(move.getTo()), pawn,
+                         animationName, factor, actions);
+
+        for (long m = move.getTaken(); m != 0; m &= m - 1) {
+            int goose = Long.numberOfTrailingZeros(m);
+            actions.addSingleAction(new RemoveAction(model, fagBoard.getElement(FagBitboard.getRow(goose), FagBitboard.getCol(goose))));
+        }
+    }
+
+    /**
+     * Retrieves the strength of an AI from the name of the computer player.
+     * @param name The name of the player (i.e. "Ai-0", "Ai-1", ...).
+     * @return The level of the AI, or -1 if the name does not contain any.
+     */
+    static int getAiLevel(String name) {
+        int index = name.indexOf("Ai-");
+        if (index < 0) return -1;
+        try {
+            return Integer.parseInt(name.substring(index + 3).trim());
+        }
+        catch (NumberFormatException e) {
+            return -1;
         }
     }
 
@@ -355,11 +905,22 @@ public class FagDecider extends Decider {
      * @param actions  A list of actions to perform.
      */
     private void createMoveAction(FagBoard fagBoard, int rowDest, int colDest, GameElement pawn, ActionList actions) {
+        createMoveAction(fagBoard, rowDest, colDest, pawn, AnimationTypes.MOVELINEARPROP_NAME, 10, actions);
+    }
+
+    /**
+     * Generate a game action that moves an item in a FagBoard grid, with a
+     *  given animation (MOVETELEPORT_NAME to move it at once).
+     * @param animationName The name of the animation (see AnimationTypes).
+     * @param factor        The speed of a linear movement in pixels per frame, or its duration in ms.
+     */
+    private void createMoveAction(FagBoard fagBoard, int rowDest, int colDest, GameElement pawn, String animationName,
+                                  double factor, ActionList actions) {
         // Get the dest. cell center in space.
         GridLook look = (GridLook) control.getElementLook(fagBoard);
         Point2D center = look.getRootPaneLocationForCellCenter(rowDest, colDest);
         // Create the move action
-        GameAction move = new MoveAction(model, pawn, boardName, rowDest, colDest, AnimationTypes.MOVELINEARPROP_NAME, center.getX(), center.getY(), 10);
+        GameAction move = new MoveAction(model, pawn, boardName, rowDest, colDest, animationName, center.getX(), center.getY(), factor);
         actions.addSingleAction(move);
     }
 
@@ -378,20 +939,29 @@ public class FagDecider extends Decider {
         // Create action list. After the last action, it is next player's turn.
         ActionList actions = new ActionList(true);
 
+        int level = getAiLevel(name);
         if (team.equals("Fox")) {
-            if(name.contains("Ai-0")) {
+            if (level == 0) {
                 FoxAi0(board, actions);
-            } else if(name.contains("Ai-1")) {
+            } else if (level == 1) {
                 FoxAi1(board, actions);
+            } else if (isMctsLevel(level)) {
+                MctsAi(board, FagBoard.FOX_TEAM, level, actions);
+            } else if (level >= 2) {
+                SearchAi(board, FagBoard.FOX_TEAM, getSearchLimits(level), actions);
             } else {
                 System.out.println("WARNING: This AI method (" + name + ") is not yet implemented!");
                 System.exit(1);
             }
         } else {  // team.equals("Geese")
-            if (name.contains("Ai-0")) {
+            if (level == 0) {
                 GeeseAi0(board, actions);
-            } else if(name.contains("Ai-1")) {
+            } else if (level == 1) {
                 GeeseAi1(board, actions);
+            } else if (isMctsLevel(level)) {
+                MctsAi(board, FagBoard.GEESE_TEAM, level, actions);
+            } else if (level >= 2) {
+                SearchAi(board, FagBoard.GEESE_TEAM, getSearchLimits(level), actions);
             } else {
                 System.out.println("WARNING: This AI method (" + name + ") is not yet implemented!");
                 System.exit(1);
@@ -0,0 +1,63 @@
+package control;
+
+import ai.record.GameReplay;
+import gamifier.control.Controller;
+import gamifier.model.Model;
+import gamifier.model.action.ActionList;
+import gamifier.model.animation.AnimationTypes;
+import model.FagStageModel;
+import model.rules.FagMove;
+
+/**
+ * Plays a ply of a recorded game on the board (see ControllerFag.setReplay).
+ *
+ * <p>
+ * The plies before the first shown ply are played at once, without any
+ * animation. The others take the time of a ply: half of it to wait, and the
+ * other half to move the pawn.
+ * </p>
+ */
+public class ReplayDecider extends FagDecider {
+
+    private final GameReplay replay;
+    private final int        ply;
+    private final boolean    shown;
+    private final long       plyTime;
+
+    /**
+     * Basic constructor.
+     * @param model   A ref. to the global model.
+     * @param control A ref. to the global controller.
+     * @param replay  The replayed game.
+     * @param ply     The ply to play.
+     * @param shown   Whether the ply is animated.
+     * @param plyTime The time of an animated ply (in ms).
+     */
+    public ReplayDecider(Model model, Controller control, GameReplay replay, int ply, boolean shown, long plyTime) {
+        super(model, control);
+        this.replay = replay;
+        this.ply = ply;
+        this.shown = shown;
+        this.plyTime = plyTime;
+    }
+
+    @Override
+    public ActionList decide() {
+        FagStageModel stage = (FagStageModel) model.getGameStage();
+        FagMove move = replay.getMove(ply);
+        ActionList actions = new ActionList(true);
+        if (shown) {
+            System.out.println("REPLAY: ply " + ply + " " + move);
+            try {
+                Thread.sleep(plyTime / 2);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            createMoveActions(stage.getBoard(), move, AnimationTypes.MOVELINEARCST_NAME, plyTime / 2.0, actions);
+        } else {
+            createMoveActions(stage.getBoard(), move, AnimationTypes.MOVETELEPORT_NAME, 0, actions);
+        }
+        return actions;
+    }
+}
@@ -2,6 +2,7 @@ package gamifier.control;
 
 import gamifier.model.*;
 import gamifier.model.animation.Animation;
+import gamifier.model.action.ActionCallback;
 import gamifier.model.action.ActionList;
 import gamifier.model.action.GameAction;
 import gamifier.view.View;
@@ -17,6 +18,8 @@ public class ActionPlayer extends Thread {
     protected Decider decider;
     protected ActionList actions;
     protected ActionList preActions;
+    // called once all the actions are played, before passing to the next player
+    protected ActionCallback onPlayedCallback;
 
     public ActionPlayer(Model model, View view, Controller control, ActionList actions) {
         this.model = model;
@@ -25,6 +28,7 @@ public class ActionPlayer extends Thread {
         this.actions = actions;
         this.decider = null;
         this.preActions = null;
+        this.onPlayedCallback = () -> {};
     }
 
     public ActionPlayer(Model model, View view, Controller control, Decider decider, ActionList preActions) {
@@ -34,6 +38,11 @@ public class ActionPlayer extends Thread {
         this.actions = null;
         this.decider = decider;
         this.preActions = preActions;
+        this.onPlayedCallback = () -> {};
+    }
+
+    public void onActionsPlayed(ActionCallback callback) {
+        onPlayedCallback = callback;
     }
 
     public void run() {
@@ -49,6 +58,7 @@ public class ActionPlayer extends Thread {
         }
 
         playActions(actions);
+        onPlayedCallback.execute();
 
         model.setCaptureEvents(true);
 
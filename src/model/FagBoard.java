@@ -4,6 +4,11 @@ import gamifier.model.GameElement;
 import gamifier.model.GameStageModel;
 import gamifier.model.GridElement;
 import javafx.geometry.Point2D;
+import model.rules.FagBitboard;
+import model.rules.FagCaptures;
+import model.rules.FagRules;
+import model.rules.FagTopology;
+import model.rules.FagZobrist;
 
 import java.awt.Point;
 import java.util.*;
@@ -18,16 +23,21 @@ import static java.lang.Integer.MAX_VALUE;
  * Note: In Gamifier, each game element (pawns, boards, texts, buttons, ...)
  * must be represented by a subclass of GameElement.
  * </p>
+ * <p>
+ * Note: The board only holds the pawns which are displayed. The moves are
+ * computed by the rules of the game (see model.rules.FagRules) on a bitboard
+ * copy of the board (see toBitboard).
+ * </p>
  */
 public class FagBoard extends GridElement {
 
     public final static String boardName = "board";
-    public final static int    GRID_SIZE = 7;
-    public final static int    BOARD_CELLS = (GRID_SIZE*GRID_SIZE)-16; // 33
-    public final static int    GEESE_COUNT = (GRID_SIZE*2)-1; // 13
+    public final static int    GRID_SIZE = FagTopology.GRID_SIZE; // 7
+    public final static int    BOARD_CELLS = FagTopology.POINTS; // 33
+    public final static int    GEESE_COUNT = FagTopology.GEESE_COUNT; // 13
 
-    public static final int    FOX_TEAM   = 0;
-    public static final int    GEESE_TEAM = 1;
+    public static final int    FOX_TEAM   = FagRules.FOX_TEAM;
+    public static final int    GEESE_TEAM = FagRules.GEESE_TEAM;
 
     /**
      * A cell representing a grid location in (row, column) coordinates.
@@ -121,261 +131,6 @@ public class FagBoard extends GridElement {
         }
     }
 
-    // A class to store the edges of the Fag graph
-    class Edge {
-        Cell src, dst;
-        Edge(Cell src, Cell dst) {
-            this.src = src;
-            this.dst = dst;
-        }
-    }
-
-    /**
-     * A graph to store the possible movements (i.e. the network connectivity)
-     * in between the cells of the cross shaped board of the Fox&Geese game.
-     */
-    public class Graph {
-        final private int nrVertices = GRID_SIZE*GRID_SIZE;
-        private int nrEdges;
-
-        // Define adjacency list as list of cells
-        public List<List<Cell>> adjList = new ArrayList<>();
-        // Graph Constructor
-        public Graph(List<Edge> edges) {
-            nrEdges = edges.size();
-            // Adjacency list memory allocation
-            // Note: We allocate one adjacent list per cell of the grid in order
-            //  to be able to access the list with a linear index.
-            for (int i = 0; i < GRID_SIZE*GRID_SIZE; i++)
-                adjList.add(i, new ArrayList<>());
-            // Add edges to the graph
-            for (Edge e : edges) {
-                // Allocate a new cell in adjacency list from src to dst
-                int linearId = e.src.getRow()*GRID_SIZE+e.src.getCol();
-                adjList.get(linearId).add(new Cell(e.dst));
-            }
-        }
-
-        /***
-         * Returns the total number of edges in the graph.
-         */
-        public int getNrEdges() {
-            return nrEdges;
-        }
-        /***
-         * Returns the total number of vertices in the graph.
-         */
-        public int getNrVertices() {
-            return nrVertices;
-        }
-
-        /**
-         * Returns the numbers of edges connected to a vertex (i.e. a Cell).
-         * @param cell The cell of interest.
-         */
-        public int getNrEdges(Cell cell) {
-            int linearId = cell.row*GRID_SIZE + cell.col;
-            return graph.adjList.get(linearId).size();
-        }
-        /**
-         * Returns the vertices connected to a given Cell.
-         * @param cell The Cell of interest.
-         * @return A list of Cells.
-         */
-        public List<Cell> getAdjList(Cell cell) {
-            int linearId = cell.row*GRID_SIZE + cell.col;
-            return graph.adjList.get(linearId);
-        }
-    }
-
-    // Define edges of the graph
-    List<Edge> edges = Arrays.asList(
-            // ROW-0 | COL-2
-            new Edge(new Cell(0,2), new Cell(0,3)),
-            new Edge(new Cell(0,2), new Cell(1,2)),
-            new Edge(new Cell(0,2), new Cell(1,3)),
-            // ROW-0 | COL-3
-            new Edge(new Cell(0,3), new Cell(0,2)),
-            new Edge(new Cell(0,3), new Cell(0,4)),
-            new Edge(new Cell(0,3), new Cell(1,3)),
-            // ROW-0 | COL-4
-            new Edge(new Cell(0,4), new Cell(0,3)),
-            new Edge(new Cell(0,4), new Cell(1,3)),
-            new Edge(new Cell(0,4), new Cell(1,4)),
-            // ROW-1 | COL-2
-            new Edge(new Cell(1,2), new Cell(0,2)),
-            new Edge(new Cell(1,2), new Cell(1,3)),
-            new Edge(new Cell(1,2), new Cell(2,2)),
-            // ROW-1 | COL-3
-            new Edge(new Cell(1,3), new Cell(0,2)),
-            new Edge(new Cell(1,3), new Cell(0,3)),
-            new Edge(new Cell(1,3), new Cell(0,4)),
-            new Edge(new Cell(1,3), new Cell(1,2)),
-            new Edge(new Cell(1,3), new Cell(1,4)),
-            new Edge(new Cell(1,3), new Cell(2,2)),
-            new Edge(new Cell(1,3), new Cell(2,3)),
-            new Edge(new Cell(1,3), new Cell(2,4)),
-            // ROW-1 | COL-4
-            new Edge(new Cell(1,4), new Cell(0,4)),
-            new Edge(new Cell(1,4), new Cell(1,3)),
-            new Edge(new Cell(1,4), new Cell(2,4)),
-            // ROW-2 | COL-0
-            new Edge(new Cell(2,0), new Cell(2,1)),
-            new Edge(new Cell(2,0), new Cell(3,0)),
-            new Edge(new Cell(2,0), new Cell(3,1)),
-            // ROW-2 | COL-1
-            new Edge(new Cell(2,1), new Cell(2,0)),
-            new Edge(new Cell(2,1), new Cell(2,2)),
-            new Edge(new Cell(2,1), new Cell(3,1)),
-            // ROW-2 | COL-2
-            new Edge(new Cell(2,2), new Cell(1,2)),
-            new Edge(new Cell(2,2), new Cell(1,3)),
-            new Edge(new Cell(2,2), new Cell(2,1)),
-            new Edge(new Cell(2,2), new Cell(2,3)),
-            new Edge(new Cell(2,2), new Cell(3,1)),
-            new Edge(new Cell(2,2), new Cell(3,2)),
-            new Edge(new Cell(2,2), new Cell(3,3)),
-            // ROW-2 | COL-3
-            new Edge(new Cell(2,3), new Cell(1,3)),
-            new Edge(new Cell(2,3), new Cell(2,2)),
-            new Edge(new Cell(2,3), new Cell(2,4)),
-            new Edge(new Cell(2,3), new Cell(3,3)),
-            // ROW-2 | COL-4
-            new Edge(new Cell(2,4), new Cell(1,3)),
-            new Edge(new Cell(2,4), new Cell(1,4)),
-            new Edge(new Cell(2,4), new Cell(2,3)),
-            new Edge(new Cell(2,4), new Cell(2,5)),
-            new Edge(new Cell(2,4), new Cell(3,3)),
-            new Edge(new Cell(2,4), new Cell(3,4)),
-            new Edge(new Cell(2,4), new Cell(3,5)),
-            // ROW-2 | COL-5
-            new Edge(new Cell(2,5), new Cell(2,4)),
-            new Edge(new Cell(2,5), new Cell(2,6)),
-            new Edge(new Cell(2,5), new Cell(3,5)),
-            // ROW-2 | COL-6
-            new Edge(new Cell(2,6), new Cell(2,5)),
-            new Edge(new Cell(2,6), new Cell(3,5)),
-            new Edge(new Cell(2,6), new Cell(3,6)),
-            // ROW-3 | COL-0
-            new Edge(new Cell(3,0), new Cell(2,0)),
-            new Edge(new Cell(3,0), new Cell(3,1)),
-            new Edge(new Cell(3,0), new Cell(4,0)),
-            // ROW-3 | COL-1
-            new Edge(new Cell(3,1), new Cell(2,0)),
-            new Edge(new Cell(3,1), new Cell(2,1)),
-            new Edge(new Cell(3,1), new Cell(2,2)),
-            new Edge(new Cell(3,1), new Cell(3,0)),
-            new Edge(new Cell(3,1), new Cell(3,2)),
-            new Edge(new Cell(3,1), new Cell(4,0)),
-            new Edge(new Cell(3,1), new Cell(4,1)),
-            new Edge(new Cell(3,1), new Cell(4,2)),
-            // ROW-3 | COL-2
-            new Edge(new Cell(3,2), new Cell(2,2)),
-            new Edge(new Cell(3,2), new Cell(3,1)),
-            new Edge(new Cell(3,2), new Cell(3,3)),
-            new Edge(new Cell(3,2), new Cell(4,2)),
-            // ROW-3 | COL-3
-            new Edge(new Cell(3,3), new Cell(2,2)),
-            new Edge(new Cell(3,3), new Cell(2,3)),
-            new Edge(new Cell(3,3), new Cell(2,4)),
-            new Edge(new Cell(3,3), new Cell(3,2)),
-            new Edge(new Cell(3,3), new Cell(3,4)),
-            new Edge(new Cell(3,3), new Cell(4,2)),
-            new Edge(new Cell(3,3), new Cell(4,3)),
-            new Edge(new Cell(3,3), new Cell(4,4)),
-            // ROW-3 | COL-4
-            new Edge(new Cell(3,4), new Cell(2,4)),
-            new Edge(new Cell(3,4), new Cell(3,3)),
-            new Edge(new Cell(3,4), new Cell(3,5)),
-            new Edge(new Cell(3,4), new Cell(4,4)),
-            // ROW-3 | COL-5
-            new Edge(new Cell(3,5), new Cell(2,4)),
-            new Edge(new Cell(3,5), new Cell(2,5)),
-            new Edge(new Cell(3,5), new Cell(2,6)),
-            new Edge(new Cell(3,5), new Cell(3,4)),
-            new Edge(new Cell(3,5), new Cell(3,6)),
-            new Edge(new Cell(3,5), new Cell(4,4)),
-            new Edge(new Cell(3,5), new Cell(4,5)),
-            new Edge(new Cell(3,5), new Cell(4,6)),
-            // ROW-3 | COL-6
-            new Edge(new Cell(3,6), new Cell(2,6)),
-            new Edge(new Cell(3,6), new Cell(3,5)),
-            new Edge(new Cell(3,6), new Cell(4,6)),
-            // ROW-4 | COL-0
-            new Edge(new Cell(4,0), new Cell(3,0)),
-            new Edge(new Cell(4,0), new Cell(3,1)),
-            new Edge(new Cell(4,0), new Cell(4,1)),
-            // ROW-4 | COL-1
-            new Edge(new Cell(4,1), new Cell(3,1)),
-            new Edge(new Cell(4,1), new Cell(4,0)),
-            new Edge(new Cell(4,1), new Cell(4,2)),
-            // ROW-4 | COL-2
-            new Edge(new Cell(4,2), new Cell(3,1)),
-            new Edge(new Cell(4,2), new Cell(3,2)),
-            new Edge(new Cell(4,2), new Cell(3,3)),
-            new Edge(new Cell(4,2), new Cell(4,1)),
-            new Edge(new Cell(4,2), new Cell(4,3)),
-            new Edge(new Cell(4,2), new Cell(5,2)),
-            new Edge(new Cell(4,2), new Cell(5,3)),
-            // ROW-4 | COL-3
-            new Edge(new Cell(4,3), new Cell(3,3)),
-            new Edge(new Cell(4,3), new Cell(4,2)),
-            new Edge(new Cell(4,3), new Cell(4,4)),
-            new Edge(new Cell(4,3), new Cell(5,3)),
-            // ROW-4 | COL-4
-            new Edge(new Cell(4,4), new Cell(3,3)),
-            new Edge(new Cell(4,4), new Cell(3,4)),
-            new Edge(new Cell(4,4), new Cell(3,5)),
-            new Edge(new Cell(4,4), new Cell(4,3)),
-            new Edge(new Cell(4,4), new Cell(4,5)),
-            new Edge(new Cell(4,4), new Cell(5,3)),
-            new Edge(new Cell(4,4), new Cell(5,4)),
-            // ROW-4 | COL-5
-            new Edge(new Cell(4,5), new Cell(3,5)),
-            new Edge(new Cell(4,5), new Cell(4,4)),
-            new Edge(new Cell(4,5), new Cell(4,6)),
-            // ROW-4 | COL-6
-            new Edge(new Cell(4,6), new Cell(3,5)),
-            new Edge(new Cell(4,6), new Cell(3,6)),
-            new Edge(new Cell(4,6), new Cell(4,5)),
-            // ROW-5 | COL-2
-            new Edge(new Cell(5,2), new Cell(4,2)),
-            new Edge(new Cell(5,2), new Cell(5,3)),
-            new Edge(new Cell(5,2), new Cell(6,2)),
-            // ROW-5 | COL-3
-            new Edge(new Cell(5,3), new Cell(4,2)),
-            new Edge(new Cell(5,3), new Cell(4,3)),
-            new Edge(new Cell(5,3), new Cell(4,4)),
-            new Edge(new Cell(5,3), new Cell(5,2)),
-            new Edge(new Cell(5,3), new Cell(5,4)),
-            new Edge(new Cell(5,3), new Cell(6,2)),
-            new Edge(new Cell(5,3), new Cell(6,3)),
-            new Edge(new Cell(5,3), new Cell(6,4)),
-            // ROW-5 | COL-4
-            new Edge(new Cell(5,4), new Cell(4,4)),
-            new Edge(new Cell(5,4), new Cell(5,3)),
-            new Edge(new Cell(5,4), new Cell(6,4)),
-            // ROW-6 | COL-2
-            new Edge(new Cell(6,2), new Cell(5,2)),
-            new Edge(new Cell(6,2), new Cell(5,3)),
-            new Edge(new Cell(6,2), new Cell(6,3)),
-            // ROW-6 | COL-3
-            new Edge(new Cell(6,3), new Cell(5,3)),
-            new Edge(new Cell(6,3), new Cell(6,2)),
-            new Edge(new Cell(6,3), new Cell(6,4)),
-            // ROW-6 | COL-4
-            new Edge(new Cell(6,4), new Cell(5,3)),
-            new Edge(new Cell(6,4), new Cell(5,4)),
-            new Edge(new Cell(6,4), new Cell(6,3))
-    );
-
-    public Graph getGraph() {
-        return graph;
-   }
-
-    // A graph of to keep track of the allowed movements on the board
-    private Graph graph;
-
     /**
      * Basic constructor.
      * <p>
@@ -388,8 +143,61 @@ public class FagBoard extends GridElement {
         // Create a grid-element for the FoxAndGeese board-game
         super(boardName, x, y, GRID_SIZE, GRID_SIZE, gameStageModel);
         resetReachableCells(false);
-        // Instantiate and construct the graph of allowed movements
-        this.graph = new Graph(edges);
+    }
+
+    /**********************************************
+     * ZOBRIST KEY
+     *  NB: The key of the pawns is updated incrementally each time a pawn is
+     *  put, moved or removed from the board.
+     **********************************************/
+    private long pawnsKey = 0L;
+
+    /**
+     * Returns the Zobrist key of the current position (see FagZobrist).
+     * @param teamToMove The team which plays next (FOX_TEAM or GEESE_TEAM).
+     */
+    public long getZobristKey(int teamToMove) {
+        return (teamToMove == FOX_TEAM) ? pawnsKey ^ FagZobrist.FOX_TO_MOVE_KEY : pawnsKey;
+    }
+
+    // The key of a pawn located at [row,col] (0 for the fake pawns)
+    private long getPawnKey(GameElement element, int row, int col) {
+        int point = FagBitboard.getPoint(row, col);
+        if (!(element instanceof FagPawn) || (point == FagBitboard.NO_POINT)) return 0L;
+        FagPawn pawn = (FagPawn) element;
+        if (pawn.isFox())   return FagZobrist.getFoxKey(point);
+        if (pawn.isGoose()) return FagZobrist.getGooseKey(point);
+        return 0L;
+    }
+
+    @Override
+    public void putElement(GameElement element, int row, int col) {
+        super.putElement(element, row, col);
+        pawnsKey ^= getPawnKey(element, row, col);
+    }
+
+    @Override
+    public void moveElement(GameElement element, int rowDest, int colDest) {
+        int[] src = getElementCell(element);
+        super.moveElement(element, rowDest, colDest);
+        if (src != null) {
+            pawnsKey ^= getPawnKey(element, src[0], src[1]) ^ getPawnKey(element, rowDest, colDest);
+        }
+    }
+
+    @Override
+    public void removeElement(GameElement element) {
+        int[] cell = getElementCell(element);
+        super.removeElement(element);
+        if (cell != null) {
+            pawnsKey ^= getPawnKey(element, cell[0], cell[1]);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        pawnsKey = 0L;
     }
 
     /**
@@ -427,6 +235,94 @@ public class FagBoard extends GridElement {
         return locations;
     }
 
+    /**
+     * Converts the pawns of this board into a compact bitboard.
+     * @param teamToMove The team which plays next (FOX_TEAM or GEESE_TEAM).
+     * @return A new bitboard position.
+     */
+    public FagBitboard toBitboard(int teamToMove) {
+        long geese = 0L;
+        int  fox   = FagBitboard.NO_POINT;
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            FagPawn pawn = (FagPawn) getElement(FagBitboard.getRow(p), FagBitboard.getCol(p));
+            if (pawn == null) continue;
+            if (pawn.isFox()) {
+                fox = p;
+            } else if (pawn.isGoose()) {
+                geese |= FagBitboard.bit(p);
+            }
+        }
+        return new FagBitboard(geese, fox, teamToMove == FOX_TEAM);
+    }
+
+    /**
+     * Moves the pawns of this board so that they match a bitboard position.
+     * The geese in excess are removed from the board.
+     * @param position The position to apply.
+     *
+     * @note: Geese cannot be added to the board, so the position must not
+     *  have more geese than the board.
+     */
+    public void applyBitboard(FagBitboard position) {
+        List<GameElement> misplacedGeese = new ArrayList<>();
+        GameElement       foxElement = null;
+        long              freeTargets = position.getGeese();
+
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            FagPawn pawn = (FagPawn) getElement(FagBitboard.getRow(p), FagBitboard.getCol(p));
+            if (pawn == null) continue;
+            if (pawn.isFox()) {
+                foxElement = pawn;
+            } else if (pawn.isGoose()) {
+                if (position.isGooseAt(p)) {
+                    freeTargets &= ~FagBitboard.bit(p);
+                } else {
+                    misplacedGeese.add(pawn);
+                }
+            }
+        }
+        if (Long.bitCount(freeTargets) > misplacedGeese.size()) {
+            System.out.println("ERROR - The position has more geese than the board.");
+        }
+        for (GameElement goose : misplacedGeese) {
+            if (freeTargets != 0) {
+                int p = Long.numberOfTrailingZeros(freeTargets);
+                freeTargets &= freeTargets - 1;
+                moveElement(goose, FagBitboard.getRow(p), FagBitboard.getCol(p));
+            } else {
+                removeElement(goose);
+            }
+        }
+        if ((foxElement != null) && (position.getFox() != FagBitboard.NO_POINT)) {
+            moveElement(foxElement, FagBitboard.getRow(position.getFox()), FagBitboard.getCol(position.getFox()));
+        }
+    }
+
+    /**
+     * Returns the cell of a point of the bitboards (see FagBitboard).
+     */
+    public static Cell getCell(int point) {
+        return new Cell(FagBitboard.getRow(point), FagBitboard.getCol(point));
+    }
+
+    /**
+     * Returns the point of the bitboards of a cell (NO_POINT if not playable).
+     */
+    public static int getPoint(Cell cell) {
+        return FagBitboard.getPoint(cell.row, cell.col);
+    }
+
+    /**
+     * Turns a mask of points into a list of cells.
+     */
+    public static List<Cell> getCells(long mask) {
+        List<Cell> cells = new ArrayList<>(Long.bitCount(mask));
+        for (long m = mask; m != 0; m &= m - 1) {
+            cells.add(getCell(Long.numberOfTrailingZeros(m)));
+        }
+        return cells;
+    }
+
     /**
      * Updates the 2D array of booleans which flags the cells that are reachable
      * by a pawn whose grid coordinates are 'row' and 'col'.
@@ -471,28 +367,14 @@ public class FagBoard extends GridElement {
      * @return A list of reachable cells.
      */
     private List<Cell> reachableForGoose(int row, int col) {
-        List<Cell> list = new ArrayList<>();
-
         FagPawn pawn = (FagPawn) getElement(row,col);
         if (!pawn.isGoose()) {
             // TODO
             System.out.println("ERROR - Cell[" + row + "," + col + "] does not contain a goose.");
             return null;
         }
-
-        // Move South
-        if((row < GRID_SIZE-1) && (isEmptyAt(row+1, col))) {
-            list.add(new Cell(row+1, col));
-        }
-        // Move East
-        if((col < GRID_SIZE-1) && (isEmptyAt(row, col+1))) {
-            list.add(new Cell(row, col+1));
-        }
-        // Move West
-        if((col > 0) && (isEmptyAt(row, col-1))) {
-            list.add(new Cell(row, col-1));
-        }
-        return list;
+        FagBitboard position = toBitboard(GEESE_TEAM);
+        return getCells(FagRules.getReachable(position, FagBitboard.getPoint(row, col)));
     }
 
     /**
@@ -509,28 +391,13 @@ public class FagBoard extends GridElement {
      * @param row The row number of the Fox pawn.
      * @param col The col number of the Fox pawn.
      * @return A list of reachable cells.
+     *
+     * @note: The end of the game (i.e. a trapped fox) is detected by the
+     *  stage model (see FagStageModel).
      */
     public List<Cell> reachableForFox(int row, int col) {
-        List<Cell> reachableCells   = new ArrayList<>();
-        Cell       fox              = new Cell(row, col);
-        List<Cell> adjFoxNodes      = graph.getAdjList(fox);
-        boolean    visitedNodes[][] = new boolean[GRID_SIZE][GRID_SIZE];
-
-        // Always mark the Fox as a visited node
-        visitedNodes[fox.row][fox.col] = true;
-
-        for (int j=0; j<adjFoxNodes.size(); j++) {
-            Cell neighborCell = adjFoxNodes.get(j);
-            if (isEmptyAt(neighborCell.row, neighborCell.col)) {
-                // Search empty neighbor cells
-                reachableCells.add(neighborCell);
-            }
-            else {
-                // Search for cells reachable by jumps
-                List<Cell> jumptoCells = reachableForJump(fox, visitedNodes);
-                reachableCells.addAll(jumptoCells);
-            }
-        }
+        FagBitboard position = getFoxPosition(new Cell(row, col));
+        List<Cell>  reachableCells = getCells(position.reachableForFox());
 
         boolean DEBUG_TRACE=true;
         if (DEBUG_TRACE) {
@@ -547,102 +414,22 @@ public class FagBoard extends GridElement {
                 System.out.println("");
             }
         }
-
-        // Game is over if Fox cannot move anymore
-        if (reachableCells.isEmpty()) {
-            // Set the winner
-            this.getModel().setIdWinner(GEESE_TEAM);
-            // Stop de the game
-            this.getModel().stopGame();
-        }
         return reachableCells;
     }
 
     /**
-     * Compute the cells which are reachable from a fox pawn.
-     * @param fox The cell coordinates of the fox pawn.
-     * @return A list of reachable cells.
-     */
-    private List<Cell> reachableForFox(Cell fox) {
-        return (reachableForFox(fox.row, fox.col));
-    }
-
-    /**
-     * Traverse the graph and retrieve the list of cells that can be reached by
-     * the Fox while jumping over Geese.
-     * @param fox     The coordinates of the Fox.
-     * @param visited The nodes that were already visited.
+     * Retrieve the list of cells that can be reached by the Fox while jumping
+     * over Geese.
+     * @param fox The coordinates of the Fox.
      * @return A list of Cells.
-     *
-     * @note: This method implements a Breadth-first-search (BFS) traversal
-     *  technique that begins with the Goose as root node.
      */
-    public List<Cell> reachableForJump(Cell fox, boolean visited[][]) {
-        List<Cell>  adjFoxNodes    = graph.getAdjList(fox);
-        List<Cell>  reachableCells = new ArrayList<>();
-        Queue<Cell> nodesQueue     = new LinkedList<Cell>(); // BFS queue
-
-        // Search for cells reachable by jumps
-        for (int f=0; f<adjFoxNodes.size(); f++) {
-            Cell neighborFoxCell = adjFoxNodes.get(f);
-            if (!isEmptyAt(neighborFoxCell.row, neighborFoxCell.col) &&
-                 (!visited[neighborFoxCell.row][neighborFoxCell.col])) {
-                FagPawn pawn = (FagPawn) this.getElement(neighborFoxCell.row, neighborFoxCell.col);
-                if (pawn.isGoose()) {
-                    // Always insert root node into BFS queue because node is being visited
-                    nodesQueue.add(neighborFoxCell);
-                    visited[neighborFoxCell.row][neighborFoxCell.col] = true;
-
-                    while (nodesQueue.size() != 0) {
-                        // Deque head entry from queue and process it
-                        Cell goose = nodesQueue.poll();
-                        // System.out.println("RootGeeseNode = " + goose.toString());
-
-                        // Get all adjacent nodes of the current Geese and process them
-                        List<Cell> adjGooseNodes = graph.getAdjList(goose);
-
-                        for (int g = 0; g < adjGooseNodes.size(); g++) {
-                            Cell neighborGooseCell = adjGooseNodes.get(g);
-                            if (isEmptyAt(neighborGooseCell.row, neighborGooseCell.col)) {
-                                if (areAdjacent(fox, goose, neighborGooseCell)) {
-                                    // A jump over the Goose is possible for the Fox
-                                    reachableCells.add(neighborGooseCell);
-                                    // System.out.println("\tAdd reachable for jump = " + neighborGooseCell.toString());
-                                    // Take the jump and update visited
-                                    Cell nextFox = new Cell(neighborGooseCell);
-                                    visited[goose.row][goose.col] = true;
-                                    // Continue searching by recurrence
-                                    List<Cell> jumptoCells = reachableForJump(nextFox, visited);
-                                    reachableCells.addAll(jumptoCells);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return reachableCells;
+    public List<Cell> reachableForJump(Cell fox) {
+        return getCells(getFoxPosition(fox).reachableForJump());
     }
 
-    /**
-     * Check if three cells are aligned and adjacent in a row, a column or a diagonal.
-     * @param c1 The first cell
-     * @param c2 The second cell
-     * @param c3 The third cell
-     * @return True if adjacent.
-     */
-    public boolean areAdjacent(Cell c1, Cell c2, Cell c3) {
-        if ((manhattanDistance(c1,c2) == 1) && (manhattanDistance(c2,c3) == 1) &&
-                (euclideanDistance(c1,c3) == 2.0) ) {
-            // HORIZONTALLY or VERTICALLY aligned
-            return true;
-        }
-        else if ((euclideanDistance(c1,c2) < 2.0) && (euclideanDistance(c2,c3) < 2.0) &&
-                (manhattanDistance(c1,c3) == 4)) {
-            // DIAGONALLY aligned
-            return true;
-        }
-        return false;
+    // The bitboard of this board, with the fox at a given cell and to move
+    private FagBitboard getFoxPosition(Cell fox) {
+        return new FagBitboard(toBitboard(FOX_TEAM).getGeese(), getPoint(fox), true);
     }
 
     /**
@@ -695,21 +482,8 @@ public class FagBoard extends GridElement {
      * @return A list of cells containing movable Geese.
      */
     public List<FagBoard.Cell> getMovableGeese() {
-        List<FagBoard.Cell> movableGeese = new ArrayList<>();
-        for (int row = 0; row < GRID_SIZE; row++) {
-            for (int col = 0; col < GRID_SIZE; col++) {
-                FagPawn boardElement = (FagPawn) this.getElement(row, col);
-                if ((boardElement != null) && (boardElement.isGoose())) {
-                    // Get the reachable cells
-                    List<FagBoard.Cell> reachable = this.computeReachableCells(row, col);
-                    if (reachable.size() != 0) {
-                        FagBoard.Cell cell = new FagBoard.Cell(row, col);
-                        movableGeese.add(cell);
-                    }
-                }
-            }
-        }
-        return movableGeese;
+        FagBitboard position = toBitboard(GEESE_TEAM);
+        return getCells(FagBitboard.movableGeese(position.getGeese(), position.getFox()));
     }
 
     /**
@@ -720,166 +494,41 @@ public class FagBoard extends GridElement {
      * @return A list of eaten Geese.
      */
     public List<GameElement> getTakenPawns(GameElement foxElement, int rowDst, int colDst) {
-        int[]               cell = getElementCell(foxElement);
-        List<Cell>          eatenGeese = new ArrayList<>();
-        List<GameElement>   eatenElements = new ArrayList<>();
-        boolean             visitedNodes[][] = new boolean[GRID_SIZE][GRID_SIZE];
-
-        // Define Fox source and destinations as Cells
-        Cell foxSrc = new Cell(cell[0], cell[1]);
-        Cell foxDst = new Cell(rowDst, colDst);
-
-        // Always mark the Fox as a visited node
-        visitedNodes[foxSrc.row][foxSrc.col] = true;
-
-        eatenGeese = getEatableGeese(foxSrc, foxDst, visitedNodes);
+        int[]             cell = getElementCell(foxElement);
+        List<GameElement> eatenElements = new ArrayList<>();
 
         // Turn Cells into Elements
-        for(int g = 0; g < eatenGeese.size(); g++) {
-            Cell goose = eatenGeese.get(g);
+        for (Cell goose : getEatableGeese(new Cell(cell[0], cell[1]), new Cell(rowDst, colDst))) {
             System.out.println("Eaten Goose = " + goose.toString());
-            eatenElements.add(g, getElement(goose.row, goose.col));
+            eatenElements.add(getElement(goose.row, goose.col));
         }
         return eatenElements;
     }
 
     /**
-     * Traverses the graph and retrieves the list of cells containing a Goose
-     * which can can be eaten by the Fox while jumping over Geese.
+     * Retrieves the list of cells containing a Goose which are eaten by the
+     * Fox while jumping from a cell to another one.
      * @param foxSrc  The initial coordinates of the Fox.
      * @param foxDst  The final coordinates of the Fox.
-     * @param visited The nodes that were already visited.
-     * @return A list of Cells.
+     * @return A list of Cells (empty if the fox does not jump).
      *
-     * @note: This method implements a Depth-first-search (DFS) traversal
-     *  technique that begins with the Fox source location as root node.
+     * @note: When several chains of jumps lead to the destination, the one
+     *  which takes the most geese is chosen (see FagCaptures.find).
      */
-    public List<Cell> getEatableGeese(Cell foxSrc, Cell foxDst, boolean visited[][]) {
-
-        List<Cell> eatenCells = new ArrayList<>();
-
-        Cell       fox = new Cell(foxSrc);
-        List<Cell> adjFoxNodes = graph.getAdjList(fox);
-
-        boolean    done = false;
-
-        final boolean DEBUG = true;
-        String methodName = "[" + new Throwable().getStackTrace()[0].getClassName() + "." +
-                new Throwable().getStackTrace()[0].getMethodName() + "()] ";
-
-        if (DEBUG) System.out.println(methodName + "Current fox position is " + fox);
-
-        for (Cell neighborFoxCell : adjFoxNodes) {
-            // Search for adjacent cells that are reachable by the fox with a jump
-            if (!isEmptyAt(neighborFoxCell.row, neighborFoxCell.col) &&
-               (!visited[neighborFoxCell.row][neighborFoxCell.col])) {
-                FagPawn pawn = (FagPawn) this.getElement(neighborFoxCell.row, neighborFoxCell.col);
-                if (pawn.isGoose()) {
-                    Cell goose = new Cell(neighborFoxCell);
-                    // Get all adjacent goose nodes and process them
-                    List<Cell> adjGooseNodes = graph.getAdjList(goose);
-                    for (int g = 0; g < adjGooseNodes.size(); g++) {
-                        Cell neighborGooseCell = adjGooseNodes.get(g);
-                        if (isEmptyAt(neighborGooseCell.row, neighborGooseCell.col)) {
-                            if (areAdjacent(fox, goose, neighborGooseCell)) {
-                                // A jump over the goose is possible for the fox
-                                // Take the jump, update fox and visited
-                                eatenCells.add(goose);
-                                if (DEBUG) System.out.println(methodName + "\tEaten cells = " + eatenCells);
-                                //OBSOLETE fox.setLocation(neighborGooseCell);
-                                visited[goose.row][goose.col] = true;
-                                if (neighborGooseCell.equals(foxDst)) {
-                                    // Stop condition: When we reach the Fox destination cell
-                                    return eatenCells;
-                                }
-                                else {
-                                    // Continue searching by recurrence
-                                    Cell savedFox = new Cell(fox);
-                                    fox.setLocation(neighborGooseCell);
-                                    List<Cell> tempCells = getEatableGeese(fox, foxDst, visited);
-                                    if (tempCells.isEmpty()) {
-                                        // OBSOLETE eatenCells.clear();
-                                        // Remove last element of the list
-                                        eatenCells.remove(eatenCells.size() - 1);
-                                        if (DEBUG) System.out.println(methodName + "\tClear tmp Geese");
-                                        // Restore previous fox position
-                                        fox.setLocation(savedFox);
-                                        if (DEBUG) System.out.println(methodName + "\tRestore fox position to " + fox);
-                                    } else {
-                                        if (DEBUG) System.out.println(methodName + "\tAdd tmp cells = " + tempCells);
-                                        eatenCells.addAll(tempCells);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return eatenCells;
+    public List<Cell> getEatableGeese(Cell foxSrc, Cell foxDst) {
+        FagCaptures captures = getCaptures(foxSrc);
+        int         chain = captures.find(getPoint(foxDst));
+        return (chain >= 0) ? getCells(captures.getTaken(chain)) : new ArrayList<>();
     }
 
-    /***
-    private findEatableGeese(Cell foxSrc, Cell foxDst, boolean visited[][], List<Cell> eatenCells) {
-
-        Cell       fox = new Cell(foxSrc);
-        List<Cell> adjFoxNodes = graph.getAdjList(fox);
-
-        boolean    done = false;
-
-        final boolean DEBUG = true;
-        String methodName = "[" + new Throwable().getStackTrace()[0].getClassName() + "." +
-                new Throwable().getStackTrace()[0].getMethodName() + "()] ";
-
-        if (DEBUG) System.out.println(methodName + "Current fox position is " + fox);
-
-        for (Cell neighborFoxCell : adjFoxNodes) {
-            // Search for adjacent cells that are reachable by the fox with a jump
-            if (!isEmptyAt(neighborFoxCell.row, neighborFoxCell.col) &&
-                    (!visited[neighborFoxCell.row][neighborFoxCell.col])) {
-                FagPawn pawn = (FagPawn) this.getElement(neighborFoxCell.row, neighborFoxCell.col);
-                if (pawn.isGoose()) {
-                    Cell goose = new Cell(neighborFoxCell);
-                    // Get all adjacent goose nodes and process them
-                    List<Cell> adjGooseNodes = graph.getAdjList(goose);
-                    for (int g = 0; g < adjGooseNodes.size(); g++) {
-                        Cell neighborGooseCell = adjGooseNodes.get(g);
-                        if (isEmptyAt(neighborGooseCell.row, neighborGooseCell.col)) {
-                            if (areAdjacent(fox, goose, neighborGooseCell)) {
-                                // A jump over the goose is possible for the fox
-                                // Take the jump, update fox and visited
-                                eatenCells.add(goose);
-                                if (DEBUG) System.out.println(methodName + "\tEaten cells = " + eatenCells);
-                                //OBSOLETE fox.setLocation(neighborGooseCell);
-                                visited[goose.row][goose.col] = true;
-                                if (neighborGooseCell.equals(foxDst)) {
-                                    // Stop condition: When we reach the Fox destination cell
-                                    return eatenCells;
-                                }
-                                else {
-                                    // Continue searching by recurrence
-                                    Cell savedFox = new Cell(fox);
-                                    fox.setLocation(neighborGooseCell);
-                                    List<Cell> tempCells = getEatableGeese(fox, foxDst, visited);
-                                    if (tempCells.isEmpty()) {
-                                        eatenCells.clear();
-                                        if (DEBUG) System.out.println(methodName + "\tClear tmp Geese");
-                                        // Restore previous fox position
-                                        fox.setLocation(savedFox);
-                                        if (DEBUG) System.out.println(methodName + "\tRestore fox position to " + fox);
-                                    } else {
-                                        if (DEBUG) System.out.println(methodName + "\tAdd tmp cells = " + tempCells);
-                                        eatenCells.addAll(tempCells);
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
+    /**
+     * Generates the chains of jumps of the Fox (see FagCaptures).
+     * @param fox The location of the Fox.
+     * @return The captures, with their landing point and their eaten Geese.
+     */
+    public FagCaptures getCaptures(Cell fox) {
+        return new FagCaptures().generate(toBitboard(FOX_TEAM).getGeese(), getPoint(fox));
     }
-    ***/
 
     /**
      * Retrieve the Geese which are at risk of being eaten by the Fox
@@ -887,23 +536,9 @@ public class FagBoard extends GridElement {
      * @return A list of Cells.
      */
     public List<FagBoard.Cell> getGeeseAtRisk(FagBoard.Cell fox) {
-        List<FagBoard.Cell> geeseAtRisk = new ArrayList<>();
-        List<FagBoard.Cell> reachableForJump = this.reachableForJump(fox, new boolean[GRID_SIZE][GRID_SIZE]);
-        System.out.println("They are " + reachableForJump.size() + " geese at risk");
-
-        for (FagBoard.Cell foxDst : reachableForJump) {
-            FagBoard.Cell foxSrc = new FagBoard.Cell(fox);
-            boolean visited[][] = new boolean[GRID_SIZE][GRID_SIZE];
-            List<FagBoard.Cell> eatableGeese = this.getEatableGeese(foxSrc, foxDst, visited);
-            // Skip duplicates
-            for (FagBoard.Cell goose : eatableGeese) {
-                if (!geeseAtRisk.contains(goose)) {
-                    System.out.println("Found a new goose at risk: " + goose.toString() + " | FoxSrc=" + foxSrc.toString() + " FoxDst=" + foxDst);
-                    geeseAtRisk.add(goose);
-                }
-            }
-        }
-        return geeseAtRisk;
+        long atRisk = getCaptures(fox).getThreatened();
+        System.out.println("They are " + Long.bitCount(atRisk) + " geese at risk");
+        return getCells(atRisk);
     }
 
     public GameElement getTakenPawn(GameElement foxElement, int rowDest, int colDest) {
@@ -1,6 +1,8 @@
 package model;
 
 import gamifier.model.*;
+import model.rules.FagRules;
+import model.rules.GameResult;
 
 import java.util.List;
 
@@ -33,7 +35,6 @@ public class FagStageModel extends GameStageModel {
     private FagPawn[]   geese;
     private FagPawn[]   fakePawns;
     private TextElement playerName;
-    private int         geeseToPlay;
 
     /**
      * Basic constructor.
@@ -45,7 +46,6 @@ public class FagStageModel extends GameStageModel {
     public FagStageModel(String name, Model model) {
         super(name, model);
         state = STATE_SELECTPAWN;
-        geeseToPlay = GEESE_COUNT; // 13
         setupCallbacks();
     }
 
@@ -118,7 +118,7 @@ public class FagStageModel extends GameStageModel {
                 board.setReachableCells(cell[0], cell[1]);
             }
             // Check if game is over for the Fox
-            if (pawn.isFox() && (board.computeReachableCells(cell[0], cell[1]) == null)) {
+            if (pawn.isFox() && (FagRules.getResult(board.toBitboard(FOX_TEAM)) == GameResult.GEESE_WIN)) {
                 // Set the winner
                 model.setIdWinner(GEESE_TEAM);
                 // Stop de the game
@@ -131,13 +131,20 @@ public class FagStageModel extends GameStageModel {
          * impacted squares.
          */
         onMoveInGrid( (element, gridDest, rowDest, colDest) -> {
-            // [FIXME- TODO]
+            FagPawn p = (FagPawn) element;
+            // Check if the goose trapped the Fox (see FagRules)
+            if (p.isGoose() && (FagRules.getResult(board.toBitboard(FOX_TEAM)) == GameResult.GEESE_WIN)) {
+                // Set the winner
+                model.setIdWinner(GEESE_TEAM);
+                // Stop de the game
+                model.stopGame();
+            }
             return;
         });
 
         /**
-         * If a pawn is removed from the board, check if more than 7 geese were
-         * taken and then game is over.
+         * If a pawn is removed from the board, check if enough geese were
+         * taken (see FagRules.GEESE_TO_TAKE) and then game is over.
          */
         onRemoveFromGrid( (element, gridDest, rowDest, colDest) -> {
             int idWinner = -1;
@@ -147,9 +154,8 @@ public class FagStageModel extends GameStageModel {
                 idWinner = GEESE_TEAM;
             }
             else {
-                geeseToPlay--;
                 // Check if FOX won
-                if (geeseToPlay <= GEESE_COUNT-7) {
+                if (board.toBitboard(GEESE_TEAM).isFoxWinner()) {
                     idWinner = FOX_TEAM;
                 }
             }
@@ -0,0 +1,367 @@
+package model.rules;
+
+import java.util.Arrays;
+
+import static model.rules.FagTopology.GRID_SIZE;
+
+/**
+ * A compact bitboard representation of a FoxAndGeese position.
+ *
+ * <p>
+ * The 33 playable points of the cross shaped board are numbered from 0 to 32
+ * in row-major order (i.e. [0,2]=0, [0,3]=1, ..., [6,4]=32). A position is
+ * made of a mask of the geese (one bit per point), the point index of the
+ * fox and the side to move. Instances are immutable: playing a move returns
+ * a new position.
+ * </p>
+ * <p>
+ * The move generation only relies on precomputed neighbour and jump tables
+ * derived once from the tables of {@link FagTopology}. The static methods work
+ * on raw masks and do not allocate, so that they can be used by a search.
+ * </p>
+ *
+ * @note The geese which are jumped over during a chain of
+ *  jumps are only removed once the move is complete. They can therefore not
+ *  be jumped twice, and the fox cannot land on them.
+ */
+public final class FagBitboard {
+
+    public final static int  POINTS     = FagTopology.POINTS; // 33
+    public final static int  NO_POINT   = FagTopology.NO_POINT;
+    public final static long BOARD_MASK = (1L << POINTS) - 1;
+
+    // The points adjacent to each point, following the lines of the board
+    final static long[] FOX_NEIGHBOURS   = new long[POINTS];
+    // The points reachable by a goose step (South, East and West)
+    final static long[] GOOSE_NEIGHBOURS = new long[POINTS];
+    // The jumps from each point: JUMP_OVER[p][j] is jumped to land on JUMP_TO[p][j]
+    final static int[][] JUMP_OVER = new int[POINTS][];
+    final static int[][] JUMP_TO   = new int[POINTS][];
+
+    // The directions in the order of the points next to a point (row-major)
+    private final static int[] DIRECTIONS = {
+        FagTopology.NORTH_WEST, FagTopology.NORTH, FagTopology.NORTH_EAST, FagTopology.WEST,
+        FagTopology.EAST, FagTopology.SOUTH_WEST, FagTopology.SOUTH, FagTopology.SOUTH_EAST
+    };
+
+    static {
+        // The masks and the lists of jumps of each point (see FagTopology)
+        for (int from = 0; from < POINTS; from++) {
+            int[] over = new int[DIRECTIONS.length];
+            int[] to   = new int[DIRECTIONS.length];
+            int   nrJumps = 0;
+            for (int d : DIRECTIONS) {
+                int neighbour = FagTopology.getNeighbour(from, d);
+                if (neighbour != NO_POINT) {
+                    FOX_NEIGHBOURS[from] |= bit(neighbour);
+                    if ((d == FagTopology.SOUTH) || (d == FagTopology.EAST) || (d == FagTopology.WEST)) {
+                        GOOSE_NEIGHBOURS[from] |= bit(neighbour);
+                    }
+                }
+                if (FagTopology.getJumpTo(from, d) != NO_POINT) {
+                    over[nrJumps] = FagTopology.getJumpOver(from, d);
+                    to[nrJumps]   = FagTopology.getJumpTo(from, d);
+                    nrJumps++;
+                }
+            }
+            JUMP_OVER[from] = Arrays.copyOf(over, nrJumps);
+            JUMP_TO[from]   = Arrays.copyOf(to, nrJumps);
+        }
+    }
+
+    private final long    geese;
+    private final int     fox;
+    private final boolean foxToMove;
+    private final long    key;  // The Zobrist key (see FagZobrist)
+
+    /**
+     * Basic constructor.
+     * @param geese     The mask of the points occupied by a goose.
+     * @param fox       The point of the fox.
+     * @param foxToMove True if the fox is the next to play.
+     */
+    public FagBitboard(long geese, int fox, boolean foxToMove) {
+        this(geese & BOARD_MASK, fox, foxToMove, FagZobrist.getKey(geese & BOARD_MASK, fox, foxToMove));
+    }
+
+    // Constructor used by the moves, which update the key incrementally
+    private FagBitboard(long geese, int fox, boolean foxToMove, long key) {
+        this.geese = geese;
+        this.fox = fox;
+        this.foxToMove = foxToMove;
+        this.key = key;
+    }
+
+    /**
+     * Returns the position set up by FagStageFactory: 13 geese on the three
+     * upper rows and the fox at [5,3], the fox plays first.
+     */
+    public static FagBitboard initial() {
+        return new FagBitboard((1L << FagTopology.GEESE_COUNT) - 1, getPoint(5, 3), true);
+    }
+
+    /*************************************************************
+     * POINT HELPERS
+     *************************************************************/
+
+    /**
+     * Returns the mask of a single point.
+     */
+    public static long bit(int point) {
+        return 1L << point;
+    }
+
+    /**
+     * Returns the point index of a grid cell, or NO_POINT if the cell is
+     * outside of the board or not playable.
+     */
+    public static int getPoint(int row, int col) {
+        return FagTopology.getPoint(row, col);
+    }
+
+    public static int getRow(int point) {
+        return FagTopology.getRow(point);
+    }
+
+    public static int getCol(int point) {
+        return FagTopology.getCol(point);
+    }
+
+    /**
+     * Returns the grid location of a point as "[row,col]".
+     */
+    public static String toString(int point) {
+        return "[" + getRow(point) + "," + getCol(point) + "]";
+    }
+
+    /**
+     * Returns the number of jumps (i.e. aligned 'over' and 'to' points) that
+     * start from a point, whatever the pawns on the board.
+     */
+    public static int getNrJumps(int point) {
+        return JUMP_OVER[point].length;
+    }
+
+    /**
+     * Returns the point jumped over by the j-th jump starting from a point.
+     */
+    public static int getJumpOver(int point, int j) {
+        return JUMP_OVER[point][j];
+    }
+
+    /**
+     * Returns the landing point of the j-th jump starting from a point.
+     */
+    public static int getJumpTo(int point, int j) {
+        return JUMP_TO[point][j];
+    }
+
+    /*************************************************************
+     * ALLOCATION-FREE MOVE GENERATION
+     *************************************************************/
+
+    /**
+     * Computes the points that a fox can reach with a single step.
+     * @param fox   The point of the fox.
+     * @param geese The mask of the geese.
+     * @return A mask of points.
+     */
+    public static long foxSteps(int fox, long geese) {
+        return FOX_NEIGHBOURS[fox] & ~geese;
+    }
+
+    /**
+     * Computes the points that a goose can reach (South, East and West).
+     * @param goose The point of the goose.
+     * @param geese The mask of the geese.
+     * @param fox   The point of the fox.
+     * @return A mask of points.
+     */
+    public static long gooseSteps(int goose, long geese, int fox) {
+        return GOOSE_NEIGHBOURS[goose] & ~(geese | bit(fox));
+    }
+
+    /**
+     * Computes the points where the fox can land with a single jump or a
+     * chain of jumps over the geese.
+     * @param fox   The point of the fox.
+     * @param geese The mask of the geese.
+     * @return A mask of points.
+     */
+    public static long jumpTargets(int fox, long geese) {
+        long empty = BOARD_MASK & ~(geese | bit(fox));
+        return collectJumps(fox, geese, empty);
+    }
+
+    /**
+     * Returns true if the fox can take a goose, i.e. jumpTargets is not
+     * empty, without walking the chains.
+     */
+    public static boolean canJump(int fox, long geese) {
+        long  empty = BOARD_MASK & ~(geese | bit(fox));
+        int[] over  = JUMP_OVER[fox];
+        int[] to    = JUMP_TO[fox];
+        for (int j = 0; j < over.length; j++) {
+            if (((geese & bit(over[j])) != 0) && ((empty & bit(to[j])) != 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Depth-first traversal of the jump chains. 'geese' excludes the geese
+    // already jumped over in the current chain.
+    private static long collectJumps(int from, long geese, long empty) {
+        long targets = 0L;
+        int[] over = JUMP_OVER[from];
+        int[] to   = JUMP_TO[from];
+        for (int j = 0; j < over.length; j++) {
+            if (((geese & bit(over[j])) != 0) && ((empty & bit(to[j])) != 0)) {
+                targets |= bit(to[j]);
+                targets |= collectJumps(to[j], geese & ~bit(over[j]), empty);
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Computes the mask of the geese that can move.
+     * @param geese The mask of the geese.
+     * @param fox   The point of the fox.
+     * @return A mask of points.
+     */
+    public static long movableGeese(long geese, int fox) {
+        long movable = 0L;
+        for (long m = geese; m != 0; m &= m - 1) {
+            int goose = Long.numberOfTrailingZeros(m);
+            if (gooseSteps(goose, geese, fox) != 0) {
+                movable |= bit(goose);
+            }
+        }
+        return movable;
+    }
+
+    /*************************************************************
+     * POSITION
+     *************************************************************/
+
+    public long getGeese() {
+        return geese;
+    }
+
+    public int getFox() {
+        return fox;
+    }
+
+    public boolean isFoxToMove() {
+        return foxToMove;
+    }
+
+    /**
+     * Returns the Zobrist key of this position.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    public int getGeeseCount() {
+        return Long.bitCount(geese);
+    }
+
+    public boolean isGooseAt(int point) {
+        return (geese & bit(point)) != 0;
+    }
+
+    public boolean isEmptyAt(int point) {
+        return (point != fox) && !isGooseAt(point);
+    }
+
+    /**
+     * Returns the points reachable by the fox, with a step or with jumps.
+     */
+    public long reachableForFox() {
+        return foxSteps(fox, geese) | jumpTargets(fox, geese);
+    }
+
+    /**
+     * Returns the points reachable by the goose located at 'point'.
+     */
+    public long reachableForGoose(int point) {
+        if (!isGooseAt(point)) return 0L;
+        return gooseSteps(point, geese, fox);
+    }
+
+    /**
+     * Returns the points reachable by the fox with jumps only.
+     */
+    public long reachableForJump() {
+        return jumpTargets(fox, geese);
+    }
+
+    /**
+     * Returns true if the fox cannot move anymore, i.e. the geese won.
+     */
+    public boolean isFoxTrapped() {
+        return reachableForFox() == 0L;
+    }
+
+    /**
+     * Returns true if the fox took enough geese to win.
+     */
+    public boolean isFoxWinner() {
+        return getGeeseCount() <= FagRules.FOX_WIN_GEESE;
+    }
+
+    /**
+     * Returns a new position where the fox moved to 'to' and took the geese
+     * of the 'taken' mask. The geese play next.
+     */
+    public FagBitboard moveFox(int to, long taken) {
+        taken &= geese;
+        long nextKey = key ^ FagZobrist.getFoxMoveKey(fox, to, taken);
+        if (!foxToMove) nextKey ^= FagZobrist.FOX_TO_MOVE_KEY; // The side to move does not change
+        return new FagBitboard(geese & ~taken, to, false, nextKey);
+    }
+
+    /**
+     * Returns a new position where a goose moved from 'from' to 'to'. The fox
+     * plays next.
+     */
+    public FagBitboard moveGoose(int from, int to) {
+        long nextKey = key ^ FagZobrist.getGooseMoveKey(from, to);
+        if (foxToMove) nextKey ^= FagZobrist.FOX_TO_MOVE_KEY; // The side to move does not change
+        return new FagBitboard((geese & ~bit(from)) | bit(to), fox, true, nextKey);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof FagBitboard)) return false;
+        FagBitboard other = (FagBitboard) obj;
+        return (geese == other.geese) && (fox == other.fox) && (foxToMove == other.foxToMove);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+
+    /**
+     * Returns a string representation of the board, one line per row
+     * ('F' = fox, 'G' = goose, '.' = empty point).
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                int p = getPoint(row, col);
+                if (p == NO_POINT)  sb.append(' ');
+                else if (p == fox)  sb.append('F');
+                else if (isGooseAt(p)) sb.append('G');
+                else                sb.append('.');
+            }
+            sb.append('\n');
+        }
+        sb.append(foxToMove ? "Fox to move" : "Geese to move");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,203 @@
+package model.rules;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static model.rules.FagBitboard.bit;
+
+/**
+ * The captures of the fox: every distinct chain of jumps from the point of
+ * the fox, with its landing point and the mask of the geese it takes.
+ *
+ * <p>
+ * The chains are enumerated by a depth-first traversal of the jump tables
+ * of FagBitboard. Two chains which jump over the same geese in a different
+ * order and land on the same point are the same capture: such a chain is
+ * only kept (and extended) once. The fox may stop after any jump, so every
+ * prefix of a chain is a capture of its own. The captures found so far are
+ * also kept in an open-addressed hash set, so that a chain is looked up in
+ * constant time even when there are hundreds of them.
+ * </p>
+ * <p>
+ * An instance is meant to be reused: generate() overwrites the previous
+ * captures, and the arrays only grow on the first (long) chains.
+ * </p>
+ */
+public final class FagCaptures {
+
+    private int[]  to    = new int[32];
+    private long[] taken = new long[32];
+    private int    size;
+
+    // The hash set of the captures: the index of a capture in a slot, which
+    //  is only used if its stamp is the current generation (so that
+    //  generate() empties the set at once)
+    private int[] slots  = new int[64];
+    private int[] stamps = new int[64];
+    private int   generation = 0;
+
+    /**
+     * Generates the captures of the fox.
+     * @param geese The mask of the geese.
+     * @param fox   The point of the fox.
+     * @return This object, for chaining.
+     */
+    public FagCaptures generate(long geese, int fox) {
+        size = 0;
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        long empty = FagBitboard.BOARD_MASK & ~(geese | bit(fox));
+        addJumps(fox, geese, empty, 0L);
+        return this;
+    }
+
+    // The geese already taken by the chain cannot be jumped again (see FagBitboard)
+    private void addJumps(int from, long geese, long empty, long chain) {
+        for (int j = 0; j < FagBitboard.getNrJumps(from); j++) {
+            int over = FagBitboard.getJumpOver(from, j);
+            int dst  = FagBitboard.getJumpTo(from, j);
+            if (((geese & ~chain & bit(over)) != 0) && ((empty & bit(dst)) != 0)) {
+                long next = chain | bit(over);
+                if (add(dst, next)) {
+                    addJumps(dst, geese, empty, next);
+                }
+            }
+        }
+    }
+
+    // Adds a capture, unless it was already found: returns true if it was added
+    private boolean add(int dst, long chain) {
+        int mask = slots.length - 1;
+        int slot = hash(dst, chain) & mask;
+        while (stamps[slot] == generation) {
+            int i = slots[slot];
+            if ((to[i] == dst) && (taken[i] == chain)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == to.length) {
+            to    = Arrays.copyOf(to, 2 * size);
+            taken = Arrays.copyOf(taken, 2 * size);
+        }
+        to[size]     = dst;
+        taken[size]  = chain;
+        slots[slot]  = size;
+        stamps[slot] = generation;
+        size++;
+        // The set is kept at most half full
+        if (2 * size > slots.length) {
+            rehash();
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots  = new int[2 * slots.length];
+        stamps = new int[slots.length];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(to[i], taken[i]) & mask;
+            while (stamps[slot] == generation) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot]  = i;
+            stamps[slot] = generation;
+        }
+    }
+
+    private static int hash(int dst, long chain) {
+        long h = (chain ^ ((long) dst << 48)) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32);
+    }
+
+    /**
+     * Returns the number of captures.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the landing point of the i-th capture.
+     */
+    public int getTo(int i) {
+        return to[i];
+    }
+
+    /**
+     * Returns the mask of the geese taken by the i-th capture.
+     */
+    public long getTaken(int i) {
+        return taken[i];
+    }
+
+    /**
+     * Returns the number of geese taken by the i-th capture.
+     */
+    public int getNrTaken(int i) {
+        return Long.bitCount(taken[i]);
+    }
+
+    /**
+     * Returns the capture landing on a point which takes the most geese.
+     * @param point The landing point.
+     * @return The index of the capture, or -1 if the fox cannot jump there.
+     */
+    public int find(int point) {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if ((to[i] == point) && ((best < 0) || (getNrTaken(i) > getNrTaken(best)))) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the largest number of geese taken by a capture (0 if none).
+     */
+    public int getMaxTaken() {
+        int max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, getNrTaken(i));
+        }
+        return max;
+    }
+
+    /**
+     * Returns a capture which takes the most geese, at random among them.
+     * @param random The random generator.
+     * @return The index of the capture, or -1 if there is no capture.
+     */
+    public int pickLongest(Random random) {
+        int max   = getMaxTaken();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (getNrTaken(i) == max) count++;
+        }
+        if (count == 0) {
+            return -1;
+        }
+        int n = random.nextInt(count);
+        for (int i = 0; i < size; i++) {
+            if ((getNrTaken(i) == max) && (n-- == 0)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the mask of the geese which can be taken (i.e. at risk).
+     */
+    public long getThreatened() {
+        long mask = 0L;
+        for (int i = 0; i < size; i++) {
+            mask |= taken[i];
+        }
+        return mask;
+    }
+}
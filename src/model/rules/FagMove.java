@@ -0,0 +1,71 @@
+package model.rules;
+
+/**
+ * A move of the FoxAndGeese game: a pawn goes from a point to another one,
+ * and the fox may take geese on its way (see FagBitboard for the numbering
+ * of the points).
+ *
+ * <p>
+ * A chain of jumps is a single move: it is identified by its landing point
+ * and by the mask of the geese it takes, since two chains can land on the
+ * same point by taking different geese.
+ * </p>
+ */
+public final class FagMove {
+
+    private final int  from;
+    private final int  to;
+    private final long taken;
+
+    /**
+     * Basic constructor.
+     * @param from  The point of the moved pawn.
+     * @param to    The destination point of the pawn.
+     * @param taken The mask of the geese taken by the move (0 if none).
+     */
+    public FagMove(int from, int to, long taken) {
+        this.from = from;
+        this.to = to;
+        this.taken = taken;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public long getTaken() {
+        return taken;
+    }
+
+    public boolean isCapture() {
+        return taken != 0L;
+    }
+
+    public int getNrTaken() {
+        return Long.bitCount(taken);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof FagMove)) return false;
+        FagMove other = (FagMove) obj;
+        return (from == other.from) && (to == other.to) && (taken == other.taken);
+    }
+
+    @Override
+    public int hashCode() {
+        return (from * 31 + to) * 31 + Long.hashCode(taken);
+    }
+
+    /**
+     * Returns the move as "[row,col]-[row,col]", followed by "x" and the
+     * number of taken geese for a capture.
+     */
+    public String toString() {
+        return FagBitboard.toString(from) + "-" + FagBitboard.toString(to) + (isCapture() ? "x" + getNrTaken() : "");
+    }
+}
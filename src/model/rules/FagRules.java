@@ -0,0 +1,162 @@
+package model.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The rules of the FoxAndGeese game: the legal moves of a position, the
+ * position reached by a move, and the end of the game.
+ *
+ * <p>
+ * This class is the single source of truth of the game: the JavaFX board
+ * (FagBoard), the stage (FagStageModel) and the computer players all rely
+ * on it. It only depends on plain Java, so that games can be simulated
+ * without any graphical toolkit.
+ * </p>
+ * <ul>
+ *   <li>The fox moves along the lines of the board, one point at a time, or
+ *       jumps over a goose to the empty point behind it. Several jumps can
+ *       be chained in a single move.</li>
+ *   <li>A goose moves one point South, East or West.</li>
+ *   <li>The fox wins once it took GEESE_TO_TAKE geese, the geese win when
+ *       the fox cannot move. A side which cannot move on its turn loses.</li>
+ * </ul>
+ */
+public final class FagRules {
+
+    public static final int FOX_TEAM   = 0;
+    public static final int GEESE_TEAM = 1;
+
+    // The fox wins once it took this number of geese, i.e. when FOX_WIN_GEESE geese are left
+    public final static int GEESE_TO_TAKE = 7;
+    public final static int FOX_WIN_GEESE = FagTopology.GEESE_COUNT - GEESE_TO_TAKE;
+    // The geese can shuffle sideways forever: a game longer than this is a draw
+    public final static int MAX_PLIES = 400;
+
+    private FagRules() {
+    }
+
+    /**
+     * Returns the legal moves of the side to move.
+     * @param position The position.
+     * @return A list of moves: each distinct chain of jumps is a move.
+     */
+    public static List<FagMove> getMoves(FagBitboard position) {
+        List<FagMove> moves = new ArrayList<>();
+        if (position.isFoxToMove()) {
+            addFoxMoves(position.getGeese(), position.getFox(), moves);
+        } else {
+            for (long m = position.getGeese(); m != 0; m &= m - 1) {
+                addGooseMoves(position, Long.numberOfTrailingZeros(m), moves);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the legal moves of the pawn located on a point, whatever the
+     * side to move.
+     * @param position The position.
+     * @param from     The point of the pawn.
+     * @return A list of moves (empty if there is no pawn on the point).
+     */
+    public static List<FagMove> getMoves(FagBitboard position, int from) {
+        List<FagMove> moves = new ArrayList<>();
+        if (from == position.getFox()) {
+            addFoxMoves(position.getGeese(), from, moves);
+        } else if (position.isGooseAt(from)) {
+            addGooseMoves(position, from, moves);
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the mask of the points reachable by the pawn located on a
+     * point, whatever the side to move.
+     */
+    public static long getReachable(FagBitboard position, int from) {
+        if (from == position.getFox()) {
+            return position.reachableForFox();
+        }
+        return position.reachableForGoose(from);
+    }
+
+    /**
+     * Returns the move of a pawn from a point to another one. When several
+     * chains of jumps land on the same point, the one which takes the most
+     * geese is returned.
+     * @return The move, or null if the pawn cannot reach 'to'.
+     */
+    public static FagMove findMove(FagBitboard position, int from, int to) {
+        FagMove best = null;
+        for (FagMove move : getMoves(position, from)) {
+            if ((move.getTo() == to) && ((best == null) || (move.getNrTaken() > best.getNrTaken()))) {
+                best = move;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns true if a move is legal for the side to move.
+     */
+    public static boolean isLegal(FagBitboard position, FagMove move) {
+        if (getResult(position).isOver()) {
+            return false;
+        }
+        boolean foxMove = (move.getFrom() == position.getFox());
+        if (foxMove != position.isFoxToMove()) {
+            return false;
+        }
+        return getMoves(position, move.getFrom()).contains(move);
+    }
+
+    /**
+     * Returns the position reached by a move.
+     * @throws IllegalArgumentException If the move is not legal.
+     */
+    public static FagBitboard play(FagBitboard position, FagMove move) {
+        if (!isLegal(position, move)) {
+            throw new IllegalArgumentException("Illegal move " + move + " in position\n" + position);
+        }
+        if (position.isFoxToMove()) {
+            return position.moveFox(move.getTo(), move.getTaken());
+        }
+        return position.moveGoose(move.getFrom(), move.getTo());
+    }
+
+    /**
+     * Returns the state of the game in a position.
+     */
+    public static GameResult getResult(FagBitboard position) {
+        if (position.isFoxWinner()) {
+            return GameResult.FOX_WINS;
+        }
+        if (position.isFoxToMove()) {
+            return position.isFoxTrapped() ? GameResult.GEESE_WIN : GameResult.NONE;
+        }
+        return (FagBitboard.movableGeese(position.getGeese(), position.getFox()) == 0L) ?
+                GameResult.FOX_WINS : GameResult.NONE;
+    }
+
+    /*************************************************************
+     * MOVE GENERATION
+     *************************************************************/
+
+    private static void addGooseMoves(FagBitboard position, int goose, List<FagMove> moves) {
+        for (long m = position.reachableForGoose(goose); m != 0; m &= m - 1) {
+            moves.add(new FagMove(goose, Long.numberOfTrailingZeros(m), 0L));
+        }
+    }
+
+    // The captures first, then the steps
+    private static void addFoxMoves(long geese, int fox, List<FagMove> moves) {
+        FagCaptures captures = new FagCaptures().generate(geese, fox);
+        for (int i = 0; i < captures.size(); i++) {
+            moves.add(new FagMove(fox, captures.getTo(i), captures.getTaken(i)));
+        }
+        for (long m = FagBitboard.foxSteps(fox, geese); m != 0; m &= m - 1) {
+            moves.add(new FagMove(fox, Long.numberOfTrailingZeros(m), 0L));
+        }
+    }
+}
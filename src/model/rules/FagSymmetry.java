@@ -0,0 +1,121 @@
+package model.rules;
+
+/**
+ * The left-right symmetry of the FoxAndGeese board.
+ *
+ * <p>
+ * The board and the rules are unchanged when the columns are mirrored
+ * ([row,col] goes to [row,6-col]): a position and its mirror have the same
+ * value, and the moves of one are the mirrored moves of the other. The
+ * tables indexed by position (transposition table, opening book,
+ * tablebases) only need to hold one of them, the canonical one:
+ * </p>
+ * <ul>
+ *   <li>the fox is on the left half of the board (col &lt; 3), or</li>
+ *   <li>the fox is on the middle column and the geese mask is not above
+ *       the mask of the mirrored geese.</li>
+ * </ul>
+ * <p>
+ * A mask is mirrored row by row, through a table of the reversed bits of
+ * each row width, so that no object is allocated.
+ * </p>
+ */
+public final class FagSymmetry {
+
+    // The column which is its own mirror
+    public final static int MIDDLE_COL = FagTopology.GRID_SIZE / 2;
+
+    private final static int[] MIRROR = new int[FagBitboard.POINTS];
+
+    // The first point and the number of points of each row
+    private final static int[] ROW_START = new int[FagTopology.GRID_SIZE];
+    private final static int[] ROW_WIDTH = new int[FagTopology.GRID_SIZE];
+    // REVERSE[w][bits] = the 'w' low bits of 'bits' in reverse order
+    private final static int[][] REVERSE = new int[FagTopology.GRID_SIZE + 1][];
+
+    static {
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            int row = FagBitboard.getRow(p);
+            MIRROR[p] = FagBitboard.getPoint(row, FagTopology.GRID_SIZE - 1 - FagBitboard.getCol(p));
+            if (ROW_WIDTH[row] == 0) ROW_START[row] = p;
+            ROW_WIDTH[row]++;
+        }
+        for (int width : ROW_WIDTH) {
+            if (REVERSE[width] != null) continue;
+            REVERSE[width] = new int[1 << width];
+            for (int bits = 0; bits < (1 << width); bits++) {
+                for (int b = 0; b < width; b++) {
+                    if ((bits & (1 << b)) != 0) REVERSE[width][bits] |= 1 << (width - 1 - b);
+                }
+            }
+        }
+    }
+
+    private FagSymmetry() {
+    }
+
+    /**
+     * Returns the mirror of a point.
+     */
+    public static int mirror(int point) {
+        return MIRROR[point];
+    }
+
+    /**
+     * Returns the mirror of a mask of points.
+     */
+    public static long mirror(long mask) {
+        long mirrored = 0L;
+        for (int row = 0; row < FagTopology.GRID_SIZE; row++) {
+            int bits = (int) (mask >>> ROW_START[row]) & ((1 << ROW_WIDTH[row]) - 1);
+            mirrored |= (long) REVERSE[ROW_WIDTH[row]][bits] << ROW_START[row];
+        }
+        return mirrored;
+    }
+
+    public static FagMove mirror(FagMove move) {
+        return new FagMove(mirror(move.getFrom()), mirror(move.getTo()), mirror(move.getTaken()));
+    }
+
+    public static FagBitboard mirror(FagBitboard position) {
+        return new FagBitboard(mirror(position.getGeese()), mirror(position.getFox()), position.isFoxToMove());
+    }
+
+    /**
+     * Returns true if the canonical form of a position is its mirror.
+     * @param geese The mask of the geese.
+     * @param fox   The point of the fox.
+     */
+    public static boolean isMirrored(long geese, int fox) {
+        int col = FagBitboard.getCol(fox);
+        return (col > MIDDLE_COL) || ((col == MIDDLE_COL) && (mirror(geese) < geese));
+    }
+
+    /**
+     * Returns the canonical form of a position: itself or its mirror.
+     */
+    public static FagBitboard getCanonical(FagBitboard position) {
+        return isMirrored(position.getGeese(), position.getFox()) ? mirror(position) : position;
+    }
+
+    /**
+     * Returns the Zobrist key of the mirror of a position (see FagZobrist).
+     */
+    public static long getMirrorKey(long geese, int fox, boolean foxToMove) {
+        return FagZobrist.getKey(mirror(geese), mirror(fox), foxToMove);
+    }
+
+    /**
+     * Returns the change of the mirrored key made by a fox move.
+     */
+    public static long getMirrorFoxMoveKey(int from, int to, long taken) {
+        return FagZobrist.getFoxMoveKey(MIRROR[from], MIRROR[to], (taken != 0L) ? mirror(taken) : 0L);
+    }
+
+    /**
+     * Returns the change of the mirrored key made by a goose move.
+     */
+    public static long getMirrorGooseMoveKey(int from, int to) {
+        return FagZobrist.getGooseMoveKey(MIRROR[from], MIRROR[to]);
+    }
+}
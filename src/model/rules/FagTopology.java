@@ -0,0 +1,343 @@
+package model.rules;
+
+import java.util.Arrays;
+
+/**
+ * The topology of the cross shaped board of the FoxAndGeese game.
+ *
+ * <p>
+ * This class is the single description of the board: its size, the number
+ * of pawns and the lines along which the pawns move. It is plain Java, so
+ * that the rules can be used without any graphical toolkit (see FagRules).
+ * </p>
+ * <p>
+ * The 33 playable points are numbered in row-major order (see FagBitboard).
+ * The neighbours of each point and the jumps from each point, i.e. the
+ * (from, over, to) triples aligned along two lines of the board, are
+ * tabulated per direction once, when the class is loaded. They are shared
+ * by all the boards and never change.
+ * </p>
+ */
+public final class FagTopology {
+
+    public final static int GRID_SIZE   = 7;
+    public final static int POINTS      = (GRID_SIZE*GRID_SIZE)-16; // 33
+    public final static int GEESE_COUNT = (GRID_SIZE*2)-1; // 13
+    public final static int NO_POINT    = -1;
+
+    // The directions of the lines of the board, clockwise from the North
+    public final static int NORTH         = 0;
+    public final static int NORTH_EAST    = 1;
+    public final static int EAST          = 2;
+    public final static int SOUTH_EAST    = 3;
+    public final static int SOUTH         = 4;
+    public final static int SOUTH_WEST    = 5;
+    public final static int WEST          = 6;
+    public final static int NORTH_WEST    = 7;
+    public final static int NR_DIRECTIONS = 8;
+
+    private final static int[] DIRECTION_ROW = {-1, -1, 0, 1, 1,  1,  0, -1};
+    private final static int[] DIRECTION_COL = { 0,  1, 1, 1, 0, -1, -1, -1};
+
+    // The directed edges of the board, as {srcRow,srcCol, dstRow,dstCol}.
+    //  Note: Each line of the board is given in both directions.
+    final static int[][] EDGES = {
+        // ROW-0 | COL-2
+        {0,2, 0,3},
+        {0,2, 1,2},
+        {0,2, 1,3},
+        // ROW-0 | COL-3
+        {0,3, 0,2},
+        {0,3, 0,4},
+        {0,3, 1,3},
+        // ROW-0 | COL-4
+        {0,4, 0,3},
+        {0,4, 1,3},
+        {0,4, 1,4},
+        // ROW-1 | COL-2
+        {1,2, 0,2},
+        {1,2, 1,3},
+        {1,2, 2,2},
+        // ROW-1 | COL-3
+        {1,3, 0,2},
+        {1,3, 0,3},
+        {1,3, 0,4},
+        {1,3, 1,2},
+        {1,3, 1,4},
+        {1,3, 2,2},
+        {1,3, 2,3},
+        {1,3, 2,4},
+        // ROW-1 | COL-4
+        {1,4, 0,4},
+        {1,4, 1,3},
+        {1,4, 2,4},
+        // ROW-2 | COL-0
+        {2,0, 2,1},
+        {2,0, 3,0},
+        {2,0, 3,1},
+        // ROW-2 | COL-1
+        {2,1, 2,0},
+        {2,1, 2,2},
+        {2,1, 3,1},
+        // ROW-2 | COL-2
+        {2,2, 1,2},
+        {2,2, 1,3},
+        {2,2, 2,1},
+        {2,2, 2,3},
+        {2,2, 3,1},
+        {2,2, 3,2},
+        {2,2, 3,3},
+        // ROW-2 | COL-3
+        {2,3, 1,3},
+        {2,3, 2,2},
+        {2,3, 2,4},
+        {2,3, 3,3},
+        // ROW-2 | COL-4
+        {2,4, 1,3},
+        {2,4, 1,4},
+        {2,4, 2,3},
+        {2,4, 2,5},
+        {2,4, 3,3},
+        {2,4, 3,4},
+        {2,4, 3,5},
+        // ROW-2 | COL-5
+        {2,5, 2,4},
+        {2,5, 2,6},
+        {2,5, 3,5},
+        // ROW-2 | COL-6
+        {2,6, 2,5},
+        {2,6, 3,5},
+        {2,6, 3,6},
+        // ROW-3 | COL-0
+        {3,0, 2,0},
+        {3,0, 3,1},
+        {3,0, 4,0},
+        // ROW-3 | COL-1
+        {3,1, 2,0},
+        {3,1, 2,1},
+        {3,1, 2,2},
+        {3,1, 3,0},
+        {3,1, 3,2},
+        {3,1, 4,0},
+        {3,1, 4,1},
+        {3,1, 4,2},
+        // ROW-3 | COL-2
+        {3,2, 2,2},
+        {3,2, 3,1},
+        {3,2, 3,3},
+        {3,2, 4,2},
+        // ROW-3 | COL-3
+        {3,3, 2,2},
+        {3,3, 2,3},
+        {3,3, 2,4},
+        {3,3, 3,2},
+        {3,3, 3,4},
+        {3,3, 4,2},
+        {3,3, 4,3},
+        {3,3, 4,4},
+        // ROW-3 | COL-4
+        {3,4, 2,4},
+        {3,4, 3,3},
+        {3,4, 3,5},
+        {3,4, 4,4},
+        // ROW-3 | COL-5
+        {3,5, 2,4},
+        {3,5, 2,5},
+        {3,5, 2,6},
+        {3,5, 3,4},
+        {3,5, 3,6},
+        {3,5, 4,4},
+        {3,5, 4,5},
+        {3,5, 4,6},
+        // ROW-3 | COL-6
+        {3,6, 2,6},
+        {3,6, 3,5},
+        {3,6, 4,6},
+        // ROW-4 | COL-0
+        {4,0, 3,0},
+        {4,0, 3,1},
+        {4,0, 4,1},
+        // ROW-4 | COL-1
+        {4,1, 3,1},
+        {4,1, 4,0},
+        {4,1, 4,2},
+        // ROW-4 | COL-2
+        {4,2, 3,1},
+        {4,2, 3,2},
+        {4,2, 3,3},
+        {4,2, 4,1},
+        {4,2, 4,3},
+        {4,2, 5,2},
+        {4,2, 5,3},
+        // ROW-4 | COL-3
+        {4,3, 3,3},
+        {4,3, 4,2},
+        {4,3, 4,4},
+        {4,3, 5,3},
+        // ROW-4 | COL-4
+        {4,4, 3,3},
+        {4,4, 3,4},
+        {4,4, 3,5},
+        {4,4, 4,3},
+        {4,4, 4,5},
+        {4,4, 5,3},
+        {4,4, 5,4},
+        // ROW-4 | COL-5
+        {4,5, 3,5},
+        {4,5, 4,4},
+        {4,5, 4,6},
+        // ROW-4 | COL-6
+        {4,6, 3,5},
+        {4,6, 3,6},
+        {4,6, 4,5},
+        // ROW-5 | COL-2
+        {5,2, 4,2},
+        {5,2, 5,3},
+        {5,2, 6,2},
+        // ROW-5 | COL-3
+        {5,3, 4,2},
+        {5,3, 4,3},
+        {5,3, 4,4},
+        {5,3, 5,2},
+        {5,3, 5,4},
+        {5,3, 6,2},
+        {5,3, 6,3},
+        {5,3, 6,4},
+        // ROW-5 | COL-4
+        {5,4, 4,4},
+        {5,4, 5,3},
+        {5,4, 6,4},
+        // ROW-6 | COL-2
+        {6,2, 5,2},
+        {6,2, 5,3},
+        {6,2, 6,3},
+        // ROW-6 | COL-3
+        {6,3, 5,3},
+        {6,3, 6,2},
+        {6,3, 6,4},
+        // ROW-6 | COL-4
+        {6,4, 5,3},
+        {6,4, 5,4},
+        {6,4, 6,3}
+    };
+
+    // Grid location of each point, and point index of each grid cell (NO_POINT if unplayable)
+    private final static int[]   POINT_ROW  = new int[POINTS];
+    private final static int[]   POINT_COL  = new int[POINTS];
+    private final static int[][] CELL_POINT = new int[GRID_SIZE][GRID_SIZE];
+
+    // NEIGHBOUR[p][d] is the point next to p in the direction d, along a line
+    //  of the board. JUMP_OVER[p][d] is jumped over to land on JUMP_TO[p][d].
+    //  All of them are NO_POINT if there is no such line.
+    private final static int[][] NEIGHBOUR = new int[POINTS][NR_DIRECTIONS];
+    private final static int[][] JUMP_OVER = new int[POINTS][NR_DIRECTIONS];
+    private final static int[][] JUMP_TO   = new int[POINTS][NR_DIRECTIONS];
+
+    static {
+        // Number the playable cells, i.e. the ones that own an edge
+        for (int[] row : CELL_POINT) {
+            Arrays.fill(row, NO_POINT);
+        }
+        for (int[] e : EDGES) {
+            CELL_POINT[e[0]][e[1]] = 0;
+        }
+        int p = 0;
+        for (int row = 0; row < GRID_SIZE; row++) {
+            for (int col = 0; col < GRID_SIZE; col++) {
+                if (CELL_POINT[row][col] != NO_POINT) {
+                    CELL_POINT[row][col] = p;
+                    POINT_ROW[p] = row;
+                    POINT_COL[p] = col;
+                    p++;
+                }
+            }
+        }
+        // Neighbours: each edge goes one cell away in one of the directions
+        for (int[] neighbours : NEIGHBOUR) {
+            Arrays.fill(neighbours, NO_POINT);
+        }
+        for (int[] e : EDGES) {
+            int d = getDirection(e[2] - e[0], e[3] - e[1]);
+            NEIGHBOUR[CELL_POINT[e[0]][e[1]]][d] = CELL_POINT[e[2]][e[3]];
+        }
+        // Jumps: two edges in a row along the same direction
+        for (int from = 0; from < POINTS; from++) {
+            for (int d = 0; d < NR_DIRECTIONS; d++) {
+                int over = NEIGHBOUR[from][d];
+                int to   = (over != NO_POINT) ? NEIGHBOUR[over][d] : NO_POINT;
+                JUMP_OVER[from][d] = (to != NO_POINT) ? over : NO_POINT;
+                JUMP_TO[from][d]   = to;
+            }
+        }
+    }
+
+    private FagTopology() {
+    }
+
+    // The direction of a step of one cell, or -1
+    private static int getDirection(int dRow, int dCol) {
+        for (int d = 0; d < NR_DIRECTIONS; d++) {
+            if ((DIRECTION_ROW[d] == dRow) && (DIRECTION_COL[d] == dCol)) {
+                return d;
+            }
+        }
+        throw new IllegalStateException("The edge [" + dRow + "," + dCol + "] is not a step");
+    }
+
+    /**
+     * Returns the point index of a grid cell, or NO_POINT if the cell is
+     * outside of the board or not playable.
+     */
+    public static int getPoint(int row, int col) {
+        if ((row < 0) || (row >= GRID_SIZE) || (col < 0) || (col >= GRID_SIZE)) {
+            return NO_POINT;
+        }
+        return CELL_POINT[row][col];
+    }
+
+    public static int getRow(int point) {
+        return POINT_ROW[point];
+    }
+
+    public static int getCol(int point) {
+        return POINT_COL[point];
+    }
+
+    /**
+     * Returns the point next to a point in a direction.
+     * @return The point, or NO_POINT if no line of the board goes there.
+     */
+    public static int getNeighbour(int point, int direction) {
+        return NEIGHBOUR[point][direction];
+    }
+
+    /**
+     * Returns the point jumped over by a jump from a point in a direction.
+     * @return The point, or NO_POINT if there is no such jump.
+     */
+    public static int getJumpOver(int point, int direction) {
+        return JUMP_OVER[point][direction];
+    }
+
+    /**
+     * Returns the landing point of a jump from a point in a direction.
+     * @return The point, or NO_POINT if there is no such jump.
+     */
+    public static int getJumpTo(int point, int direction) {
+        return JUMP_TO[point][direction];
+    }
+
+    /**
+     * Returns the number of directed edges of the board.
+     */
+    public static int getNrEdges() {
+        return EDGES.length;
+    }
+
+    /**
+     * Returns an edge of the board as {srcRow, srcCol, dstRow, dstCol}.
+     */
+    public static int[] getEdge(int e) {
+        return EDGES[e].clone();
+    }
+}
@@ -0,0 +1,85 @@
+package model.rules;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys of the FoxAndGeese positions.
+ *
+ * <p>
+ * The key of a position is the XOR of one random number per (pawn, point)
+ * and of a side key when the fox is to move. It can therefore be updated
+ * incrementally: moving a pawn XORs the keys of its source and destination
+ * points, taking a goose XORs the key of its point.
+ * </p>
+ *
+ * @note The random numbers are drawn from a fixed seed: the keys are stable
+ *  from one run to another, so that they can be stored in files (opening
+ *  book, tablebases, ...).
+ */
+public final class FagZobrist {
+
+    private final static long SEED = 0x5EED_FA6_0F0_8L;
+
+    private final static long[] FOX_KEYS   = new long[FagBitboard.POINTS];
+    private final static long[] GOOSE_KEYS = new long[FagBitboard.POINTS];
+    public  final static long   FOX_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            FOX_KEYS[p]   = random.nextLong();
+            GOOSE_KEYS[p] = random.nextLong();
+        }
+        FOX_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private FagZobrist() {
+    }
+
+    public static long getFoxKey(int point) {
+        return FOX_KEYS[point];
+    }
+
+    public static long getGooseKey(int point) {
+        return GOOSE_KEYS[point];
+    }
+
+    /**
+     * Returns the XOR of the keys of the geese of a mask.
+     */
+    public static long getGeeseKey(long geese) {
+        long key = 0L;
+        for (long m = geese; m != 0; m &= m - 1) {
+            key ^= GOOSE_KEYS[Long.numberOfTrailingZeros(m)];
+        }
+        return key;
+    }
+
+    /**
+     * Computes the key of a position from scratch.
+     * @param geese     The mask of the geese.
+     * @param fox       The point of the fox (NO_POINT if none).
+     * @param foxToMove True if the fox is the next to play.
+     * @return The Zobrist key.
+     */
+    public static long getKey(long geese, int fox, boolean foxToMove) {
+        long key = getGeeseKey(geese);
+        if (fox != FagBitboard.NO_POINT) key ^= FOX_KEYS[fox];
+        if (foxToMove) key ^= FOX_TO_MOVE_KEY;
+        return key;
+    }
+
+    /**
+     * Returns the key change of a fox move (the side to move changes too).
+     */
+    public static long getFoxMoveKey(int from, int to, long taken) {
+        return FOX_KEYS[from] ^ FOX_KEYS[to] ^ getGeeseKey(taken) ^ FOX_TO_MOVE_KEY;
+    }
+
+    /**
+     * Returns the key change of a goose move (the side to move changes too).
+     */
+    public static long getGooseMoveKey(int from, int to) {
+        return GOOSE_KEYS[from] ^ GOOSE_KEYS[to] ^ FOX_TO_MOVE_KEY;
+    }
+}
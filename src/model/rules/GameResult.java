@@ -0,0 +1,29 @@
+package model.rules;
+
+/**
+ * The state of a game: still running, or won by one of the teams.
+ */
+public enum GameResult {
+
+    NONE(-1),
+    FOX_WINS(FagRules.FOX_TEAM),
+    GEESE_WIN(FagRules.GEESE_TEAM);
+
+    private final int winner;
+
+    GameResult(int winner) {
+        this.winner = winner;
+    }
+
+    /**
+     * Returns the team of the winner (FOX_TEAM or GEESE_TEAM), or -1 if the
+     * game is not over.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public boolean isOver() {
+        return this != NONE;
+    }
+}
@@ -7,6 +7,7 @@ import javafx.scene.shape.Line;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.shape.StrokeType;
 import model.FagBoard;
+import model.rules.FagTopology;
 
 import static javafx.scene.shape.StrokeType.CENTERED;
 import static javafx.scene.shape.StrokeType.INSIDE;
@@ -58,33 +59,28 @@ public class FagBoardLook extends GridLook {
         }
 
         // Draw the possible directions among cells
-        drawGraph(fagBoard);
+        drawGraph();
     }
 
     /**
      * Draw the graph that depicts the possible movements (i.e. the network
-     * connectivity) in between the cells of the cross shaped board.
-     * @param fagBoard A ref. to FAG board.
+     * connectivity) in between the cells of the cross shaped board (see
+     * FagTopology).
      */
-    private void drawGraph(FagBoard fagBoard) {
-        FagBoard.Graph graph = fagBoard.getGraph();
-        for (int r=0; r<GRID_SIZE; r++) {
-            for (int c=0; c<GRID_SIZE; c++) {
-                FagBoard.Cell src = new FagBoard.Cell(r, c);
-                int linearId = r*GRID_SIZE + c;
-                int dstCells = graph.adjList.get(linearId).size();
-                if (dstCells != 0) {
-                    boolean DEBUG_TRACE=false;
-                    if (DEBUG_TRACE) System.out.print("Vertex [" + src.row + "," + src.col + "] ->");
-                    for (int j = 0; j < dstCells; j++) {
-                        FagBoard.Cell dst = graph.adjList.get(linearId).get(j);
-                        if (DEBUG_TRACE) System.out.print(" [" + dst.row + "," + dst.col + "]");
-                        drawEdge(src, dst);
-                    }
-                    if (DEBUG_TRACE) System.out.println("");
-
+    private void drawGraph() {
+        for (int point = 0; point < FagTopology.POINTS; point++) {
+            FagBoard.Cell src = FagBoard.getCell(point);
+            boolean DEBUG_TRACE=false;
+            if (DEBUG_TRACE) System.out.print("Vertex [" + src.row + "," + src.col + "] ->");
+            for (int d = 0; d < FagTopology.NR_DIRECTIONS; d++) {
+                int neighbour = FagTopology.getNeighbour(point, d);
+                if (neighbour != FagTopology.NO_POINT) {
+                    FagBoard.Cell dst = FagBoard.getCell(neighbour);
+                    if (DEBUG_TRACE) System.out.print(" [" + dst.row + "," + dst.col + "]");
+                    drawEdge(src, dst);
                 }
             }
+            if (DEBUG_TRACE) System.out.println("");
         }
     }
 
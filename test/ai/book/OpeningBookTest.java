@@ -0,0 +1,84 @@
+package ai.book;
+
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.FagSymmetry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+
+class OpeningBookTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testBuildAndProbe() throws IOException, InterruptedException {
+        File file = new File(directory, "test.book");
+        int  size = new OpeningBookBuilder(4, 10, 1).build(file, 3);
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            Assertions.assertEquals(size, book.getNrEntries());
+            Assertions.assertEquals(4, book.getDepth());
+            Assertions.assertEquals(3, book.getPlies());
+
+            // The best moves of the initial position weigh the most
+            FagBitboard initial = FagBitboard.initial();
+            List<Long>  moves   = book.getMoves(initial);
+            Assertions.assertFalse(moves.isEmpty());
+            int maxWeight = 0;
+            for (long move : moves) {
+                Assertions.assertTrue((OpeningBook.getWeight(move) >= 1) && (OpeningBook.getWeight(move) <= 11));
+                maxWeight = Math.max(maxWeight, OpeningBook.getWeight(move));
+            }
+            Assertions.assertEquals(11, maxWeight);
+
+            // A position and its mirror share their entries, with mirrored moves
+            FagBitboard position = FagRules.play(initial, new FagMove(OpeningBook.getFrom(moves.get(0)),
+                                                 OpeningBook.getTo(moves.get(0)), OpeningBook.getTaken(moves.get(0))));
+            List<Long> mirroredMoves = book.getMoves(FagSymmetry.mirror(position));
+            Assertions.assertEquals(book.getMoves(position).size(), mirroredMoves.size());
+            for (long move : book.getMoves(position)) {
+                Assertions.assertTrue(mirroredMoves.contains(OpeningBook.encode(FagSymmetry.mirror(OpeningBook.getFrom(move)),
+                    FagSymmetry.mirror(OpeningBook.getTo(move)), FagSymmetry.mirror(OpeningBook.getTaken(move)), OpeningBook.getWeight(move))));
+            }
+
+            // Follow the book: every chosen move is legal
+            Random random = new Random(3);
+            position = initial;
+            for (int ply = 0; ply < 3; ply++) {
+                SearchResult result = book.getMove(position, random);
+                Assertions.assertNotNull(result);
+                FagMove move = new FagMove(result.getFrom(), result.getTo(), result.getTaken());
+                Assertions.assertTrue(FagRules.getMoves(position).contains(move));
+                position = FagRules.play(position, move);
+            }
+            // Out of the book
+            Assertions.assertNull(book.getMove(position, random));
+        }
+
+        // The same book on several threads
+        File parallel = new File(directory, "parallel.book");
+        new OpeningBookBuilder(4, 10, 3).build(parallel, 3);
+        Assertions.assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(parallel.toPath()));
+    }
+
+    @Test
+    void testInvalidFile() throws IOException {
+        Assertions.assertNull(OpeningBook.open(new File(directory, "missing.book")));
+        File file = new File(directory, "invalid.book");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("Not a book, but long enough for a header.");
+        }
+        Assertions.assertThrows(IOException.class, () -> OpeningBook.open(file));
+    }
+}
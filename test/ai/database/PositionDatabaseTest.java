@@ -0,0 +1,202 @@
+package ai.database;
+
+import ai.player.BatchRunner;
+import ai.player.GameRunner;
+import ai.player.GameSummary;
+import ai.player.RandomPlayer;
+import ai.record.GameRecordWriter;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagSymmetry;
+import model.rules.GameResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+class PositionDatabaseTest {
+
+    @TempDir
+    File directory;
+
+    // Plays random games, and appends them to a file of games
+    private List<GameSummary> record(File file, int count, long seed) throws Exception {
+        List<GameSummary> games = new ArrayList<>();
+        BatchRunner runner = new BatchRunner(new GameRunner(new RandomPlayer(new Random(seed)),
+                                                            new RandomPlayer(new Random(seed + 1))));
+        runner.setVerbose(false);
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.setPlayers(seed, "Ai-0", 0, "Ai-0", 0);
+            runner.setGameListener(writer.andThen(games::add));
+            runner.run(count);
+        }
+        return games;
+    }
+
+    @Test
+    void testGamesAreCounted() throws Exception {
+        File first  = new File(directory, "first.fagr");
+        File second = new File(directory, "second.fagr");
+        List<GameSummary> games = record(first, 150, 3);
+        games.addAll(record(second, 50, 7));
+
+        // The expected counts: {visits, fox wins, geese wins} per canonical position
+        Map<FagBitboard, int[]> expected = new HashMap<>();
+        for (GameSummary game : games) {
+            Set<FagBitboard> seen = new HashSet<>();
+            FagBitboard position = game.getFirstPosition();
+            List<FagBitboard> positions = new ArrayList<>();
+            positions.add(position);
+            for (FagMove move : game.getMoves()) {
+                position = position.isFoxToMove() ? position.moveFox(move.getTo(), move.getTaken()) :
+                                                    position.moveGoose(move.getFrom(), move.getTo());
+                positions.add(position);
+            }
+            for (FagBitboard p : positions) {
+                FagBitboard canonical = FagSymmetry.getCanonical(p);
+                if (!seen.add(canonical)) continue;
+                int[] counts = expected.computeIfAbsent(canonical, key -> new int[3]);
+                counts[0]++;
+                if (game.getResult() == GameResult.FOX_WINS) counts[1]++;
+                if (game.getResult() == GameResult.GEESE_WIN) counts[2]++;
+            }
+        }
+        // Enough positions to grow the index
+        Assertions.assertTrue(expected.size() > PositionDatabase.MIN_CAPACITY);
+
+        File file = new File(directory, "positions.db");
+        try (PositionDatabase database = PositionDatabase.open(file)) {
+            Assertions.assertEquals(200, database.ingest(List.of(first, second), 3));
+            Assertions.assertEquals(200, database.getNrGames());
+            Assertions.assertEquals(expected.size(), database.size());
+            List<PositionStats> all = new ArrayList<>();
+            database.forEach(all::add);
+            Assertions.assertEquals(expected.size(), all.size());
+            for (PositionStats stats : all) {
+                int[] counts = expected.get(stats.getPosition());
+                Assertions.assertNotNull(counts);
+                Assertions.assertEquals(counts[0], stats.getVisits());
+                Assertions.assertEquals(counts[1], stats.getFoxWins());
+                Assertions.assertEquals(counts[2], stats.getGeeseWins());
+            }
+            Assertions.assertEquals(200, database.get(FagBitboard.initial()).getVisits());
+        }
+    }
+
+    @Test
+    void testDatabaseIsReopened() throws Exception {
+        File games = new File(directory, "games.fagr");
+        record(games, 20, 11);
+        File file = new File(directory, "positions.db");
+        int size;
+        PositionStats mirrored;
+        FagBitboard position = FagBitboard.initial().moveFox(FagBitboard.getPoint(4, 2), 0L);
+        try (PositionDatabase database = PositionDatabase.open(file)) {
+            database.ingest(List.of(games), 2);
+            size = database.size();
+            // A position and its mirror are the same entry
+            mirrored = database.get(FagSymmetry.mirror(position));
+            Assertions.assertEquals(mirrored.getVisits(), database.get(position).getVisits());
+            Assertions.assertNull(database.get(new FagBitboard(0L, FagBitboard.getPoint(3, 3), true)));
+        }
+        // A crash while adding a batch
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() + 3 * PositionDatabase.POSITION_SIZE);
+        }
+        try (PositionDatabase database = PositionDatabase.open(file)) {
+            Assertions.assertEquals(size, database.size());
+            Assertions.assertEquals(20, database.getNrGames());
+            Assertions.assertEquals(mirrored.getVisits(), database.get(position).getVisits());
+            // The same games again
+            database.ingest(List.of(games), 1);
+            Assertions.assertEquals(size, database.size());
+            Assertions.assertEquals(40, database.get(FagBitboard.initial()).getVisits());
+            Assertions.assertEquals(2 * mirrored.getVisits(), database.get(position).getVisits());
+        }
+        Assertions.assertEquals(PositionDatabase.HEADER_SIZE + (long) size * PositionDatabase.POSITION_SIZE, file.length());
+    }
+
+    @Test
+    void testInterruptedBatchIsReplayed() throws Exception {
+        File games = new File(directory, "games.fagr");
+        record(games, 20, 11);
+        List<GameSummary> batchGames = record(new File(directory, "batch.fagr"), 10, 13);
+        File reference = new File(directory, "reference.db");
+        Map<FagBitboard, String> before;
+        Map<FagBitboard, String> after;
+        try (PositionDatabase database = PositionDatabase.open(reference)) {
+            database.ingest(List.of(games), 1);
+            before = getAll(database);
+            database.add(getBatch(batchGames));
+            after = getAll(database);
+            Assertions.assertEquals(30, database.getNrGames());
+        }
+
+        // A crash before the batch is applied, after it is applied (but before the journal is removed),
+        //  and while the journal is written
+        for (int crash = 0; crash < 3; crash++) {
+            File file = new File(directory, "crash" + crash + ".db");
+            try (PositionDatabase database = PositionDatabase.open(file)) {
+                database.ingest(List.of(games), 1);
+                ByteBuffer journal = database.writeJournal(getBatch(batchGames));
+                if (crash == 1) database.apply(journal);
+            }
+            File journal = new File(file.getPath() + PositionDatabase.JOURNAL_SUFFIX);
+            Assertions.assertTrue(journal.isFile());
+            if (crash == 2) {
+                try (RandomAccessFile raf = new RandomAccessFile(journal, "rw")) {
+                    raf.setLength(raf.length() - 1);
+                }
+            }
+            try (PositionDatabase database = PositionDatabase.open(file)) {
+                Assertions.assertEquals((crash == 2) ? before : after, getAll(database));
+                Assertions.assertEquals((crash == 2) ? 20 : 30, database.getNrGames());
+            }
+            Assertions.assertFalse(journal.exists());
+        }
+    }
+
+    // The batch of the positions of some games
+    private static PositionDatabase.Batch getBatch(List<GameSummary> games) {
+        PositionDatabase.Batch batch = new PositionDatabase.Batch();
+        for (GameSummary game : games) {
+            List<FagBitboard> positions = new ArrayList<>();
+            FagBitboard position = game.getFirstPosition();
+            positions.add(position);
+            for (FagMove move : game.getMoves()) {
+                position = position.isFoxToMove() ? position.moveFox(move.getTo(), move.getTaken()) :
+                                                    position.moveGoose(move.getFrom(), move.getTo());
+                positions.add(position);
+            }
+            batch.addGame(positions.toArray(new FagBitboard[0]), game.getResult());
+        }
+        return batch;
+    }
+
+    // The statistics of the positions of a database, in the order they were added
+    private static Map<FagBitboard, String> getAll(PositionDatabase database) throws Exception {
+        Map<FagBitboard, String> all = new LinkedHashMap<>();
+        database.forEach(stats -> all.put(stats.getPosition(), stats.toString()));
+        Assertions.assertEquals(database.size(), all.size());
+        return all;
+    }
+
+    @Test
+    void testPositionsArePacked() {
+        for (FagBitboard position : List.of(FagBitboard.initial(), FagBitboard.initial().moveFox(FagBitboard.getPoint(4, 3), 0L),
+                                            new FagBitboard(1L << 32, FagBitboard.getPoint(6, 2), false))) {
+            Assertions.assertEquals(position, PositionDatabase.unpack(PositionDatabase.pack(position)));
+        }
+    }
+}
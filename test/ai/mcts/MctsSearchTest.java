@@ -0,0 +1,76 @@
+package ai.mcts;
+
+import ai.search.SearchLimits;
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class MctsSearchTest {
+
+    @Test
+    void testTakesTheWinningChain() {
+        // The fox at [4,3] wins at once by taking [3,3] then [1,3]: 6 geese are left
+        long geese = bit(getPoint(3, 3)) | bit(getPoint(1, 3)) |
+                     bit(getPoint(2, 0)) | bit(getPoint(3, 0)) | bit(getPoint(4, 0)) |
+                     bit(getPoint(2, 6)) | bit(getPoint(3, 6)) | bit(getPoint(4, 6));
+        FagBitboard position = new FagBitboard(geese, getPoint(4, 3), true);
+        for (PlayoutPolicy policy : PlayoutPolicy.values()) {
+            MctsSearch search = new MctsSearch(policy, 1, 1);
+            search.setMaxPlayouts(2000);
+            SearchResult result = search.search(position, SearchLimits.depth(1));
+            Assertions.assertEquals(getPoint(0, 3), result.getTo());
+            Assertions.assertEquals(2, Long.bitCount(result.getTaken()));
+            Assertions.assertEquals(2000, search.getPlayouts());
+        }
+    }
+
+    @Test
+    void testSameSeedSameMove() {
+        MctsSearch search1 = new MctsSearch(PlayoutPolicy.RANDOM, 1, 7);
+        MctsSearch search2 = new MctsSearch(PlayoutPolicy.RANDOM, 1, 7);
+        search1.setMaxPlayouts(500);
+        search2.setMaxPlayouts(500);
+        FagBitboard position = FagBitboard.initial();
+        SearchResult result1 = search1.search(position, SearchLimits.depth(1));
+        SearchResult result2 = search2.search(position, SearchLimits.depth(1));
+        Assertions.assertEquals(result1.getTo(), result2.getTo());
+        Assertions.assertEquals(result1.getScore(), result2.getScore());
+    }
+
+    @Test
+    void testTreeIsReused() {
+        MctsSearch search = new MctsSearch(PlayoutPolicy.HEURISTIC, 1, 3);
+        search.setMaxPlayouts(1000);
+        FagBitboard position = FagBitboard.initial();
+        SearchResult result = search.search(position, SearchLimits.depth(1));
+        Assertions.assertEquals(0, search.getReusedPlayouts());
+
+        // The fox plays the move, the geese answer with the first move
+        position = FagRules.play(position, new FagMove(result.getFrom(), result.getTo(), result.getTaken()));
+        position = FagRules.play(position, FagRules.getMoves(position).get(0));
+        search.search(position, SearchLimits.depth(1));
+        Assertions.assertTrue(search.getReusedPlayouts() > 0);
+
+        search.clearTree();
+        search.search(position, SearchLimits.depth(1));
+        Assertions.assertEquals(0, search.getReusedPlayouts());
+    }
+
+    @Test
+    void testParallelSearch() {
+        MctsSearch search = new MctsSearch(PlayoutPolicy.RANDOM, 3, 5);
+        FagBitboard position = FagRules.play(FagBitboard.initial(), FagRules.getMoves(FagBitboard.initial()).get(0));
+        // A wall-clock budget only
+        SearchResult result = search.search(position, SearchLimits.moveTime(200));
+        search.shutdown();
+        Assertions.assertTrue(FagRules.isLegal(position, new FagMove(result.getFrom(), result.getTo(), result.getTaken())));
+        Assertions.assertTrue(search.getPlayouts() > 0);
+        Assertions.assertTrue(result.getElapsed() < 1000);
+    }
+}
@@ -0,0 +1,58 @@
+package ai.player;
+
+import ai.search.SearchLimits;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import model.rules.GameResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class GameRunnerTest {
+
+    @Test
+    void testGamesAreComplete() {
+        GameRunner runner = new GameRunner(new RandomPlayer(new Random(1)), new GeeseHeuristicPlayer());
+        for (int g = 0; g < 20; g++) {
+            GameSummary game = runner.play();
+            Assertions.assertTrue(game.getNrPlies() <= FagRules.MAX_PLIES);
+            // Replay the game through the rules
+            FagBitboard position = game.getFirstPosition();
+            for (int ply = 0; ply < game.getNrPlies(); ply++) {
+                Assertions.assertEquals(position.isFoxToMove(), game.isFoxPly(ply));
+                position = FagRules.play(position, game.getMoves().get(ply));
+            }
+            if (game.getResult() != GameResult.NONE) {
+                Assertions.assertEquals(game.getResult(), FagRules.getResult(position));
+            } else {
+                Assertions.assertEquals(FagRules.MAX_PLIES, game.getNrPlies());
+            }
+        }
+    }
+
+    @Test
+    void testSameSeedSameGames() {
+        GameRunner runner1 = new GameRunner(new RandomPlayer(new Random(7)), new RandomPlayer(new Random(8)));
+        GameRunner runner2 = new GameRunner(new RandomPlayer(new Random(7)), new RandomPlayer(new Random(8)));
+        for (int g = 0; g < 5; g++) {
+            Assertions.assertEquals(runner1.play().getMoves(), runner2.play().getMoves());
+        }
+    }
+
+    @Test
+    void testBatchStatistics() {
+        SearchPlayer fox = new SearchPlayer("Ai-2", SearchLimits.depth(2), 1, 1, 0, null);
+        BatchRunner runner = new BatchRunner(new GameRunner(fox, new RandomPlayer(new Random(3))));
+        runner.setVerbose(false);
+        BatchStatistics statistics = runner.run(10);
+        fox.shutdown();
+
+        Assertions.assertEquals(10, statistics.getNrGames());
+        Assertions.assertEquals(10, statistics.getFoxWins() + statistics.getGeeseWins() + statistics.getDraws());
+        Assertions.assertTrue(statistics.getAveragePlies() > 0);
+        Assertions.assertTrue(statistics.getMovesPerSecond() > 0);
+        Assertions.assertTrue(statistics.getLatencyPercentile(true, 50) <= statistics.getLatencyPercentile(true, 99));
+        Assertions.assertTrue(statistics.toString().contains("Fox wins"));
+    }
+}
@@ -0,0 +1,53 @@
+package ai.proof;
+
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class ProofNumberSearchTest {
+
+    @Test
+    void testTable() {
+        ProofTable table = new ProofTable(1);
+        Assertions.assertEquals(0L, table.probe(42L));
+        table.store(42L, 3, ProofTable.INFINITY + 5, 100);
+        long data = table.probe(42L);
+        Assertions.assertEquals(3, ProofTable.getProof(data));
+        Assertions.assertEquals(ProofTable.INFINITY, ProofTable.getDisproof(data));
+        table.store(42L, 0, ProofTable.INFINITY, 1);
+        Assertions.assertEquals(0, ProofTable.getProof(table.probe(42L)));
+        table.clear();
+        Assertions.assertEquals(0L, table.probe(42L));
+    }
+
+    @Test
+    void testGeeseTrapTheFox() {
+        // The fox at [0,2] can only go to [1,2], where the goose of [0,3] traps it
+        long geese = bit(getPoint(0, 3)) | bit(getPoint(0, 4)) | bit(getPoint(1, 3)) | bit(getPoint(1, 4)) |
+                     bit(getPoint(2, 2)) | bit(getPoint(2, 3)) | bit(getPoint(2, 4)) | bit(getPoint(2, 1)) |
+                     bit(getPoint(3, 2)) | bit(getPoint(3, 3)) | bit(getPoint(3, 4));
+        FagBitboard position = new FagBitboard(geese, getPoint(0, 2), false);
+        ProofResult result = new ProofNumberSearch(1).solve(position, FagRules.GEESE_TEAM, 10000);
+        Assertions.assertTrue(result.isProven());
+        Assertions.assertTrue(result.hasMove());
+        FagBitboard next = position.moveGoose(result.getFrom(), result.getTo());
+        Assertions.assertTrue(new ProofNumberSearch(1).solve(next, FagRules.GEESE_TEAM, 10000).isProven());
+        FagBitboard trapped = next.moveFox(getPoint(1, 2), 0L).moveGoose(getPoint(0, 3), getPoint(0, 2));
+        Assertions.assertTrue(FagRules.getResult(trapped).isOver());
+
+        // The fox cannot win from there
+        ProofResult fox = new ProofNumberSearch(1).solve(position, FagRules.FOX_TEAM, 10000);
+        Assertions.assertTrue(fox.isDisproven());
+    }
+
+    @Test
+    void testFoxIsFree() {
+        ProofResult result = new ProofNumberSearch(1).solve(FagBitboard.initial(), FagRules.GEESE_TEAM, 2000);
+        Assertions.assertFalse(result.isProven());
+        Assertions.assertTrue(result.getNodes() <= 2000);
+    }
+}
@@ -0,0 +1,180 @@
+package ai.record;
+
+import ai.player.BatchRunner;
+import ai.player.GameRunner;
+import ai.player.GameSummary;
+import ai.player.RandomPlayer;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.GameResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class GameRecordTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testGamesAreReadBack() throws Exception {
+        File file = new File(directory, "games.fagr");
+        List<GameSummary> games = new ArrayList<>();
+        BatchRunner runner = new BatchRunner(new GameRunner(new RandomPlayer(new Random(5)), new RandomPlayer(new Random(6))));
+        runner.setVerbose(false);
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.setPlayers(42L, "Ai-0", 0, "Lena", GameRecord.HUMAN);
+            runner.setGameListener(writer.andThen(games::add));
+            runner.run(30);
+            Assertions.assertEquals(30, writer.getNrGames());
+        }
+
+        long plies = 0;
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            for (int g = 0; g < games.size(); g++) {
+                Assertions.assertTrue(reader.next());
+                GameSummary game = games.get(g);
+                Assertions.assertEquals(42L, reader.getSeed());
+                Assertions.assertEquals(g + 1, reader.getNumber());
+                Assertions.assertEquals("Ai-0", reader.getFoxName());
+                Assertions.assertEquals(0, reader.getFoxLevel());
+                Assertions.assertEquals("Lena", reader.getGeeseName());
+                Assertions.assertEquals(GameRecord.HUMAN, reader.getGeeseLevel());
+                Assertions.assertEquals(game.getResult(), reader.getResult());
+                Assertions.assertEquals(game.getFirstPosition(), reader.getFirstPosition());
+                Assertions.assertEquals(game.getMoves(), reader.getMoves());
+                plies += game.getNrPlies();
+            }
+            Assertions.assertFalse(reader.next());
+            Assertions.assertFalse(reader.isTruncated());
+        }
+        // A byte per ply, and 5 more for the geese taken by a chain of jumps
+        long chains = 0;
+        for (GameSummary game : games) {
+            chains += game.getMoves().stream().filter(move -> move.getNrTaken() > 1).count();
+        }
+        long plyBytes = file.length() - GameRecordReader.HEADER_SIZE - 30L * (GameRecordReader.RECORD_HEADER_SIZE + 8);
+        Assertions.assertEquals(plies + 5 * chains, plyBytes);
+    }
+
+    @Test
+    void testChainAndFirstPosition() throws Exception {
+        // The fox takes the geese of [3,3] and [5,3] in a chain of jumps
+        FagBitboard first = new FagBitboard(bit(getPoint(3, 3)) | bit(getPoint(5, 3)) | bit(getPoint(4, 0)),
+                                            getPoint(2, 3), true);
+        FagMove chain = null;
+        for (FagMove move : FagRules.getMoves(first)) {
+            if (move.getNrTaken() == 2) chain = move;
+        }
+        Assertions.assertNotNull(chain);
+        FagMove step = new FagMove(getPoint(4, 0), getPoint(4, 1), 0L);
+        List<FagMove> moves = List.of(chain, step);
+
+        File file = new File(directory, "chain.fagr");
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.begin(7L, 3, "Ai-4", 4, "Ai-2", 2, first);
+            writer.play(chain);
+            writer.play(step);
+            Assertions.assertTrue(writer.isRecording());
+            writer.end(GameResult.FOX_WINS);
+            Assertions.assertFalse(writer.isRecording());
+            // A move which is not a step of a goose
+            writer.begin(7L, 4, "Ai-4", 4, "Ai-2", 2, FagBitboard.initial().moveFox(getPoint(4, 3), 0L));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                                    () -> writer.play(new FagMove(getPoint(0, 3), getPoint(2, 3), 0L)));
+        }
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            Assertions.assertTrue(reader.next());
+            GameRecord record = reader.getRecord();
+            Assertions.assertEquals(first, record.getFirstPosition());
+            Assertions.assertEquals(moves, record.getMoves());
+            Assertions.assertEquals(GameResult.FOX_WINS, record.getResult());
+            Assertions.assertEquals(3, record.getNumber());
+            long offset = reader.getOffset();
+            // The game stopped by the error is recorded up to there
+            Assertions.assertTrue(reader.next());
+            Assertions.assertEquals(0, reader.getNrPlies());
+            Assertions.assertEquals(GameResult.NONE, reader.getResult());
+            Assertions.assertFalse(reader.next());
+            Assertions.assertTrue(reader.seek(offset));
+            Assertions.assertEquals(moves, reader.getMoves());
+            Assertions.assertFalse(reader.seek(offset + 1));
+        }
+    }
+
+    @Test
+    void testLongNamesAreCut() {
+        Assertions.assertEquals("a".repeat(255), new String(GameRecordWriter.Encoder.getName("a".repeat(300)), StandardCharsets.UTF_8));
+        Assertions.assertEquals(255, GameRecordWriter.Encoder.getName("a".repeat(255)).length);
+        // 2-byte characters: the cut falls between two of them, or in the middle of one, which is dropped
+        String name = "a" + "\u00e9".repeat(200);
+        Assertions.assertEquals("a" + "\u00e9".repeat(127), new String(GameRecordWriter.Encoder.getName(name), StandardCharsets.UTF_8));
+        Assertions.assertEquals("aa" + "\u00e9".repeat(126), new String(GameRecordWriter.Encoder.getName("a" + name), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLongNamesAreReadBack() throws Exception {
+        // Two names of 255 bytes, and a first position which is not the initial one
+        String foxName   = "f".repeat(255);
+        String geeseName = "g".repeat(300);
+        FagBitboard first = FagBitboard.initial().moveFox(getPoint(4, 3), 0L);
+        GameRecord game = new GameRecord(2L, 5, foxName, 3, geeseName, 4, first,
+                                         List.of(new FagMove(getPoint(2, 3), getPoint(3, 3), 0L)), GameResult.NONE);
+        File file = new File(directory, "names.fagr");
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(game);
+        }
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            Assertions.assertTrue(reader.next());
+            GameRecord record = reader.getRecord();
+            Assertions.assertEquals(foxName, record.getFoxName());
+            Assertions.assertEquals("g".repeat(255), record.getGeeseName());
+            Assertions.assertEquals(first, record.getFirstPosition());
+            Assertions.assertEquals(game.getMoves(), record.getMoves());
+            Assertions.assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testTruncatedGameIsRemoved() throws Exception {
+        File file = new File(directory, "truncated.fagr");
+        GameRecord game = new GameRecord(1L, 1, "Ai-1", 1, "Ai-1", 1, FagBitboard.initial(),
+                                         List.of(new FagMove(getPoint(5, 3), getPoint(4, 3), 0L)), GameResult.NONE);
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(game);
+            writer.write(game);
+        }
+        // A crash while writing the second game
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            Assertions.assertTrue(reader.next());
+            Assertions.assertFalse(reader.next());
+            Assertions.assertTrue(reader.isTruncated());
+        }
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(game);
+        }
+        try (GameRecordReader reader = GameRecordReader.open(file)) {
+            int count = 0;
+            while (reader.next()) {
+                Assertions.assertEquals(game.getMoves(), reader.getMoves());
+                count++;
+            }
+            Assertions.assertEquals(2, count);
+            Assertions.assertFalse(reader.isTruncated());
+        }
+    }
+}
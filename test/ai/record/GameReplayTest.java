@@ -0,0 +1,72 @@
+package ai.record;
+
+import ai.player.BatchRunner;
+import ai.player.GameRunner;
+import ai.player.GameSummary;
+import ai.player.RandomPlayer;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.GameResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static model.rules.FagBitboard.getPoint;
+
+class GameReplayTest {
+
+    private static GameRecord toRecord(GameSummary game, int number) {
+        return new GameRecord(1L, number, "Ai-0", 0, "Ai-0", 0, game.getFirstPosition(), game.getMoves(), game.getResult());
+    }
+
+    @Test
+    void testPositionsOfEachPly() {
+        List<GameSummary> games = new ArrayList<>();
+        BatchRunner runner = new BatchRunner(new GameRunner(new RandomPlayer(new Random(11)), new RandomPlayer(new Random(12))));
+        runner.setVerbose(false);
+        runner.setGameListener(games::add);
+        runner.run(20);
+
+        for (int g = 0; g < games.size(); g++) {
+            GameSummary game   = games.get(g);
+            GameReplay  replay = new GameReplay(toRecord(game, g + 1));
+            Assertions.assertEquals(game.getNrPlies(), replay.getNrPlies());
+            Assertions.assertEquals(game.getResult(), replay.getResult());
+            // The positions reached from the snapshots are those of a sequential replay
+            FagBitboard position = game.getFirstPosition();
+            for (int ply = 0; ply < replay.getNrPlies(); ply++) {
+                Assertions.assertEquals(position, replay.getPosition(ply));
+                FagMove move = replay.getMove(ply);
+                position = position.isFoxToMove() ? position.moveFox(move.getTo(), move.getTaken()) :
+                                                    position.moveGoose(move.getFrom(), move.getTo());
+            }
+            Assertions.assertEquals(position, replay.getPosition(replay.getNrPlies()));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> replay.getPosition(replay.getNrPlies() + 1));
+            Assertions.assertEquals(0, replay.findPly(game.getFirstPosition()));
+        }
+    }
+
+    @Test
+    void testInvalidGamesAreRejected() {
+        FagMove fox = new FagMove(getPoint(5, 3), getPoint(4, 3), 0L);
+        // A goose stepping along a diagonal
+        List<FagMove> illegal = List.of(fox, new FagMove(getPoint(2, 0), getPoint(3, 1), 0L));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> new GameReplay(new GameRecord(1L, 1, "Ai-0", 0, "Ai-0", 0, FagBitboard.initial(),
+                                                                    illegal, GameResult.NONE)));
+        // A game which is not over, recorded as won
+        FagMove goose = new FagMove(getPoint(2, 0), getPoint(3, 0), 0L);
+        List<FagMove> moves = List.of(fox, goose);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                                () -> new GameReplay(new GameRecord(1L, 1, "Ai-0", 0, "Ai-0", 0, FagBitboard.initial(),
+                                                                    moves, GameResult.FOX_WINS)));
+        GameReplay replay = new GameReplay(new GameRecord(1L, 1, "Ai-0", 0, "Ai-0", 0, FagBitboard.initial(),
+                                                          moves, GameResult.NONE));
+        Assertions.assertEquals(GameResult.NONE, replay.getResult());
+        Assertions.assertEquals(1, replay.findPly(FagBitboard.initial().moveFox(getPoint(4, 3), 0L)));
+        Assertions.assertEquals(-1, replay.findPly(FagBitboard.initial().moveFox(getPoint(4, 2), 0L)));
+    }
+}
@@ -0,0 +1,47 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class AlphaBetaSearchTest {
+
+    @Test
+    void testCaptureWin() {
+        // The fox takes its 7th goose by jumping over [3,4]
+        long geese = bit(getPoint(0, 2)) | bit(getPoint(0, 3)) | bit(getPoint(0, 4)) | bit(getPoint(1, 2)) |
+                     bit(getPoint(1, 3)) | bit(getPoint(1, 4)) | bit(getPoint(3, 4));
+        FagBitboard position = new FagBitboard(geese, getPoint(3, 3), true);
+        Assertions.assertEquals(FagRules.FOX_WIN_GEESE + 1, position.getGeeseCount());
+        for (int depth = 1; depth <= 4; depth++) {
+            SearchResult result = new AlphaBetaSearch().search(position, SearchLimits.depth(depth));
+            Assertions.assertEquals(getPoint(3, 5), result.getTo());
+            Assertions.assertEquals(bit(getPoint(3, 4)), result.getTaken());
+            Assertions.assertEquals(AlphaBetaSearch.WIN - 1, result.getScore());
+        }
+    }
+
+    @Test
+    void testTrappedFoxLoses() {
+        // The goose of [1,4] closes the last free point around the fox in the corner
+        long geese = bit(getPoint(0, 3)) | bit(getPoint(0, 4)) | bit(getPoint(1, 2)) | bit(getPoint(1, 4)) |
+                     bit(getPoint(2, 2)) | bit(getPoint(2, 3)) | bit(getPoint(2, 4)) | bit(getPoint(2, 0));
+        FagBitboard position = new FagBitboard(geese, getPoint(0, 2), false);
+        FagMove trap = new FagMove(getPoint(1, 4), getPoint(1, 3), 0L);
+        Assertions.assertTrue(FagRules.getMoves(FagRules.play(position, trap)).isEmpty());
+
+        SearchResult result = new AlphaBetaSearch().search(position, SearchLimits.depth(3));
+        Assertions.assertEquals(trap.getFrom(), result.getFrom());
+        Assertions.assertEquals(trap.getTo(), result.getTo());
+        Assertions.assertEquals(AlphaBetaSearch.WIN - 1, result.getScore());
+        // The fox escapes through the free point when it is to move
+        SearchResult fox = new AlphaBetaSearch().search(FagRules.play(position, new FagMove(getPoint(2, 0), getPoint(2, 1), 0L)),
+                                                        SearchLimits.depth(2));
+        Assertions.assertEquals(getPoint(1, 3), fox.getTo());
+    }
+}
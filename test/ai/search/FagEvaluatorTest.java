@@ -0,0 +1,94 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class FagEvaluatorTest {
+
+    @Test
+    void testIncrementalAlongRandomGames() {
+        // The cached terms give the same score as an evaluation from scratch
+        Random       random      = new Random(3);
+        FagEvaluator incremental = new FagEvaluator();
+        FagEvaluator scratch     = new FagEvaluator();
+        MoveList     list        = new MoveList();
+        for (int game = 0; game < 200; game++) {
+            long    geese     = FagBitboard.initial().getGeese();
+            int     fox       = FagBitboard.initial().getFox();
+            boolean foxToMove = true;
+            incremental.setRoot(geese, fox);
+            for (int ply = 0; ply <= SearchLimits.MAX_DEPTH; ply++) {
+                Assertions.assertEquals(scratch.evaluate(geese, fox), incremental.evaluate(ply, geese, fox));
+                MoveGenerator.generate(geese, fox, foxToMove, list);
+                if (list.size() == 0) break;
+                int i = random.nextInt(list.size());
+                incremental.play(ply, foxToMove, list.getFrom(i), list.getTo(i), list.getTaken(i));
+                if (foxToMove) {
+                    geese &= ~list.getTaken(i);
+                    fox = list.getTo(i);
+                } else {
+                    geese = (geese & ~bit(list.getFrom(i))) | bit(list.getTo(i));
+                }
+                foxToMove = !foxToMove;
+            }
+        }
+    }
+
+    @Test
+    void testSameSearchAsStatelessEvaluation() {
+        FagEvaluator scratch   = new FagEvaluator();
+        SearchResult stateless = new AlphaBetaSearch(scratch::evaluate, null).search(FagBitboard.initial(), SearchLimits.depth(6));
+        SearchResult cached    = new AlphaBetaSearch().search(FagBitboard.initial(), SearchLimits.depth(6));
+        Assertions.assertEquals(stateless.getScore(), cached.getScore());
+        Assertions.assertEquals(stateless.getNodes(), cached.getNodes());
+    }
+
+    @Test
+    void testFeatures() {
+        // The fox at [4,3] can jump over [3,3], but not over [5,3] (blocked by [6,3])
+        long geese = bit(getPoint(3, 3)) | bit(getPoint(5, 3)) | bit(getPoint(6, 3));
+        int[] features = new int[EvaluationWeights.NR_FEATURES];
+        FagEvaluator.getFeatures(geese, getPoint(4, 3), features);
+        Assertions.assertEquals(10, features[EvaluationWeights.TAKEN_GOOSE]);
+        Assertions.assertEquals(2, features[EvaluationWeights.FOX_STEP]);
+        Assertions.assertEquals(1, features[EvaluationWeights.GOOSE_AT_RISK]);
+        Assertions.assertEquals(2, features[EvaluationWeights.GOOSE_PASSED]);
+        Assertions.assertEquals(3, features[EvaluationWeights.GOOSE_ROW]);
+        Assertions.assertEquals(4, features[EvaluationWeights.GOOSE_SPREAD]);
+        Assertions.assertEquals(0, features[EvaluationWeights.FOX_TRAPPED]);
+
+        // The fox in the corner [2,0], surrounded by geese which cannot be jumped
+        geese = bit(getPoint(2, 1)) | bit(getPoint(2, 2)) | bit(getPoint(3, 0)) | bit(getPoint(4, 0)) |
+                bit(getPoint(3, 1)) | bit(getPoint(4, 2));
+        FagEvaluator.getFeatures(geese, getPoint(2, 0), features);
+        Assertions.assertEquals(0, features[EvaluationWeights.FOX_STEP]);
+        Assertions.assertEquals(0, features[EvaluationWeights.GOOSE_AT_RISK]);
+        Assertions.assertEquals(1, features[EvaluationWeights.FOX_TRAPPED]);
+    }
+
+    @Test
+    void testReadWeights() throws IOException {
+        EvaluationWeights weights = EvaluationWeights.read(new StringReader("# Tuned\nfox_step = 9\ngoose_row=-3\n"));
+        Assertions.assertEquals(9, weights.get(EvaluationWeights.FOX_STEP));
+        Assertions.assertEquals(-3, weights.get(EvaluationWeights.GOOSE_ROW));
+        // The other features keep their default weights
+        Assertions.assertEquals(EvaluationWeights.getDefault().get(EvaluationWeights.TAKEN_GOOSE),
+                                weights.get(EvaluationWeights.TAKEN_GOOSE));
+
+        StringWriter writer = new StringWriter();
+        weights.write(writer);
+        Assertions.assertEquals(weights, EvaluationWeights.read(new StringReader(writer.toString())));
+
+        Assertions.assertThrows(IOException.class, () -> EvaluationWeights.read(new StringReader("fox_speed = 1")));
+        Assertions.assertThrows(IOException.class, () -> EvaluationWeights.read(new StringReader("fox_step = one")));
+    }
+}
@@ -0,0 +1,44 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class IterativeDeepeningTest {
+
+    @Test
+    void testSameMoveAsFixedDepth() {
+        SearchResult fixed = new AlphaBetaSearch().search(FagBitboard.initial(), SearchLimits.depth(6));
+        SearchResult iterative = new IterativeDeepening(new TranspositionTable(1)).search(FagBitboard.initial(), SearchLimits.depth(6));
+        Assertions.assertEquals(6, iterative.getDepth());
+        Assertions.assertEquals(fixed.getScore(), iterative.getScore());
+    }
+
+    @Test
+    void testStopsOnWin() {
+        // The fox can take the last goose it needs with a double jump
+        long geese = bit(getPoint(3, 3)) | bit(getPoint(1, 3)) |
+                     bit(getPoint(0, 2)) | bit(getPoint(0, 4)) | bit(getPoint(2, 0)) | bit(getPoint(2, 6)) |
+                     bit(getPoint(6, 2)) | bit(getPoint(6, 4));
+        FagBitboard position = new FagBitboard(geese, getPoint(4, 3), true);
+        IterativeDeepening search = new IterativeDeepening(new TranspositionTable(1));
+        SearchResult result = search.search(position, SearchLimits.depth(20));
+        Assertions.assertEquals(bit(getPoint(3, 3)) | bit(getPoint(1, 3)), result.getTaken());
+        Assertions.assertTrue(result.getScore() >= AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH);
+        Assertions.assertTrue(result.getDepth() < 20);
+        Assertions.assertFalse(search.getPrincipalVariation().isEmpty());
+    }
+
+    @Test
+    void testMoveTime() {
+        IterativeDeepening search = new IterativeDeepening(new TranspositionTable(1));
+        long start = System.currentTimeMillis();
+        SearchResult result = search.search(FagBitboard.initial(), SearchLimits.moveTime(200));
+        Assertions.assertTrue(result.hasMove());
+        // The clock is checked every few thousand nodes only
+        Assertions.assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+}
@@ -0,0 +1,29 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class LazySmpSearchTest {
+
+    @Test
+    void testSingleThreadIsDeterministic() {
+        SearchResult first  = new LazySmpSearch(new TranspositionTable(1), 1, 7).search(FagBitboard.initial(), SearchLimits.depth(8));
+        SearchResult second = new LazySmpSearch(new TranspositionTable(1), 1, 7).search(FagBitboard.initial(), SearchLimits.depth(8));
+        Assertions.assertEquals(first.getFrom(), second.getFrom());
+        Assertions.assertEquals(first.getTo(), second.getTo());
+        Assertions.assertEquals(first.getScore(), second.getScore());
+        Assertions.assertEquals(first.getNodes(), second.getNodes());
+    }
+
+    @Test
+    void testSeveralThreads() {
+        LazySmpSearch search = new LazySmpSearch(new TranspositionTable(1), 3, 7);
+        SearchResult result = search.search(FagBitboard.initial(), SearchLimits.depth(8));
+        Assertions.assertTrue(result.hasMove());
+        Assertions.assertEquals(8, result.getDepth());
+        Assertions.assertEquals(3, search.getThreads());
+        Assertions.assertEquals(result.getNodes(), search.getNodes(0) + search.getNodes(1) + search.getNodes(2));
+        search.shutdown();
+    }
+}
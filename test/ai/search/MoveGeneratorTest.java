@@ -0,0 +1,64 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import model.rules.FagTopology;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static model.rules.FagBitboard.bit;
+
+class MoveGeneratorTest {
+
+    // The moves of the generator, which must be those of the rules
+    private static void assertSameMoves(FagBitboard position, MoveList list) {
+        MoveGenerator.generate(position.getGeese(), position.getFox(), position.isFoxToMove(), list);
+        Set<FagMove> generated = new HashSet<>();
+        for (int i = 0; i < list.size(); i++) {
+            generated.add(new FagMove(list.getFrom(i), list.getTo(i), list.getTaken(i)));
+        }
+        Assertions.assertEquals(list.size(), generated.size(), "Duplicate moves in\n" + position);
+        Assertions.assertEquals(new HashSet<>(FagRules.getMoves(position)), generated, "In\n" + position);
+    }
+
+    // A position written point after point: G a goose, F the fox, then f or g for the side to move
+    private static FagBitboard parse(String notation) {
+        long geese = 0L;
+        int  fox   = FagBitboard.NO_POINT;
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            if (notation.charAt(p) == 'G') geese |= bit(p);
+            if (notation.charAt(p) == 'F') fox = p;
+        }
+        return new FagBitboard(geese, fox, notation.charAt(FagBitboard.POINTS + 1) == 'f');
+    }
+
+    @Test
+    void testManyChainsOfJumps() {
+        // More than 700 distinct chains of jumps of the fox, followed by its steps
+        FagBitboard position = parse(".G.GGGFG.G...GG.GGG....G.G....... f");
+        MoveList list = new MoveList();
+        assertSameMoves(position, list);
+        Assertions.assertTrue(list.size() > 700);
+    }
+
+    @Test
+    void testRandomPositions() {
+        Random random = new Random(2);
+        MoveList list = new MoveList();
+        for (int n = 0; n < 2000; n++) {
+            int  fox   = random.nextInt(FagBitboard.POINTS);
+            long geese = 0L;
+            int  count = 1 + random.nextInt(FagTopology.GEESE_COUNT);
+            while (Long.bitCount(geese) < count) {
+                int point = random.nextInt(FagBitboard.POINTS);
+                if (point != fox) geese |= bit(point);
+            }
+            assertSameMoves(new FagBitboard(geese, fox, random.nextBoolean()), list);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.getPoint;
+
+class MoveOrderingTest {
+
+    @Test
+    void testPackedMoves() {
+        MoveList list = new MoveList();
+        MoveGenerator.generate(FagBitboard.initial().getGeese(), FagBitboard.initial().getFox(), true, list);
+        for (int i = 0; i < list.size(); i++) {
+            int move = list.getMove(i);
+            Assertions.assertEquals(getPoint(5, 3), Move.getFrom(move));
+            Assertions.assertEquals(list.getTo(i), Move.getTo(move));
+            Assertions.assertFalse(Move.isCapture(move));
+            Assertions.assertNotEquals(Move.NONE, move);
+        }
+        int jump = Move.encode(getPoint(3, 3), getPoint(1, 3), 1);
+        Assertions.assertTrue(Move.isCapture(jump));
+        Assertions.assertEquals("[3,3]-[1,3]x1", Move.toString(jump));
+    }
+
+    @Test
+    void testOrder() {
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.newSearch();
+        int capture = Move.encode(getPoint(3, 3), getPoint(1, 3), 1);
+        int south   = Move.encode(getPoint(2, 3), getPoint(3, 3), 0);
+        int west    = Move.encode(getPoint(2, 3), getPoint(2, 2), 0);
+        int east    = Move.encode(getPoint(2, 3), getPoint(2, 4), 0);
+        // Without any history, the geese moving South first
+        Assertions.assertTrue(ordering.getScore(3, false, south) > ordering.getScore(3, false, west));
+
+        // A cut-off makes a quiet move a killer of its ply, and adds to its history
+        ordering.cutoff(3, false, west, 4, 2);
+        Assertions.assertEquals(MoveOrdering.KILLER_SCORE, ordering.getScore(3, false, west));
+        Assertions.assertTrue(ordering.getScore(5, false, west) > ordering.getScore(5, false, south));
+        ordering.cutoff(3, false, east, 2, 0);
+        Assertions.assertEquals(MoveOrdering.KILLER_SCORE, ordering.getScore(3, false, east));
+        Assertions.assertEquals(MoveOrdering.KILLER_SCORE - 1, ordering.getScore(3, false, west));
+        // The captures come first, and are no killers
+        ordering.cutoff(3, true, capture, 4, 0);
+        Assertions.assertTrue(ordering.getScore(3, true, capture) > MoveOrdering.KILLER_SCORE);
+        Assertions.assertEquals(MoveOrdering.KILLER_SCORE, ordering.getScore(3, false, east));
+
+        Assertions.assertEquals(3, ordering.getCutoffs());
+        Assertions.assertEquals(2, ordering.getFirstMoveCutoffs());
+        // A new search forgets the killers and the statistics
+        ordering.newSearch();
+        Assertions.assertTrue(ordering.getScore(3, false, east) < MoveOrdering.KILLER_SCORE - 1);
+        Assertions.assertEquals(0.0, ordering.getFirstMoveCutoffRate());
+    }
+
+    @Test
+    void testFirstMoveCutoffRate() {
+        IterativeDeepening search = new IterativeDeepening(new TranspositionTable(4));
+        search.search(FagBitboard.initial(), SearchLimits.depth(8));
+        MoveOrdering ordering = search.getSearch().getOrdering();
+        Assertions.assertTrue(ordering.getCutoffs() > 0);
+        Assertions.assertTrue(ordering.getFirstMoveCutoffRate() > 0.75);
+    }
+}
@@ -0,0 +1,132 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import model.rules.FagTopology;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class PerftTest {
+
+    // The depths are limited to keep the tests fast (see Perft.main for the deep counts)
+    private final static long MAX_NODES = 300000;
+
+    @Test
+    void testReferenceCounts() throws Exception {
+        Perft perft = new Perft(8);
+        List<Perft.Entry> entries = Perft.readEntries();
+        Assertions.assertTrue(entries.size() >= 10);
+        for (Perft.Entry entry : entries) {
+            for (int depth = 1; (depth <= entry.counts.length) && (entry.counts[depth - 1] <= MAX_NODES); depth++) {
+                Assertions.assertEquals(entry.counts[depth - 1], perft.perft(entry.position, depth),
+                                        Perft.toNotation(entry.position) + " D" + depth);
+            }
+        }
+        Assertions.assertEquals(Perft.toNotation(FagBitboard.initial()), Perft.toNotation(entries.get(0).position));
+    }
+
+    @Test
+    void testRulesAgree() throws Exception {
+        for (Perft.Entry entry : Perft.readEntries()) {
+            for (int depth = 1; depth <= 4; depth++) {
+                Assertions.assertEquals(entry.counts[depth - 1], Perft.perftRules(entry.position, depth));
+            }
+        }
+    }
+
+    @Test
+    void testIndependentGenerator() throws Exception {
+        for (Perft.Entry entry : Perft.readEntries()) {
+            for (int depth = 1; depth <= 4; depth++) {
+                Assertions.assertEquals(entry.counts[depth - 1], naivePerft(entry.position, depth),
+                                        Perft.toNotation(entry.position) + " D" + depth);
+            }
+        }
+    }
+
+    @Test
+    void testNotation() {
+        FagBitboard position = FagBitboard.initial().moveFox(FagBitboard.getPoint(4, 3), 0L);
+        Assertions.assertEquals(position, Perft.parse(Perft.toNotation(position)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Perft.parse("GGG f"));
+    }
+
+    /*************************************************************
+     * A NAIVE GENERATOR, ON THE GEOMETRY OF THE EDGES ONLY
+     *************************************************************/
+
+    private static long naivePerft(FagBitboard position, int depth) {
+        if (depth == 0) return 1;
+        if (Long.bitCount(position.getGeese()) <= FagRules.FOX_WIN_GEESE) return 0;
+        long nodes = 0;
+        for (long[] move : naiveMoves(position)) {
+            FagBitboard next = position.isFoxToMove() ? position.moveFox((int) move[1], move[2])
+                                                      : position.moveGoose((int) move[0], (int) move[1]);
+            nodes += naivePerft(next, depth - 1);
+        }
+        return nodes;
+    }
+
+    // The moves as {from, to, taken}
+    private static List<long[]> naiveMoves(FagBitboard position) {
+        List<long[]> moves = new ArrayList<>();
+        if (position.isFoxToMove()) {
+            int fox = position.getFox();
+            for (int[] edge : getEdges(fox)) {
+                int to = FagBitboard.getPoint(edge[2], edge[3]);
+                if (position.isEmptyAt(to)) moves.add(new long[] { fox, to, 0L });
+            }
+            Set<String> chains = new HashSet<>();
+            naiveJumps(position, fox, fox, 0L, chains, moves);
+        } else {
+            for (int goose = 0; goose < FagTopology.POINTS; goose++) {
+                if (!position.isGooseAt(goose)) continue;
+                for (int[] edge : getEdges(goose)) {
+                    // South, East or West
+                    boolean allowed = (edge[2] == edge[0] + 1 && edge[3] == edge[1]) || (edge[2] == edge[0] && edge[3] != edge[1]);
+                    int to = FagBitboard.getPoint(edge[2], edge[3]);
+                    if (allowed && position.isEmptyAt(to)) moves.add(new long[] { goose, to, 0L });
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static void naiveJumps(FagBitboard position, int origin, int from, long taken, Set<String> chains, List<long[]> moves) {
+        for (int[] edge : getEdges(from)) {
+            int over = FagBitboard.getPoint(edge[2], edge[3]);
+            int row  = 2 * edge[2] - edge[0];
+            int col  = 2 * edge[3] - edge[1];
+            int to   = FagBitboard.getPoint(row, col);
+            // The landing point must be on the same line, i.e. joined to 'over' by an edge
+            boolean aligned = false;
+            for (int[] next : getEdges(over)) {
+                if ((next[2] == row) && (next[3] == col)) aligned = true;
+            }
+            if (!aligned || !position.isGooseAt(over) || ((taken & FagBitboard.bit(over)) != 0)) continue;
+            // Note: The point of the fox is not empty, even when the fox left it
+            if (!position.isEmptyAt(to)) continue;
+            long chain = taken | FagBitboard.bit(over);
+            if (chains.add(to + "/" + chain)) {
+                moves.add(new long[] { origin, to, chain });
+            }
+            naiveJumps(position, origin, to, chain, chains, moves);
+        }
+    }
+
+    private static List<int[]> getEdges(int point) {
+        List<int[]> edges = new ArrayList<>();
+        int row = FagBitboard.getRow(point);
+        int col = FagBitboard.getCol(point);
+        for (int e = 0; e < FagTopology.getNrEdges(); e++) {
+            int[] edge = FagTopology.getEdge(e);
+            if ((edge[0] == row) && (edge[1] == col)) edges.add(edge);
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,69 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PonderSearchTest {
+
+    @Test
+    void testPonderHit() throws InterruptedException {
+        LazySmpSearch engine = new LazySmpSearch(new TranspositionTable(4), 1, 7);
+        FagBitboard   initial = FagBitboard.initial();
+        SearchResult  first   = engine.search(initial, SearchLimits.depth(6));
+        FagMove       played  = engine.getPvMove(0);
+        Assertions.assertEquals(new FagMove(first.getFrom(), first.getTo(), first.getTaken()), played);
+
+        // The geese are to move: ponder on the reply predicted by the search
+        FagBitboard position = FagRules.play(initial, played);
+        FagMove     reply    = engine.getPvMove(1);
+        PonderSearch ponder = new PonderSearch(engine);
+        ponder.start(position, reply, SearchLimits.depth(6));
+        while (ponder.isPondering()) {
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(reply, ponder.getPredictedMove());
+
+        // The predicted reply is played: the result is there at once
+        ponder.opponentMoved(reply);
+        FagBitboard  next   = FagRules.play(position, reply);
+        SearchResult result = ponder.getResult(next, new SearchLimits(6, 5000));
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(6, result.getDepth());
+        Assertions.assertTrue(FagRules.getMoves(next).contains(new FagMove(result.getFrom(), result.getTo(), result.getTaken())));
+        Assertions.assertEquals(1, ponder.getHits());
+        // Nothing more to ponder
+        Assertions.assertNull(ponder.getResult(next, new SearchLimits(6, 5000)));
+    }
+
+    @Test
+    void testPonderMissIsCancelledAtOnce() throws InterruptedException {
+        LazySmpSearch engine   = new LazySmpSearch(new TranspositionTable(4), 1, 7);
+        FagBitboard   position = FagRules.play(FagBitboard.initial(), FagRules.getMoves(FagBitboard.initial()).get(0));
+        PonderSearch  ponder   = new PonderSearch(engine);
+        // The reply is predicted by a shallow search, then searched as deep as possible
+        ponder.start(position, null, SearchLimits.depth(SearchLimits.MAX_DEPTH));
+        while (ponder.getPredictedMove() == null) {
+            Thread.sleep(5);
+        }
+        Thread.sleep(50);
+        Assertions.assertTrue(ponder.isPondering());
+
+        List<FagMove> moves = FagRules.getMoves(position);
+        FagMove other = moves.get(0).equals(ponder.getPredictedMove()) ? moves.get(1) : moves.get(0);
+        long start = System.currentTimeMillis();
+        ponder.opponentMoved(other);
+        Assertions.assertFalse(ponder.isPondering());
+        Assertions.assertTrue(System.currentTimeMillis() - start < 1000);
+
+        FagBitboard next = FagRules.play(position, other);
+        Assertions.assertNull(ponder.getResult(next, new SearchLimits(4, 5000)));
+        Assertions.assertEquals(1, ponder.getMisses());
+        // The engine is free again
+        Assertions.assertTrue(engine.search(next, SearchLimits.depth(4)).hasMove());
+    }
+}
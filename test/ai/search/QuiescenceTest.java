@@ -0,0 +1,57 @@
+package ai.search;
+
+import model.rules.FagBitboard;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class QuiescenceTest {
+
+    // The fox at [3,3] threatens to jump over [2,3] and over [3,2]: the geese cannot parry both
+    private static FagBitboard fork() {
+        long geese = bit(getPoint(0, 2)) | bit(getPoint(0, 3)) | bit(getPoint(0, 4)) |
+                     bit(getPoint(1, 2)) | bit(getPoint(1, 4)) | bit(getPoint(2, 3)) | bit(getPoint(3, 2));
+        return new FagBitboard(geese, getPoint(3, 3), false);
+    }
+
+    @Test
+    void testEvasions() {
+        FagBitboard position = fork();
+        MoveList list = new MoveList();
+        MoveGenerator.generateGeeseEvasions(position.getGeese(), position.getFox(), list);
+        Assertions.assertTrue(list.size() > 0);
+        long threatened = bit(getPoint(2, 3)) | bit(getPoint(3, 2));
+        long landings   = bit(getPoint(1, 3)) | bit(getPoint(3, 1));
+        for (int i = 0; i < list.size(); i++) {
+            Assertions.assertTrue(((threatened & bit(list.getFrom(i))) != 0) || ((landings & bit(list.getTo(i))) != 0));
+        }
+        // No jump, no evasion
+        FagBitboard initial = FagBitboard.initial();
+        MoveGenerator.generateGeeseEvasions(initial.getGeese(), initial.getFox(), list);
+        Assertions.assertEquals(0, list.size());
+    }
+
+    @Test
+    void testLeafIsNotEvaluatedUnderThreat() {
+        // Whatever the geese play, the fox takes its 7th goose after the depth limit
+        SearchResult quiet = new AlphaBetaSearch().search(fork(), SearchLimits.depth(1).withQuiescenceDepth(0));
+        Assertions.assertTrue(Math.abs(quiet.getScore()) < AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH);
+        AlphaBetaSearch search = new AlphaBetaSearch();
+        SearchResult quiescent = search.search(fork(), SearchLimits.depth(1));
+        Assertions.assertTrue(quiescent.getScore() <= -(AlphaBetaSearch.WIN - SearchLimits.MAX_DEPTH));
+        Assertions.assertTrue(search.getQuiescenceNodes() > 0);
+    }
+
+    @Test
+    void testStatistics() {
+        IterativeDeepening search = new IterativeDeepening(new TranspositionTable(1));
+        search.search(FagBitboard.initial(), SearchLimits.depth(6).withQuiescenceDepth(0));
+        Assertions.assertEquals(0, search.getSearch().getQuiescenceNodes());
+        search.search(FagBitboard.initial(), SearchLimits.depth(6));
+        Assertions.assertTrue(search.getSearch().getQuiescenceNodes() <= search.getSearch().getNodes());
+        Assertions.assertTrue(search.getBestMoveChanges() < 6);
+        Assertions.assertTrue(search.getMeanScoreChange() >= 0.0);
+    }
+}
@@ -0,0 +1,56 @@
+package ai.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TranspositionTableTest {
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable tt = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+        Assertions.assertEquals(0L, tt.probe(key));
+
+        tt.store(key, -250, 6, TranspositionTable.BOUND_LOWER, 28, 21, 1L << 14);
+        long data = tt.probe(key);
+        Assertions.assertNotEquals(0L, data);
+        Assertions.assertEquals(-250, TranspositionTable.getScore(data));
+        Assertions.assertEquals(6, TranspositionTable.getDepth(data));
+        Assertions.assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.getBound(data));
+        Assertions.assertTrue(TranspositionTable.isMove(data, 28, 21, 1L << 14));
+        Assertions.assertFalse(TranspositionTable.isMove(data, 28, 21, 0L));
+
+        Assertions.assertEquals(1, tt.getHits());
+        Assertions.assertEquals(1, tt.getMisses());
+        Assertions.assertEquals(1, tt.getStores());
+    }
+
+    @Test
+    void testReplacement() {
+        TranspositionTable tt = new TranspositionTable(1);
+        long bucketStride = tt.getNrEntries() / 2; // Same bucket, different keys
+        long deep    = 5;
+        long shallow = 5 + bucketStride;
+        long other   = 5 + 2 * bucketStride;
+
+        tt.store(deep, 10, 8, TranspositionTable.BOUND_EXACT, 1, 2, 0L);
+        tt.store(shallow, 20, 2, TranspositionTable.BOUND_EXACT, 3, 4, 0L);
+        // The deep entry is kept, the shallow one goes in the always-replace entry
+        Assertions.assertEquals(10, TranspositionTable.getScore(tt.probe(deep)));
+        Assertions.assertEquals(20, TranspositionTable.getScore(tt.probe(shallow)));
+        Assertions.assertEquals(0, tt.getOverwrites());
+
+        tt.store(other, 30, 1, TranspositionTable.BOUND_EXACT, 5, 6, 0L);
+        Assertions.assertEquals(10, TranspositionTable.getScore(tt.probe(deep)));
+        Assertions.assertEquals(0L, tt.probe(shallow));
+        Assertions.assertEquals(1, tt.getOverwrites());
+    }
+
+    @Test
+    void testTableScore() {
+        int win = AlphaBetaSearch.WIN - 7;
+        Assertions.assertEquals(win, TranspositionTable.fromTableScore(TranspositionTable.toTableScore(win, 3), 3));
+        Assertions.assertEquals(-win, TranspositionTable.fromTableScore(TranspositionTable.toTableScore(-win, 3), 3));
+        Assertions.assertEquals(42, TranspositionTable.toTableScore(42, 3));
+    }
+}
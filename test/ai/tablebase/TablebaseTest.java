@@ -0,0 +1,215 @@
+package ai.tablebase;
+
+import ai.proof.ProofNumberSearch;
+import ai.proof.ProofTable;
+import ai.search.AlphaBetaSearch;
+import ai.search.MoveGenerator;
+import ai.search.MoveList;
+import ai.search.SearchResult;
+import model.rules.FagBitboard;
+import model.rules.FagRules;
+import model.rules.FagSymmetry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class TablebaseTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testIndex() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int n = 0; n < 1000; n++) {
+            int  fox   = random.nextInt(FagBitboard.POINTS);
+            long geese = 0L;
+            while (Long.bitCount(geese) < 7) {
+                int point = random.nextInt(FagBitboard.POINTS);
+                if (point != fox) geese |= bit(point);
+            }
+            long index = TablebaseIndex.getIndex(geese, fox, (n & 1) == 0);
+            Assertions.assertTrue(index < TablebaseIndex.getSize(7));
+            Assertions.assertTrue(TablebaseIndex.isCanonical(7, index));
+            // The index of the canonical form of the position, shared with its mirror
+            FagBitboard canonical = FagSymmetry.getCanonical(new FagBitboard(geese, fox, true));
+            Assertions.assertEquals(canonical.getFox(), TablebaseIndex.getFox(7, index));
+            Assertions.assertEquals(canonical.getGeese(), TablebaseIndex.getGeese(7, index));
+            Assertions.assertEquals((n & 1) == 0, TablebaseIndex.isFoxToMove(index));
+            Assertions.assertEquals(index, TablebaseIndex.getIndex(FagSymmetry.mirror(geese), FagSymmetry.mirror(fox), (n & 1) == 0));
+        }
+        // The index is a perfect hash of the canonical positions
+        int canonical = 0;
+        for (long index = 0; index < TablebaseIndex.getSize(2); index++) {
+            if (TablebaseIndex.isCanonical(2, index)) {
+                canonical++;
+                Assertions.assertEquals(index, TablebaseIndex.getIndex(TablebaseIndex.getGeese(2, index), TablebaseIndex.getFox(2, index),
+                                                                       TablebaseIndex.isFoxToMove(index)));
+            }
+        }
+        // The fox on the 13 points left of the middle column, or on its 7 points with half of the
+        //  asymmetric pairs of geese and the symmetric ones (2 geese on the column or 2 mirrored ones)
+        long symmetric = TablebaseIndex.binomial(6, 2) + 13;
+        long pairs = 13 * TablebaseIndex.binomial(32, 2) + 7 * (TablebaseIndex.binomial(32, 2) + symmetric) / 2;
+        Assertions.assertEquals(2 * pairs, canonical);
+    }
+
+    @Test
+    void testGenerationIsConsistent() throws Exception {
+        // A small variant: the fox wins once it took all the geese
+        TablebaseGenerator generator = new TablebaseGenerator(directory, 2, 0);
+        generator.generate(2);
+        generator.close();
+
+        Tablebase tablebase = Tablebase.open(directory);
+        Assertions.assertEquals(2, tablebase.getNrTables());
+        MoveList list = new MoveList();
+        int known = 0;
+        for (int k = 1; k <= 2; k++) {
+            for (long index = 0; index < TablebaseIndex.getSize(k); index++) {
+                long    geese     = TablebaseIndex.getGeese(k, index);
+                int     fox       = TablebaseIndex.getFox(k, index);
+                boolean foxToMove = TablebaseIndex.isFoxToMove(index);
+                int     value     = tablebase.probe(geese, fox, foxToMove);
+                if (TablebaseFile.isKnown(value)) known++;
+                checkValue(tablebase, geese, fox, foxToMove, value, list);
+            }
+        }
+        Assertions.assertTrue(known > 0);
+
+        // The fox takes the last goose at once
+        SearchResult result = tablebase.getBestMove(new FagBitboard(bit(getPoint(3, 3)), getPoint(4, 3), true));
+        Assertions.assertEquals(bit(getPoint(3, 3)), result.getTaken());
+        Assertions.assertEquals(AlphaBetaSearch.WIN - 1, result.getScore());
+        tablebase.close();
+
+        // A complete generation is not run again
+        generator = new TablebaseGenerator(directory, 1, 0);
+        generator.generate(2);
+        generator.close();
+    }
+
+    @Test
+    void testConcurrentProbes() throws Exception {
+        TablebaseGenerator generator = new TablebaseGenerator(directory, 2, 0);
+        generator.generate(2);
+        generator.close();
+
+        Tablebase tablebase = Tablebase.open(directory);
+        long size = TablebaseIndex.getSize(2);
+        String[] expected = new String[(int) size];
+        for (long index = 0; index < size; index++) {
+            expected[(int) index] = getBestMove(tablebase, index);
+        }
+
+        // The threads probe the same positions at once, in different orders
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int n = 0; n < 4 * size; n++) {
+                        long index = (offset * 7919L + n) % size;
+                        Assertions.assertEquals(expected[(int) index], getBestMove(tablebase, index));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        tablebase.close();
+    }
+
+    // Returns the best move of a position of the table of two geese as a string
+    private static String getBestMove(Tablebase tablebase, long index) {
+        FagBitboard position = new FagBitboard(TablebaseIndex.getGeese(2, index), TablebaseIndex.getFox(2, index),
+                                               TablebaseIndex.isFoxToMove(index));
+        SearchResult result = tablebase.getBestMove(position);
+        if (result == null) {
+            return null;
+        }
+        return result.getFrom() + "-" + result.getTo() + "x" + result.getTaken() + ":" + result.getScore();
+    }
+
+    @Test
+    void testProofsAgreeWithTablebase() throws Exception {
+        // A small variant: the fox wins once it took all the geese
+        TablebaseGenerator generator = new TablebaseGenerator(directory, 1, 0);
+        generator.generate(2);
+        generator.close();
+        Tablebase tablebase = Tablebase.open(directory);
+
+        ProofNumberSearch geeseSolver = new ProofNumberSearch(new ProofTable(1), 0);
+        ProofNumberSearch foxSolver   = new ProofNumberSearch(new ProofTable(1), 0);
+        MoveList list = new MoveList();
+        int proven = 0;
+        for (long index = 0; index < TablebaseIndex.getSize(2); index += 7) {
+            long    geese     = TablebaseIndex.getGeese(2, index);
+            int     fox       = TablebaseIndex.getFox(2, index);
+            boolean foxToMove = TablebaseIndex.isFoxToMove(index);
+            MoveGenerator.generate(geese, fox, foxToMove, list);
+            if (((geese & bit(fox)) != 0L) || (list.size() == 0)) {
+                continue;
+            }
+            int         value    = tablebase.probe(geese, fox, foxToMove);
+            FagBitboard position = new FagBitboard(geese, fox, foxToMove);
+            // A proven win of a team is a win of this team in the tablebase
+            boolean geeseWin = (foxToMove ? TablebaseFile.isLoss(value) : TablebaseFile.isWin(value));
+            boolean foxWins  = (foxToMove ? TablebaseFile.isWin(value) : TablebaseFile.isLoss(value));
+            if (geeseSolver.solve(position, FagRules.GEESE_TEAM, 5000).isProven()) {
+                Assertions.assertTrue(geeseWin, position.toString());
+                proven++;
+            }
+            if (foxSolver.solve(position, FagRules.FOX_TEAM, 5000).isProven()) {
+                Assertions.assertTrue(foxWins, position.toString());
+                proven++;
+            }
+        }
+        Assertions.assertTrue(proven > 0);
+        tablebase.close();
+    }
+
+    // Checks the value of a position against the values of its children
+    private void checkValue(Tablebase tablebase, long geese, int fox, boolean foxToMove, int value, MoveList list) {
+        MoveGenerator.generate(geese, fox, foxToMove, list);
+        int minLoss = Integer.MAX_VALUE;
+        int maxWin  = -1;
+        boolean allWins = true;
+        for (int i = 0; i < list.size(); i++) {
+            int child;
+            if (foxToMove) {
+                long remaining = geese & ~list.getTaken(i);
+                child = (remaining == 0L) ? TablebaseFile.encode(0) : tablebase.probe(remaining, list.getTo(i), false);
+            } else {
+                child = tablebase.probe((geese & ~bit(list.getFrom(i))) | bit(list.getTo(i)), fox, true);
+            }
+            if (TablebaseFile.isLoss(child)) minLoss = Math.min(minLoss, TablebaseFile.getDistance(child));
+            if (TablebaseFile.isWin(child)) maxWin = Math.max(maxWin, TablebaseFile.getDistance(child));
+            allWins &= TablebaseFile.isWin(child);
+        }
+        if (minLoss != Integer.MAX_VALUE) {
+            Assertions.assertTrue(TablebaseFile.isWin(value));
+            Assertions.assertEquals(minLoss + 1, TablebaseFile.getDistance(value));
+        } else if (allWins) {
+            Assertions.assertTrue(TablebaseFile.isLoss(value));
+            Assertions.assertEquals(maxWin + 1, TablebaseFile.getDistance(value));
+        } else {
+            Assertions.assertFalse(TablebaseFile.isKnown(value));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ai.tournament;
+
+import ai.player.GeeseHeuristicPlayer;
+import ai.player.RandomPlayer;
+import ai.player.SearchPlayer;
+import ai.search.SearchLimits;
+import model.rules.FagRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+class TournamentTest {
+
+    @TempDir
+    File directory;
+
+    private static List<Participant> createParticipants() {
+        return Arrays.asList(
+                new Participant("Ai-0", (team, random) -> new RandomPlayer(random)),
+                new Participant("Ai-1", (team, random) -> (team == FagRules.GEESE_TEAM) ? new GeeseHeuristicPlayer() :
+                                        new SearchPlayer("Ai-1", SearchLimits.depth(2), 1, 1, random.nextLong(), null)),
+                new Participant("Ai-2", (team, random) ->
+                                        new SearchPlayer("Ai-2", SearchLimits.depth(3), 1, 1, random.nextLong(), null)));
+    }
+
+    @Test
+    void testElo() {
+        Assertions.assertEquals(0.5, Elo.toScore(0.0), 1e-9);
+        Assertions.assertEquals(100.0, Elo.fromScore(Elo.toScore(100.0)), 1e-6);
+        Assertions.assertEquals(Double.POSITIVE_INFINITY, Elo.fromScore(1.0));
+        double[] interval = Elo.getInterval(60, 20, 20);
+        Assertions.assertTrue(interval[0] < Elo.fromScore(Elo.getScore(60, 20, 20)));
+        Assertions.assertTrue(interval[1] > Elo.fromScore(Elo.getScore(60, 20, 20)));
+    }
+
+    @Test
+    void testSprt() {
+        Sprt sprt = new Sprt(0, 50, 0.05, 0.05);
+        Assertions.assertEquals(Sprt.Status.CONTINUE, sprt.getStatus(3, 0, 1));
+        Assertions.assertEquals(Sprt.Status.ACCEPT_H1, sprt.getStatus(150, 20, 30));
+        Assertions.assertEquals(Sprt.Status.ACCEPT_H0, sprt.getStatus(30, 20, 150));
+        Assertions.assertTrue(sprt.getLlr(60, 0, 40) > 0);
+    }
+
+    @Test
+    void testBayesElo() {
+        BayesElo bayesElo = new BayesElo(2);
+        for (int g = 0; g < 30; g++) {
+            bayesElo.add(0, 1, (g % 3 == 0) ? 0.5 : 1.0);
+            bayesElo.add(1, 0, (g % 3 == 0) ? 0.5 : 0.0);
+        }
+        bayesElo.compute();
+        Assertions.assertTrue(bayesElo.getRating(0) > bayesElo.getRating(1));
+        Assertions.assertEquals(0.0, bayesElo.getRating(0) + bayesElo.getRating(1), 1e-6);
+        Assertions.assertTrue(bayesElo.getErrorMargin(0) > 0);
+    }
+
+    @Test
+    void testGamesDoNotDependOnThreads() throws Exception {
+        File file1 = new File(directory, "results1.csv");
+        Tournament tournament1 = new Tournament(createParticipants(), Tournament.Format.ROUND_ROBIN, 4, null, 42);
+        tournament1.setThreads(1);
+        tournament1.setVerbose(false);
+        tournament1.setResultsFile(file1);
+        tournament1.run();
+
+        File file2 = new File(directory, "results2.csv");
+        Tournament tournament2 = new Tournament(createParticipants(), Tournament.Format.ROUND_ROBIN, 4, null, 42);
+        tournament2.setThreads(3);
+        tournament2.setVerbose(false);
+        tournament2.setResultsFile(file2);
+        tournament2.run();
+
+        Assertions.assertEquals(3 * 4, tournament1.getNrGamesPlayed());
+        Assertions.assertEquals(3 * 4, tournament2.getNrGamesPlayed());
+        // The same games, possibly in another order (without the times)
+        List<String> lines1 = Files.readAllLines(file1.toPath());
+        List<String> lines2 = Files.readAllLines(file2.toPath());
+        Assertions.assertEquals(1 + 3 * 4, lines1.size());
+        Assertions.assertEquals(strip(lines1), strip(lines2));
+        for (int p = 0; p < 3; p++) {
+            Assertions.assertEquals(tournament1.getPairings().get(p).toString(), tournament2.getPairings().get(p).toString());
+        }
+    }
+
+    @Test
+    void testSprtStopsPairings() throws Exception {
+        // Ai-0 (a random fox) against a searching fox: the pairing is decided long before 200 games
+        Tournament tournament = new Tournament(createParticipants().subList(0, 2), Tournament.Format.GAUNTLET, 200,
+                                               new Sprt(0, 100, 0.05, 0.05), 7);
+        tournament.setThreads(2);
+        tournament.setVerbose(false);
+        tournament.run();
+        Pairing pairing = tournament.getPairings().get(0);
+        Assertions.assertTrue(pairing.isDecided());
+        Assertions.assertEquals(200, tournament.getNrGamesPlayed() + tournament.getNrGamesSkipped());
+        Assertions.assertTrue(tournament.getNrGamesSkipped() > 0);
+        Assertions.assertTrue(tournament.toString().contains("Ai-0"));
+    }
+
+    private static List<String> strip(List<String> lines) {
+        String[] stripped = new String[lines.size()];
+        for (int i = 0; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split(",");
+            stripped[i] = String.join(",", Arrays.copyOf(fields, 6));
+        }
+        Arrays.sort(stripped);
+        return Arrays.asList(stripped);
+    }
+}
@@ -0,0 +1,88 @@
+package ai.tuning;
+
+import ai.player.GameRunner;
+import ai.player.GameSummary;
+import ai.player.RandomPlayer;
+import ai.search.EvaluationWeights;
+import ai.search.FagEvaluator;
+import model.rules.FagBitboard;
+import model.rules.FagMove;
+import model.rules.FagRules;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+
+class TexelTunerTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void testRecordedGame() throws IOException {
+        GameRunner  runner = new GameRunner(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        GameSummary game   = runner.play();
+        StringWriter writer = new StringWriter();
+        TrainingData.write(game, writer);
+
+        String[] lines = writer.toString().split("\n");
+        Assertions.assertEquals(game.getNrPlies() + 1, lines.length);
+        FagBitboard position = game.getFirstPosition();
+        for (int ply = 0; ply < lines.length; ply++) {
+            TrainingData.Sample sample = TrainingData.parse(lines[ply]);
+            Assertions.assertEquals(position, sample.position);
+            Assertions.assertEquals(TrainingData.getFoxScore(game.getResult()), sample.foxScore);
+            if (ply < game.getNrPlies()) {
+                position = FagRules.play(position, game.getMoves().get(ply));
+            }
+        }
+        Assertions.assertNull(TrainingData.parse("# A comment"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TrainingData.parse(lines[0].replace(" f ", " x ")));
+    }
+
+    @Test
+    void testTuningFindsBetterWeights() throws IOException {
+        // The results are drawn from an evaluation where the mobility of the fox matters much more
+        int[] truth = EvaluationWeights.getDefault().toArray();
+        truth[EvaluationWeights.FOX_STEP] = 40;
+        FagEvaluator evaluator = new FagEvaluator(new EvaluationWeights(truth));
+        File data = new File(directory, "data.txt");
+        Random random = new Random(11);
+        try (Writer writer = new BufferedWriter(new FileWriter(data))) {
+            writer.write("# Synthetic positions\nnot a position 1\n");
+            for (int game = 0; game < 300; game++) {
+                FagBitboard position = FagBitboard.initial();
+                for (int ply = 0; (ply < 80) && !FagRules.getResult(position).isOver(); ply++) {
+                    double p = 1.0 / (1.0 + Math.exp(-0.01 * evaluator.evaluate(position.getGeese(), position.getFox())));
+                    writer.write(TrainingData.toLine(position, (random.nextDouble() < p) ? 1.0 : 0.0) + "\n");
+                    List<FagMove> moves = FagRules.getMoves(position);
+                    position = FagRules.play(position, moves.get(random.nextInt(moves.size())));
+                }
+            }
+        }
+
+        EvaluationWeights initial = EvaluationWeights.getDefault();
+        EvaluationWeights[] tuned = new EvaluationWeights[2];
+        for (int threads = 1; threads <= 2; threads++) {
+            TexelTuner tuner = new TexelTuner(threads);
+            tuner.load(data);
+            Assertions.assertEquals(1, tuner.getInvalid());
+            Assertions.assertTrue(tuner.getSamples() > 1000);
+            tuner.fitScale(initial);
+            tuned[threads - 1] = tuner.tune(initial, 50, 1.0);
+            Assertions.assertTrue(tuner.getError(tuned[threads - 1]) < tuner.getError(initial));
+            Assertions.assertTrue(tuned[threads - 1].get(EvaluationWeights.FOX_STEP) > initial.get(EvaluationWeights.FOX_STEP));
+            tuner.close();
+        }
+        // The same weights whatever the number of threads
+        Assertions.assertEquals(tuned[0], tuned[1]);
+    }
+}
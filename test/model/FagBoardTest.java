@@ -1,20 +1,104 @@
 package model;
 
+import ai.search.Perft;
+import gamifier.model.GameElement;
+import model.rules.FagBitboard;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+import static org.mockito.Mockito.mock;
+
 class FagBoardTest {
 
+    // A board with the fox at [4,3], below two geese at [3,3] and [1,3]
+    private FagBoard createBoard(FagStageModel stageModel) {
+        FagBoard board = new FagBoard(70, 100, stageModel);
+        board.putElement(new FagPawn(FagPawn.FOX_PAWN, stageModel), 4, 3);
+        board.putElement(new FagPawn(FagPawn.GOOSE_PAWN, stageModel), 3, 3);
+        board.putElement(new FagPawn(FagPawn.GOOSE_PAWN, stageModel), 1, 3);
+        return board;
+    }
+
     @Test
     void testSetReachableCells() {
     }
 
     @Test
     void testComputeReachableCells() {
+        FagBoard board = createBoard(mock(FagStageModel.class));
+
+        // The fox steps around and jumps (twice) to the North
+        List<FagBoard.Cell> reachable = board.computeReachableCells(4, 3);
+        assertEquals(board.toBitboard(FagBoard.FOX_TEAM).reachableForFox(), toMask(reachable));
+        assertTrue(reachable.contains(new FagBoard.Cell(2, 3)));
+        assertTrue(reachable.contains(new FagBoard.Cell(0, 3)));
+        assertFalse(reachable.contains(new FagBoard.Cell(3, 3)));
+
+        // A goose moves South, East or West
+        assertEquals(bit(getPoint(3, 2)) | bit(getPoint(3, 4)), toMask(board.computeReachableCells(3, 3)));
+        assertNull(board.computeReachableCells(0, 2));
     }
 
     @Test
     void testGetTakenPawn() {
+        FagStageModel stageModel = mock(FagStageModel.class);
+        FagBoard board = createBoard(stageModel);
+        GameElement fox = board.getElement(4, 3);
+
+        List<GameElement> taken = board.getTakenPawns(fox, 0, 3);
+        assertEquals(2, taken.size());
+        assertTrue(taken.contains(board.getElement(3, 3)));
+        assertTrue(taken.contains(board.getElement(1, 3)));
+        assertEquals(1, board.getTakenPawns(fox, 2, 3).size());
+        assertTrue(board.getTakenPawns(fox, 4, 4).isEmpty());
+        assertEquals(2, board.getGeeseAtRisk(new FagBoard.Cell(4, 3)).size());
+    }
+
+    @Test
+    void testToBitboard() {
+        FagStageModel stageModel = mock(FagStageModel.class);
+        FagBoard board = new FagBoard(70, 100, stageModel);
+        board.putElement(new FagPawn(FagPawn.FOX_PAWN, stageModel), 5, 3);
+        board.putElement(new FagPawn(FagPawn.GOOSE_PAWN, stageModel), 2, 3);
+        board.putElement(new FagPawn(FagPawn.FAKE_PAWN, stageModel), 0, 0);
+
+        FagBitboard position = board.toBitboard(FagBoard.GEESE_TEAM);
+        assertEquals(getPoint(5, 3), position.getFox());
+        assertEquals(bit(getPoint(2, 3)), position.getGeese());
+        assertFalse(position.isFoxToMove());
+
+        assertEquals(position.getKey(), board.getZobristKey(FagBoard.GEESE_TEAM));
+
+        board.applyBitboard(new FagBitboard(bit(getPoint(3, 3)), getPoint(4, 3), true));
+        assertEquals(new FagBitboard(bit(getPoint(3, 3)), getPoint(4, 3), true),
+                     board.toBitboard(FagBoard.FOX_TEAM));
+        // The key of the board was updated incrementally along the moves of the pawns
+        assertEquals(board.toBitboard(FagBoard.FOX_TEAM).getKey(), board.getZobristKey(FagBoard.FOX_TEAM));
+    }
+
+    @Test
+    void testReachableCellsOfPerftPositions() throws Exception {
+        // The adapters of the board agree with the rules on the reference positions of Perft
+        FagStageModel stageModel = mock(FagStageModel.class);
+        for (Perft.Entry entry : Perft.readEntries()) {
+            FagBitboard position = entry.position;
+            FagBoard board = new FagBoard(70, 100, stageModel);
+            FagBoard.Cell fox = FagBoard.getCell(position.getFox());
+            board.putElement(new FagPawn(FagPawn.FOX_PAWN, stageModel), fox.row, fox.col);
+            for (FagBoard.Cell goose : FagBoard.getCells(position.getGeese())) {
+                board.putElement(new FagPawn(FagPawn.GOOSE_PAWN, stageModel), goose.row, goose.col);
+            }
+            assertEquals(position.reachableForFox(), toMask(board.reachableForFox(fox.row, fox.col)));
+            assertEquals(position.reachableForJump(), toMask(board.reachableForJump(fox)));
+            assertEquals(FagBitboard.movableGeese(position.getGeese(), position.getFox()), toMask(board.getMovableGeese()));
+            for (FagBoard.Cell goose : FagBoard.getCells(position.getGeese())) {
+                assertEquals(position.reachableForGoose(FagBoard.getPoint(goose)), toMask(board.reachableForGoose(goose)));
+            }
+        }
     }
 
     @Test
@@ -27,9 +111,20 @@ class FagBoardTest {
 
     @Test
     void reachableForJump() {
+        FagBoard board = createBoard(mock(FagStageModel.class));
+        List<FagBoard.Cell> jumps = board.reachableForJump(new FagBoard.Cell(4, 3));
+        assertEquals(bit(getPoint(2, 3)) | bit(getPoint(0, 3)), toMask(jumps));
     }
 
     @Test
     void getTakenPawn() {
     }
-}
\ No newline at end of file
+
+    private static long toMask(List<FagBoard.Cell> cells) {
+        long mask = 0L;
+        for (FagBoard.Cell cell : cells) {
+            mask |= bit(FagBoard.getPoint(cell));
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,76 @@
+package model.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class FagBitboardTest {
+
+    @Test
+    void testPointNumbering() {
+        Assertions.assertEquals(0, getPoint(0, 2));
+        Assertions.assertEquals(6, getPoint(2, 0));
+        Assertions.assertEquals(28, getPoint(5, 3));
+        Assertions.assertEquals(32, getPoint(6, 4));
+        Assertions.assertEquals(FagBitboard.NO_POINT, getPoint(0, 0));
+        Assertions.assertEquals(FagBitboard.NO_POINT, getPoint(7, 3));
+    }
+
+    @Test
+    void testInitialPosition() {
+        FagBitboard position = FagBitboard.initial();
+        Assertions.assertEquals(FagTopology.GEESE_COUNT, position.getGeeseCount());
+        Assertions.assertTrue(position.isFoxToMove());
+        // The fox at [5,3] can reach its 8 neighbours and cannot jump
+        Assertions.assertEquals(8, Long.bitCount(position.reachableForFox()));
+        Assertions.assertEquals(0L, position.reachableForJump());
+        // A goose of row 2 can only move South
+        Assertions.assertEquals(bit(getPoint(3, 0)), position.reachableForGoose(getPoint(2, 0)));
+        // A goose of row 0 is blocked
+        Assertions.assertEquals(0L, position.reachableForGoose(getPoint(0, 3)));
+    }
+
+    @Test
+    void testReachableForJump() {
+        // Fox at [4,3], geese at [3,3] and [1,3]: the fox can chain two jumps
+        long geese = bit(getPoint(3, 3)) | bit(getPoint(1, 3));
+        FagBitboard position = new FagBitboard(geese, getPoint(4, 3), true);
+        long expected = bit(getPoint(2, 3)) | bit(getPoint(0, 3));
+        Assertions.assertEquals(expected, position.reachableForJump());
+        Assertions.assertTrue((position.reachableForFox() & expected) == expected);
+    }
+
+    @Test
+    void testFoxTrapped() {
+        // Fox in the [6,2] corner, surrounded by geese with no jump available
+        long geese = bit(getPoint(5, 2)) | bit(getPoint(5, 3)) | bit(getPoint(6, 3)) |
+                     bit(getPoint(4, 2)) | bit(getPoint(4, 4)) | bit(getPoint(6, 4));
+        FagBitboard position = new FagBitboard(geese, getPoint(6, 2), true);
+        Assertions.assertTrue(position.isFoxTrapped());
+    }
+
+    @Test
+    void testMoves() {
+        FagBitboard position = FagBitboard.initial();
+        FagBitboard next = position.moveFox(getPoint(4, 3), 0L);
+        Assertions.assertFalse(next.isFoxToMove());
+        next = next.moveGoose(getPoint(2, 3), getPoint(3, 3));
+        Assertions.assertTrue(next.isGooseAt(getPoint(3, 3)));
+        Assertions.assertFalse(next.isGooseAt(getPoint(2, 3)));
+        Assertions.assertEquals(FagTopology.GEESE_COUNT, next.getGeeseCount());
+    }
+
+    @Test
+    void testZobristKey() {
+        FagBitboard position = FagBitboard.initial()
+                .moveFox(getPoint(4, 3), 0L)
+                .moveGoose(getPoint(2, 3), getPoint(3, 3))
+                .moveFox(getPoint(2, 3), bit(getPoint(3, 3)));
+        FagBitboard same = new FagBitboard(position.getGeese(), position.getFox(), position.isFoxToMove());
+        Assertions.assertEquals(same.getKey(), position.getKey());
+        Assertions.assertNotEquals(same.getKey(),
+                new FagBitboard(position.getGeese(), position.getFox(), !position.isFoxToMove()).getKey());
+    }
+}
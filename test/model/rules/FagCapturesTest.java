@@ -0,0 +1,104 @@
+package model.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class FagCapturesTest {
+
+    @Test
+    void testLongestChain() {
+        // The fox at [4,3] can take [3,3] then [1,3]
+        long geese = bit(getPoint(3, 3)) | bit(getPoint(1, 3)) | bit(getPoint(2, 0));
+        FagCaptures captures = new FagCaptures().generate(geese, getPoint(4, 3));
+
+        Assertions.assertEquals(2, captures.size());
+        Assertions.assertEquals(2, captures.getMaxTaken());
+        int chain = captures.pickLongest(new Random(1));
+        Assertions.assertEquals(getPoint(0, 3), captures.getTo(chain));
+        Assertions.assertEquals(bit(getPoint(3, 3)) | bit(getPoint(1, 3)), captures.getTaken(chain));
+        Assertions.assertEquals(chain, captures.find(getPoint(0, 3)));
+        Assertions.assertEquals(bit(getPoint(3, 3)), captures.getTaken(captures.find(getPoint(2, 3))));
+        Assertions.assertEquals(-1, captures.find(getPoint(5, 3)));
+        Assertions.assertEquals(bit(getPoint(3, 3)) | bit(getPoint(1, 3)), captures.getThreatened());
+
+        // The generator is reused
+        captures.generate(bit(getPoint(2, 0)), getPoint(4, 3));
+        Assertions.assertEquals(0, captures.size());
+        Assertions.assertEquals(-1, captures.pickLongest(new Random(1)));
+    }
+
+    @Test
+    void testEveryChainOnce() {
+        // Same chains as a naive traversal of the jump tables, without duplicates
+        Random      random   = new Random(5);
+        FagCaptures captures = new FagCaptures();
+        for (int n = 0; n < 2000; n++) {
+            int  fox   = random.nextInt(FagBitboard.POINTS);
+            long geese = 0L;
+            int  count = 1 + random.nextInt(FagTopology.GEESE_COUNT);
+            while (Long.bitCount(geese) < count) {
+                int point = random.nextInt(FagBitboard.POINTS);
+                if (point != fox) geese |= bit(point);
+            }
+            Set<String> expected = new HashSet<>();
+            collect(fox, geese, FagBitboard.BOARD_MASK & ~(geese | bit(fox)), 0L, expected);
+
+            captures.generate(geese, fox);
+            Set<String> actual = new HashSet<>();
+            long targets = 0L;
+            for (int i = 0; i < captures.size(); i++) {
+                Assertions.assertTrue(actual.add(captures.getTo(i) + "x" + captures.getTaken(i)));
+                targets |= bit(captures.getTo(i));
+            }
+            Assertions.assertEquals(expected, actual);
+            Assertions.assertEquals(FagBitboard.jumpTargets(fox, geese), targets);
+        }
+    }
+
+    @Test
+    void testManyChains() {
+        // Hundreds of chains of jumps (see MoveGeneratorTest), then a position with a few
+        long geese = 0L;
+        String notation = ".G.GGGFG.G...GG.GGG....G.G.......";
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            if (notation.charAt(p) == 'G') geese |= bit(p);
+        }
+        int         fox      = notation.indexOf('F');
+        FagCaptures captures = new FagCaptures();
+        for (int n = 0; n < 2; n++) {
+            Set<String> expected = new HashSet<>();
+            collect(fox, geese, FagBitboard.BOARD_MASK & ~(geese | bit(fox)), 0L, expected);
+            Assertions.assertTrue(expected.size() > 700);
+
+            captures.generate(geese, fox);
+            Set<String> actual = new HashSet<>();
+            for (int i = 0; i < captures.size(); i++) {
+                actual.add(captures.getTo(i) + "x" + captures.getTaken(i));
+            }
+            Assertions.assertEquals(expected.size(), captures.size());
+            Assertions.assertEquals(expected, actual);
+        }
+
+        // The set of the captures is emptied by the next generation
+        captures.generate(bit(getPoint(3, 3)) | bit(getPoint(1, 3)) | bit(getPoint(2, 0)), getPoint(4, 3));
+        Assertions.assertEquals(2, captures.size());
+    }
+
+    private static void collect(int from, long geese, long empty, long taken, Set<String> chains) {
+        for (int j = 0; j < FagBitboard.getNrJumps(from); j++) {
+            int over = FagBitboard.getJumpOver(from, j);
+            int to   = FagBitboard.getJumpTo(from, j);
+            if (((geese & ~taken & bit(over)) != 0) && ((empty & bit(to)) != 0)) {
+                chains.add(to + "x" + (taken | bit(over)));
+                collect(to, geese, empty, taken | bit(over), chains);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package model.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class FagRulesTest {
+
+    @Test
+    void testInitialMoves() {
+        // The fox plays first, then the geese
+        FagBitboard position = FagBitboard.initial();
+        Assertions.assertEquals(GameResult.NONE, FagRules.getResult(position));
+        position = FagRules.play(position, FagRules.getMoves(position).get(0));
+        List<FagMove> moves = FagRules.getMoves(position);
+        Assertions.assertFalse(moves.isEmpty());
+        for (FagMove move : moves) {
+            Assertions.assertTrue(position.isGooseAt(move.getFrom()));
+            Assertions.assertFalse(move.isCapture());
+            Assertions.assertTrue(FagRules.isLegal(position, move));
+        }
+        Assertions.assertEquals(GameResult.NONE, FagRules.getResult(position));
+    }
+
+    @Test
+    void testFindMoveTakesTheLongestChain() {
+        // The fox at [4,3] can take [3,3] then [1,3], five more geese stand on the side
+        long geese = bit(getPoint(3, 3)) | bit(getPoint(1, 3));
+        long others = bit(getPoint(2, 0)) | bit(getPoint(3, 0)) | bit(getPoint(4, 0)) |
+                      bit(getPoint(2, 6)) | bit(getPoint(3, 6));
+        FagBitboard position = new FagBitboard(geese | others, getPoint(4, 3), true);
+
+        FagMove move = FagRules.findMove(position, getPoint(4, 3), getPoint(0, 3));
+        Assertions.assertEquals(geese, move.getTaken());
+        Assertions.assertEquals(2, move.getNrTaken());
+        Assertions.assertEquals(bit(getPoint(3, 3)), FagRules.findMove(position, getPoint(4, 3), getPoint(2, 3)).getTaken());
+        Assertions.assertNull(FagRules.findMove(position, getPoint(4, 3), getPoint(6, 3)));
+
+        FagBitboard next = FagRules.play(position, move);
+        Assertions.assertEquals(others, next.getGeese());
+        Assertions.assertEquals(GameResult.FOX_WINS, FagRules.getResult(next));
+        Assertions.assertEquals(getPoint(0, 3), next.getFox());
+        Assertions.assertFalse(next.isFoxToMove());
+    }
+
+    @Test
+    void testIllegalMoves() {
+        FagBitboard position = FagRules.play(FagBitboard.initial(),
+                new FagMove(getPoint(5, 3), getPoint(5, 4), 0L));
+        // The fox does not move on the turn of the geese
+        FagMove foxMove = new FagMove(position.getFox(), getPoint(4, 4), 0L);
+        Assertions.assertFalse(FagRules.isLegal(position, foxMove));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> FagRules.play(position, foxMove));
+        // A goose does not move North
+        FagMove north = new FagMove(getPoint(3, 0), getPoint(2, 0), 0L);
+        Assertions.assertFalse(FagRules.isLegal(position, north));
+    }
+
+    @Test
+    void testGetResult() {
+        // The fox at [0,2] is walled in by geese which cannot be jumped
+        long geese = bit(getPoint(0, 3)) | bit(getPoint(0, 4)) | bit(getPoint(1, 2)) | bit(getPoint(2, 2)) |
+                     bit(getPoint(1, 3)) | bit(getPoint(2, 4)) | bit(getPoint(3, 3)) | bit(getPoint(3, 2));
+        FagBitboard trapped = new FagBitboard(geese, getPoint(0, 2), true);
+        Assertions.assertEquals(GameResult.GEESE_WIN, FagRules.getResult(trapped));
+        Assertions.assertEquals(FagRules.GEESE_TEAM, FagRules.getResult(trapped).getWinner());
+
+        FagBitboard taken = new FagBitboard(bit(getPoint(6, 3)), getPoint(3, 3), false);
+        Assertions.assertEquals(GameResult.FOX_WINS, FagRules.getResult(taken));
+        Assertions.assertTrue(FagRules.getMoves(taken).size() > 0);
+        Assertions.assertFalse(FagRules.isLegal(taken, FagRules.getMoves(taken).get(0)));
+    }
+}
@@ -0,0 +1,64 @@
+package model.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static model.rules.FagBitboard.bit;
+import static model.rules.FagBitboard.getPoint;
+
+class FagSymmetryTest {
+
+    @Test
+    void testMirror() {
+        Assertions.assertEquals(getPoint(2, 6), FagSymmetry.mirror(getPoint(2, 0)));
+        Assertions.assertEquals(getPoint(0, 4), FagSymmetry.mirror(getPoint(0, 2)));
+        Assertions.assertEquals(getPoint(5, 3), FagSymmetry.mirror(getPoint(5, 3)));
+        for (int p = 0; p < FagBitboard.POINTS; p++) {
+            Assertions.assertEquals(p, FagSymmetry.mirror(FagSymmetry.mirror(p)));
+            Assertions.assertEquals(bit(FagSymmetry.mirror(p)), FagSymmetry.mirror(bit(p)));
+        }
+        Assertions.assertEquals(FagBitboard.BOARD_MASK, FagSymmetry.mirror(FagBitboard.BOARD_MASK));
+        // The initial position is its own mirror
+        FagBitboard initial = FagBitboard.initial();
+        Assertions.assertEquals(initial, FagSymmetry.mirror(initial));
+        Assertions.assertSame(initial, FagSymmetry.getCanonical(initial));
+    }
+
+    @Test
+    void testMirroredGamesAreMirrored() {
+        Random random = new Random(5);
+        for (int game = 0; game < 50; game++) {
+            FagBitboard position = FagBitboard.initial();
+            for (int ply = 0; (ply < 60) && !FagRules.getResult(position).isOver(); ply++) {
+                FagBitboard mirror = FagSymmetry.mirror(position);
+                // The moves of the mirror are the mirrored moves
+                List<FagMove> moves = FagRules.getMoves(position);
+                Set<FagMove> mirroredMoves = new HashSet<>();
+                for (FagMove move : moves) {
+                    mirroredMoves.add(FagSymmetry.mirror(move));
+                }
+                Assertions.assertEquals(mirroredMoves, new HashSet<>(FagRules.getMoves(mirror)));
+                Assertions.assertEquals(FagRules.getResult(position), FagRules.getResult(mirror));
+                Assertions.assertEquals(mirror.getKey(), FagSymmetry.getMirrorKey(position.getGeese(), position.getFox(), position.isFoxToMove()));
+
+                // A position and its mirror have the same canonical form
+                FagBitboard canonical = FagSymmetry.getCanonical(position);
+                Assertions.assertEquals(canonical, FagSymmetry.getCanonical(mirror));
+                Assertions.assertFalse(FagSymmetry.isMirrored(canonical.getGeese(), canonical.getFox()));
+
+                // The key of the mirror follows the moves
+                FagMove move = moves.get(random.nextInt(moves.size()));
+                long change = position.isFoxToMove() ?
+                    FagSymmetry.getMirrorFoxMoveKey(move.getFrom(), move.getTo(), move.getTaken()) :
+                    FagSymmetry.getMirrorGooseMoveKey(move.getFrom(), move.getTo());
+                position = FagRules.play(position, move);
+                Assertions.assertEquals(FagSymmetry.mirror(position).getKey(), mirror.getKey() ^ change);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package model.rules;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static model.rules.FagTopology.NO_POINT;
+
+class FagTopologyTest {
+
+    @Test
+    void testNeighboursAreTheEdges() {
+        int nrEdges = 0;
+        for (int p = 0; p < FagTopology.POINTS; p++) {
+            Assertions.assertEquals(p, FagTopology.getPoint(FagTopology.getRow(p), FagTopology.getCol(p)));
+            for (int d = 0; d < FagTopology.NR_DIRECTIONS; d++) {
+                int neighbour = FagTopology.getNeighbour(p, d);
+                if (neighbour == NO_POINT) continue;
+                nrEdges++;
+                // The lines of the board go both ways
+                Assertions.assertEquals(p, FagTopology.getNeighbour(neighbour, (d + FagTopology.NR_DIRECTIONS / 2) % FagTopology.NR_DIRECTIONS));
+            }
+        }
+        Assertions.assertEquals(FagTopology.getNrEdges(), nrEdges);
+        Assertions.assertEquals(NO_POINT, FagTopology.getPoint(0, 0));
+        Assertions.assertEquals(NO_POINT, FagTopology.getPoint(-1, 3));
+    }
+
+    @Test
+    void testJumps() {
+        int center = FagTopology.getPoint(3, 3);
+        Assertions.assertEquals(FagTopology.getPoint(2, 3), FagTopology.getJumpOver(center, FagTopology.NORTH));
+        Assertions.assertEquals(FagTopology.getPoint(1, 3), FagTopology.getJumpTo(center, FagTopology.NORTH));
+        Assertions.assertEquals(FagTopology.getPoint(1, 5), NO_POINT);
+        // No diagonal line goes through [2,3]
+        int north = FagTopology.getPoint(2, 3);
+        Assertions.assertEquals(NO_POINT, FagTopology.getJumpTo(north, FagTopology.SOUTH_EAST));
+        // Nor out of the cross
+        int corner = FagTopology.getPoint(0, 2);
+        Assertions.assertEquals(NO_POINT, FagTopology.getJumpTo(corner, FagTopology.WEST));
+        Assertions.assertEquals(FagTopology.getPoint(2, 4), FagTopology.getJumpTo(corner, FagTopology.SOUTH_EAST));
+    }
+}